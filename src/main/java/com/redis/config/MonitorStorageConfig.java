@@ -0,0 +1,44 @@
+package com.redis.config;
+
+import com.redis.service.MonitorLegacyMigration;
+import com.redis.service.MonitorRecordStore;
+import com.redis.service.RedisMonitorPartitionStore;
+import com.redis.service.RedisMonitorSegmentStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * 原始监控记录存储配置
+ */
+@Slf4j
+@Configuration
+public class MonitorStorageConfig {
+
+    @Value("${app.redis.monitoring.storage:segment}")
+    private String storage;
+
+    /**
+     * 按配置选择原始记录存储，切换到段日志时导入分区存储中保留期内的记录，
+     * 旧版单表中的记录迁移到所选存储
+     */
+    @Bean
+    @Primary
+    public MonitorRecordStore monitorRecordStore(RedisMonitorPartitionStore partitionStore,
+                                                 RedisMonitorSegmentStore segmentStore,
+                                                 MonitorLegacyMigration legacyMigration) {
+        MonitorRecordStore store;
+        if ("partition".equalsIgnoreCase(storage)) {
+            log.info("原始监控记录使用按天分区存储");
+            store = partitionStore;
+        } else {
+            segmentStore.importFrom(partitionStore);
+            log.info("原始监控记录使用段日志存储");
+            store = segmentStore;
+        }
+        legacyMigration.migrate(store);
+        return store;
+    }
+}
@@ -2,18 +2,46 @@ package com.redis.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redis.entity.RedisAlertRule;
 import com.redis.entity.RedisConnection;
 import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.MetricSeries;
+import com.redis.monitor.MonitorMetric;
+import com.redis.monitor.RollupBucket;
+import com.redis.monitor.RollupTier;
+import com.redis.service.KeyWriteBatch;
+import com.redis.service.MonitorRecordStore;
+import com.redis.service.RedisAlertService;
+import com.redis.service.RedisClientListCollector;
+import com.redis.service.RedisCommandStatsCollector;
 import com.redis.service.RedisConnectionService;
+import com.redis.service.RedisFleetRegistry;
+import com.redis.service.RedisInfoService;
+import com.redis.service.RedisKeyspaceCollector;
+import com.redis.service.RedisMemoryStatsCollector;
+import com.redis.service.RedisMetricStore;
+import com.redis.service.RedisMonitorExportService;
+import com.redis.service.RedisMonitorHistoryService;
+import com.redis.service.RedisMonitorPartitionStore;
+import com.redis.service.RedisMonitorStreamService;
+import com.redis.service.RedisReplicationService;
+import com.redis.service.RedisRollupService;
+import com.redis.service.RedisMonitorCollector;
 import com.redis.service.RedisMonitorService;
+import com.redis.service.RedisMonitorWriteBuffer;
 import com.redis.service.RedisService;
+import com.redis.service.RedisSlowlogCollector;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -37,7 +65,61 @@ public class RedisController {
 
     @Autowired
     private RedisMonitorService redisMonitorService;
-    
+
+    @Autowired
+    private RedisMonitorCollector redisMonitorCollector;
+
+    @Autowired
+    private RedisMonitorWriteBuffer redisMonitorWriteBuffer;
+
+    @Autowired
+    private RedisMetricStore redisMetricStore;
+
+    @Autowired
+    private RedisRollupService redisRollupService;
+
+    @Autowired
+    private RedisMonitorHistoryService redisMonitorHistoryService;
+
+    @Autowired
+    private RedisMonitorExportService redisMonitorExportService;
+
+    @Autowired
+    private RedisMonitorStreamService redisMonitorStreamService;
+
+    @Autowired
+    private RedisInfoService redisInfoService;
+
+    @Autowired
+    private RedisSlowlogCollector redisSlowlogCollector;
+
+    @Autowired
+    private RedisCommandStatsCollector redisCommandStatsCollector;
+
+    @Autowired
+    private RedisClientListCollector redisClientListCollector;
+
+    @Autowired
+    private RedisAlertService redisAlertService;
+
+    @Autowired
+    private RedisKeyspaceCollector redisKeyspaceCollector;
+
+    @Autowired
+    private RedisMemoryStatsCollector redisMemoryStatsCollector;
+
+    @Autowired
+    private RedisReplicationService redisReplicationService;
+
+    @Autowired
+    private RedisFleetRegistry redisFleetRegistry;
+
+    @Autowired
+    private RedisMonitorPartitionStore redisMonitorPartitionStore;
+
+    @Autowired
+    private MonitorRecordStore monitorRecordStore;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -56,6 +138,10 @@ public class RedisController {
         // 获取监控统计
         Map<String, Object> monitorStats = redisMonitorService.getMonitorStatistics();
         model.addAttribute("monitorStats", monitorStats);
+        model.addAttribute("connectionHealth", redisFleetRegistry.getHealthByConnection());
+
+        // 键空间增长概览取自采集时的缓存
+        model.addAttribute("keyspaceSummary", redisKeyspaceCollector.getFleetSummary());
         
         return "index";
     }
@@ -109,6 +195,7 @@ public class RedisController {
             } else {
                 log.info("更新连接，ID: {}", connection.getId());
                 redisConnectionService.updateConnection(connection.getId(), connection);
+                redisInfoService.evict(connection.getId());
                 redirectAttributes.addFlashAttribute("message", "连接更新成功");
                 log.info("连接更新成功");
             }
@@ -131,6 +218,7 @@ public class RedisController {
         
         try {
             redisConnectionService.deleteConnection(id);
+            redisInfoService.evict(id);
             redirectAttributes.addFlashAttribute("message", "连接删除成功");
             log.info("连接删除成功");
         } catch (Exception e) {
@@ -287,7 +375,7 @@ public class RedisController {
             }
             
             // 获取Redis信息
-            Map<String, Object> redisInfo = redisService.getRedisInfo(connection);
+            Map<String, Object> redisInfo = redisInfoService.getInfo(connection);
             
             // 转换时间参数
             LocalDateTime start = null;
@@ -331,7 +419,7 @@ public class RedisController {
                 connection = redisConnectionService.getDefaultConnection();
             }
             
-            Map<String, Object> redisInfo = redisService.getRedisInfo(connection);
+            Map<String, Object> redisInfo = redisInfoService.getInfo(connection);
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
             result.put("data", redisInfo);
@@ -345,8 +433,701 @@ public class RedisController {
         }
     }
 
+    /**
+     * 订阅实时监控数据 (Server-Sent Events)
+     */
+    @GetMapping(value = "/api/monitor/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamMonitorData(@RequestParam Long connectionId) {
+        return redisMonitorStreamService.subscribe(connectionId);
+    }
+
+    /**
+     * 获取实时推送统计信息
+     */
+    @GetMapping("/api/monitor/stream/stats")
+    @ResponseBody
+    public Map<String, Object> getStreamStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisMonitorStreamService.getStatistics());
+        return result;
+    }
+
+    /**
+     * 所有连接的最新样本与健康状态，读取内存登记表
+     */
+    @GetMapping("/api/monitor/fleet")
+    @ResponseBody
+    public Map<String, Object> getFleet() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisFleetRegistry.getEntries());
+        result.put("summary", redisFleetRegistry.getSummary());
+        return result;
+    }
+
+    /**
+     * 获取连接配置快照统计
+     */
+    @GetMapping("/api/connections/cache")
+    @ResponseBody
+    public Map<String, Object> getConnectionCacheStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisConnectionService.getCacheStatistics());
+        return result;
+    }
+
+    /**
+     * 获取INFO调用合并与缓存统计
+     */
+    @GetMapping("/api/monitor/info-cache")
+    @ResponseBody
+    public Map<String, Object> getInfoCacheStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisInfoService.getStatistics());
+        return result;
+    }
+
+    /**
+     * 获取监控采集引擎状态
+     */
+    @GetMapping("/api/monitor/collector")
+    @ResponseBody
+    public Map<String, Object> getCollectorStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisMonitorCollector.getStatistics());
+        return result;
+    }
+
+    /**
+     * 获取监控记录写入缓冲状态
+     */
+    @GetMapping("/api/monitor/writer")
+    @ResponseBody
+    public Map<String, Object> getWriteBufferStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisMonitorWriteBuffer.getStatistics());
+        return result;
+    }
+
+    /**
+     * 获取内存热存储状态
+     */
+    @GetMapping("/api/monitor/store")
+    @ResponseBody
+    public Map<String, Object> getMetricStoreStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisMetricStore.getStatistics());
+        return result;
+    }
+
+    /**
+     * 获取按天分区存储状态
+     */
+    @GetMapping("/api/monitor/partitions")
+    @ResponseBody
+    public Map<String, Object> getPartitionStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisMonitorPartitionStore.getStatistics());
+        return result;
+    }
+
+    /**
+     * 获取当前原始记录存储状态
+     */
+    @GetMapping("/api/monitor/storage")
+    @ResponseBody
+    public Map<String, Object> getStorageStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", monitorRecordStore.getStatistics());
+        return result;
+    }
+
+    /**
+     * 从内存热存储查询指标序列
+     *
+     * 时间参数为毫秒时间戳，metrics为逗号分隔的指标名(RedisMonitorRecord属性名)，为空时返回全部指标
+     */
+    @GetMapping("/api/monitor/series")
+    @ResponseBody
+    public Map<String, Object> getMetricSeries(@RequestParam Long connectionId,
+                                               @RequestParam Long from,
+                                               @RequestParam Long to,
+                                               @RequestParam(required = false) String metrics) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            MonitorMetric[] selected = parseMetrics(metrics);
+            MetricSeries series = redisMetricStore.query(connectionId, from, to, selected);
+
+            Map<String, Object> values = new HashMap<>();
+            for (int i = 0; i < selected.length; i++) {
+                values.put(selected[i].getField(), nullable(series.getValues(i)));
+            }
+            Map<String, Object> data = new HashMap<>();
+            data.put("timestamps", series.getTimestamps());
+            data.put("series", values);
+
+            result.put("success", true);
+            result.put("data", data);
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 查询汇总序列，根据期望步长自动选择汇总层级
+     *
+     * 时间参数为毫秒时间戳，step为期望的点间隔(毫秒)
+     */
+    @GetMapping("/api/monitor/rollups")
+    @ResponseBody
+    public Map<String, Object> getRollupSeries(@RequestParam Long connectionId,
+                                               @RequestParam Long from,
+                                               @RequestParam Long to,
+                                               @RequestParam(defaultValue = "60000") Long step,
+                                               @RequestParam(required = false) String metrics) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            MonitorMetric[] selected = parseMetrics(metrics);
+            RollupTier tier = redisRollupService.selectTier(from, step);
+            Map<String, Object> data = new HashMap<>();
+            if (tier == null) {
+                // 分辨率要求高于最细汇总层级，直接返回原始样本
+                MetricSeries series = redisMetricStore.query(connectionId, from, to, selected);
+                Map<String, Object> values = new HashMap<>();
+                for (int i = 0; i < selected.length; i++) {
+                    values.put(selected[i].getField(), nullable(series.getValues(i)));
+                }
+                data.put("tier", "RAW");
+                data.put("timestamps", series.getTimestamps());
+                data.put("series", values);
+            } else {
+                List<RollupBucket> buckets = redisRollupService.queryBuckets(connectionId, tier, from, to);
+                long[] timestamps = new long[buckets.size()];
+                for (int n = 0; n < buckets.size(); n++) {
+                    timestamps[n] = buckets.get(n).getStartMillis();
+                }
+                Map<String, Object> values = new HashMap<>();
+                for (MonitorMetric metric : selected) {
+                    int index = metric.ordinal();
+                    double[] min = new double[buckets.size()];
+                    double[] max = new double[buckets.size()];
+                    double[] avg = new double[buckets.size()];
+                    double[] last = new double[buckets.size()];
+                    double[] delta = new double[buckets.size()];
+                    for (int n = 0; n < buckets.size(); n++) {
+                        RollupBucket bucket = buckets.get(n);
+                        min[n] = bucket.getMin(index);
+                        max[n] = bucket.getMax(index);
+                        avg[n] = bucket.getAvg(index);
+                        last[n] = bucket.getLast(index);
+                        delta[n] = bucket.getDelta(index);
+                    }
+                    Map<String, Object> stats = new HashMap<>();
+                    stats.put("min", nullable(min));
+                    stats.put("max", nullable(max));
+                    stats.put("avg", nullable(avg));
+                    stats.put("last", nullable(last));
+                    if (metric.getKind() == MonitorMetric.Kind.COUNTER) {
+                        stats.put("delta", nullable(delta));
+                    }
+                    values.put(metric.getField(), stats);
+                }
+                data.put("tier", tier.name());
+                data.put("bucketMillis", tier.getBucketMillis());
+                data.put("timestamps", timestamps);
+                data.put("series", values);
+            }
+            result.put("success", true);
+            result.put("data", data);
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 查询降采样后的监控历史
+     *
+     * 时间参数为毫秒时间戳，points为每个指标期望返回的点数，mode为 LTTB 或 MINMAX
+     */
+    @GetMapping("/api/monitor/history")
+    @ResponseBody
+    public Map<String, Object> getMonitorHistory(@RequestParam Long connectionId,
+                                                 @RequestParam Long from,
+                                                 @RequestParam Long to,
+                                                 @RequestParam(defaultValue = "300") int points,
+                                                 @RequestParam(required = false) String metrics,
+                                                 @RequestParam(defaultValue = "LTTB") String mode) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            MonitorMetric[] selected = parseMetrics(metrics);
+            RedisMonitorHistoryService.Mode downsampleMode = RedisMonitorHistoryService.Mode.valueOf(mode.toUpperCase());
+            result.put("success", true);
+            result.put("data", redisMonitorHistoryService.getHistory(connectionId, from, to, points, selected, downsampleMode));
+        } catch (Exception e) {
+            log.error("查询监控历史失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 流式导出监控历史
+     *
+     * 时间参数为毫秒时间戳，format为 CSV 或 NDJSON；参数错误时在设置附件响应头之前返回失败信息，
+     * 导出成功时内容已直接写入响应流，不再返回结果
+     */
+    @GetMapping("/api/monitor/export")
+    @ResponseBody
+    public Map<String, Object> exportMonitorHistory(@RequestParam Long connectionId,
+                                                    @RequestParam Long from,
+                                                    @RequestParam Long to,
+                                                    @RequestParam(defaultValue = "CSV") String format,
+                                                    HttpServletResponse response) throws IOException {
+        RedisMonitorExportService.Format exportFormat = null;
+        for (RedisMonitorExportService.Format candidate : RedisMonitorExportService.Format.values()) {
+            if (candidate.name().equalsIgnoreCase(format.trim())) {
+                exportFormat = candidate;
+            }
+        }
+        if (exportFormat == null || from > to) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", false);
+            result.put("message", exportFormat == null ? "不支持的导出格式: " + format : "开始时间不能晚于结束时间");
+            return result;
+        }
+        String fileName = "redis-monitor-" + connectionId + "-" + from + "-" + to
+                + (exportFormat == RedisMonitorExportService.Format.CSV ? ".csv" : ".ndjson");
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+        redisMonitorExportService.export(connectionId, RedisMetricStore.toLocalDateTime(from),
+                RedisMetricStore.toLocalDateTime(to), exportFormat, response.getOutputStream());
+        return null;
+    }
+
+    /**
+     * 获取导出统计信息
+     */
+    @GetMapping("/api/monitor/export/stats")
+    @ResponseBody
+    public Map<String, Object> getExportStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisMonitorExportService.getStatistics());
+        return result;
+    }
+
+    /**
+     * 查询慢查询日志
+     *
+     * 时间参数为毫秒时间戳，按执行时间倒序返回，command和minDurationMicros可选
+     */
+    @GetMapping("/api/monitor/slowlog")
+    @ResponseBody
+    public Map<String, Object> getSlowlog(@RequestParam Long connectionId,
+                                          @RequestParam Long from,
+                                          @RequestParam Long to,
+                                          @RequestParam(required = false) String command,
+                                          @RequestParam(required = false) Long minDurationMicros,
+                                          @RequestParam(defaultValue = "100") int limit) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisSlowlogCollector.findSlowlog(connectionId, RedisMetricStore.toLocalDateTime(from),
+                    RedisMetricStore.toLocalDateTime(to), command, minDurationMicros, Math.max(1, Math.min(limit, 1000))));
+        } catch (Exception e) {
+            log.error("查询慢查询日志失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 查询延迟事件历史
+     *
+     * 时间参数为毫秒时间戳，event为空时返回全部事件
+     */
+    @GetMapping("/api/monitor/latency")
+    @ResponseBody
+    public Map<String, Object> getLatencyEvents(@RequestParam Long connectionId,
+                                                @RequestParam Long from,
+                                                @RequestParam Long to,
+                                                @RequestParam(required = false) String event) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisSlowlogCollector.findLatencyEvents(connectionId, RedisMetricStore.toLocalDateTime(from),
+                    RedisMetricStore.toLocalDateTime(to), event));
+        } catch (Exception e) {
+            log.error("查询延迟事件失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 获取慢查询采集统计信息
+     */
+    @GetMapping("/api/monitor/slowlog/stats")
+    @ResponseBody
+    public Map<String, Object> getSlowlogStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisSlowlogCollector.getStatistics());
+        return result;
+    }
+
+    /**
+     * 查询时间窗口内CPU耗时最多的命令
+     *
+     * 时间参数为毫秒时间戳
+     */
+    @GetMapping("/api/monitor/commands/top")
+    @ResponseBody
+    public Map<String, Object> getTopCommands(@RequestParam Long connectionId,
+                                              @RequestParam Long from,
+                                              @RequestParam Long to,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisCommandStatsCollector.getTopCommands(connectionId, RedisMetricStore.toLocalDateTime(from),
+                    RedisMetricStore.toLocalDateTime(to), Math.max(1, limit)));
+        } catch (Exception e) {
+            log.error("查询命令统计失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 查询单个命令的增量序列
+     */
+    @GetMapping("/api/monitor/commands/series")
+    @ResponseBody
+    public Map<String, Object> getCommandSeries(@RequestParam Long connectionId,
+                                                @RequestParam String command,
+                                                @RequestParam Long from,
+                                                @RequestParam Long to) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisCommandStatsCollector.getCommandSeries(connectionId, command,
+                    RedisMetricStore.toLocalDateTime(from), RedisMetricStore.toLocalDateTime(to)));
+        } catch (Exception e) {
+            log.error("查询命令序列失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 查询客户端汇总快照
+     *
+     * 时间参数为毫秒时间戳
+     */
+    @GetMapping("/api/monitor/clients")
+    @ResponseBody
+    public Map<String, Object> getClientSnapshots(@RequestParam Long connectionId,
+                                                  @RequestParam Long from,
+                                                  @RequestParam Long to,
+                                                  @RequestParam(defaultValue = "100") int limit) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisClientListCollector.getSnapshots(connectionId, RedisMetricStore.toLocalDateTime(from),
+                    RedisMetricStore.toLocalDateTime(to), Math.max(1, Math.min(limit, 1000))));
+        } catch (Exception e) {
+            log.error("查询客户端快照失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 查询指定时刻之前最近的客户端快照，用于解释某条监控记录
+     */
+    @GetMapping("/api/monitor/clients/at")
+    @ResponseBody
+    public Map<String, Object> getClientSnapshotAt(@RequestParam Long connectionId,
+                                                   @RequestParam Long time) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisClientListCollector.getSnapshotAt(connectionId, RedisMetricStore.toLocalDateTime(time)));
+        } catch (Exception e) {
+            log.error("查询客户端快照失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 查询键空间统计序列
+     *
+     * 时间参数为毫秒时间戳，每个库只在数值变化时有记录
+     */
+    @GetMapping("/api/monitor/keyspace")
+    @ResponseBody
+    public Map<String, Object> getKeyspaceSeries(@RequestParam Long connectionId,
+                                                 @RequestParam Long from,
+                                                 @RequestParam Long to) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisKeyspaceCollector.getSeries(connectionId,
+                    RedisMetricStore.toLocalDateTime(from), RedisMetricStore.toLocalDateTime(to)));
+        } catch (Exception e) {
+            log.error("查询键空间统计失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 键空间增长概览，指定connectionId时只返回该连接
+     */
+    @GetMapping("/api/monitor/keyspace/summary")
+    @ResponseBody
+    public Map<String, Object> getKeyspaceSummary(@RequestParam(required = false) Long connectionId) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", connectionId != null
+                ? redisKeyspaceCollector.getSummary(connectionId)
+                : redisKeyspaceCollector.getFleetSummary());
+        return result;
+    }
+
+    /**
+     * 查询内存明细序列
+     *
+     * 时间参数为毫秒时间戳
+     */
+    @GetMapping("/api/monitor/memory")
+    @ResponseBody
+    public Map<String, Object> getMemoryStats(@RequestParam Long connectionId,
+                                              @RequestParam Long from,
+                                              @RequestParam Long to) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisMemoryStatsCollector.getMemorySeries(connectionId,
+                    RedisMetricStore.toLocalDateTime(from), RedisMetricStore.toLocalDateTime(to)));
+        } catch (Exception e) {
+            log.error("查询内存明细失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 最近一次 MEMORY DOCTOR 报告
+     */
+    @GetMapping("/api/monitor/memory/doctor")
+    @ResponseBody
+    public Map<String, Object> getMemoryDoctor(@RequestParam Long connectionId) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisMemoryStatsCollector.getLatestDoctorReport(connectionId));
+        } catch (Exception e) {
+            log.error("查询内存诊断报告失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 复制拓扑，由已登记连接最近一次采样的 INFO replication 关联得到
+     */
+    @GetMapping("/api/monitor/replication/topology")
+    @ResponseBody
+    public Map<String, Object> getReplicationTopology() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisReplicationService.getTopology());
+        return result;
+    }
+
+    /**
+     * 查询复制延迟序列
+     *
+     * connectionId为主节点连接，时间参数为毫秒时间戳，replica为从节点地址 ip:port，不传时返回全部从节点
+     */
+    @GetMapping("/api/monitor/replication/lag")
+    @ResponseBody
+    public Map<String, Object> getReplicationLag(@RequestParam Long connectionId,
+                                                 @RequestParam Long from,
+                                                 @RequestParam Long to,
+                                                 @RequestParam(required = false) String replica) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisReplicationService.getLagSeries(connectionId, replica,
+                    RedisMetricStore.toLocalDateTime(from), RedisMetricStore.toLocalDateTime(to)));
+        } catch (Exception e) {
+            log.error("查询复制延迟失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 获取告警规则
+     */
+    @GetMapping("/api/alerts/rules")
+    @ResponseBody
+    public Map<String, Object> getAlertRules() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisAlertService.getRules());
+        return result;
+    }
+
+    /**
+     * 新建或修改告警规则
+     */
+    @PostMapping("/api/alerts/rules")
+    @ResponseBody
+    public Map<String, Object> saveAlertRule(@RequestBody RedisAlertRule rule) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("message", "告警规则已保存");
+            result.put("data", redisAlertService.saveRule(rule));
+        } catch (Exception e) {
+            log.error("保存告警规则失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 删除告警规则
+     */
+    @DeleteMapping("/api/alerts/rules/{id}")
+    @ResponseBody
+    public Map<String, Object> deleteAlertRule(@PathVariable Long id) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            redisAlertService.deleteRule(id);
+            result.put("success", true);
+            result.put("message", "告警规则已删除");
+        } catch (Exception e) {
+            log.error("删除告警规则失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 获取当前处于告警状态的规则
+     */
+    @GetMapping("/api/alerts/active")
+    @ResponseBody
+    public Map<String, Object> getActiveAlerts() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisAlertService.getActiveAlerts());
+        return result;
+    }
+
+    /**
+     * 查询告警事件
+     *
+     * 时间参数为毫秒时间戳，connectionId为空时查询所有连接
+     */
+    @GetMapping("/api/alerts/events")
+    @ResponseBody
+    public Map<String, Object> getAlertEvents(@RequestParam(required = false) Long connectionId,
+                                              @RequestParam Long from,
+                                              @RequestParam Long to,
+                                              @RequestParam(defaultValue = "100") int limit) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("data", redisAlertService.getEvents(connectionId, RedisMetricStore.toLocalDateTime(from),
+                    RedisMetricStore.toLocalDateTime(to), Math.max(1, Math.min(limit, 1000))));
+        } catch (Exception e) {
+            log.error("查询告警事件失败", e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 获取告警引擎统计信息
+     */
+    @GetMapping("/api/alerts/stats")
+    @ResponseBody
+    public Map<String, Object> getAlertStatistics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", redisAlertService.getStatistics());
+        return result;
+    }
+
+    /**
+     * 解析逗号分隔的指标名
+     */
+    private MonitorMetric[] parseMetrics(String metrics) {
+        if (metrics == null || metrics.trim().isEmpty()) {
+            return MonitorMetric.values();
+        }
+        List<MonitorMetric> selected = new ArrayList<>();
+        for (String name : metrics.split(",")) {
+            MonitorMetric metric = MonitorMetric.fromField(name.trim());
+            if (metric == null) {
+                throw new IllegalArgumentException("未知指标: " + name.trim());
+            }
+            selected.add(metric);
+        }
+        return selected.toArray(new MonitorMetric[0]);
+    }
+
+    /**
+     * 缺失的点(NaN)转为null，JSON中输出为 null
+     */
+    private Double[] nullable(double[] values) {
+        Double[] result = new Double[values.length];
+        for (int n = 0; n < values.length; n++) {
+            result[n] = Double.isNaN(values[n]) ? null : values[n];
+        }
+        return result;
+    }
+
     /**
      * 设置键值
+     *
+     * 支持 STRING/HASH/LIST/SET/ZSET/STREAM，值的格式见 {@link KeyWriteBatch}；
+     * replace 为 true 时先删除原有内容，atomic 为 true 时整批写入包在 MULTI/EXEC 中
      */
     @PostMapping("/api/keys")
     @ResponseBody
@@ -354,14 +1135,16 @@ public class RedisController {
                                      @RequestParam String key,
                                      @RequestParam String keyType,
                                      @RequestParam String value,
-                                     @RequestParam(required = false) Long ttl) {
+                                     @RequestParam(required = false) Long ttl,
+                                     @RequestParam(defaultValue = "false") boolean replace,
+                                     @RequestParam(defaultValue = "false") boolean atomic) {
         try {
             log.info("=== 设置键值开始 ===");
             log.info("连接ID: {}", connectionId);
             log.info("键名: {}", key);
             log.info("键类型: {}", keyType);
-            log.info("键值: {}", value);
-            log.info("TTL: {}", ttl);
+            log.info("键值长度: {}", value.length());
+            log.info("TTL: {}, 替换: {}, 原子: {}", ttl, replace, atomic);
             
             RedisConnection connection = redisConnectionService.getConnectionById(connectionId);
             log.info("获取到连接: {}", connection != null ? connection.getName() : "null");
@@ -374,17 +1157,24 @@ public class RedisController {
                 return result;
             }
             
-            // 目前只支持String类型，其他类型暂时用String存储
-            log.info("开始设置键值到Redis...");
-            redisService.setValue(connection, key, value, ttl);
+            KeyWriteBatch batch = KeyWriteBatch.parse(keyType, value, objectMapper);
+            log.info("开始设置键值到Redis，{} 个元素...", batch.size());
+            Map<String, Object> written = redisService.writeKey(connection, key, batch, ttl, replace, atomic);
             log.info("键值设置成功");
             
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
+            result.put("data", written);
             result.put("message", "键值设置成功");
             log.info("=== 设置键值完成 ===");
             return result;
             
+        } catch (IllegalArgumentException e) {
+            log.warn("键值格式错误: {}", e.getMessage());
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", false);
+            result.put("message", e.getMessage());
+            return result;
         } catch (Exception e) {
             log.error("设置键值失败", e);
             Map<String, Object> result = new HashMap<>();
@@ -445,7 +1235,7 @@ public class RedisController {
                                               @RequestParam String keys) {
         log.info("=== 批量删除键开始 ===");
         log.info("连接ID: {}", connectionId);
-        log.info("键列表: {}", keys);
+        log.info("键列表长度: {}", keys.length());
         
         Map<String, Object> result = new HashMap<>();
         
@@ -473,13 +1263,14 @@ public class RedisController {
             
             log.info("开始批量删除 {} 个键...", keyList.size());
             
-            int deletedCount = redisService.batchDeleteKeys(connection, keyList);
-            log.info("批量删除完成，成功删除 {} 个键", deletedCount);
+            Map<String, Object> deleted = redisService.batchDeleteKeys(connection, keyList);
+            log.info("批量删除完成，成功删除 {} 个键", deleted.get("deletedCount"));
             
             result.put("success", true);
             result.put("message", "批量删除完成");
-            result.put("deletedCount", deletedCount);
+            result.put("deletedCount", deleted.get("deletedCount"));
             result.put("totalCount", keyList.size());
+            result.put("data", deleted);
             
             log.info("=== 批量删除键完成 ===");
             
@@ -583,7 +1374,7 @@ public class RedisController {
                 connection = redisConnectionService.getDefaultConnection();
             }
             
-            Map<String, Object> redisInfo = redisService.getRedisInfo(connection);
+            Map<String, Object> redisInfo = redisInfoService.getInfo(connection);
             
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
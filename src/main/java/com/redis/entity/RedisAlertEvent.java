@@ -0,0 +1,69 @@
+package com.redis.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 告警事件实体，规则每次触发或恢复记录一条
+ */
+@Entity
+@Table(name = "redis_alert_events", indexes = {
+        @Index(name = "idx_alert_event_conn_time", columnList = "connection_id, event_time"),
+        @Index(name = "idx_alert_event_time", columnList = "event_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedisAlertEvent {
+
+    /** 告警触发 */
+    public static final String FIRED = "FIRED";
+
+    /** 告警恢复 */
+    public static final String RESOLVED = "RESOLVED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rule_id", nullable = false)
+    private Long ruleId;
+
+    @Column(name = "rule_name", length = 128)
+    private String ruleName;
+
+    @Column(name = "connection_id", nullable = false)
+    private Long connectionId;
+
+    @Column(name = "connection_name")
+    private String connectionName;
+
+    @Column(name = "event_time", nullable = false)
+    private LocalDateTime eventTime;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(length = 16)
+    private String severity;
+
+    @Column(length = 64)
+    private String metric;
+
+    /** 触发时参与比较的值 */
+    @Column(name = "signal_value")
+    private Double signalValue;
+
+    /** 触发时的指标原始值 */
+    @Column(name = "metric_value")
+    private Double metricValue;
+
+    @Column(length = 512)
+    private String message;
+}
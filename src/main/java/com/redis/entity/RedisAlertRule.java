@@ -0,0 +1,90 @@
+package com.redis.entity;
+
+import com.redis.monitor.AlertOperator;
+import com.redis.monitor.AlertType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 告警规则实体
+ *
+ * connectionId为空时规则作用于所有连接
+ */
+@Entity
+@Table(name = "redis_alert_rules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedisAlertRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 128)
+    private String name;
+
+    @Column(name = "connection_id")
+    private Long connectionId;
+
+    /** MonitorMetric的属性名，如 usedMemory */
+    @Column(nullable = false, length = 64)
+    private String metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AlertType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private AlertOperator operator;
+
+    @Column(nullable = false)
+    private Double threshold;
+
+    /** 恢复阈值，为空时与threshold相同 */
+    @Column(name = "clear_threshold")
+    private Double clearThreshold;
+
+    /** 连续多少个样本越过阈值才触发，恢复同样需要连续多少个样本 */
+    @Column(name = "for_samples")
+    private Integer forSamples;
+
+    /** z-score规则的EWMA平滑系数 */
+    @Column
+    private Double alpha;
+
+    /** z-score规则开始评估前的样本数 */
+    @Column(name = "warmup_samples")
+    private Integer warmupSamples;
+
+    /** 告警级别: INFO / WARNING / CRITICAL */
+    @Column(length = 16)
+    private String severity;
+
+    @Column
+    private Boolean enabled;
+
+    @Column(name = "created_time")
+    private LocalDateTime createdTime;
+
+    @Column(name = "updated_time")
+    private LocalDateTime updatedTime;
+
+    @PrePersist
+    protected void onCreate() {
+        createdTime = LocalDateTime.now();
+        updatedTime = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedTime = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,95 @@
+package com.redis.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Redis客户端汇总快照实体，由一次 CLIENT LIST 聚合而来，不保存单个客户端的原始行
+ *
+ * recordTime与同一次采样的监控记录相同，可直接与监控记录按时间关联
+ */
+@Entity
+@Table(name = "redis_client_snapshots", indexes = {
+        @Index(name = "idx_client_snapshot_conn_time", columnList = "connection_id, record_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedisClientSnapshot {
+
+    /** 每次从序列预取的ID数，与JDBC批大小一致 */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "redis_client_snapshot_seq")
+    @SequenceGenerator(name = "redis_client_snapshot_seq", sequenceName = "redis_client_snapshot_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "connection_id", nullable = false)
+    private Long connectionId;
+
+    @Column(name = "record_time", nullable = false)
+    private LocalDateTime recordTime;
+
+    @Column(name = "total_clients")
+    private Long totalClients;
+
+    @Column(name = "total_omem")
+    private Long totalOmem;
+
+    @Column(name = "total_qbuf")
+    private Long totalQbuf;
+
+    @Column(name = "total_memory")
+    private Long totalMemory;
+
+    @Column(name = "max_idle")
+    private Long maxIdle;
+
+    @Column(name = "pubsub_clients")
+    private Long pubsubClients;
+
+    @Column(name = "blocked_clients")
+    private Long blockedClients;
+
+    @Column(name = "replica_clients")
+    private Long replicaClients;
+
+    @Column(name = "monitor_clients")
+    private Long monitorClients;
+
+    /** 同一时刻INFO中的rejected_connections累计值 */
+    @Column(name = "rejected_connections")
+    private Long rejectedConnections;
+
+    /** 空闲时间分布: <1s, <10s, <1m, <10m, <1h, >=1h，逗号分隔 */
+    @Column(name = "idle_distribution", length = 128)
+    private String idleDistribution;
+
+    /** 以下为前N组的JSON数组 */
+    @Lob
+    @Column(name = "top_hosts")
+    private String topHosts;
+
+    @Lob
+    @Column(name = "top_names")
+    private String topNames;
+
+    @Lob
+    @Column(name = "top_commands")
+    private String topCommands;
+
+    @Lob
+    @Column(name = "top_flags")
+    private String topFlags;
+
+    @Lob
+    @Column(name = "top_offenders")
+    private String topOffenders;
+}
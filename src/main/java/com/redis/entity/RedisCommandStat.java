@@ -0,0 +1,63 @@
+package com.redis.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Redis命令统计增量实体，对应 INFO commandstats 中一个命令在一个采样区间内的变化量
+ *
+ * 只保存区间内有调用的命令，未变化的命令不写入
+ */
+@Entity
+@Table(name = "redis_command_stats", indexes = {
+        @Index(name = "idx_command_stats_conn_time", columnList = "connection_id, record_time"),
+        @Index(name = "idx_command_stats_conn_cmd_time", columnList = "connection_id, command, record_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedisCommandStat {
+
+    /** 每次从序列预取的ID数，与JDBC批大小一致 */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "redis_command_stat_seq")
+    @SequenceGenerator(name = "redis_command_stat_seq", sequenceName = "redis_command_stat_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "connection_id", nullable = false)
+    private Long connectionId;
+
+    @Column(name = "record_time", nullable = false)
+    private LocalDateTime recordTime;
+
+    @Column(name = "command", nullable = false, length = 64)
+    private String command;
+
+    @Column(name = "calls", nullable = false)
+    private Long calls;
+
+    @Column(name = "usec", nullable = false)
+    private Long usec;
+
+    @Column(name = "rejected_calls", nullable = false)
+    private Long rejectedCalls;
+
+    @Column(name = "failed_calls", nullable = false)
+    private Long failedCalls;
+
+    /**
+     * 区间内平均每次调用耗时(微秒)
+     */
+    @Transient
+    public Double getUsecPerCall() {
+        return calls != null && calls > 0 ? (double) usec / calls : null;
+    }
+}
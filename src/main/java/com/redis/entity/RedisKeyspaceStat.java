@@ -0,0 +1,53 @@
+package com.redis.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Redis逻辑库键空间统计实体，对应 INFO keyspace 中的一行
+ *
+ * 数值未变化的库不重复写入，只在超过最长间隔时补写一行，查询时按阶梯序列理解
+ */
+@Entity
+@Table(name = "redis_keyspace_stats", indexes = {
+        @Index(name = "idx_keyspace_conn_time", columnList = "connection_id, record_time"),
+        @Index(name = "idx_keyspace_conn_db_time", columnList = "connection_id, db, record_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedisKeyspaceStat {
+
+    /** 每次从序列预取的ID数，与JDBC批大小一致 */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "redis_keyspace_stat_seq")
+    @SequenceGenerator(name = "redis_keyspace_stat_seq", sequenceName = "redis_keyspace_stat_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "connection_id", nullable = false)
+    private Long connectionId;
+
+    @Column(name = "record_time", nullable = false)
+    private LocalDateTime recordTime;
+
+    @Column(name = "db", nullable = false)
+    private Integer db;
+
+    @Column(name = "keys_count", nullable = false)
+    private Long keys;
+
+    @Column(name = "expires", nullable = false)
+    private Long expires;
+
+    /** 带过期时间的键的平均剩余TTL(毫秒)，Redis按采样估算 */
+    @Column(name = "avg_ttl")
+    private Long avgTtl;
+}
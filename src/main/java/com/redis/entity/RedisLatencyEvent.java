@@ -0,0 +1,44 @@
+package com.redis.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Redis延迟监控事件实体，对应 LATENCY HISTORY 中的一个采样点
+ */
+@Entity
+@Table(name = "redis_latency_events", indexes = {
+        @Index(name = "idx_latency_conn_time", columnList = "connection_id, occurred_at"),
+        @Index(name = "idx_latency_conn_event_time", columnList = "connection_id, event_name, occurred_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedisLatencyEvent {
+
+    /** 每次从序列预取的ID数，与JDBC批大小一致 */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "redis_latency_event_seq")
+    @SequenceGenerator(name = "redis_latency_event_seq", sequenceName = "redis_latency_event_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "connection_id", nullable = false)
+    private Long connectionId;
+
+    @Column(name = "event_name", nullable = false, length = 64)
+    private String eventName;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "latency_millis", nullable = false)
+    private Long latencyMillis;
+}
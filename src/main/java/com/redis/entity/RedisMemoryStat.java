@@ -0,0 +1,136 @@
+package com.redis.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Redis内存明细实体，对应一次 MEMORY STATS
+ *
+ * recordTime与同一次监控样本一致；RSS和碎片整理计数从该样本复制过来，
+ * 便于直接对照碎片整理与RSS的变化。doctorReport只在诊断周期内的那一行有值。
+ */
+@Entity
+@Table(name = "redis_memory_stats", indexes = {
+        @Index(name = "idx_memory_conn_time", columnList = "connection_id, record_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedisMemoryStat {
+
+    /** 每次从序列预取的ID数，与JDBC批大小一致 */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "redis_memory_stat_seq")
+    @SequenceGenerator(name = "redis_memory_stat_seq", sequenceName = "redis_memory_stat_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "connection_id", nullable = false)
+    private Long connectionId;
+
+    @Column(name = "record_time", nullable = false)
+    private LocalDateTime recordTime;
+
+    // 开销构成
+    @Column(name = "peak_allocated")
+    private Long peakAllocated;
+
+    @Column(name = "total_allocated")
+    private Long totalAllocated;
+
+    @Column(name = "startup_allocated")
+    private Long startupAllocated;
+
+    @Column(name = "replication_backlog")
+    private Long replicationBacklog;
+
+    @Column(name = "clients_replicas")
+    private Long clientsReplicas;
+
+    @Column(name = "clients_normal")
+    private Long clientsNormal;
+
+    @Column(name = "aof_buffer")
+    private Long aofBuffer;
+
+    /** 所有逻辑库哈希表(主表与过期表)的开销之和 */
+    @Column(name = "db_overhead")
+    private Long dbOverhead;
+
+    @Column(name = "overhead_total")
+    private Long overheadTotal;
+
+    // 数据集
+    @Column(name = "keys_count")
+    private Long keysCount;
+
+    @Column(name = "dataset_bytes")
+    private Long datasetBytes;
+
+    @Column(name = "dataset_percentage")
+    private Double datasetPercentage;
+
+    // 分配器
+    @Column(name = "allocator_allocated")
+    private Long allocatorAllocated;
+
+    @Column(name = "allocator_active")
+    private Long allocatorActive;
+
+    @Column(name = "allocator_resident")
+    private Long allocatorResident;
+
+    @Column(name = "allocator_frag_ratio")
+    private Double allocatorFragRatio;
+
+    @Column(name = "allocator_frag_bytes")
+    private Long allocatorFragBytes;
+
+    @Column(name = "allocator_rss_ratio")
+    private Double allocatorRssRatio;
+
+    @Column(name = "allocator_rss_bytes")
+    private Long allocatorRssBytes;
+
+    @Column(name = "rss_overhead_ratio")
+    private Double rssOverheadRatio;
+
+    @Column(name = "rss_overhead_bytes")
+    private Long rssOverheadBytes;
+
+    @Column(name = "fragmentation")
+    private Double fragmentation;
+
+    @Column(name = "fragmentation_bytes")
+    private Long fragmentationBytes;
+
+    // 来自同一次监控样本
+    @Column(name = "used_memory_rss")
+    private Long usedMemoryRss;
+
+    @Column(name = "active_defrag_running")
+    private Long activeDefragRunning;
+
+    @Column(name = "active_defrag_hits")
+    private Long activeDefragHits;
+
+    @Column(name = "active_defrag_misses")
+    private Long activeDefragMisses;
+
+    @Column(name = "active_defrag_key_hits")
+    private Long activeDefragKeyHits;
+
+    @Column(name = "active_defrag_key_misses")
+    private Long activeDefragKeyMisses;
+
+    @Lob
+    @Column(name = "doctor_report")
+    private String doctorReport;
+}
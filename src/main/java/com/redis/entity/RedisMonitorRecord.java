@@ -10,6 +10,9 @@ import java.time.LocalDateTime;
 
 /**
  * Redis监控记录实体
+ *
+ * 新数据写入按天分区的表，这里映射的旧表只在启动迁移时读取，
+ * 其余地方把它当作一次采样的普通数据对象使用。
  */
 @Entity
 @Table(name = "redis_monitor_records")
@@ -170,11 +173,61 @@ public class RedisMonitorRecord {
     @Column(name = "lazyfreed_objects")
     private Long lazyfreedObjects;
 
+    // 以下派生指标和复制状态只存在于分区表中，旧表没有对应的列
+
+    // 派生指标: 由相邻两次采样的计数器差值计算，首个样本为空
+
+    @Transient
+    private Double commandsPerSec;
+
+    @Transient
+    private Double keyspaceHitsPerSec;
+
+    @Transient
+    private Double keyspaceMissesPerSec;
+
+    @Transient
+    private Double keyspaceHitRatio;
+
+    @Transient
+    private Double expiredKeysPerSec;
+
+    @Transient
+    private Double evictedKeysPerSec;
+
+    @Transient
+    private Double netInputBytesPerSec;
+
+    @Transient
+    private Double netOutputBytesPerSec;
+
+    // 复制状态: 主节点的延迟取所有从节点中的最大值
+
+    @Transient
+    private Long connectedSlaves;
+
+    @Transient
+    private Long masterReplOffset;
+
+    /** 从节点落后主节点的最大字节数 */
+    @Transient
+    private Long replicaOffsetLag;
+
+    /** 主节点: 从节点最大ACK延迟；从节点: 距上次收到主节点数据的秒数 */
+    @Transient
+    private Long replicaLagSeconds;
+
+    /** 从节点与主节点断开的秒数，连接正常时为0 */
+    @Transient
+    private Long masterLinkDownSeconds;
+
     @Column(name = "record_time")
     private LocalDateTime recordTime;
 
     @PrePersist
     protected void onCreate() {
-        recordTime = LocalDateTime.now();
+        if (recordTime == null) {
+            recordTime = LocalDateTime.now();
+        }
     }
 } 
\ No newline at end of file
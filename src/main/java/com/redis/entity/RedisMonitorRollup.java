@@ -0,0 +1,53 @@
+package com.redis.entity;
+
+import com.redis.monitor.RollupTier;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Redis监控汇总记录实体
+ *
+ * 每行对应一个连接在某一汇总层级下的一个时间桶，各指标的汇总值压缩存放在stats中
+ */
+@Entity
+@Table(name = "redis_monitor_rollups", indexes = {
+        @Index(name = "idx_rollup_conn_tier_time", columnList = "connection_id, tier, bucket_time"),
+        @Index(name = "idx_rollup_tier_time", columnList = "tier, bucket_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedisMonitorRollup {
+
+    /** 每次从序列预取的ID数，与JDBC批大小一致，批量写入时无需逐条取回自增主键 */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "redis_monitor_rollup_seq")
+    @SequenceGenerator(name = "redis_monitor_rollup_seq", sequenceName = "redis_monitor_rollup_seq",
+            allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "connection_id", nullable = false)
+    private Long connectionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tier", nullable = false, length = 16)
+    private RollupTier tier;
+
+    @Column(name = "bucket_time", nullable = false)
+    private LocalDateTime bucketTime;
+
+    @Column(name = "sample_count")
+    private Integer sampleCount;
+
+    @Lob
+    @Column(name = "stats")
+    private byte[] stats;
+}
@@ -0,0 +1,64 @@
+package com.redis.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 复制延迟实体，主节点视角下一个从节点在某次采样时的延迟
+ *
+ * 从节点持续无延迟时只按最长间隔写入，出现延迟后每次采样都写入
+ */
+@Entity
+@Table(name = "redis_replication_lag", indexes = {
+        @Index(name = "idx_repl_lag_conn_time", columnList = "connection_id, record_time"),
+        @Index(name = "idx_repl_lag_replica_time", columnList = "connection_id, replica_address, record_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedisReplicationLag {
+
+    /** 每次从序列预取的ID数，与JDBC批大小一致 */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "redis_replication_lag_seq")
+    @SequenceGenerator(name = "redis_replication_lag_seq", sequenceName = "redis_replication_lag_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    /** 主节点连接ID */
+    @Column(name = "connection_id", nullable = false)
+    private Long connectionId;
+
+    /** 主节点上报的从节点地址 ip:port */
+    @Column(name = "replica_address", nullable = false, length = 100)
+    private String replicaAddress;
+
+    /** 从节点也已登记为连接时的连接ID */
+    @Column(name = "replica_connection_id")
+    private Long replicaConnectionId;
+
+    @Column(name = "record_time", nullable = false)
+    private LocalDateTime recordTime;
+
+    @Column(name = "state", length = 30)
+    private String state;
+
+    /** 落后主节点的字节数 */
+    @Column(name = "offset_lag")
+    private Long offsetLag;
+
+    /** 距上次ACK的秒数 */
+    @Column(name = "lag_seconds")
+    private Long lagSeconds;
+
+    /** 按主节点复制流速度估算的时间延迟(毫秒) */
+    @Column(name = "time_lag_millis")
+    private Long timeLagMillis;
+}
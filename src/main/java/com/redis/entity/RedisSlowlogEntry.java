@@ -0,0 +1,63 @@
+package com.redis.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Redis慢查询日志条目实体
+ *
+ * entryId为Redis分配的慢日志ID，实例重启后会从0重新开始，因此不做唯一约束
+ */
+@Entity
+@Table(name = "redis_slowlog_entries", indexes = {
+        @Index(name = "idx_slowlog_conn_time", columnList = "connection_id, executed_at"),
+        @Index(name = "idx_slowlog_conn_cmd_time", columnList = "connection_id, command, executed_at"),
+        @Index(name = "idx_slowlog_conn_duration", columnList = "connection_id, duration_micros"),
+        @Index(name = "idx_slowlog_conn_entry", columnList = "connection_id, entry_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RedisSlowlogEntry {
+
+    /** 参数最多保存的字符数 */
+    public static final int MAX_ARGUMENTS_LENGTH = 512;
+
+    /** 每次从序列预取的ID数，与JDBC批大小一致 */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "redis_slowlog_entry_seq")
+    @SequenceGenerator(name = "redis_slowlog_entry_seq", sequenceName = "redis_slowlog_entry_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "connection_id", nullable = false)
+    private Long connectionId;
+
+    @Column(name = "entry_id", nullable = false)
+    private Long entryId;
+
+    @Column(name = "executed_at", nullable = false)
+    private LocalDateTime executedAt;
+
+    @Column(name = "duration_micros", nullable = false)
+    private Long durationMicros;
+
+    @Column(name = "command", length = 64)
+    private String command;
+
+    @Column(name = "arguments", length = MAX_ARGUMENTS_LENGTH)
+    private String arguments;
+
+    @Column(name = "client_address", length = 64)
+    private String clientAddress;
+
+    @Column(name = "client_name", length = 128)
+    private String clientName;
+}
@@ -0,0 +1,144 @@
+package com.redis.monitor;
+
+import com.redis.entity.RedisMonitorRecord;
+
+/**
+ * 单个连接的自适应采样间隔
+ *
+ * 每个样本结束后根据关键指标的相对变化调整下一次的间隔:
+ * 有告警、拒绝连接或键驱逐速率超过阈值时直接降到最小间隔，变化剧烈时减半，
+ * 实例空闲或采样失败时加倍，其余情况逐步回到基准间隔。
+ */
+public class AdaptiveInterval {
+
+    /** 参与变化幅度计算的瞬时指标 */
+    private static final MonitorMetric[] WATCHED = {
+            MonitorMetric.USED_MEMORY,
+            MonitorMetric.INSTANTANEOUS_OPS_PER_SEC,
+            MonitorMetric.INSTANTANEOUS_INPUT_KBPS,
+            MonitorMetric.INSTANTANEOUS_OUTPUT_KBPS,
+            MonitorMetric.MEM_FRAGMENTATION_RATIO
+    };
+
+    /** 计算相对变化时的分母下限，避免接近0的指标小幅波动被放大 */
+    private static final double[] FLOORS = {1024.0 * 1024, 100.0, 100.0, 100.0, 1.0};
+
+    /** 任何增长都说明实例处于压力之下的计数器 */
+    private static final MonitorMetric[] PRESSURE_COUNTERS = {
+            MonitorMetric.REJECTED_CONNECTIONS
+    };
+
+    private final long baseMillis;
+
+    private final long minMillis;
+
+    private final long maxMillis;
+
+    private final double fastChange;
+
+    private final double idleOps;
+
+    /** 键驱逐速率(每秒)达到此值视为压力，设置了淘汰策略的缓存持续少量驱逐属于正常情况 */
+    private final double evictionRate;
+
+    private final double[] previous = new double[WATCHED.length];
+
+    private final double[] previousCounters = new double[PRESSURE_COUNTERS.length];
+
+    private boolean hasPrevious;
+
+    private long intervalMillis;
+
+    private String reason = "初始";
+
+    public AdaptiveInterval(long baseMillis, long minMillis, long maxMillis, double fastChange, double idleOps,
+                            double evictionRate) {
+        this.minMillis = Math.max(1L, minMillis);
+        this.maxMillis = Math.max(this.minMillis, maxMillis);
+        this.baseMillis = Math.min(this.maxMillis, Math.max(this.minMillis, baseMillis));
+        this.fastChange = fastChange;
+        this.idleOps = idleOps;
+        this.evictionRate = evictionRate;
+        this.intervalMillis = this.baseMillis;
+    }
+
+    /**
+     * 根据成功的样本调整间隔，返回新的间隔
+     */
+    public synchronized long onSample(RedisMonitorRecord record, boolean alerting) {
+        double change = 0.0;
+        boolean pressure = false;
+        boolean evicting = evictionRate > 0 && MonitorMetric.EVICTED_KEYS_PER_SEC.read(record) >= evictionRate;
+        if (hasPrevious) {
+            for (int i = 0; i < WATCHED.length; i++) {
+                double current = WATCHED[i].read(record);
+                change = Math.max(change, Math.abs(current - previous[i]) / Math.max(Math.abs(previous[i]), FLOORS[i]));
+            }
+            for (int i = 0; i < PRESSURE_COUNTERS.length; i++) {
+                if (PRESSURE_COUNTERS[i].read(record) > previousCounters[i]) {
+                    pressure = true;
+                }
+            }
+        }
+        for (int i = 0; i < WATCHED.length; i++) {
+            previous[i] = WATCHED[i].read(record);
+        }
+        for (int i = 0; i < PRESSURE_COUNTERS.length; i++) {
+            previousCounters[i] = PRESSURE_COUNTERS[i].read(record);
+        }
+        boolean firstSample = !hasPrevious;
+        hasPrevious = true;
+
+        if (alerting) {
+            return set(minMillis, "告警中");
+        }
+        if (pressure) {
+            return set(minMillis, "拒绝连接");
+        }
+        if (evicting) {
+            return set(minMillis, "键驱逐速率过高");
+        }
+        if (firstSample) {
+            return set(intervalMillis, reason);
+        }
+        if (change >= fastChange) {
+            return set(intervalMillis / 2, "指标快速变化");
+        }
+        if (MonitorMetric.INSTANTANEOUS_OPS_PER_SEC.read(record) < idleOps && change < fastChange / 10) {
+            return set(intervalMillis * 2, "实例空闲");
+        }
+        // 平稳时逐步回到基准间隔
+        if (intervalMillis < baseMillis) {
+            return set(Math.min(baseMillis, intervalMillis * 3 / 2), "平稳");
+        }
+        if (intervalMillis > baseMillis) {
+            return set(Math.max(baseMillis, intervalMillis * 2 / 3), "平稳");
+        }
+        return set(baseMillis, "平稳");
+    }
+
+    /**
+     * 采样失败时退避，实例不可达期间不再频繁重试
+     */
+    public synchronized long onFailure() {
+        hasPrevious = false;
+        return set(Math.max(baseMillis, intervalMillis) * 2, "采样失败");
+    }
+
+    private long set(long millis, String reason) {
+        intervalMillis = Math.min(maxMillis, Math.max(minMillis, millis));
+        this.reason = reason;
+        return intervalMillis;
+    }
+
+    public synchronized long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * 最近一次调整的原因
+     */
+    public synchronized String getReason() {
+        return reason;
+    }
+}
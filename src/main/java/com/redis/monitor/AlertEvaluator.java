@@ -0,0 +1,126 @@
+package com.redis.monitor;
+
+/**
+ * 编译后的告警规则
+ *
+ * 不可变，可被所有连接共享；每个样本只做常数次浮点运算，不分配对象。
+ * 连续 forSamples 个样本越过 threshold 才触发，触发后连续 forSamples 个样本
+ * 未越过 clearThreshold 才恢复，两个阈值之间的区间用于防止告警抖动。
+ */
+public class AlertEvaluator {
+
+    /**
+     * 一次评估导致的状态变化
+     */
+    public enum Transition {
+        NONE,
+        FIRED,
+        RESOLVED
+    }
+
+    private final long ruleId;
+
+    private final MonitorMetric metric;
+
+    private final AlertType type;
+
+    private final AlertOperator operator;
+
+    private final double threshold;
+
+    private final double clearThreshold;
+
+    private final int forSamples;
+
+    private final double alpha;
+
+    private final int warmupSamples;
+
+    public AlertEvaluator(long ruleId, MonitorMetric metric, AlertType type, AlertOperator operator,
+                          double threshold, double clearThreshold, int forSamples, double alpha, int warmupSamples) {
+        this.ruleId = ruleId;
+        this.metric = metric;
+        this.type = type;
+        this.operator = operator;
+        this.threshold = threshold;
+        this.clearThreshold = clearThreshold;
+        this.forSamples = Math.max(1, forSamples);
+        this.alpha = alpha > 0 && alpha <= 1 ? alpha : 0.1;
+        this.warmupSamples = Math.max(2, warmupSamples);
+    }
+
+    public long getRuleId() {
+        return ruleId;
+    }
+
+    public MonitorMetric getMetric() {
+        return metric;
+    }
+
+    /**
+     * 用新样本更新状态，返回是否触发或恢复
+     */
+    public Transition evaluate(AlertState state, double value, long timestamp) {
+        if (Double.isNaN(value)) {
+            return Transition.NONE;
+        }
+        double signal;
+        boolean ready;
+        switch (type) {
+            case RATE_OF_CHANGE:
+                ready = state.samples > 0 && timestamp > state.lastTimestamp;
+                signal = ready ? (value - state.lastValue) * 1000.0 / (timestamp - state.lastTimestamp) : 0.0;
+                state.lastValue = value;
+                state.lastTimestamp = timestamp;
+                break;
+            case ZSCORE:
+                ready = state.samples >= warmupSamples;
+                double deviation = Math.sqrt(state.variance);
+                signal = ready && deviation > 0 ? (value - state.mean) / deviation : 0.0;
+                // 先计算偏离度再更新基线，避免异常值把自己平均掉
+                if (state.samples == 0) {
+                    state.mean = value;
+                    state.variance = 0.0;
+                } else {
+                    double diff = value - state.mean;
+                    double increment = alpha * diff;
+                    state.mean += increment;
+                    state.variance = (1 - alpha) * (state.variance + diff * increment);
+                }
+                break;
+            default:
+                ready = true;
+                signal = value;
+                break;
+        }
+        state.samples++;
+        state.setLastSignal(signal);
+        if (!ready) {
+            return Transition.NONE;
+        }
+
+        if (!state.isFiring()) {
+            if (operator.breaches(signal, threshold)) {
+                if (++state.breaches >= forSamples) {
+                    state.breaches = 0;
+                    state.setFiring(true);
+                    state.setFiredAt(timestamp);
+                    return Transition.FIRED;
+                }
+            } else {
+                state.breaches = 0;
+            }
+        } else {
+            if (!operator.breaches(signal, clearThreshold)) {
+                if (++state.recoveries >= forSamples) {
+                    state.recoveries = 0;
+                    state.setFiring(false);
+                    return Transition.RESOLVED;
+                }
+            } else {
+                state.recoveries = 0;
+            }
+        }
+        return Transition.NONE;
+    }
+}
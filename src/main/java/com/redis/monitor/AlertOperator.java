@@ -0,0 +1,26 @@
+package com.redis.monitor;
+
+/**
+ * 告警比较方向
+ */
+public enum AlertOperator {
+
+    ABOVE {
+        @Override
+        public boolean breaches(double value, double threshold) {
+            return value > threshold;
+        }
+    },
+
+    BELOW {
+        @Override
+        public boolean breaches(double value, double threshold) {
+            return value < threshold;
+        }
+    };
+
+    /**
+     * 值是否越过阈值
+     */
+    public abstract boolean breaches(double value, double threshold);
+}
@@ -0,0 +1,51 @@
+package com.redis.monitor;
+
+/**
+ * 单条规则在单个连接上的评估状态，大小固定，与样本数量无关
+ *
+ * 只由该连接的采集任务更新，其他线程读取时可能看到稍旧的值
+ */
+public class AlertState {
+
+    long samples;
+    double lastValue;
+    long lastTimestamp;
+    double mean;
+    double variance;
+    int breaches;
+    int recoveries;
+
+    private volatile boolean firing;
+    private volatile double lastSignal;
+    private volatile long firedAt;
+
+    public boolean isFiring() {
+        return firing;
+    }
+
+    void setFiring(boolean firing) {
+        this.firing = firing;
+    }
+
+    /**
+     * 最近一次参与比较的值: 阈值规则为指标值，z-score规则为偏离度，变化率规则为每秒变化量
+     */
+    public double getLastSignal() {
+        return lastSignal;
+    }
+
+    void setLastSignal(double lastSignal) {
+        this.lastSignal = lastSignal;
+    }
+
+    /**
+     * 当前告警开始的时间戳，未告警时为上一次告警的开始时间
+     */
+    public long getFiredAt() {
+        return firedAt;
+    }
+
+    void setFiredAt(long firedAt) {
+        this.firedAt = firedAt;
+    }
+}
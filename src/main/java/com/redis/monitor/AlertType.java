@@ -0,0 +1,16 @@
+package com.redis.monitor;
+
+/**
+ * 告警规则类型
+ */
+public enum AlertType {
+
+    /** 指标值直接与阈值比较 */
+    THRESHOLD,
+
+    /** 指标相对EWMA均值的偏离程度(z-score)与阈值比较 */
+    ZSCORE,
+
+    /** 指标每秒变化量与阈值比较 */
+    RATE_OF_CHANGE
+}
@@ -0,0 +1,115 @@
+package com.redis.monitor;
+
+import java.util.Arrays;
+
+/**
+ * 追加写入的位流，底层为long数组
+ */
+public class BitStream {
+
+    private long[] words;
+
+    private long bitLength;
+
+    public BitStream(int initialWords) {
+        this.words = new long[Math.max(1, initialWords)];
+    }
+
+    /**
+     * 写入value的低bits位 (bits取值0~64)
+     */
+    public void write(long value, int bits) {
+        if (bits == 0) {
+            return;
+        }
+        if (bits < 64) {
+            value &= (1L << bits) - 1;
+        }
+        int wordIndex = (int) (bitLength >>> 6);
+        int bitOffset = (int) (bitLength & 63);
+        ensureCapacity(wordIndex + 2);
+        int free = 64 - bitOffset;
+        if (bits <= free) {
+            words[wordIndex] |= value << (free - bits);
+        } else {
+            int overflow = bits - free;
+            words[wordIndex] |= value >>> overflow;
+            words[wordIndex + 1] |= value << (64 - overflow);
+        }
+        bitLength += bits;
+    }
+
+    /**
+     * 写入单个位
+     */
+    public void writeBit(boolean bit) {
+        write(bit ? 1L : 0L, 1);
+    }
+
+    public long getBitLength() {
+        return bitLength;
+    }
+
+    /**
+     * 实际占用的字节数
+     */
+    public long getSizeInBytes() {
+        return (long) words.length * 8;
+    }
+
+    /**
+     * 释放末尾未使用的空间
+     */
+    public void trim() {
+        int used = (int) ((bitLength + 63) >>> 6);
+        if (used < words.length) {
+            words = Arrays.copyOf(words, Math.max(1, used));
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > words.length) {
+            words = Arrays.copyOf(words, Math.max(required, words.length + (words.length >> 1) + 1));
+        }
+    }
+
+    /**
+     * 从头开始读取的游标，读取时调用方需保证没有并发写入
+     */
+    public Reader reader() {
+        return new Reader();
+    }
+
+    /**
+     * 位流读取游标
+     */
+    public class Reader {
+
+        private long position;
+
+        /**
+         * 读取bits位并返回为无符号值
+         */
+        public long read(int bits) {
+            if (bits == 0) {
+                return 0L;
+            }
+            int wordIndex = (int) (position >>> 6);
+            int bitOffset = (int) (position & 63);
+            int available = 64 - bitOffset;
+            long result;
+            if (bits <= available) {
+                result = words[wordIndex] >>> (available - bits);
+            } else {
+                int overflow = bits - available;
+                result = (words[wordIndex] << overflow) | (words[wordIndex + 1] >>> (64 - overflow));
+            }
+            position += bits;
+            return bits == 64 ? result : result & ((1L << bits) - 1);
+        }
+
+        public boolean readBit() {
+            return read(1) == 1L;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.redis.monitor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * CLIENT LIST 回复分析器
+ *
+ * 逐行扫描原始字节，只累加计数、缓冲区总量和空闲时间分布，
+ * 按来源主机、客户端名、当前命令、标志位分组，缓冲区最大的客户端只保留前N个，
+ * 不保留每个客户端的原始行。对象只用于一次分析，不是线程安全的。
+ */
+public class ClientListAnalyzer {
+
+    /** 空闲时间分桶上限(秒)，最后一个桶为其余全部 */
+    public static final long[] IDLE_BUCKET_SECONDS = {1, 10, 60, 600, 3600};
+
+    /**
+     * 一组客户端的汇总
+     */
+    public static class Group {
+        private final String key;
+        private long count;
+        private long omem;
+        private long qbuf;
+
+        Group(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getOmem() {
+            return omem;
+        }
+
+        public long getQbuf() {
+            return qbuf;
+        }
+    }
+
+    /**
+     * 缓冲区占用最大的单个客户端
+     */
+    public static class Offender {
+        private final long id;
+        private final String addr;
+        private final String name;
+        private final String cmd;
+        private final String flags;
+        private final long idle;
+        private final long omem;
+        private final long qbuf;
+
+        Offender(long id, String addr, String name, String cmd, String flags, long idle, long omem, long qbuf) {
+            this.id = id;
+            this.addr = addr;
+            this.name = name;
+            this.cmd = cmd;
+            this.flags = flags;
+            this.idle = idle;
+            this.omem = omem;
+            this.qbuf = qbuf;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getAddr() {
+            return addr;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCmd() {
+            return cmd;
+        }
+
+        public String getFlags() {
+            return flags;
+        }
+
+        public long getIdle() {
+            return idle;
+        }
+
+        public long getOmem() {
+            return omem;
+        }
+
+        public long getQbuf() {
+            return qbuf;
+        }
+
+        private long buffers() {
+            return omem + qbuf;
+        }
+    }
+
+    private static final byte[] ID = ascii("id");
+    private static final byte[] ADDR = ascii("addr");
+    private static final byte[] NAME = ascii("name");
+    private static final byte[] CMD = ascii("cmd");
+    private static final byte[] FLAGS = ascii("flags");
+    private static final byte[] IDLE = ascii("idle");
+    private static final byte[] QBUF = ascii("qbuf");
+    private static final byte[] OMEM = ascii("omem");
+    private static final byte[] TOT_MEM = ascii("tot-mem");
+
+    private static final Comparator<Offender> BY_BUFFERS = Comparator.comparingLong(Offender::buffers);
+
+    private final int topN;
+
+    private long clients;
+    private long totalOmem;
+    private long totalQbuf;
+    private long totalMemory;
+    private long maxIdle;
+    private long pubsubClients;
+    private long blockedClients;
+    private long replicaClients;
+    private long monitorClients;
+    private final long[] idleBuckets = new long[IDLE_BUCKET_SECONDS.length + 1];
+
+    private final Map<String, Group> byHost = new HashMap<>();
+    private final Map<String, Group> byName = new HashMap<>();
+    private final Map<String, Group> byCommand = new HashMap<>();
+    private final Map<String, Group> byFlags = new HashMap<>();
+    private final PriorityQueue<Offender> offenders;
+
+    // 当前行的字段位置，避免为不关心的字段创建字符串
+    private long id;
+    private long idle;
+    private long omem;
+    private long qbuf;
+    private int addrFrom;
+    private int addrTo;
+    private int nameFrom;
+    private int nameTo;
+    private int cmdFrom;
+    private int cmdTo;
+    private int flagsFrom;
+    private int flagsTo;
+
+    public ClientListAnalyzer(int topN) {
+        this.topN = Math.max(1, topN);
+        this.offenders = new PriorityQueue<>(this.topN + 1, BY_BUFFERS);
+    }
+
+    /**
+     * 分析一次 CLIENT LIST 回复，可对多个回复连续调用以合并结果
+     */
+    public ClientListAnalyzer analyze(byte[] data) {
+        int length = data.length;
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int end = lineEnd > pos && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (end > pos) {
+                analyzeLine(data, pos, end);
+            }
+            pos = lineEnd + 1;
+        }
+        return this;
+    }
+
+    private void analyzeLine(byte[] data, int from, int to) {
+        id = 0;
+        idle = 0;
+        omem = 0;
+        qbuf = 0;
+        addrFrom = addrTo = nameFrom = nameTo = cmdFrom = cmdTo = flagsFrom = flagsTo = from;
+        long memory = 0;
+
+        int pos = from;
+        while (pos < to) {
+            int fieldEnd = pos;
+            while (fieldEnd < to && data[fieldEnd] != ' ') {
+                fieldEnd++;
+            }
+            int equals = pos;
+            while (equals < fieldEnd && data[equals] != '=') {
+                equals++;
+            }
+            if (equals < fieldEnd) {
+                int valueFrom = equals + 1;
+                if (isKey(data, pos, equals, ID)) {
+                    id = parseLong(data, valueFrom, fieldEnd);
+                } else if (isKey(data, pos, equals, ADDR)) {
+                    addrFrom = valueFrom;
+                    addrTo = fieldEnd;
+                } else if (isKey(data, pos, equals, NAME)) {
+                    nameFrom = valueFrom;
+                    nameTo = fieldEnd;
+                } else if (isKey(data, pos, equals, CMD)) {
+                    cmdFrom = valueFrom;
+                    cmdTo = fieldEnd;
+                } else if (isKey(data, pos, equals, FLAGS)) {
+                    flagsFrom = valueFrom;
+                    flagsTo = fieldEnd;
+                } else if (isKey(data, pos, equals, IDLE)) {
+                    idle = parseLong(data, valueFrom, fieldEnd);
+                } else if (isKey(data, pos, equals, QBUF)) {
+                    qbuf = parseLong(data, valueFrom, fieldEnd);
+                } else if (isKey(data, pos, equals, OMEM)) {
+                    omem = parseLong(data, valueFrom, fieldEnd);
+                } else if (isKey(data, pos, equals, TOT_MEM)) {
+                    memory = parseLong(data, valueFrom, fieldEnd);
+                }
+            }
+            pos = fieldEnd + 1;
+        }
+
+        clients++;
+        totalOmem += omem;
+        totalQbuf += qbuf;
+        totalMemory += memory;
+        maxIdle = Math.max(maxIdle, idle);
+        idleBuckets[idleBucket(idle)]++;
+        for (int i = flagsFrom; i < flagsTo; i++) {
+            switch (data[i]) {
+                case 'P':
+                    pubsubClients++;
+                    break;
+                case 'b':
+                    blockedClients++;
+                    break;
+                case 'S':
+                    replicaClients++;
+                    break;
+                case 'O':
+                    monitorClients++;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // 按主机分组，去掉端口
+        int hostTo = addrTo;
+        while (hostTo > addrFrom && data[hostTo - 1] != ':') {
+            hostTo--;
+        }
+        hostTo = hostTo > addrFrom ? hostTo - 1 : addrTo;
+        add(byHost, text(data, addrFrom, hostTo));
+        add(byName, text(data, nameFrom, nameTo));
+        add(byCommand, text(data, cmdFrom, cmdTo));
+        add(byFlags, text(data, flagsFrom, flagsTo));
+
+        if (offenders.size() < topN || omem + qbuf > offenders.peek().buffers()) {
+            offenders.add(new Offender(id, text(data, addrFrom, addrTo), text(data, nameFrom, nameTo),
+                    text(data, cmdFrom, cmdTo), text(data, flagsFrom, flagsTo), idle, omem, qbuf));
+            if (offenders.size() > topN) {
+                offenders.poll();
+            }
+        }
+    }
+
+    private void add(Map<String, Group> groups, String key) {
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group(key);
+            groups.put(key, group);
+        }
+        group.count++;
+        group.omem += omem;
+        group.qbuf += qbuf;
+    }
+
+    private static int idleBucket(long idleSeconds) {
+        for (int i = 0; i < IDLE_BUCKET_SECONDS.length; i++) {
+            if (idleSeconds < IDLE_BUCKET_SECONDS[i]) {
+                return i;
+            }
+        }
+        return IDLE_BUCKET_SECONDS.length;
+    }
+
+    private static boolean isKey(byte[] data, int from, int to, byte[] key) {
+        if (to - from != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (data[from + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String text(byte[] data, int from, int to) {
+        return to > from ? new String(data, from, to - from, StandardCharsets.UTF_8) : "";
+    }
+
+    private static long parseLong(byte[] data, int from, int to) {
+        long value = 0;
+        boolean negative = from < to && data[from] == '-';
+        for (int i = negative ? from + 1 : from; i < to; i++) {
+            byte b = data[i];
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    public long getClients() {
+        return clients;
+    }
+
+    public long getTotalOmem() {
+        return totalOmem;
+    }
+
+    public long getTotalQbuf() {
+        return totalQbuf;
+    }
+
+    public long getTotalMemory() {
+        return totalMemory;
+    }
+
+    public long getMaxIdle() {
+        return maxIdle;
+    }
+
+    public long getPubsubClients() {
+        return pubsubClients;
+    }
+
+    public long getBlockedClients() {
+        return blockedClients;
+    }
+
+    public long getReplicaClients() {
+        return replicaClients;
+    }
+
+    public long getMonitorClients() {
+        return monitorClients;
+    }
+
+    /**
+     * 空闲时间分布，下标与 {@link #IDLE_BUCKET_SECONDS} 对应，最后一个元素为超过最大上限的客户端数
+     */
+    public long[] getIdleBuckets() {
+        return idleBuckets.clone();
+    }
+
+    public List<Group> getTopHosts() {
+        return top(byHost);
+    }
+
+    public List<Group> getTopNames() {
+        return top(byName);
+    }
+
+    public List<Group> getTopCommands() {
+        return top(byCommand);
+    }
+
+    public List<Group> getTopFlags() {
+        return top(byFlags);
+    }
+
+    /**
+     * 缓冲区(omem + qbuf)最大的客户端，从大到小排列
+     */
+    public List<Offender> getTopOffenders() {
+        List<Offender> result = new ArrayList<>(offenders);
+        result.sort(Collections.reverseOrder(BY_BUFFERS));
+        return result;
+    }
+
+    /**
+     * 按客户端数排序取前N组，数量相同时按缓冲区大小排序
+     */
+    private List<Group> top(Map<String, Group> groups) {
+        List<Group> sorted = new ArrayList<>(groups.values());
+        sorted.sort(Comparator.comparingLong(Group::getCount)
+                .thenComparingLong(group -> group.omem + group.qbuf)
+                .reversed());
+        return sorted.size() > topN ? new ArrayList<>(sorted.subList(0, topN)) : sorted;
+    }
+}
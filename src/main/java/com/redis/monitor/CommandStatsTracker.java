@@ -0,0 +1,207 @@
+package com.redis.monitor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个连接的 INFO commandstats 增量计算
+ *
+ * 保存每个命令上一次的累计值，新样本只返回有变化的命令及其区间增量，
+ * 未被调用的命令不产生数据，序列是稀疏的。
+ */
+public class CommandStatsTracker {
+
+    private static final byte[] PREFIX = "cmdstat_".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int CALLS = 0;
+
+    private static final int USEC = 1;
+
+    private static final int REJECTED = 2;
+
+    private static final int FAILED = 3;
+
+    /**
+     * 单个命令在一个区间内的增量
+     */
+    public static class Delta {
+        private final String command;
+        private final long calls;
+        private final long usec;
+        private final long rejectedCalls;
+        private final long failedCalls;
+
+        Delta(String command, long[] values) {
+            this.command = command;
+            this.calls = values[CALLS];
+            this.usec = values[USEC];
+            this.rejectedCalls = values[REJECTED];
+            this.failedCalls = values[FAILED];
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getUsec() {
+            return usec;
+        }
+
+        public long getRejectedCalls() {
+            return rejectedCalls;
+        }
+
+        public long getFailedCalls() {
+            return failedCalls;
+        }
+    }
+
+    private Map<String, long[]> previous = new HashMap<>();
+
+    private boolean hasPrevious;
+
+    private long resets;
+
+    /**
+     * 解析commandstats回复并返回有变化的命令增量
+     *
+     * 首个样本只记录基准值，返回空列表
+     */
+    public synchronized List<Delta> update(byte[] data) {
+        Map<String, long[]> current = parse(data, previous);
+        List<Delta> deltas = new ArrayList<>();
+        if (hasPrevious) {
+            boolean reset = false;
+            for (Map.Entry<String, long[]> entry : current.entrySet()) {
+                long[] before = previous.get(entry.getKey());
+                if (before != null && entry.getValue()[CALLS] < before[CALLS]) {
+                    reset = true;
+                    break;
+                }
+            }
+            if (reset) {
+                // 实例重启或CONFIG RESETSTAT，累计值从0重新开始，当前值即为区间增量
+                resets++;
+            }
+            long[] delta = new long[4];
+            for (Map.Entry<String, long[]> entry : current.entrySet()) {
+                long[] now = entry.getValue();
+                long[] before = reset ? null : previous.get(entry.getKey());
+                boolean changed = false;
+                for (int i = 0; i < delta.length; i++) {
+                    delta[i] = before != null ? now[i] - before[i] : now[i];
+                    changed |= delta[i] != 0;
+                }
+                if (changed) {
+                    deltas.add(new Delta(entry.getKey(), delta));
+                }
+            }
+        }
+        previous = current;
+        hasPrevious = true;
+        return deltas;
+    }
+
+    /**
+     * 已检测到的计数器重置次数
+     */
+    public synchronized long getResets() {
+        return resets;
+    }
+
+    /**
+     * 解析 cmdstat_get:calls=1,usec=2,usec_per_call=2.00,rejected_calls=0,failed_calls=0 形式的行，
+     * usec_per_call 由增量重新计算，不解析
+     */
+    static Map<String, long[]> parse(byte[] data, Map<String, long[]> previous) {
+        Map<String, long[]> result = new HashMap<>(Math.max(16, previous.size() * 2));
+        int length = data.length;
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int end = lineEnd > pos && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (startsWith(data, pos, end, PREFIX)) {
+                int nameStart = pos + PREFIX.length;
+                int colon = nameStart;
+                while (colon < end && data[colon] != ':') {
+                    colon++;
+                }
+                if (colon < end) {
+                    String command = new String(data, nameStart, colon - nameStart, StandardCharsets.UTF_8);
+                    result.put(command, parseFields(data, colon + 1, end));
+                }
+            }
+            pos = lineEnd + 1;
+        }
+        return result;
+    }
+
+    private static long[] parseFields(byte[] data, int from, int to) {
+        long[] values = new long[4];
+        int pos = from;
+        while (pos < to) {
+            int fieldEnd = pos;
+            while (fieldEnd < to && data[fieldEnd] != ',') {
+                fieldEnd++;
+            }
+            int equals = pos;
+            while (equals < fieldEnd && data[equals] != '=') {
+                equals++;
+            }
+            if (equals < fieldEnd) {
+                int index = fieldIndex(data, pos, equals);
+                if (index >= 0) {
+                    values[index] = (long) InfoParser.parseNumber(data, equals + 1, fieldEnd);
+                }
+            }
+            pos = fieldEnd + 1;
+        }
+        return values;
+    }
+
+    private static int fieldIndex(byte[] data, int from, int to) {
+        switch (to - from) {
+            case 5:
+                return matches(data, from, "calls") ? CALLS : -1;
+            case 4:
+                return matches(data, from, "usec") ? USEC : -1;
+            case 14:
+                return matches(data, from, "rejected_calls") ? REJECTED : -1;
+            case 12:
+                return matches(data, from, "failed_calls") ? FAILED : -1;
+            default:
+                return -1;
+        }
+    }
+
+    private static boolean matches(byte[] data, int from, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (data[from + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] data, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[from + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,234 @@
+package com.redis.monitor;
+
+/**
+ * 列式压缩数据块
+ *
+ * 同一连接的多个指标共享一列时间戳。时间戳使用二阶差分(delta-of-delta)编码，
+ * 每个指标列使用与前值异或(XOR)编码，编码方式参考Facebook Gorilla。
+ * 写入和读取需由调用方加锁串行化。
+ */
+public class CompressedChunk {
+
+    private final int columnCount;
+
+    private final int capacity;
+
+    private final BitStream timestamps;
+
+    private final BitStream[] columns;
+
+    private int count;
+
+    private long firstTimestamp;
+
+    private long lastTimestamp;
+
+    private long lastDelta;
+
+    private final long[] lastValueBits;
+
+    private final int[] lastLeadingZeros;
+
+    private final int[] lastTrailingZeros;
+
+    public CompressedChunk(int columnCount, int capacity) {
+        this.columnCount = columnCount;
+        this.capacity = capacity;
+        this.timestamps = new BitStream(Math.max(4, capacity / 16));
+        this.columns = new BitStream[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = new BitStream(Math.max(4, capacity / 16));
+        }
+        this.lastValueBits = new long[columnCount];
+        this.lastLeadingZeros = new int[columnCount];
+        this.lastTrailingZeros = new int[columnCount];
+    }
+
+    /**
+     * 追加一个样本，values长度必须等于列数，时间戳需单调不减
+     */
+    public void append(long timestamp, double[] values) {
+        if (count == 0) {
+            firstTimestamp = timestamp;
+            timestamps.write(timestamp, 64);
+        } else {
+            long delta = timestamp - lastTimestamp;
+            writeDeltaOfDelta(delta - lastDelta);
+            lastDelta = delta;
+        }
+        lastTimestamp = timestamp;
+
+        for (int i = 0; i < columnCount; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            if (count == 0) {
+                columns[i].write(bits, 64);
+                lastLeadingZeros[i] = Integer.MAX_VALUE;
+            } else {
+                writeXor(i, bits ^ lastValueBits[i]);
+            }
+            lastValueBits[i] = bits;
+        }
+        count++;
+    }
+
+    private void writeDeltaOfDelta(long dod) {
+        if (dod == 0) {
+            timestamps.write(0b0, 1);
+        } else if (dod >= -64 && dod <= 63) {
+            timestamps.write(0b10, 2);
+            timestamps.write(dod, 7);
+        } else if (dod >= -256 && dod <= 255) {
+            timestamps.write(0b110, 3);
+            timestamps.write(dod, 9);
+        } else if (dod >= -2048 && dod <= 2047) {
+            timestamps.write(0b1110, 4);
+            timestamps.write(dod, 12);
+        } else {
+            timestamps.write(0b1111, 4);
+            timestamps.write(dod, 64);
+        }
+    }
+
+    private void writeXor(int column, long xor) {
+        BitStream out = columns[column];
+        if (xor == 0) {
+            out.writeBit(false);
+            return;
+        }
+        out.writeBit(true);
+        int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (lastLeadingZeros[column] != Integer.MAX_VALUE
+                && leading >= lastLeadingZeros[column] && trailing >= lastTrailingZeros[column]) {
+            // 有效位落在上一次的窗口内，复用窗口
+            out.writeBit(false);
+            int significant = 64 - lastLeadingZeros[column] - lastTrailingZeros[column];
+            out.write(xor >>> lastTrailingZeros[column], significant);
+        } else {
+            out.writeBit(true);
+            int significant = 64 - leading - trailing;
+            out.write(leading, 5);
+            out.write(significant - 1, 6);
+            out.write(xor >>> trailing, significant);
+            lastLeadingZeros[column] = leading;
+            lastTrailingZeros[column] = trailing;
+        }
+    }
+
+    /**
+     * 解码时间戳和指定列，按时间范围[from, to]回调
+     */
+    public void scan(long from, long to, int[] selectedColumns, SampleVisitor visitor) {
+        if (count == 0 || lastTimestamp < from || firstTimestamp > to) {
+            return;
+        }
+        BitStream.Reader timeReader = timestamps.reader();
+        BitStream.Reader[] readers = new BitStream.Reader[selectedColumns.length];
+        long[] valueBits = new long[selectedColumns.length];
+        int[] leading = new int[selectedColumns.length];
+        int[] trailing = new int[selectedColumns.length];
+        for (int i = 0; i < selectedColumns.length; i++) {
+            readers[i] = columns[selectedColumns[i]].reader();
+        }
+        double[] values = new double[selectedColumns.length];
+
+        long timestamp = 0;
+        long delta = 0;
+        for (int n = 0; n < count; n++) {
+            if (n == 0) {
+                timestamp = timeReader.read(64);
+            } else {
+                delta += readDeltaOfDelta(timeReader);
+                timestamp += delta;
+            }
+            for (int i = 0; i < readers.length; i++) {
+                if (n == 0) {
+                    valueBits[i] = readers[i].read(64);
+                } else if (readers[i].readBit()) {
+                    if (readers[i].readBit()) {
+                        leading[i] = (int) readers[i].read(5);
+                        int significant = (int) readers[i].read(6) + 1;
+                        trailing[i] = 64 - leading[i] - significant;
+                    }
+                    int significant = 64 - leading[i] - trailing[i];
+                    valueBits[i] ^= readers[i].read(significant) << trailing[i];
+                }
+                values[i] = Double.longBitsToDouble(valueBits[i]);
+            }
+            if (timestamp > to) {
+                return;
+            }
+            if (timestamp >= from) {
+                visitor.visit(timestamp, values);
+            }
+        }
+    }
+
+    private static long readDeltaOfDelta(BitStream.Reader reader) {
+        if (!reader.readBit()) {
+            return 0L;
+        }
+        if (!reader.readBit()) {
+            return signExtend(reader.read(7), 7);
+        }
+        if (!reader.readBit()) {
+            return signExtend(reader.read(9), 9);
+        }
+        if (!reader.readBit()) {
+            return signExtend(reader.read(12), 12);
+        }
+        return reader.read(64);
+    }
+
+    private static long signExtend(long value, int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+
+    /**
+     * 封存数据块，释放未使用空间
+     */
+    public void seal() {
+        timestamps.trim();
+        for (BitStream column : columns) {
+            column.trim();
+        }
+    }
+
+    public boolean isFull() {
+        return count >= capacity;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * 压缩后占用的字节数
+     */
+    public long getSizeInBytes() {
+        long size = timestamps.getSizeInBytes();
+        for (BitStream column : columns) {
+            size += column.getSizeInBytes();
+        }
+        return size;
+    }
+
+    /**
+     * 样本回调
+     */
+    public interface SampleVisitor {
+
+        /**
+         * values数组会被复用，回调中不要持有引用
+         */
+        void visit(long timestamp, double[] values);
+    }
+}
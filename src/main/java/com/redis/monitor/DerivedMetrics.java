@@ -0,0 +1,92 @@
+package com.redis.monitor;
+
+import com.redis.entity.RedisMonitorRecord;
+
+/**
+ * 单个连接的派生指标增量计算
+ *
+ * 保存上一次采样的计数器值，新样本到达时计算每秒速率、区间命中率等，
+ * 结果直接写入监控记录作为独立序列保存，查询时无需再对原始计数器求差。
+ */
+public class DerivedMetrics {
+
+    /** 计数器 -> 对应的每秒速率指标 */
+    private static final MonitorMetric[][] RATES = {
+            {MonitorMetric.TOTAL_COMMANDS_PROCESSED, MonitorMetric.COMMANDS_PER_SEC},
+            {MonitorMetric.KEYSPACE_HITS, MonitorMetric.KEYSPACE_HITS_PER_SEC},
+            {MonitorMetric.KEYSPACE_MISSES, MonitorMetric.KEYSPACE_MISSES_PER_SEC},
+            {MonitorMetric.EXPIRED_KEYS, MonitorMetric.EXPIRED_KEYS_PER_SEC},
+            {MonitorMetric.EVICTED_KEYS, MonitorMetric.EVICTED_KEYS_PER_SEC},
+            {MonitorMetric.TOTAL_NET_INPUT_BYTES, MonitorMetric.NET_INPUT_BYTES_PER_SEC},
+            {MonitorMetric.TOTAL_NET_OUTPUT_BYTES, MonitorMetric.NET_OUTPUT_BYTES_PER_SEC}
+    };
+
+    private static final int HITS = 1;
+
+    private static final int MISSES = 2;
+
+    private final double[] previous = new double[RATES.length];
+
+    private final double[] deltas = new double[RATES.length];
+
+    private long previousTimestamp;
+
+    private boolean hasPrevious;
+
+    private Double lastHitRatio;
+
+    private long resets;
+
+    /**
+     * 计算派生指标并写入记录，返回是否检测到计数器重置
+     *
+     * 首个样本只记录基准值，派生指标保持为空
+     */
+    public synchronized boolean apply(long timestamp, RedisMonitorRecord record) {
+        boolean reset = false;
+        for (int i = 0; i < RATES.length; i++) {
+            double current = RATES[i][0].read(record);
+            if (hasPrevious && current < previous[i]) {
+                reset = true;
+            }
+            deltas[i] = current - previous[i];
+        }
+        if (reset) {
+            // 实例重启或CONFIG RESETSTAT，所有计数器从0重新开始，当前值即为区间增量
+            resets++;
+            for (int i = 0; i < RATES.length; i++) {
+                deltas[i] = RATES[i][0].read(record);
+            }
+        }
+
+        long elapsedMillis = timestamp - previousTimestamp;
+        if (hasPrevious && elapsedMillis > 0) {
+            double seconds = elapsedMillis / 1000.0;
+            for (int i = 0; i < RATES.length; i++) {
+                RATES[i][1].write(record, deltas[i] / seconds);
+            }
+            double lookups = deltas[HITS] + deltas[MISSES];
+            if (lookups > 0) {
+                lastHitRatio = deltas[HITS] / lookups;
+            }
+            // 区间内没有读请求时沿用上一次的命中率
+            record.setKeyspaceHitRatio(lastHitRatio);
+        }
+
+        for (int i = 0; i < RATES.length; i++) {
+            previous[i] = RATES[i][0].read(record);
+        }
+        if (timestamp > previousTimestamp || !hasPrevious) {
+            previousTimestamp = timestamp;
+        }
+        hasPrevious = true;
+        return reset;
+    }
+
+    /**
+     * 已检测到的计数器重置次数
+     */
+    public synchronized long getResets() {
+        return resets;
+    }
+}
@@ -0,0 +1,28 @@
+package com.redis.monitor;
+
+/**
+ * 单指标降采样结果
+ */
+public class DownsampledSeries {
+
+    private final long[] timestamps;
+
+    private final double[] values;
+
+    public DownsampledSeries(long[] timestamps, double[] values) {
+        this.timestamps = timestamps;
+        this.values = values;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+}
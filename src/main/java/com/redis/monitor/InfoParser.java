@@ -0,0 +1,213 @@
+package com.redis.monitor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * INFO回复解析器
+ *
+ * 直接扫描INFO批量回复的原始字节，一次遍历即可填充 {@link InfoSample}。
+ * 字段名通过预先计算的哈希表定位，数值直接从字节解析，不创建中间Map和字符串。
+ */
+public final class InfoParser {
+
+    private static final int TABLE_SIZE = 256;
+
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    /** 哈希表槽位: 0为空，正数为指标下标+1，负数为文本下标的相反数-1 */
+    private static final int[] SLOTS = new int[TABLE_SIZE];
+
+    private static final byte[][] SLOT_KEYS = new byte[TABLE_SIZE][];
+
+    private static final long[] POW10 = new long[19];
+
+    /** double能精确表示的最大整数，小数的有效数字超过该值时相除结果不再保证正确舍入 */
+    private static final long MAX_EXACT = 1L << 53;
+
+    static {
+        for (MonitorMetric metric : MonitorMetric.values()) {
+            if (!metric.isDerived()) {
+                register(metric.getInfoKey(), metric.ordinal() + 1);
+            }
+        }
+        for (InfoSample.Text text : InfoSample.Text.values()) {
+            register(text.getInfoKey(), -text.ordinal() - 1);
+        }
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private InfoParser() {
+    }
+
+    private static void register(String key, int slotValue) {
+        byte[] bytes = key.getBytes(StandardCharsets.US_ASCII);
+        int index = hash(bytes, 0, bytes.length) & TABLE_MASK;
+        while (SLOTS[index] != 0) {
+            index = (index + 1) & TABLE_MASK;
+        }
+        SLOTS[index] = slotValue;
+        SLOT_KEYS[index] = bytes;
+    }
+
+    private static int hash(byte[] data, int from, int to) {
+        int h = 0x811c9dc5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ data[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 解析INFO回复，已识别的字段写入sample，可对同一个sample连续解析多个section
+     */
+    public static void parse(byte[] data, InfoSample sample) {
+        int length = data.length;
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int end = lineEnd > pos && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (end > pos && data[pos] != '#') {
+                parseLine(data, pos, end, sample);
+            }
+            pos = lineEnd + 1;
+        }
+    }
+
+    private static void parseLine(byte[] data, int from, int to, InfoSample sample) {
+        int h = 0x811c9dc5;
+        int colon = from;
+        while (colon < to && data[colon] != ':') {
+            h = (h ^ data[colon]) * 0x01000193;
+            colon++;
+        }
+        if (colon >= to) {
+            return;
+        }
+        int slot = lookup(h ^ (h >>> 16), data, from, colon);
+        if (slot > 0) {
+            sample.setValue(slot - 1, parseNumber(data, colon + 1, to));
+        } else if (slot < 0) {
+            int text = -slot - 1;
+            String cached = sample.getCachedText(text);
+            if (cached != null && equalsAscii(cached, data, colon + 1, to)) {
+                // 内容未变化时复用上一次的字符串
+                sample.setText(text, cached);
+            } else {
+                sample.setText(text, new String(data, colon + 1, to - colon - 1, StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    private static int lookup(int hash, byte[] data, int from, int to) {
+        int index = hash & TABLE_MASK;
+        while (SLOTS[index] != 0) {
+            if (equalsBytes(SLOT_KEYS[index], data, from, to)) {
+                return SLOTS[index];
+            }
+            index = (index + 1) & TABLE_MASK;
+        }
+        return 0;
+    }
+
+    private static boolean equalsBytes(byte[] key, byte[] data, int from, int to) {
+        if (key.length != to - from) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != data[from + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equalsAscii(String text, byte[] data, int from, int to) {
+        if (text.length() != to - from) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != (char) data[from + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解析十进制整数或小数，其他格式回退到Double.parseDouble，无法解析时返回0
+     */
+    static double parseNumber(byte[] data, int from, int to) {
+        int pos = from;
+        boolean negative = false;
+        if (pos < to && (data[pos] == '-' || data[pos] == '+')) {
+            negative = data[pos] == '-';
+            pos++;
+        }
+        long integer = 0;
+        int digits = 0;
+        while (pos < to && data[pos] >= '0' && data[pos] <= '9') {
+            integer = integer * 10 + (data[pos] - '0');
+            digits++;
+            pos++;
+        }
+        int scale = 0;
+        if (pos < to && data[pos] == '.') {
+            pos++;
+            while (pos < to && data[pos] >= '0' && data[pos] <= '9') {
+                integer = integer * 10 + (data[pos] - '0');
+                scale++;
+                pos++;
+            }
+        }
+        if (pos != to || digits + scale == 0 || digits + scale > 18 || (scale > 0 && integer > MAX_EXACT)) {
+            return parseFallback(data, from, to);
+        }
+        // 整数直接转换；小数为两个精确表示的整数相除，结果与Double.parseDouble一致
+        double value = scale == 0 ? integer : (double) integer / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    private static double parseFallback(byte[] data, int from, int to) {
+        try {
+            return Double.parseDouble(new String(data, from, to - from, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    /**
+     * 将INFO回复转为键值Map，供页面和接口展示全部字段
+     */
+    public static Map<String, Object> toMap(byte[] data) {
+        Map<String, Object> result = new HashMap<>();
+        int length = data.length;
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int end = lineEnd > pos && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (end > pos && data[pos] != '#') {
+                int colon = pos;
+                while (colon < end && data[colon] != ':') {
+                    colon++;
+                }
+                if (colon < end) {
+                    result.put(new String(data, pos, colon - pos, StandardCharsets.UTF_8),
+                            new String(data, colon + 1, end - colon - 1, StandardCharsets.UTF_8));
+                }
+            }
+            pos = lineEnd + 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package com.redis.monitor;
+
+import com.redis.entity.RedisMonitorRecord;
+
+import java.util.Arrays;
+
+/**
+ * 一次INFO采样的解析结果
+ *
+ * 数值指标按 {@link MonitorMetric} 下标存放在double数组中，文本字段单独存放。
+ * 对象可重复使用，每次采样前调用 {@link #reset()}，不是线程安全的。
+ */
+public class InfoSample {
+
+    /**
+     * 监控记录中直接取自INFO的文本字段
+     */
+    public enum Text {
+        USED_MEMORY_HUMAN("used_memory_human"),
+        USED_MEMORY_RSS_HUMAN("used_memory_rss_human"),
+        USED_MEMORY_PEAK_HUMAN("used_memory_peak_human"),
+        USED_MEMORY_PEAK_PERC("used_memory_peak_perc"),
+        USED_MEMORY_DATASET_PERC("used_memory_dataset_perc"),
+        TOTAL_SYSTEM_MEMORY_HUMAN("total_system_memory_human"),
+        USED_MEMORY_LUA_HUMAN("used_memory_lua_human"),
+        MAXMEMORY_HUMAN("maxmemory_human"),
+        MAXMEMORY_POLICY("maxmemory_policy"),
+        MEM_ALLOCATOR("mem_allocator");
+
+        private final String infoKey;
+
+        Text(String infoKey) {
+            this.infoKey = infoKey;
+        }
+
+        public String getInfoKey() {
+            return infoKey;
+        }
+    }
+
+    private static final Text[] TEXTS = Text.values();
+
+    private final double[] values = new double[MonitorMetric.count()];
+
+    private final String[] texts = new String[TEXTS.length];
+
+    private final boolean[] textPresent = new boolean[TEXTS.length];
+
+    private int parsedFields;
+
+    /**
+     * 清空上一次的结果，保留文本以便下次相同内容直接复用
+     */
+    public void reset() {
+        Arrays.fill(values, 0.0);
+        Arrays.fill(textPresent, false);
+        parsedFields = 0;
+    }
+
+    public double getValue(MonitorMetric metric) {
+        return values[metric.ordinal()];
+    }
+
+    void setValue(int ordinal, double value) {
+        values[ordinal] = value;
+        parsedFields++;
+    }
+
+    public String getText(Text text) {
+        return textPresent[text.ordinal()] ? texts[text.ordinal()] : "";
+    }
+
+    /**
+     * 上一次保存的文本，用于与新内容比较
+     */
+    String getCachedText(int ordinal) {
+        return texts[ordinal];
+    }
+
+    void setText(int ordinal, String text) {
+        texts[ordinal] = text;
+        textPresent[ordinal] = true;
+        parsedFields++;
+    }
+
+    /**
+     * 已解析的字段数
+     */
+    public int getParsedFields() {
+        return parsedFields;
+    }
+
+    /**
+     * 写入监控记录，INFO中不存在的数值指标记为0，文本记为空串，派生指标不写入
+     */
+    public void applyTo(RedisMonitorRecord record) {
+        for (int i = 0; i < values.length; i++) {
+            MonitorMetric metric = MonitorMetric.of(i);
+            if (!metric.isDerived()) {
+                metric.write(record, values[i]);
+            }
+        }
+        record.setUsedMemoryHuman(getText(Text.USED_MEMORY_HUMAN));
+        record.setUsedMemoryRssHuman(getText(Text.USED_MEMORY_RSS_HUMAN));
+        record.setUsedMemoryPeakHuman(getText(Text.USED_MEMORY_PEAK_HUMAN));
+        record.setUsedMemoryPeakPerc(getText(Text.USED_MEMORY_PEAK_PERC));
+        record.setUsedMemoryDatasetPerc(getText(Text.USED_MEMORY_DATASET_PERC));
+        record.setTotalSystemMemoryHuman(getText(Text.TOTAL_SYSTEM_MEMORY_HUMAN));
+        record.setUsedMemoryLuaHuman(getText(Text.USED_MEMORY_LUA_HUMAN));
+        record.setMaxmemoryHuman(getText(Text.MAXMEMORY_HUMAN));
+        record.setMaxmemoryPolicy(getText(Text.MAXMEMORY_POLICY));
+        record.setMemAllocator(getText(Text.MEM_ALLOCATOR));
+    }
+}
@@ -0,0 +1,159 @@
+package com.redis.monitor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 单个连接的键空间增长趋势
+ *
+ * 在固定容量的环形数组中保存最近的 (时间, 总键数, 已用内存)，
+ * 按最小二乘法估算时间窗口内的增长速度，用于预测内存耗尽时间。
+ */
+public class KeyspaceTrend {
+
+    /** INFO keyspace 每个库的字段下标 */
+    public static final int KEYS = 0;
+
+    public static final int EXPIRES = 1;
+
+    public static final int AVG_TTL = 2;
+
+    private final long[] timestamps;
+
+    private final double[] keys;
+
+    private final double[] memory;
+
+    private final long windowMillis;
+
+    private int head;
+
+    private int size;
+
+    public KeyspaceTrend(int capacity, long windowMillis) {
+        this.timestamps = new long[capacity];
+        this.keys = new double[capacity];
+        this.memory = new double[capacity];
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * 追加一个点，时间早于最后一个点时忽略
+     */
+    public synchronized void add(long timestamp, double totalKeys, double usedMemory) {
+        if (size > 0 && timestamp <= timestamps[(head + size - 1) % timestamps.length]) {
+            return;
+        }
+        int index;
+        if (size < timestamps.length) {
+            index = (head + size) % timestamps.length;
+            size++;
+        } else {
+            index = head;
+            head = (head + 1) % timestamps.length;
+        }
+        timestamps[index] = timestamp;
+        keys[index] = totalKeys;
+        memory[index] = usedMemory;
+    }
+
+    /**
+     * 窗口内总键数的每秒增长量，点数不足时返回0
+     */
+    public synchronized double keysPerSecond() {
+        return slope(keys);
+    }
+
+    /**
+     * 窗口内已用内存的每秒增长字节数，点数不足时返回0
+     */
+    public synchronized double memoryPerSecond() {
+        return slope(memory);
+    }
+
+    private double slope(double[] values) {
+        if (size < 2) {
+            return 0.0;
+        }
+        long latest = timestamps[(head + size - 1) % timestamps.length];
+        long cutoff = latest - windowMillis;
+        // 以最新点为原点，避免大数相乘损失精度
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % timestamps.length;
+            if (timestamps[index] < cutoff) {
+                continue;
+            }
+            double x = (timestamps[index] - latest) / 1000.0;
+            double y = values[index];
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+            n++;
+        }
+        double denominator = n * sumXX - sumX * sumX;
+        if (n < 2 || denominator == 0) {
+            return 0.0;
+        }
+        return (n * sumXY - sumX * sumY) / denominator;
+    }
+
+    /**
+     * 解析 INFO keyspace，返回 库编号 -> [keys, expires, avg_ttl]
+     *
+     * 行格式为 db0:keys=1,expires=0,avg_ttl=0，新版本追加的字段忽略
+     */
+    public static Map<Integer, long[]> parse(byte[] data) {
+        Map<Integer, long[]> result = new TreeMap<>();
+        int length = data.length;
+        int pos = 0;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int end = lineEnd > pos && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (end - pos > 3 && data[pos] == 'd' && data[pos + 1] == 'b' && data[pos + 2] >= '0' && data[pos + 2] <= '9') {
+                parseLine(data, pos + 2, end, result);
+            }
+            pos = lineEnd + 1;
+        }
+        return result;
+    }
+
+    private static void parseLine(byte[] data, int from, int to, Map<Integer, long[]> result) {
+        int db = 0;
+        int pos = from;
+        while (pos < to && data[pos] >= '0' && data[pos] <= '9') {
+            db = db * 10 + (data[pos] - '0');
+            pos++;
+        }
+        if (pos >= to || data[pos] != ':') {
+            return;
+        }
+        long[] values = new long[3];
+        String fields = new String(data, pos + 1, to - pos - 1, StandardCharsets.US_ASCII);
+        for (String field : fields.split(",")) {
+            int equals = field.indexOf('=');
+            if (equals < 0) {
+                continue;
+            }
+            String name = field.substring(0, equals);
+            int index = "keys".equals(name) ? KEYS : "expires".equals(name) ? EXPIRES : "avg_ttl".equals(name) ? AVG_TTL : -1;
+            if (index >= 0) {
+                try {
+                    values[index] = Long.parseLong(field.substring(equals + 1));
+                } catch (NumberFormatException e) {
+                    values[index] = 0L;
+                }
+            }
+        }
+        result.put(db, values);
+    }
+}
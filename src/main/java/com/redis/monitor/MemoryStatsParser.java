@@ -0,0 +1,71 @@
+package com.redis.monitor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MEMORY STATS 回复解析
+ *
+ * 回复是键值交替的数组，值可能是整数、以字符串返回的小数或嵌套数组(db.N)，
+ * 这里展开成 "db.0.overhead.hashtable.main" 这样的扁平数值表，非数值项忽略。
+ */
+public final class MemoryStatsParser {
+
+    private MemoryStatsParser() {
+    }
+
+    public static Map<String, Double> parse(List<?> reply) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        flatten("", reply, result);
+        return result;
+    }
+
+    private static void flatten(String prefix, List<?> reply, Map<String, Double> result) {
+        for (int i = 0; i + 1 < reply.size(); i += 2) {
+            String name = prefix + toText(reply.get(i));
+            Object value = reply.get(i + 1);
+            if (value instanceof List) {
+                flatten(name + ".", (List<?>) value, result);
+                continue;
+            }
+            Double number = toNumber(value);
+            if (number != null) {
+                result.put(name, number);
+            }
+        }
+    }
+
+    /**
+     * 所有逻辑库哈希表开销之和(db.N.overhead.hashtable.main 与 .expires)
+     */
+    public static long sumDbOverhead(Map<String, Double> stats) {
+        double total = 0;
+        for (Map.Entry<String, Double> entry : stats.entrySet()) {
+            String name = entry.getKey();
+            if (name.startsWith("db.") && name.contains(".overhead.hashtable.")) {
+                total += entry.getValue();
+            }
+        }
+        return (long) total;
+    }
+
+    private static String toText(Object value) {
+        return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    private static Double toNumber(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof byte[]) {
+            try {
+                return Double.parseDouble(new String((byte[]) value, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.redis.monitor;
+
+import com.redis.entity.RedisMonitorRecord;
+
+import java.util.Locale;
+
+/**
+ * 指标格式化工具，输出格式与Redis INFO保持一致
+ */
+public final class MetricFormat {
+
+    private static final String[] UNITS = {"K", "M", "G", "T", "P"};
+
+    private MetricFormat() {
+    }
+
+    /**
+     * 字节数转为可读格式，如 1.50M
+     */
+    public static String bytesToHuman(double bytes) {
+        if (bytes < 1024) {
+            return String.format(Locale.ROOT, "%dB", (long) bytes);
+        }
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < UNITS.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format(Locale.ROOT, "%.2f%s", value, UNITS[unit]);
+    }
+
+    /**
+     * 百分比格式，如 12.34%
+     */
+    public static String percent(double numerator, double denominator) {
+        if (denominator <= 0) {
+            return "0.00%";
+        }
+        return String.format(Locale.ROOT, "%.2f%%", numerator * 100.0 / denominator);
+    }
+
+    /**
+     * 可读格式的内存字段由数值推导，不单独存储
+     */
+    public static void fillHumanStrings(RedisMonitorRecord record) {
+        record.setUsedMemoryHuman(bytesToHuman(value(record.getUsedMemory())));
+        record.setUsedMemoryRssHuman(bytesToHuman(value(record.getUsedMemoryRss())));
+        record.setUsedMemoryPeakHuman(bytesToHuman(value(record.getUsedMemoryPeak())));
+        record.setUsedMemoryPeakPerc(percent(value(record.getUsedMemory()), value(record.getUsedMemoryPeak())));
+        record.setUsedMemoryDatasetPerc(percent(value(record.getUsedMemoryDataset()),
+                value(record.getUsedMemory()) - value(record.getUsedMemoryStartup())));
+        record.setTotalSystemMemoryHuman(bytesToHuman(value(record.getTotalSystemMemory())));
+        record.setUsedMemoryLuaHuman(bytesToHuman(value(record.getUsedMemoryLua())));
+        record.setMaxmemoryHuman(bytesToHuman(value(record.getMaxmemory())));
+    }
+
+    private static double value(Long value) {
+        return value != null ? value : 0.0;
+    }
+}
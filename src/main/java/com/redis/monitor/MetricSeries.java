@@ -0,0 +1,72 @@
+package com.redis.monitor;
+
+import java.util.Arrays;
+
+/**
+ * 按时间排列的多指标序列，列式存储
+ */
+public class MetricSeries {
+
+    private final MonitorMetric[] metrics;
+
+    private long[] timestamps;
+
+    private double[][] values;
+
+    private int size;
+
+    public MetricSeries(MonitorMetric[] metrics, int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.metrics = metrics;
+        this.timestamps = new long[capacity];
+        this.values = new double[metrics.length][capacity];
+    }
+
+    /**
+     * 追加一个点，values与metrics一一对应
+     */
+    public void add(long timestamp, double[] point) {
+        if (size == timestamps.length) {
+            int capacity = size + (size >> 1);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Arrays.copyOf(values[i], capacity);
+            }
+        }
+        timestamps[size] = timestamp;
+        for (int i = 0; i < values.length; i++) {
+            values[i][size] = point[i];
+        }
+        size++;
+    }
+
+    public MonitorMetric[] getMetrics() {
+        return metrics;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    public double getValue(int metricIndex, int index) {
+        return values[metricIndex][index];
+    }
+
+    /**
+     * 时间戳数组 (长度为size)
+     */
+    public long[] getTimestamps() {
+        return Arrays.copyOf(timestamps, size);
+    }
+
+    /**
+     * 指定指标的取值数组 (长度为size)
+     */
+    public double[] getValues(int metricIndex) {
+        return Arrays.copyOf(values[metricIndex], size);
+    }
+}
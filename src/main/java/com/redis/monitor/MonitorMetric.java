@@ -0,0 +1,230 @@
+package com.redis.monitor;
+
+import com.redis.entity.RedisMonitorRecord;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 监控记录中的数值型指标
+ *
+ * 枚举顺序即列式存储中的列下标，新增指标只能追加在末尾。
+ */
+public enum MonitorMetric {
+
+    TOTAL_CONNECTIONS_RECEIVED("total_connections_received", "totalConnectionsReceived", Kind.COUNTER,
+            r -> value(r.getTotalConnectionsReceived()), (r, v) -> r.setTotalConnectionsReceived((long) v)),
+    TOTAL_COMMANDS_PROCESSED("total_commands_processed", "totalCommandsProcessed", Kind.COUNTER,
+            r -> value(r.getTotalCommandsProcessed()), (r, v) -> r.setTotalCommandsProcessed((long) v)),
+    INSTANTANEOUS_OPS_PER_SEC("instantaneous_ops_per_sec", "instantaneousOpsPerSec", Kind.GAUGE,
+            r -> value(r.getInstantaneousOpsPerSec()), (r, v) -> r.setInstantaneousOpsPerSec((long) v)),
+    TOTAL_NET_INPUT_BYTES("total_net_input_bytes", "totalNetInputBytes", Kind.COUNTER,
+            r -> value(r.getTotalNetInputBytes()), (r, v) -> r.setTotalNetInputBytes((long) v)),
+    TOTAL_NET_OUTPUT_BYTES("total_net_output_bytes", "totalNetOutputBytes", Kind.COUNTER,
+            r -> value(r.getTotalNetOutputBytes()), (r, v) -> r.setTotalNetOutputBytes((long) v)),
+    INSTANTANEOUS_INPUT_KBPS("instantaneous_input_kbps", "instantaneousInputKbps", Kind.GAUGE,
+            r -> value(r.getInstantaneousInputKbps()), (r, v) -> r.setInstantaneousInputKbps(v)),
+    INSTANTANEOUS_OUTPUT_KBPS("instantaneous_output_kbps", "instantaneousOutputKbps", Kind.GAUGE,
+            r -> value(r.getInstantaneousOutputKbps()), (r, v) -> r.setInstantaneousOutputKbps(v)),
+    REJECTED_CONNECTIONS("rejected_connections", "rejectedConnections", Kind.COUNTER,
+            r -> value(r.getRejectedConnections()), (r, v) -> r.setRejectedConnections((long) v)),
+    SYNC_FULL("sync_full", "syncFull", Kind.COUNTER,
+            r -> value(r.getSyncFull()), (r, v) -> r.setSyncFull((long) v)),
+    SYNC_PARTIAL_OK("sync_partial_ok", "syncPartialOk", Kind.COUNTER,
+            r -> value(r.getSyncPartialOk()), (r, v) -> r.setSyncPartialOk((long) v)),
+    SYNC_PARTIAL_ERR("sync_partial_err", "syncPartialErr", Kind.COUNTER,
+            r -> value(r.getSyncPartialErr()), (r, v) -> r.setSyncPartialErr((long) v)),
+    EXPIRED_KEYS("expired_keys", "expiredKeys", Kind.COUNTER,
+            r -> value(r.getExpiredKeys()), (r, v) -> r.setExpiredKeys((long) v)),
+    EVICTED_KEYS("evicted_keys", "evictedKeys", Kind.COUNTER,
+            r -> value(r.getEvictedKeys()), (r, v) -> r.setEvictedKeys((long) v)),
+    KEYSPACE_HITS("keyspace_hits", "keyspaceHits", Kind.COUNTER,
+            r -> value(r.getKeyspaceHits()), (r, v) -> r.setKeyspaceHits((long) v)),
+    KEYSPACE_MISSES("keyspace_misses", "keyspaceMisses", Kind.COUNTER,
+            r -> value(r.getKeyspaceMisses()), (r, v) -> r.setKeyspaceMisses((long) v)),
+    PUBSUB_CHANNELS("pubsub_channels", "pubsubChannels", Kind.GAUGE,
+            r -> value(r.getPubsubChannels()), (r, v) -> r.setPubsubChannels((long) v)),
+    PUBSUB_PATTERNS("pubsub_patterns", "pubsubPatterns", Kind.GAUGE,
+            r -> value(r.getPubsubPatterns()), (r, v) -> r.setPubsubPatterns((long) v)),
+    LATEST_FORK_USEC("latest_fork_usec", "latestForkUsec", Kind.GAUGE,
+            r -> value(r.getLatestForkUsec()), (r, v) -> r.setLatestForkUsec((long) v)),
+    MIGRATE_CACHED_SOCKETS("migrate_cached_sockets", "migrateCachedSockets", Kind.GAUGE,
+            r -> value(r.getMigrateCachedSockets()), (r, v) -> r.setMigrateCachedSockets((long) v)),
+    SLAVE_EXPIRES_TRACKED_KEYS("slave_expires_tracked_keys", "slaveExpiresTrackedKeys", Kind.GAUGE,
+            r -> value(r.getSlaveExpiresTrackedKeys()), (r, v) -> r.setSlaveExpiresTrackedKeys((long) v)),
+    ACTIVE_DEFRAG_HITS("active_defrag_hits", "activeDefragHits", Kind.COUNTER,
+            r -> value(r.getActiveDefragHits()), (r, v) -> r.setActiveDefragHits((long) v)),
+    ACTIVE_DEFRAG_MISSES("active_defrag_misses", "activeDefragMisses", Kind.COUNTER,
+            r -> value(r.getActiveDefragMisses()), (r, v) -> r.setActiveDefragMisses((long) v)),
+    ACTIVE_DEFRAG_KEY_HITS("active_defrag_key_hits", "activeDefragKeyHits", Kind.COUNTER,
+            r -> value(r.getActiveDefragKeyHits()), (r, v) -> r.setActiveDefragKeyHits((long) v)),
+    ACTIVE_DEFRAG_KEY_MISSES("active_defrag_key_misses", "activeDefragKeyMisses", Kind.COUNTER,
+            r -> value(r.getActiveDefragKeyMisses()), (r, v) -> r.setActiveDefragKeyMisses((long) v)),
+    USED_MEMORY("used_memory", "usedMemory", Kind.GAUGE,
+            r -> value(r.getUsedMemory()), (r, v) -> r.setUsedMemory((long) v)),
+    USED_MEMORY_RSS("used_memory_rss", "usedMemoryRss", Kind.GAUGE,
+            r -> value(r.getUsedMemoryRss()), (r, v) -> r.setUsedMemoryRss((long) v)),
+    USED_MEMORY_PEAK("used_memory_peak", "usedMemoryPeak", Kind.GAUGE,
+            r -> value(r.getUsedMemoryPeak()), (r, v) -> r.setUsedMemoryPeak((long) v)),
+    USED_MEMORY_OVERHEAD("used_memory_overhead", "usedMemoryOverhead", Kind.GAUGE,
+            r -> value(r.getUsedMemoryOverhead()), (r, v) -> r.setUsedMemoryOverhead((long) v)),
+    USED_MEMORY_STARTUP("used_memory_startup", "usedMemoryStartup", Kind.GAUGE,
+            r -> value(r.getUsedMemoryStartup()), (r, v) -> r.setUsedMemoryStartup((long) v)),
+    USED_MEMORY_DATASET("used_memory_dataset", "usedMemoryDataset", Kind.GAUGE,
+            r -> value(r.getUsedMemoryDataset()), (r, v) -> r.setUsedMemoryDataset((long) v)),
+    TOTAL_SYSTEM_MEMORY("total_system_memory", "totalSystemMemory", Kind.GAUGE,
+            r -> value(r.getTotalSystemMemory()), (r, v) -> r.setTotalSystemMemory((long) v)),
+    USED_MEMORY_LUA("used_memory_lua", "usedMemoryLua", Kind.GAUGE,
+            r -> value(r.getUsedMemoryLua()), (r, v) -> r.setUsedMemoryLua((long) v)),
+    MAXMEMORY("maxmemory", "maxmemory", Kind.GAUGE,
+            r -> value(r.getMaxmemory()), (r, v) -> r.setMaxmemory((long) v)),
+    MEM_FRAGMENTATION_RATIO("mem_fragmentation_ratio", "memFragmentationRatio", Kind.GAUGE,
+            r -> value(r.getMemFragmentationRatio()), (r, v) -> r.setMemFragmentationRatio(v)),
+    ACTIVE_DEFRAG_RUNNING("active_defrag_running", "activeDefragRunning", Kind.GAUGE,
+            r -> value(r.getActiveDefragRunning()), (r, v) -> r.setActiveDefragRunning((long) v)),
+    LAZYFREE_PENDING_OBJECTS("lazyfree_pending_objects", "lazyfreePendingObjects", Kind.GAUGE,
+            r -> value(r.getLazyfreePendingObjects()), (r, v) -> r.setLazyfreePendingObjects((long) v)),
+    LAZYFREED_OBJECTS("lazyfreed_objects", "lazyfreedObjects", Kind.COUNTER,
+            r -> value(r.getLazyfreedObjects()), (r, v) -> r.setLazyfreedObjects((long) v)),
+
+    // 以下为派生指标，不直接来自INFO，由 DerivedMetrics 计算
+    COMMANDS_PER_SEC(null, "commandsPerSec", Kind.GAUGE,
+            r -> value(r.getCommandsPerSec()), (r, v) -> r.setCommandsPerSec(v)),
+    KEYSPACE_HITS_PER_SEC(null, "keyspaceHitsPerSec", Kind.GAUGE,
+            r -> value(r.getKeyspaceHitsPerSec()), (r, v) -> r.setKeyspaceHitsPerSec(v)),
+    KEYSPACE_MISSES_PER_SEC(null, "keyspaceMissesPerSec", Kind.GAUGE,
+            r -> value(r.getKeyspaceMissesPerSec()), (r, v) -> r.setKeyspaceMissesPerSec(v)),
+    KEYSPACE_HIT_RATIO(null, "keyspaceHitRatio", Kind.GAUGE,
+            r -> value(r.getKeyspaceHitRatio()), (r, v) -> r.setKeyspaceHitRatio(v)),
+    EXPIRED_KEYS_PER_SEC(null, "expiredKeysPerSec", Kind.GAUGE,
+            r -> value(r.getExpiredKeysPerSec()), (r, v) -> r.setExpiredKeysPerSec(v)),
+    EVICTED_KEYS_PER_SEC(null, "evictedKeysPerSec", Kind.GAUGE,
+            r -> value(r.getEvictedKeysPerSec()), (r, v) -> r.setEvictedKeysPerSec(v)),
+    NET_INPUT_BYTES_PER_SEC(null, "netInputBytesPerSec", Kind.GAUGE,
+            r -> value(r.getNetInputBytesPerSec()), (r, v) -> r.setNetInputBytesPerSec(v)),
+    NET_OUTPUT_BYTES_PER_SEC(null, "netOutputBytesPerSec", Kind.GAUGE,
+            r -> value(r.getNetOutputBytesPerSec()), (r, v) -> r.setNetOutputBytesPerSec(v)),
+
+    // 以下来自 INFO replication
+    CONNECTED_SLAVES("connected_slaves", "connectedSlaves", Kind.GAUGE,
+            r -> value(r.getConnectedSlaves()), (r, v) -> r.setConnectedSlaves((long) v)),
+    MASTER_REPL_OFFSET("master_repl_offset", "masterReplOffset", Kind.COUNTER,
+            r -> value(r.getMasterReplOffset()), (r, v) -> r.setMasterReplOffset((long) v)),
+    // 复制延迟由 ReplicationInfo 汇总所有从节点得到
+    REPLICA_OFFSET_LAG(null, "replicaOffsetLag", Kind.GAUGE,
+            r -> value(r.getReplicaOffsetLag()), (r, v) -> r.setReplicaOffsetLag((long) v)),
+    REPLICA_LAG_SECONDS(null, "replicaLagSeconds", Kind.GAUGE,
+            r -> value(r.getReplicaLagSeconds()), (r, v) -> r.setReplicaLagSeconds((long) v)),
+    MASTER_LINK_DOWN_SECONDS(null, "masterLinkDownSeconds", Kind.GAUGE,
+            r -> value(r.getMasterLinkDownSeconds()), (r, v) -> r.setMasterLinkDownSeconds((long) v));
+
+    /**
+     * 指标类型
+     */
+    public enum Kind {
+        /** 瞬时值 */
+        GAUGE,
+        /** 单调递增的累计值，实例重启后归零 */
+        COUNTER
+    }
+
+    private static final MonitorMetric[] VALUES = values();
+
+    private static final Map<String, MonitorMetric> BY_FIELD = new HashMap<>();
+
+    static {
+        for (MonitorMetric metric : VALUES) {
+            BY_FIELD.put(metric.field, metric);
+        }
+    }
+
+    private final String infoKey;
+
+    private final String field;
+
+    private final Kind kind;
+
+    private final ToDoubleFunction<RedisMonitorRecord> reader;
+
+    private final ObjDoubleConsumer<RedisMonitorRecord> writer;
+
+    MonitorMetric(String infoKey, String field, Kind kind,
+                  ToDoubleFunction<RedisMonitorRecord> reader, ObjDoubleConsumer<RedisMonitorRecord> writer) {
+        this.infoKey = infoKey;
+        this.field = field;
+        this.kind = kind;
+        this.reader = reader;
+        this.writer = writer;
+    }
+
+    /**
+     * INFO中的字段名，派生指标为null
+     */
+    public String getInfoKey() {
+        return infoKey;
+    }
+
+    /**
+     * RedisMonitorRecord中的属性名，也是对外API中的指标名
+     */
+    public String getField() {
+        return field;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * 是否为派生指标
+     */
+    public boolean isDerived() {
+        return infoKey == null;
+    }
+
+    /**
+     * 从监控记录读取指标值，空值按0处理
+     */
+    public double read(RedisMonitorRecord record) {
+        double value = reader.applyAsDouble(record);
+        return Double.isNaN(value) ? 0.0 : value;
+    }
+
+    /**
+     * 从监控记录读取指标值，空值返回NaN，供存储层区分缺失和0
+     */
+    public double readOrNaN(RedisMonitorRecord record) {
+        return reader.applyAsDouble(record);
+    }
+
+    /**
+     * 将指标值写回监控记录
+     */
+    public void write(RedisMonitorRecord record, double value) {
+        writer.accept(record, value);
+    }
+
+    /**
+     * 指标数量
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public static MonitorMetric of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * 根据属性名查找指标，不存在时返回null
+     */
+    public static MonitorMetric fromField(String field) {
+        return BY_FIELD.get(field);
+    }
+
+    private static double value(Number number) {
+        return number != null ? number.doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,304 @@
+package com.redis.monitor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * INFO replication 解析结果
+ *
+ * 主节点的 slaveN 行已包含每个从节点的状态、偏移量和心跳延迟，
+ * 一次 INFO 即可得到整组从节点的延迟，不需要逐个访问从节点。
+ */
+public class ReplicationInfo {
+
+    private static final byte[] SLAVE_PREFIX = "slave".getBytes(StandardCharsets.US_ASCII);
+
+    private String role;
+
+    private String replid;
+
+    private long masterReplOffset;
+
+    private String masterHost;
+
+    private int masterPort;
+
+    private String masterLinkStatus;
+
+    private long masterLastIoSecondsAgo = -1;
+
+    private long masterLinkDownSinceSeconds;
+
+    private boolean masterSyncInProgress;
+
+    private long slaveReplOffset;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * 主节点视角下的一个从节点
+     */
+    public static class Replica {
+
+        private final String ip;
+
+        private final int port;
+
+        private final String state;
+
+        private final long offset;
+
+        private final long lagSeconds;
+
+        Replica(String ip, int port, String state, long offset, long lagSeconds) {
+            this.ip = ip;
+            this.port = port;
+            this.state = state;
+            this.offset = offset;
+            this.lagSeconds = lagSeconds;
+        }
+
+        public String getIp() {
+            return ip;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public String getAddress() {
+            return ip + ":" + port;
+        }
+
+        public String getState() {
+            return state;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        /** 距上次收到该从节点REPLCONF ACK的秒数 */
+        public long getLagSeconds() {
+            return lagSeconds;
+        }
+    }
+
+    public static ReplicationInfo parse(byte[] data) {
+        ReplicationInfo info = new ReplicationInfo();
+        int length = data.length;
+        int pos = 0;
+        // 全量INFO中只解析 # Replication 部分，没有标题的回复整体解析
+        boolean inSection = true;
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int end = lineEnd > pos && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (end > pos && data[pos] == '#') {
+                inSection = isReplicationHeader(data, pos, end);
+            } else if (end > pos && inSection) {
+                info.parseLine(data, pos, end);
+            }
+            pos = lineEnd + 1;
+        }
+        return info;
+    }
+
+    private static boolean isReplicationHeader(byte[] data, int from, int to) {
+        String header = new String(data, from + 1, to - from - 1, StandardCharsets.US_ASCII).trim();
+        return "Replication".equalsIgnoreCase(header);
+    }
+
+    private void parseLine(byte[] data, int from, int to) {
+        int colon = from;
+        while (colon < to && data[colon] != ':') {
+            colon++;
+        }
+        if (colon >= to) {
+            return;
+        }
+        if (isReplicaLine(data, from, colon)) {
+            parseReplica(new String(data, colon + 1, to - colon - 1, StandardCharsets.US_ASCII));
+            return;
+        }
+        String key = new String(data, from, colon - from, StandardCharsets.US_ASCII);
+        String value = new String(data, colon + 1, to - colon - 1, StandardCharsets.US_ASCII);
+        switch (key) {
+            case "role":
+                role = value;
+                break;
+            case "master_replid":
+                replid = value;
+                break;
+            case "master_repl_offset":
+                masterReplOffset = toLong(value, 0L);
+                break;
+            case "master_host":
+                masterHost = value;
+                break;
+            case "master_port":
+                masterPort = (int) toLong(value, 0L);
+                break;
+            case "master_link_status":
+                masterLinkStatus = value;
+                break;
+            case "master_last_io_seconds_ago":
+                masterLastIoSecondsAgo = toLong(value, -1L);
+                break;
+            case "master_link_down_since_seconds":
+                masterLinkDownSinceSeconds = toLong(value, 0L);
+                break;
+            case "master_sync_in_progress":
+                masterSyncInProgress = "1".equals(value);
+                break;
+            case "slave_repl_offset":
+                slaveReplOffset = toLong(value, 0L);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * slave0、slave1... 这样的行，排除 slave_repl_offset 等同前缀字段
+     */
+    private static boolean isReplicaLine(byte[] data, int from, int colon) {
+        if (colon - from <= SLAVE_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < SLAVE_PREFIX.length; i++) {
+            if (data[from + i] != SLAVE_PREFIX[i]) {
+                return false;
+            }
+        }
+        for (int i = from + SLAVE_PREFIX.length; i < colon; i++) {
+            if (data[i] < '0' || data[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void parseReplica(String fields) {
+        String ip = null;
+        int port = 0;
+        String state = null;
+        long offset = 0;
+        long lag = -1;
+        for (String field : fields.split(",")) {
+            int equals = field.indexOf('=');
+            if (equals < 0) {
+                continue;
+            }
+            String name = field.substring(0, equals);
+            String value = field.substring(equals + 1);
+            switch (name) {
+                case "ip":
+                    ip = value;
+                    break;
+                case "port":
+                    port = (int) toLong(value, 0L);
+                    break;
+                case "state":
+                    state = value;
+                    break;
+                case "offset":
+                    offset = toLong(value, 0L);
+                    break;
+                case "lag":
+                    lag = toLong(value, -1L);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (ip != null) {
+            replicas.add(new Replica(ip, port, state, offset, lag));
+        }
+    }
+
+    private static long toLong(String value, long defaultValue) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public boolean isMaster() {
+        return "master".equals(role);
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getReplid() {
+        return replid;
+    }
+
+    public long getMasterReplOffset() {
+        return masterReplOffset;
+    }
+
+    public String getMasterHost() {
+        return masterHost;
+    }
+
+    public int getMasterPort() {
+        return masterPort;
+    }
+
+    public boolean isMasterLinkUp() {
+        return "up".equals(masterLinkStatus);
+    }
+
+    public long getMasterLastIoSecondsAgo() {
+        return masterLastIoSecondsAgo;
+    }
+
+    public long getMasterLinkDownSinceSeconds() {
+        return masterLinkDownSinceSeconds;
+    }
+
+    public boolean isMasterSyncInProgress() {
+        return masterSyncInProgress;
+    }
+
+    public long getSlaveReplOffset() {
+        return slaveReplOffset;
+    }
+
+    public List<Replica> getReplicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    /**
+     * 所有在线从节点中最大的偏移量落后字节数，没有从节点时为0
+     */
+    public long getMaxOffsetLag() {
+        long max = 0;
+        for (Replica replica : replicas) {
+            max = Math.max(max, masterReplOffset - replica.offset);
+        }
+        return max;
+    }
+
+    /**
+     * 主节点视角为从节点最大心跳延迟，从节点视角为距上次收到主节点数据的秒数
+     */
+    public long getMaxLagSeconds() {
+        if (!isMaster()) {
+            return Math.max(0L, masterLastIoSecondsAgo);
+        }
+        long max = 0;
+        for (Replica replica : replicas) {
+            max = Math.max(max, replica.lagSeconds);
+        }
+        return max;
+    }
+}
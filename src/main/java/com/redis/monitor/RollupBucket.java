@@ -0,0 +1,213 @@
+package com.redis.monitor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 单个时间桶内各指标的汇总值: 最小/最大/总和/最后值，以及累计型指标的增量
+ *
+ * 样本中缺失的指标(NaN)不参与汇总，每个指标单独计数；桶内某指标没有任何样本时各汇总值均为NaN
+ */
+public class RollupBucket {
+
+    /** 编码格式标记，旧格式首个short为指标数(正数)，没有按指标的样本数 */
+    private static final short FORMAT_WITH_COUNTS = -2;
+
+    private final long startMillis;
+
+    private int count;
+
+    private final int[] counts;
+
+    private final double[] min;
+
+    private final double[] max;
+
+    private final double[] sum;
+
+    private final double[] last;
+
+    private final double[] delta;
+
+    public RollupBucket(long startMillis, int metricCount) {
+        this.startMillis = startMillis;
+        this.counts = new int[metricCount];
+        this.min = new double[metricCount];
+        this.max = new double[metricCount];
+        this.sum = new double[metricCount];
+        this.last = new double[metricCount];
+        this.delta = new double[metricCount];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * 累加一个原始样本，deltas为累计型指标相对上一样本的增量，values中为NaN的指标跳过
+     */
+    public void add(double[] values, double[] deltas) {
+        for (int i = 0; i < min.length; i++) {
+            double value = values[i];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            counts[i]++;
+            if (value < min[i]) {
+                min[i] = value;
+            }
+            if (value > max[i]) {
+                max[i] = value;
+            }
+            sum[i] += value;
+            last[i] = value;
+            delta[i] += deltas[i];
+        }
+        count++;
+    }
+
+    /**
+     * 合并一个更细粒度且时间更晚的桶
+     */
+    public void merge(RollupBucket other) {
+        int metrics = Math.min(min.length, other.min.length);
+        for (int i = 0; i < metrics; i++) {
+            if (other.counts[i] == 0) {
+                continue;
+            }
+            counts[i] += other.counts[i];
+            min[i] = Math.min(min[i], other.min[i]);
+            max[i] = Math.max(max[i], other.max[i]);
+            sum[i] += other.sum[i];
+            last[i] = other.last[i];
+            delta[i] += other.delta[i];
+        }
+        count += other.count;
+    }
+
+    /**
+     * 复制当前桶，用于在锁外读取未封存的桶
+     */
+    public RollupBucket copy() {
+        RollupBucket copy = new RollupBucket(startMillis, min.length);
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getMetricCount() {
+        return min.length;
+    }
+
+    /**
+     * 桶内该指标的有效样本数
+     */
+    public int getCount(int metric) {
+        return counts[metric];
+    }
+
+    public double getMin(int metric) {
+        return counts[metric] > 0 ? min[metric] : Double.NaN;
+    }
+
+    public double getMax(int metric) {
+        return counts[metric] > 0 ? max[metric] : Double.NaN;
+    }
+
+    public double getAvg(int metric) {
+        return counts[metric] > 0 ? sum[metric] / counts[metric] : Double.NaN;
+    }
+
+    public double getLast(int metric) {
+        return counts[metric] > 0 ? last[metric] : Double.NaN;
+    }
+
+    public double getDelta(int metric) {
+        return counts[metric] > 0 ? delta[metric] : Double.NaN;
+    }
+
+    /**
+     * 编码为压缩字节数组: 每个指标先写有效样本数，瞬时值指标保存min/max/sum/last，累计型指标只保存last/delta
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeShort(FORMAT_WITH_COUNTS);
+            out.writeShort(min.length);
+            for (int i = 0; i < min.length; i++) {
+                out.writeInt(counts[i]);
+                if (isCounter(i)) {
+                    out.writeDouble(last[i]);
+                    out.writeDouble(delta[i]);
+                } else {
+                    out.writeDouble(min[i]);
+                    out.writeDouble(max[i]);
+                    out.writeDouble(sum[i]);
+                    out.writeDouble(last[i]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 从压缩字节数组解码，旧数据中不存在的指标视为没有样本；
+     * 旧格式没有按指标的样本数，以桶的样本数计
+     */
+    public static RollupBucket decode(long startMillis, int count, byte[] data, int metricCount) {
+        RollupBucket bucket = new RollupBucket(startMillis, metricCount);
+        bucket.count = count;
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            int stored = in.readShort();
+            boolean withCounts = stored == FORMAT_WITH_COUNTS;
+            if (withCounts) {
+                stored = in.readShort();
+            }
+            for (int i = 0; i < stored; i++) {
+                int metricSamples = withCounts ? in.readInt() : count;
+                boolean counter = isCounter(i);
+                double minValue = counter ? 0 : in.readDouble();
+                double maxValue = counter ? 0 : in.readDouble();
+                double sumValue = counter ? 0 : in.readDouble();
+                double lastValue = in.readDouble();
+                double deltaValue = counter ? in.readDouble() : 0;
+                if (i >= metricCount || metricSamples == 0) {
+                    continue;
+                }
+                bucket.counts[i] = metricSamples;
+                bucket.last[i] = lastValue;
+                if (counter) {
+                    bucket.min[i] = lastValue;
+                    bucket.max[i] = lastValue;
+                    bucket.sum[i] = lastValue * metricSamples;
+                    bucket.delta[i] = deltaValue;
+                } else {
+                    bucket.min[i] = minValue;
+                    bucket.max[i] = maxValue;
+                    bucket.sum[i] = sumValue;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bucket;
+    }
+
+    private static boolean isCounter(int metric) {
+        return metric < MonitorMetric.count() && MonitorMetric.of(metric).getKind() == MonitorMetric.Kind.COUNTER;
+    }
+}
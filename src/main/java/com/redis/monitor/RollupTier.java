@@ -0,0 +1,28 @@
+package com.redis.monitor;
+
+/**
+ * 汇总层级，按粒度从细到粗排列
+ */
+public enum RollupTier {
+
+    MINUTE_1(60_000L),
+    MINUTE_10(600_000L),
+    HOUR_1(3_600_000L);
+
+    private final long bucketMillis;
+
+    RollupTier(long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * 时间戳所在桶的起始时间
+     */
+    public long bucketStart(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, bucketMillis);
+    }
+}
@@ -0,0 +1,19 @@
+package com.redis.monitor;
+
+/**
+ * 一条样本的只读视图，按列下标(即 MonitorMetric 的序号)读取指标值
+ *
+ * 由存储层直接从底层缓冲区读取，遍历时不为每行创建对象
+ */
+public interface SampleView {
+
+    /**
+     * 列下标对应的值，不存在的列或空值返回0
+     */
+    double get(int index);
+
+    /**
+     * 是否有该列的值，写入时还没有该指标的旧数据或采集时缺失的指标返回false
+     */
+    boolean has(int index);
+}
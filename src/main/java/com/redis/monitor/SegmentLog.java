@@ -0,0 +1,617 @@
+package com.redis.monitor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 单个连接的追加写段日志
+ *
+ * 每个段文件整体映射到内存，文件头为64字节固定部分加各列名称(UTF-8，换行分隔，补齐到8字节)，之后是定宽记录:
+ * 时间戳(8字节) + 每列一个double(8字节) + CRC32(4字节) + 填充(4字节)。
+ * 读取时按列名把段内的列对应到当前的列，列的增删和调整顺序不会让旧段读错列，当前有而段内没有的列视为缺失。
+ * 版本1的段没有列名，按打开时给出的列顺序读取。
+ * 每隔 {@link #INDEX_INTERVAL} 条记录在内存中保留一个时间戳作为稀疏索引，范围查询先二分定位再顺序扫描，
+ * 读取时直接从映射缓冲区取值，不复制记录。
+ *
+ * 写入时先写数值再写时间戳和校验和；打开时逐条校验，遇到时间戳为0、校验和不符或时间倒退的记录即视为
+ * 崩溃时未写完的尾部，从该处继续追加。写入由内部锁串行化，读取与写入并发时只看到已完整写入的记录。
+ * Java 8 无法主动解除映射，删除的段文件在映射对象被回收后才真正释放。
+ */
+public class SegmentLog {
+
+    public static final String SUFFIX = ".seg";
+
+    public static final int HEADER_SIZE = 64;
+
+    public static final int INDEX_INTERVAL = 64;
+
+    private static final int MAGIC = 0x524D534C;
+
+    private static final short VERSION = 2;
+
+    /** 没有列名的旧版本 */
+    private static final short VERSION_POSITIONAL = 1;
+
+    /**
+     * 遍历回调
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * 返回false时停止遍历
+         */
+        boolean visit(long timestamp, SampleView values);
+    }
+
+    private final Path directory;
+
+    private final String[] columns;
+
+    private final int recordsPerSegment;
+
+    /** 按时间排序的段，变更时整体替换，读取方无锁 */
+    private volatile Segment[] segments = new Segment[0];
+
+    private final CRC32 writeCrc = new CRC32();
+
+    private long nextSequence;
+
+    private long lastTimestamp;
+
+    private boolean dirty;
+
+    private long recoveredRecords;
+
+    private long truncatedRecords;
+
+    private int corruptSegments;
+
+    private long rejectedRecords;
+
+    /** 已调用 delete()，之后的写入一律拒绝，不再重建目录 */
+    private boolean deleted;
+
+    /**
+     * 打开目录下已有的段并恢复尾部，目录不存在时创建
+     *
+     * columns为当前各列的名称，append和读取时的列下标都以此为准
+     */
+    public SegmentLog(Path directory, String[] columns, int recordsPerSegment) throws IOException {
+        this.directory = directory;
+        this.columns = columns.clone();
+        this.recordsPerSegment = recordsPerSegment;
+        Files.createDirectories(directory);
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(null);
+        List<Segment> opened = new ArrayList<>();
+        for (Path file : files) {
+            nextSequence = Math.max(nextSequence, sequenceOf(file) + 1);
+            Segment segment = Segment.open(file, this.columns);
+            if (segment == null) {
+                // 文件头损坏，改名保留以便排查
+                corruptSegments++;
+                Files.move(file, file.resolveSibling(file.getFileName() + ".corrupt"), StandardCopyOption.REPLACE_EXISTING);
+                continue;
+            }
+            truncatedRecords += segment.truncated;
+            if (segment.size == 0) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            recoveredRecords += segment.size;
+            lastTimestamp = Math.max(lastTimestamp, segment.timestamp(segment.size - 1));
+            opened.add(segment);
+        }
+        segments = opened.toArray(new Segment[0]);
+    }
+
+    /**
+     * 追加一条记录，时间早于最后一条时拒绝并返回false
+     *
+     * values按列下标排列，长度不足的列写0
+     */
+    public synchronized boolean append(long timestamp, double[] values) throws IOException {
+        if (deleted || timestamp <= 0 || timestamp < lastTimestamp) {
+            rejectedRecords++;
+            return false;
+        }
+        Segment[] current = segments;
+        Segment tail = current.length > 0 ? current[current.length - 1] : null;
+        if (tail == null || tail.size >= tail.capacity || !Arrays.equals(tail.columns, columns)) {
+            if (tail != null && dirty) {
+                tail.buffer.force();
+            }
+            Files.createDirectories(directory);
+            tail = Segment.create(directory.resolve(String.format("%010d", nextSequence++) + SUFFIX),
+                    columns, recordsPerSegment, timestamp);
+            // 写入第一条后再发布，读取方看到的段都至少有一条记录
+            tail.append(timestamp, values, writeCrc);
+            Segment[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = tail;
+            segments = next;
+        } else {
+            tail.append(timestamp, values, writeCrc);
+        }
+        lastTimestamp = timestamp;
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * 把尾段已写入的页刷到磁盘
+     */
+    public synchronized void force() {
+        Segment[] current = segments;
+        if (dirty && current.length > 0) {
+            current[current.length - 1].buffer.force();
+        }
+        dirty = false;
+    }
+
+    /**
+     * 按时间升序遍历 [from, to] 内的记录，返回遍历的条数
+     */
+    public long scan(long from, long to, Visitor visitor) {
+        Cursor cursor = new Cursor();
+        long visited = 0;
+        for (Segment segment : segments) {
+            int size = segment.size;
+            if (segment.timestamp(size - 1) < from) {
+                continue;
+            }
+            if (segment.timestamp(0) > to) {
+                break;
+            }
+            cursor.segment = segment;
+            for (int i = segment.lowerBound(from, size); i < size; i++) {
+                long timestamp = segment.timestamp(i);
+                if (timestamp > to) {
+                    return visited;
+                }
+                cursor.offset = segment.offset(i);
+                visited++;
+                if (!visitor.visit(timestamp, cursor)) {
+                    return visited;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * 按时间倒序遍历 [from, to] 内的记录，返回遍历的条数
+     */
+    public long scanBackward(long from, long to, Visitor visitor) {
+        Cursor cursor = new Cursor();
+        long visited = 0;
+        Segment[] current = segments;
+        for (int s = current.length - 1; s >= 0; s--) {
+            Segment segment = current[s];
+            int size = segment.size;
+            if (segment.timestamp(0) > to) {
+                continue;
+            }
+            if (segment.timestamp(size - 1) < from) {
+                break;
+            }
+            cursor.segment = segment;
+            for (int i = segment.upperBound(to, size); i >= 0; i--) {
+                long timestamp = segment.timestamp(i);
+                if (timestamp < from) {
+                    return visited;
+                }
+                cursor.offset = segment.offset(i);
+                visited++;
+                if (!visitor.visit(timestamp, cursor)) {
+                    return visited;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * 删除最后一条记录早于cutoff的整段，返回删除的段数
+     */
+    public synchronized int dropBefore(long cutoff) throws IOException {
+        Segment[] current = segments;
+        int drop = 0;
+        while (drop < current.length && current[drop].timestamp(current[drop].size - 1) < cutoff) {
+            drop++;
+        }
+        if (drop == 0) {
+            return 0;
+        }
+        segments = Arrays.copyOfRange(current, drop, current.length);
+        if (drop == current.length) {
+            dirty = false;
+        }
+        for (int i = 0; i < drop; i++) {
+            Files.deleteIfExists(current[i].path);
+        }
+        return drop;
+    }
+
+    /**
+     * 删除全部段和目录，之后的写入均被拒绝
+     */
+    public synchronized void delete() throws IOException {
+        deleted = true;
+        Segment[] current = segments;
+        segments = new Segment[0];
+        dirty = false;
+        for (Segment segment : current) {
+            Files.deleteIfExists(segment.path);
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    public long count() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.size;
+        }
+        return count;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * 段文件占用的字节数(含预分配的未写部分)
+     */
+    public long sizeBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.buffer.capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * 最早一条记录的时间戳，没有记录时返回0
+     */
+    public long firstTimestamp() {
+        Segment[] current = segments;
+        return current.length > 0 ? current[0].timestamp(0) : 0L;
+    }
+
+    /**
+     * 最后一条记录的时间戳，没有记录时返回0
+     */
+    public long lastTimestamp() {
+        Segment[] current = segments;
+        if (current.length == 0) {
+            return 0L;
+        }
+        Segment tail = current[current.length - 1];
+        return tail.timestamp(tail.size - 1);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /** 打开时恢复的记录数 */
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    /** 打开时丢弃的未写完尾部记录数 */
+    public long getTruncatedRecords() {
+        return truncatedRecords;
+    }
+
+    /** 文件头损坏而改名的段数 */
+    public int getCorruptSegments() {
+        return corruptSegments;
+    }
+
+    /** 因时间倒退被拒绝的记录数 */
+    public synchronized long getRejectedRecords() {
+        return rejectedRecords;
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * 记录在映射缓冲区中的位置，遍历时复用同一个实例
+     */
+    private static final class Cursor implements SampleView {
+
+        private Segment segment;
+
+        private int offset;
+
+        @Override
+        public double get(int index) {
+            double value = raw(index);
+            return Double.isNaN(value) ? 0.0 : value;
+        }
+
+        @Override
+        public boolean has(int index) {
+            return !Double.isNaN(raw(index));
+        }
+
+        /**
+         * 空值以NaN存放，不存在的列同样返回NaN
+         */
+        private double raw(int index) {
+            int column = index < segment.mapping.length ? segment.mapping[index] : -1;
+            return column >= 0 ? segment.buffer.getDouble(offset + 8 + 8 * column) : Double.NaN;
+        }
+    }
+
+    /**
+     * 一个映射到内存的段文件
+     */
+    private static final class Segment {
+
+        final Path path;
+
+        final MappedByteBuffer buffer;
+
+        /** 只在持有日志锁时使用，用于计算校验和 */
+        final ByteBuffer checksumView;
+
+        /** 段内各列的名称 */
+        final String[] columns;
+
+        /** 当前列下标 -> 段内列下标，段内没有的列为-1 */
+        final int[] mapping;
+
+        final int columnCount;
+
+        /** 文件头长度，即第一条记录的偏移 */
+        final int headerSize;
+
+        final int payloadSize;
+
+        final int recordSize;
+
+        final int capacity;
+
+        /** 第 k 项为第 k * INDEX_INTERVAL 条记录的时间戳 */
+        final long[] index;
+
+        /** 已完整写入的记录数，先写记录再更新 */
+        volatile int size;
+
+        int truncated;
+
+        private Segment(Path path, MappedByteBuffer buffer, String[] columns, String[] current, int headerSize,
+                        int capacity) {
+            this.path = path;
+            this.buffer = buffer;
+            this.checksumView = buffer.duplicate();
+            this.columns = columns;
+            this.mapping = new int[current.length];
+            for (int i = 0; i < current.length; i++) {
+                mapping[i] = indexOf(columns, current[i]);
+            }
+            this.columnCount = columns.length;
+            this.headerSize = headerSize;
+            this.payloadSize = 8 + 8 * columnCount;
+            this.recordSize = payloadSize + 8;
+            this.capacity = capacity;
+            this.index = new long[(capacity + INDEX_INTERVAL - 1) / INDEX_INTERVAL];
+        }
+
+        static Segment create(Path path, String[] columns, int capacity, long baseTimestamp) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                byte[] names = String.join("\n", columns).getBytes(StandardCharsets.UTF_8);
+                int headerSize = (HEADER_SIZE + names.length + 7) & ~7;
+                int recordSize = 16 + 8 * columns.length;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        headerSize + (long) capacity * recordSize);
+                buffer.putInt(0, MAGIC);
+                buffer.putShort(4, VERSION);
+                buffer.putShort(6, (short) columns.length);
+                buffer.putInt(8, recordSize);
+                buffer.putInt(12, capacity);
+                buffer.putLong(16, baseTimestamp);
+                buffer.putInt(24, headerSize);
+                buffer.putInt(28, names.length);
+                ByteBuffer nameView = buffer.duplicate();
+                nameView.position(HEADER_SIZE);
+                nameView.put(names);
+                buffer.force();
+                return new Segment(path, buffer, columns.clone(), columns, headerSize, capacity);
+            }
+        }
+
+        /**
+         * 映射已有段并校验记录，文件头无效时返回null
+         */
+        static Segment open(Path path, String[] current) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long fileSize = channel.size();
+                if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                    return null;
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+                int columnCount = buffer.getShort(6);
+                short version = buffer.getShort(4);
+                if (buffer.getInt(0) != MAGIC || columnCount <= 0 || buffer.getInt(8) != 16 + 8 * columnCount) {
+                    return null;
+                }
+                String[] columns;
+                int headerSize;
+                if (version == VERSION) {
+                    headerSize = buffer.getInt(24);
+                    int nameLength = buffer.getInt(28);
+                    if (nameLength < 0 || headerSize < HEADER_SIZE + nameLength || headerSize > fileSize) {
+                        return null;
+                    }
+                    byte[] names = new byte[nameLength];
+                    ByteBuffer nameView = buffer.duplicate();
+                    nameView.position(HEADER_SIZE);
+                    nameView.get(names);
+                    columns = new String(names, StandardCharsets.UTF_8).split("\n", -1);
+                    if (columns.length != columnCount) {
+                        return null;
+                    }
+                } else if (version == VERSION_POSITIONAL) {
+                    headerSize = HEADER_SIZE;
+                    columns = Arrays.copyOf(current, columnCount);
+                    for (int i = current.length; i < columnCount; i++) {
+                        columns[i] = "";
+                    }
+                } else {
+                    return null;
+                }
+                int capacity = (int) Math.min(buffer.getInt(12), (fileSize - headerSize) / (16 + 8 * columnCount));
+                Segment segment = new Segment(path, buffer, columns, current, headerSize, capacity);
+                segment.recover();
+                return segment;
+            }
+        }
+
+        private static int indexOf(String[] columns, String name) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void recover() {
+            CRC32 crc = new CRC32();
+            long previous = 0;
+            int n = 0;
+            while (n < capacity) {
+                int offset = offset(n);
+                long timestamp = buffer.getLong(offset);
+                if (timestamp <= 0 || timestamp < previous || checksum(offset, crc) != buffer.getInt(offset + payloadSize)) {
+                    break;
+                }
+                if (n % INDEX_INTERVAL == 0) {
+                    index[n / INDEX_INTERVAL] = timestamp;
+                }
+                previous = timestamp;
+                n++;
+            }
+            if (n < capacity && buffer.getLong(offset(n)) != 0) {
+                // 清掉未写完的记录，后续追加从这里覆盖
+                truncated = 1;
+                int offset = offset(n);
+                for (int i = 0; i < recordSize; i += 8) {
+                    buffer.putLong(offset + i, 0L);
+                }
+            }
+            size = n;
+        }
+
+        void append(long timestamp, double[] values, CRC32 crc) {
+            int n = size;
+            int offset = offset(n);
+            for (int i = 0; i < columnCount; i++) {
+                buffer.putDouble(offset + 8 + 8 * i, i < values.length ? values[i] : 0.0);
+            }
+            buffer.putLong(offset, timestamp);
+            buffer.putInt(offset + payloadSize, checksum(offset, crc));
+            if (n % INDEX_INTERVAL == 0) {
+                index[n / INDEX_INTERVAL] = timestamp;
+            }
+            size = n + 1;
+        }
+
+        private int checksum(int offset, CRC32 crc) {
+            crc.reset();
+            checksumView.clear();
+            checksumView.position(offset);
+            checksumView.limit(offset + payloadSize);
+            crc.update(checksumView);
+            return (int) crc.getValue();
+        }
+
+        int offset(int n) {
+            return headerSize + n * recordSize;
+        }
+
+        long timestamp(int n) {
+            return buffer.getLong(offset(n));
+        }
+
+        /**
+         * 第一条时间戳不早于from的记录下标，没有时返回size
+         */
+        int lowerBound(long from, int size) {
+            int low = 0;
+            int high = (size - 1) / INDEX_INTERVAL;
+            int start = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (index[mid] < from) {
+                    start = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            int n = start * INDEX_INTERVAL;
+            while (n < size && timestamp(n) < from) {
+                n++;
+            }
+            return n;
+        }
+
+        /**
+         * 最后一条时间戳不晚于to的记录下标，没有时返回-1
+         */
+        int upperBound(long to, int size) {
+            int low = 0;
+            int high = (size - 1) / INDEX_INTERVAL;
+            int end = high + 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (index[mid] > to) {
+                    end = mid;
+                    high = mid - 1;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            int n = Math.min(size, end * INDEX_INTERVAL) - 1;
+            while (n >= 0 && timestamp(n) > to) {
+                n--;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.redis.monitor;
+
+import java.util.Arrays;
+
+/**
+ * 时间序列降采样
+ *
+ * LTTB(Largest-Triangle-Three-Buckets)保留视觉形状，用于已在内存中的序列；
+ * {@link MinMaxBucketer} 按固定时间桶保留极值，可在流式读取时使用，内存与点数无关。
+ */
+public final class SeriesDownsampler {
+
+    private SeriesDownsampler() {
+    }
+
+    /**
+     * LTTB降采样，返回不超过threshold个点
+     */
+    public static DownsampledSeries lttb(long[] timestamps, double[] values, int size, int threshold) {
+        if (threshold >= size || threshold < 3) {
+            return new DownsampledSeries(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+        }
+        long[] sampledTimestamps = new long[threshold];
+        double[] sampledValues = new double[threshold];
+        int sampled = 0;
+
+        double every = (double) (size - 2) / (threshold - 2);
+        int a = 0;
+        sampledTimestamps[sampled] = timestamps[a];
+        sampledValues[sampled++] = values[a];
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // 下一个桶的平均点
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += timestamps[j];
+                avgY += values[j];
+            }
+            int avgLength = Math.max(1, avgEnd - avgStart);
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // 当前桶中与前一选中点、下一桶平均点构成最大三角形的点
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double pointAX = timestamps[a];
+            double pointAY = values[a];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((pointAX - avgX) * (values[j] - pointAY)
+                        - (pointAX - timestamps[j]) * (avgY - pointAY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampledTimestamps[sampled] = timestamps[next];
+            sampledValues[sampled++] = values[next];
+            a = next;
+        }
+
+        sampledTimestamps[sampled] = timestamps[size - 1];
+        sampledValues[sampled++] = values[size - 1];
+        return new DownsampledSeries(Arrays.copyOf(sampledTimestamps, sampled), Arrays.copyOf(sampledValues, sampled));
+    }
+
+    /**
+     * 流式极值分桶: 每个时间桶输出最小值和最大值两个点
+     */
+    public static class MinMaxBucketer {
+
+        private final long from;
+
+        private final long bucketWidth;
+
+        private final long[] minTimestamps;
+
+        private final double[] minValues;
+
+        private final long[] maxTimestamps;
+
+        private final double[] maxValues;
+
+        private final boolean[] filled;
+
+        /**
+         * points为期望输出的最大点数
+         */
+        public MinMaxBucketer(long from, long to, int points) {
+            int buckets = Math.max(1, points / 2);
+            this.from = from;
+            this.bucketWidth = Math.max(1L, (to - from + buckets) / buckets);
+            this.minTimestamps = new long[buckets];
+            this.minValues = new double[buckets];
+            this.maxTimestamps = new long[buckets];
+            this.maxValues = new double[buckets];
+            this.filled = new boolean[buckets];
+        }
+
+        public void add(long timestamp, double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            int bucket = (int) Math.min(filled.length - 1, Math.max(0L, (timestamp - from) / bucketWidth));
+            if (!filled[bucket]) {
+                filled[bucket] = true;
+                minTimestamps[bucket] = timestamp;
+                minValues[bucket] = value;
+                maxTimestamps[bucket] = timestamp;
+                maxValues[bucket] = value;
+                return;
+            }
+            if (value < minValues[bucket]) {
+                minValues[bucket] = value;
+                minTimestamps[bucket] = timestamp;
+            }
+            if (value > maxValues[bucket]) {
+                maxValues[bucket] = value;
+                maxTimestamps[bucket] = timestamp;
+            }
+        }
+
+        /**
+         * 输出结果，同一桶内的两个点按时间排序
+         */
+        public DownsampledSeries result() {
+            long[] timestamps = new long[filled.length * 2];
+            double[] values = new double[filled.length * 2];
+            int size = 0;
+            for (int i = 0; i < filled.length; i++) {
+                if (!filled[i]) {
+                    continue;
+                }
+                boolean minFirst = minTimestamps[i] <= maxTimestamps[i];
+                timestamps[size] = minFirst ? minTimestamps[i] : maxTimestamps[i];
+                values[size++] = minFirst ? minValues[i] : maxValues[i];
+                if (minTimestamps[i] != maxTimestamps[i]) {
+                    timestamps[size] = minFirst ? maxTimestamps[i] : minTimestamps[i];
+                    values[size++] = minFirst ? maxValues[i] : minValues[i];
+                }
+            }
+            return new DownsampledSeries(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.redis.repository;
+
+import com.redis.entity.RedisAlertEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 告警事件Repository
+ */
+@Repository
+public interface RedisAlertEventRepository extends JpaRepository<RedisAlertEvent, Long> {
+
+    /**
+     * 按时间范围查询告警事件，connectionId为空时查询所有连接，按时间倒序
+     */
+    @Query("SELECT e FROM RedisAlertEvent e WHERE (:connectionId IS NULL OR e.connectionId = :connectionId) " +
+           "AND e.eventTime BETWEEN :startTime AND :endTime ORDER BY e.eventTime DESC")
+    List<RedisAlertEvent> findByTimeRange(@Param("connectionId") Long connectionId,
+                                          @Param("startTime") LocalDateTime startTime,
+                                          @Param("endTime") LocalDateTime endTime,
+                                          Pageable pageable);
+
+    /**
+     * 删除早于指定时间的告警事件
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RedisAlertEvent e WHERE e.eventTime < :beforeTime")
+    int deleteBefore(@Param("beforeTime") LocalDateTime beforeTime);
+}
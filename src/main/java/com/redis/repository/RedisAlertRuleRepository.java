@@ -0,0 +1,19 @@
+package com.redis.repository;
+
+import com.redis.entity.RedisAlertRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 告警规则Repository
+ */
+@Repository
+public interface RedisAlertRuleRepository extends JpaRepository<RedisAlertRule, Long> {
+
+    /**
+     * 查找所有启用的规则
+     */
+    List<RedisAlertRule> findByEnabledTrue();
+}
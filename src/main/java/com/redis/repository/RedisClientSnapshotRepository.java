@@ -0,0 +1,37 @@
+package com.redis.repository;
+
+import com.redis.entity.RedisClientSnapshot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Redis客户端快照Repository
+ */
+@Repository
+public interface RedisClientSnapshotRepository extends JpaRepository<RedisClientSnapshot, Long> {
+
+    /**
+     * 按时间范围查询快照，按时间正序
+     */
+    @Query("SELECT s FROM RedisClientSnapshot s WHERE s.connectionId = :connectionId " +
+           "AND s.recordTime BETWEEN :startTime AND :endTime ORDER BY s.recordTime ASC")
+    List<RedisClientSnapshot> findByConnectionIdAndTimeRange(@Param("connectionId") Long connectionId,
+                                                            @Param("startTime") LocalDateTime startTime,
+                                                            @Param("endTime") LocalDateTime endTime,
+                                                            Pageable pageable);
+
+    /**
+     * 距离指定时间最近的不晚于该时间的快照，用于解释某个监控样本
+     */
+    @Query("SELECT s FROM RedisClientSnapshot s WHERE s.connectionId = :connectionId " +
+           "AND s.recordTime <= :time ORDER BY s.recordTime DESC")
+    List<RedisClientSnapshot> findLatestAtOrBefore(@Param("connectionId") Long connectionId,
+                                                   @Param("time") LocalDateTime time,
+                                                   Pageable pageable);
+}
@@ -0,0 +1,40 @@
+package com.redis.repository;
+
+import com.redis.entity.RedisCommandStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Redis命令统计Repository
+ */
+@Repository
+public interface RedisCommandStatRepository extends JpaRepository<RedisCommandStat, Long> {
+
+    /**
+     * 按命令汇总时间范围内的增量，按总耗时倒序
+     *
+     * 每行为 [command, calls, usec, rejectedCalls, failedCalls]
+     */
+    @Query("SELECT s.command, SUM(s.calls), SUM(s.usec), SUM(s.rejectedCalls), SUM(s.failedCalls) " +
+           "FROM RedisCommandStat s WHERE s.connectionId = :connectionId " +
+           "AND s.recordTime BETWEEN :startTime AND :endTime " +
+           "GROUP BY s.command ORDER BY SUM(s.usec) DESC")
+    List<Object[]> summarizeByCommand(@Param("connectionId") Long connectionId,
+                                      @Param("startTime") LocalDateTime startTime,
+                                      @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 查询单个命令的增量序列
+     */
+    @Query("SELECT s FROM RedisCommandStat s WHERE s.connectionId = :connectionId AND s.command = :command " +
+           "AND s.recordTime BETWEEN :startTime AND :endTime ORDER BY s.recordTime ASC")
+    List<RedisCommandStat> findByCommandAndTimeRange(@Param("connectionId") Long connectionId,
+                                                     @Param("command") String command,
+                                                     @Param("startTime") LocalDateTime startTime,
+                                                     @Param("endTime") LocalDateTime endTime);
+}
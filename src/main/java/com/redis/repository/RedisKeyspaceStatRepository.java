@@ -0,0 +1,26 @@
+package com.redis.repository;
+
+import com.redis.entity.RedisKeyspaceStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Redis键空间统计Repository
+ */
+@Repository
+public interface RedisKeyspaceStatRepository extends JpaRepository<RedisKeyspaceStat, Long> {
+
+    /**
+     * 按时间范围查询键空间统计，按库和时间正序
+     */
+    @Query("SELECT s FROM RedisKeyspaceStat s WHERE s.connectionId = :connectionId " +
+           "AND s.recordTime BETWEEN :startTime AND :endTime ORDER BY s.db ASC, s.recordTime ASC")
+    List<RedisKeyspaceStat> findByConnectionIdAndTimeRange(@Param("connectionId") Long connectionId,
+                                                          @Param("startTime") LocalDateTime startTime,
+                                                          @Param("endTime") LocalDateTime endTime);
+}
@@ -0,0 +1,36 @@
+package com.redis.repository;
+
+import com.redis.entity.RedisLatencyEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Redis延迟事件Repository
+ */
+@Repository
+public interface RedisLatencyEventRepository extends JpaRepository<RedisLatencyEvent, Long> {
+
+    /**
+     * 按时间范围查询延迟事件，事件名为空时返回全部事件，按时间升序
+     */
+    @Query("SELECT e FROM RedisLatencyEvent e WHERE e.connectionId = :connectionId " +
+           "AND e.occurredAt BETWEEN :startTime AND :endTime " +
+           "AND (:eventName IS NULL OR e.eventName = :eventName) " +
+           "ORDER BY e.occurredAt ASC")
+    List<RedisLatencyEvent> findByConnectionIdAndTimeRange(
+            @Param("connectionId") Long connectionId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("eventName") String eventName);
+
+    /**
+     * 连接每个事件已保存的最新时间
+     */
+    @Query("SELECT e.eventName, MAX(e.occurredAt) FROM RedisLatencyEvent e WHERE e.connectionId = :connectionId GROUP BY e.eventName")
+    List<Object[]> findLatestPerEvent(@Param("connectionId") Long connectionId);
+}
@@ -0,0 +1,34 @@
+package com.redis.repository;
+
+import com.redis.entity.RedisMemoryStat;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Redis内存明细Repository
+ */
+@Repository
+public interface RedisMemoryStatRepository extends JpaRepository<RedisMemoryStat, Long> {
+
+    /**
+     * 按时间范围查询内存明细，按时间正序
+     */
+    @Query("SELECT m FROM RedisMemoryStat m WHERE m.connectionId = :connectionId " +
+           "AND m.recordTime BETWEEN :startTime AND :endTime ORDER BY m.recordTime ASC")
+    List<RedisMemoryStat> findByConnectionIdAndTimeRange(@Param("connectionId") Long connectionId,
+                                                        @Param("startTime") LocalDateTime startTime,
+                                                        @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 最近的带诊断报告的记录
+     */
+    @Query("SELECT m FROM RedisMemoryStat m WHERE m.connectionId = :connectionId " +
+           "AND m.doctorReport IS NOT NULL ORDER BY m.recordTime DESC")
+    List<RedisMemoryStat> findLatestWithDoctorReport(@Param("connectionId") Long connectionId, Pageable pageable);
+}
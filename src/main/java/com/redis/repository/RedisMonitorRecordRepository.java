@@ -1,54 +1,26 @@
 package com.redis.repository;
 
 import com.redis.entity.RedisMonitorRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 /**
- * Redis监控记录Repository
+ * 旧版单表监控记录Repository
+ *
+ * 监控记录已改为按天分区存储，见 {@link com.redis.service.RedisMonitorPartitionStore}，
+ * 这里只用于启动时把旧表中的数据迁移到当前存储，见 {@link com.redis.service.MonitorLegacyMigration}。
  */
 @Repository
 public interface RedisMonitorRecordRepository extends JpaRepository<RedisMonitorRecord, Long> {
 
     /**
-     * 根据连接ID查找监控记录
+     * 按主键顺序分批读取旧记录
      */
-    List<RedisMonitorRecord> findByConnectionIdOrderByRecordTimeDesc(Long connectionId);
-
-    /**
-     * 根据连接ID和时间范围查找监控记录
-     */
-    @Query("SELECT rmr FROM RedisMonitorRecord rmr WHERE rmr.connectionId = :connectionId " +
-           "AND rmr.recordTime BETWEEN :startTime AND :endTime ORDER BY rmr.recordTime DESC")
-    List<RedisMonitorRecord> findByConnectionIdAndTimeRange(
-            @Param("connectionId") Long connectionId,
-            @Param("startTime") LocalDateTime startTime,
-            @Param("endTime") LocalDateTime endTime);
-
-    /**
-     * 查找最近的监控记录
-     */
-    @Query("SELECT rmr FROM RedisMonitorRecord rmr ORDER BY rmr.recordTime DESC")
-    List<RedisMonitorRecord> findRecentRecords();
-
-    /**
-     * 根据连接ID查找最新的监控记录
-     */
-    List<RedisMonitorRecord> findTop1ByConnectionIdOrderByRecordTimeDesc(Long connectionId);
-
-    /**
-     * 删除指定时间之前的监控记录
-     */
-    @Query("DELETE FROM RedisMonitorRecord rmr WHERE rmr.recordTime < :beforeTime")
-    void deleteRecordsBefore(@Param("beforeTime") LocalDateTime beforeTime);
-
-    /**
-     * 统计指定连接ID的记录数量
-     */
-    long countByConnectionId(Long connectionId);
-} 
\ No newline at end of file
+    @Query("SELECT rmr FROM RedisMonitorRecord rmr WHERE rmr.id > :afterId ORDER BY rmr.id ASC")
+    List<RedisMonitorRecord> findLegacyBatch(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,39 @@
+package com.redis.repository;
+
+import com.redis.entity.RedisMonitorRollup;
+import com.redis.monitor.RollupTier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Redis监控汇总记录Repository
+ */
+@Repository
+public interface RedisMonitorRollupRepository extends JpaRepository<RedisMonitorRollup, Long> {
+
+    /**
+     * 根据连接ID、层级和时间范围查找汇总记录
+     */
+    @Query("SELECT r FROM RedisMonitorRollup r WHERE r.connectionId = :connectionId AND r.tier = :tier " +
+           "AND r.bucketTime BETWEEN :startTime AND :endTime ORDER BY r.bucketTime ASC")
+    List<RedisMonitorRollup> findByConnectionIdAndTierAndTimeRange(
+            @Param("connectionId") Long connectionId,
+            @Param("tier") RollupTier tier,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 删除指定层级中早于指定时间的汇总记录
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RedisMonitorRollup r WHERE r.tier = :tier AND r.bucketTime < :beforeTime")
+    int deleteByTierBefore(@Param("tier") RollupTier tier, @Param("beforeTime") LocalDateTime beforeTime);
+}
@@ -0,0 +1,37 @@
+package com.redis.repository;
+
+import com.redis.entity.RedisReplicationLag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 复制延迟Repository
+ */
+@Repository
+public interface RedisReplicationLagRepository extends JpaRepository<RedisReplicationLag, Long> {
+
+    /**
+     * 按时间范围查询主节点下所有从节点的延迟
+     */
+    @Query("SELECT l FROM RedisReplicationLag l WHERE l.connectionId = :connectionId " +
+           "AND l.recordTime BETWEEN :startTime AND :endTime ORDER BY l.replicaAddress ASC, l.recordTime ASC")
+    List<RedisReplicationLag> findByConnectionIdAndTimeRange(@Param("connectionId") Long connectionId,
+                                                            @Param("startTime") LocalDateTime startTime,
+                                                            @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 按时间范围查询单个从节点的延迟
+     */
+    @Query("SELECT l FROM RedisReplicationLag l WHERE l.connectionId = :connectionId " +
+           "AND l.replicaAddress = :replicaAddress " +
+           "AND l.recordTime BETWEEN :startTime AND :endTime ORDER BY l.recordTime ASC")
+    List<RedisReplicationLag> findByReplicaAndTimeRange(@Param("connectionId") Long connectionId,
+                                                       @Param("replicaAddress") String replicaAddress,
+                                                       @Param("startTime") LocalDateTime startTime,
+                                                       @Param("endTime") LocalDateTime endTime);
+}
@@ -0,0 +1,40 @@
+package com.redis.repository;
+
+import com.redis.entity.RedisSlowlogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Redis慢查询日志Repository
+ */
+@Repository
+public interface RedisSlowlogEntryRepository extends JpaRepository<RedisSlowlogEntry, Long> {
+
+    /**
+     * 按时间范围查询慢查询，命令和最小耗时为空时不过滤，按执行时间倒序
+     */
+    @Query("SELECT e FROM RedisSlowlogEntry e WHERE e.connectionId = :connectionId " +
+           "AND e.executedAt BETWEEN :startTime AND :endTime " +
+           "AND (:command IS NULL OR e.command = :command) " +
+           "AND (:minDuration IS NULL OR e.durationMicros >= :minDuration) " +
+           "ORDER BY e.executedAt DESC")
+    List<RedisSlowlogEntry> findByConnectionIdAndTimeRange(
+            @Param("connectionId") Long connectionId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("command") String command,
+            @Param("minDuration") Long minDuration,
+            Pageable pageable);
+
+    /**
+     * 连接已保存的最新慢日志ID，用于重启后继续增量采集
+     */
+    @Query("SELECT e.entryId FROM RedisSlowlogEntry e WHERE e.connectionId = :connectionId ORDER BY e.executedAt DESC, e.entryId DESC")
+    List<Long> findLatestEntryIds(@Param("connectionId") Long connectionId, Pageable pageable);
+}
@@ -0,0 +1,28 @@
+package com.redis.service;
+
+import com.redis.entity.RedisAlertEvent;
+
+/**
+ * 告警通知渠道
+ *
+ * 由 {@link RedisAlertService} 在独立的通知线程中调用，实现可以阻塞，不影响采集
+ */
+public interface AlertNotifier {
+
+    /**
+     * 渠道名称，用于日志和统计
+     */
+    String getName();
+
+    /**
+     * 是否启用，未启用的渠道不会收到事件
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * 发送告警事件，异常由调用方记录
+     */
+    void notify(RedisAlertEvent event) throws Exception;
+}
@@ -0,0 +1,295 @@
+package com.redis.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 一次写入请求中要写入某个键的全部元素
+ *
+ * 值可以是JSON，也可以是逐行文本，空行忽略:
+ * <ul>
+ *     <li>HASH: {"field":"value"} 或每行 field=value</li>
+ *     <li>LIST/SET: ["a","b"] 或每行一个元素</li>
+ *     <li>ZSET: {"member":score}、[["member",score]]、[{"member":"m","score":1}] 或每行 score member</li>
+ *     <li>STREAM: {"field":"value"} 为一条消息，[{...},{...}] 为多条，或每行 field=value 组成一条消息</li>
+ * </ul>
+ */
+public class KeyWriteBatch {
+
+    /**
+     * 支持写入的键类型
+     */
+    public enum Type {
+        STRING, HASH, LIST, SET, ZSET, STREAM
+    }
+
+    private final Type type;
+
+    private String stringValue;
+
+    private final List<String> members = new ArrayList<>();
+
+    private final Map<String, String> fields = new LinkedHashMap<>();
+
+    private final Map<String, Double> scores = new LinkedHashMap<>();
+
+    private final List<Map<String, String>> entries = new ArrayList<>();
+
+    private KeyWriteBatch(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * 按键类型解析请求中的值，格式错误或没有元素时抛出IllegalArgumentException
+     */
+    public static KeyWriteBatch parse(String keyType, String value, ObjectMapper objectMapper) {
+        Type type;
+        try {
+            type = Type.valueOf(keyType.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的键类型: " + keyType);
+        }
+        KeyWriteBatch batch = new KeyWriteBatch(type);
+        if (type == Type.STRING) {
+            batch.stringValue = value;
+            return batch;
+        }
+        JsonNode json = readJson(value, objectMapper);
+        if (json != null) {
+            batch.parseJson(json);
+        } else {
+            batch.parseLines(value);
+        }
+        if (batch.size() == 0) {
+            throw new IllegalArgumentException("没有要写入的元素");
+        }
+        return batch;
+    }
+
+    /**
+     * 以 [ 或 { 开头且能解析为JSON时返回节点，否则按逐行文本处理
+     */
+    private static JsonNode readJson(String value, ObjectMapper objectMapper) {
+        String trimmed = value.trim();
+        if (!trimmed.startsWith("[") && !trimmed.startsWith("{")) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(trimmed);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void parseJson(JsonNode json) {
+        switch (type) {
+            case HASH:
+                requireObject(json);
+                putAll(json, fields);
+                break;
+            case LIST:
+            case SET:
+                if (!json.isArray()) {
+                    throw new IllegalArgumentException(type + " 的JSON值必须是数组");
+                }
+                for (JsonNode element : json) {
+                    members.add(text(element));
+                }
+                break;
+            case ZSET:
+                parseScores(json);
+                break;
+            case STREAM:
+                if (json.isArray()) {
+                    for (JsonNode entry : json) {
+                        requireObject(entry);
+                        addEntry(entry);
+                    }
+                } else {
+                    requireObject(json);
+                    addEntry(json);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addEntry(JsonNode json) {
+        Map<String, String> entryFields = new LinkedHashMap<>();
+        putAll(json, entryFields);
+        if (entryFields.isEmpty()) {
+            throw new IllegalArgumentException("STREAM 消息至少需要一个字段");
+        }
+        entries.add(entryFields);
+    }
+
+    private void parseScores(JsonNode json) {
+        if (json.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> iterator = json.fields();
+            while (iterator.hasNext()) {
+                Map.Entry<String, JsonNode> entry = iterator.next();
+                scores.put(entry.getKey(), score(entry.getValue()));
+            }
+            return;
+        }
+        for (JsonNode element : json) {
+            if (element.isArray() && element.size() == 2) {
+                scores.put(text(element.get(0)), score(element.get(1)));
+            } else if (element.isObject() && element.has("member") && element.has("score")) {
+                scores.put(text(element.get("member")), score(element.get("score")));
+            } else {
+                throw new IllegalArgumentException("ZSET 元素需要分值，格式为 [member, score] 或 {\"member\":..., \"score\":...}");
+            }
+        }
+    }
+
+    private void parseLines(String value) {
+        Map<String, String> entryFields = new LinkedHashMap<>();
+        for (String rawLine : value.split("\n")) {
+            String line = rawLine.endsWith("\r") ? rawLine.substring(0, rawLine.length() - 1) : rawLine;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            switch (type) {
+                case HASH:
+                    putPair(line, fields);
+                    break;
+                case STREAM:
+                    putPair(line, entryFields);
+                    break;
+                case LIST:
+                case SET:
+                    members.add(line);
+                    break;
+                case ZSET:
+                    String trimmed = line.trim();
+                    int space = indexOfWhitespace(trimmed);
+                    if (space < 0) {
+                        throw new IllegalArgumentException("ZSET 每行格式为 score member: " + line);
+                    }
+                    scores.put(trimmed.substring(space + 1).trim(), parseScore(trimmed.substring(0, space)));
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (!entryFields.isEmpty()) {
+            entries.add(entryFields);
+        }
+    }
+
+    private static void putPair(String line, Map<String, String> target) {
+        int equals = line.indexOf('=');
+        if (equals <= 0) {
+            throw new IllegalArgumentException("每行格式为 field=value: " + line);
+        }
+        target.put(line.substring(0, equals).trim(), line.substring(equals + 1));
+    }
+
+    private static int indexOfWhitespace(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (Character.isWhitespace(line.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void requireObject(JsonNode json) {
+        if (!json.isObject()) {
+            throw new IllegalArgumentException("JSON值必须是对象");
+        }
+    }
+
+    private static void putAll(JsonNode object, Map<String, String> target) {
+        Iterator<Map.Entry<String, JsonNode>> iterator = object.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> entry = iterator.next();
+            target.put(entry.getKey(), text(entry.getValue()));
+        }
+    }
+
+    /**
+     * 字符串取原值，数字等其他节点取JSON文本
+     */
+    private static String text(JsonNode node) {
+        return node.isTextual() ? node.asText() : node.toString();
+    }
+
+    private static double score(JsonNode node) {
+        return node.isNumber() ? node.asDouble() : parseScore(node.asText());
+    }
+
+    private static double parseScore(String value) {
+        String trimmed = value.trim();
+        if ("+inf".equalsIgnoreCase(trimmed) || "inf".equalsIgnoreCase(trimmed)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if ("-inf".equalsIgnoreCase(trimmed)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的分值: " + value);
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getStringValue() {
+        return stringValue;
+    }
+
+    /** LIST/SET 的元素，保持请求中的顺序 */
+    public List<String> getMembers() {
+        return Collections.unmodifiableList(members);
+    }
+
+    /** HASH 的字段 */
+    public Map<String, String> getFields() {
+        return Collections.unmodifiableMap(fields);
+    }
+
+    /** ZSET 的 成员 -> 分值 */
+    public Map<String, Double> getScores() {
+        return Collections.unmodifiableMap(scores);
+    }
+
+    /** STREAM 的消息，每条为 字段 -> 值 */
+    public List<Map<String, String>> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * 元素个数: 字段数、成员数或消息数
+     */
+    public int size() {
+        switch (type) {
+            case STRING:
+                return 1;
+            case HASH:
+                return fields.size();
+            case LIST:
+            case SET:
+                return members.size();
+            case ZSET:
+                return scores.size();
+            case STREAM:
+                return entries.size();
+            default:
+                return 0;
+        }
+    }
+}
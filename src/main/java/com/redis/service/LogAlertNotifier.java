@@ -0,0 +1,27 @@
+package com.redis.service;
+
+import com.redis.entity.RedisAlertEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * 将告警事件写入应用日志
+ */
+@Slf4j
+@Service
+public class LogAlertNotifier implements AlertNotifier {
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+
+    @Override
+    public void notify(RedisAlertEvent event) {
+        if (RedisAlertEvent.FIRED.equals(event.getStatus())) {
+            log.warn("[告警][{}] {}", event.getSeverity(), event.getMessage());
+        } else {
+            log.info("[恢复][{}] {}", event.getSeverity(), event.getMessage());
+        }
+    }
+}
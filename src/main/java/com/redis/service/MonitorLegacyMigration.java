@@ -0,0 +1,124 @@
+package com.redis.service;
+
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.repository.RedisMonitorRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 旧版单表监控记录迁移
+ *
+ * 按主键顺序把 redis_monitor_records 中的全部记录写入当前的原始记录存储，同时交给汇总服务生成各层级汇总，
+ * 超出原始样本保留期的部分由汇总继续保留。每批写入后记录已迁移的最大ID，中途退出后下次启动从该ID继续；
+ * 全部复制完成后才清空旧表。
+ */
+@Slf4j
+@Service
+public class MonitorLegacyMigration {
+
+    private static final String MIGRATION_NAME = "redis_monitor_records";
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private RedisMonitorRecordRepository legacyRepository;
+
+    @Autowired
+    private RedisRollupService rollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 把旧表中的记录迁移到target，已完成时直接返回
+     */
+    public void migrate(MonitorRecordStore target) {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS redis_monitor_migration ("
+                    + "name VARCHAR(64) PRIMARY KEY, last_id BIGINT NOT NULL, completed BOOLEAN NOT NULL)");
+            Long afterId = 0L;
+            try {
+                Boolean completed = jdbcTemplate.queryForObject(
+                        "SELECT completed FROM redis_monitor_migration WHERE name = ?", Boolean.class, MIGRATION_NAME);
+                if (Boolean.TRUE.equals(completed)) {
+                    return;
+                }
+                afterId = jdbcTemplate.queryForObject(
+                        "SELECT last_id FROM redis_monitor_migration WHERE name = ?", Long.class, MIGRATION_NAME);
+            } catch (EmptyResultDataAccessException e) {
+                // 首次迁移
+            }
+
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            boolean resuming = afterId > 0;
+            long migrated = 0;
+            List<RedisMonitorRecord> batch;
+            do {
+                batch = legacyRepository.findLegacyBatch(afterId, PageRequest.of(0, BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                long lastId = batch.get(batch.size() - 1).getId();
+                List<RedisMonitorRecord> rows = resuming ? skipStored(target, batch) : batch;
+                resuming = false;
+                // 分区存储的写入加入同一事务，与进度一起提交
+                transactionTemplate.execute(status -> {
+                    target.append(rows);
+                    saveProgress(lastId, false);
+                    return null;
+                });
+                for (RedisMonitorRecord record : rows) {
+                    rollupService.add(record.getConnectionId(), record);
+                }
+                afterId = lastId;
+                migrated += rows.size();
+            } while (batch.size() == BATCH_SIZE);
+
+            saveProgress(afterId, true);
+            jdbcTemplate.execute("TRUNCATE TABLE redis_monitor_records");
+            if (migrated > 0) {
+                log.info("已将 {} 条旧监控记录迁移到{}存储并生成汇总", migrated, target.getName());
+            }
+        } catch (Exception e) {
+            log.warn("迁移旧监控记录失败，下次启动时继续: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 段日志的写入不在事务内，上次退出前可能已写入但未记录进度，续迁时跳过存储中已有的记录
+     */
+    private List<RedisMonitorRecord> skipStored(MonitorRecordStore target, List<RedisMonitorRecord> batch) {
+        Map<Long, LocalDateTime> latest = new HashMap<>();
+        List<RedisMonitorRecord> rows = new ArrayList<>(batch.size());
+        for (RedisMonitorRecord record : batch) {
+            LocalDateTime stored = latest.computeIfAbsent(record.getConnectionId(), id -> {
+                List<RedisMonitorRecord> recent = target.findRecent(id, 1);
+                return recent.isEmpty() ? LocalDateTime.MIN : recent.get(0).getRecordTime();
+            });
+            if (record.getRecordTime().isAfter(stored)) {
+                rows.add(record);
+            }
+        }
+        return rows;
+    }
+
+    private void saveProgress(long lastId, boolean completed) {
+        jdbcTemplate.update("MERGE INTO redis_monitor_migration (name, last_id, completed) KEY (name) VALUES (?, ?, ?)",
+                MIGRATION_NAME, lastId, completed);
+    }
+}
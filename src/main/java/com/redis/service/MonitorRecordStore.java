@@ -0,0 +1,101 @@
+package com.redis.service;
+
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.MonitorMetric;
+import com.redis.monitor.SampleView;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 原始监控记录的持久化存储
+ *
+ * 由 app.redis.monitoring.storage 选择实现: partition 为按天分区的数据库表，segment 为内存映射的段日志。
+ * 写缓冲、历史查询、导出和集群快照登记表都只依赖此接口。
+ */
+public interface MonitorRecordStore {
+
+    /**
+     * 逐行处理查询结果
+     */
+    @FunctionalInterface
+    interface RecordHandler {
+        void handle(RedisMonitorRecord record) throws IOException;
+    }
+
+    /**
+     * 逐行处理指标值，values只在回调内有效
+     */
+    @FunctionalInterface
+    interface SampleHandler {
+        void handle(long timestamp, SampleView values);
+    }
+
+    /**
+     * 存储类型名称
+     */
+    String getName();
+
+    /**
+     * 批量写入
+     */
+    void append(List<RedisMonitorRecord> records);
+
+    /**
+     * 时间范围内的记录，按时间倒序，最多limit条
+     */
+    List<RedisMonitorRecord> findRange(Long connectionId, LocalDateTime startTime, LocalDateTime endTime, int limit);
+
+    /**
+     * 最近的记录，按时间倒序，最多limit条
+     */
+    List<RedisMonitorRecord> findRecent(Long connectionId, int limit);
+
+    /**
+     * 按时间升序逐行读取时间范围内的记录
+     */
+    void scan(Long connectionId, LocalDateTime startTime, LocalDateTime endTime, RecordHandler handler) throws IOException;
+
+    /**
+     * 按时间升序逐行读取时间范围内的指标值，列下标为 MonitorMetric 的序号
+     *
+     * 默认逐行组装记录后读取，能直接访问底层数据的实现应覆盖此方法
+     */
+    default void scanSamples(Long connectionId, long from, long to, SampleHandler handler) throws IOException {
+        scan(connectionId, RedisMetricStore.toLocalDateTime(from), RedisMetricStore.toLocalDateTime(to), record -> {
+            handler.handle(RedisMetricStore.toEpochMillis(record.getRecordTime()), new SampleView() {
+                @Override
+                public double get(int index) {
+                    return MonitorMetric.of(index).read(record);
+                }
+
+                @Override
+                public boolean has(int index) {
+                    return index < MonitorMetric.count() && !Double.isNaN(MonitorMetric.of(index).readOrNaN(record));
+                }
+            });
+        });
+    }
+
+    /**
+     * 每个连接的最新记录
+     */
+    List<RedisMonitorRecord> findLatestPerConnection();
+
+    /**
+     * 各连接的记录数
+     */
+    Map<Long, Long> countByConnection();
+
+    /**
+     * 删除cutoff之前的数据，以存储的整块为单位，返回删除的块数
+     */
+    int dropBefore(LocalDateTime cutoff);
+
+    /**
+     * 获取存储统计信息
+     */
+    Map<String, Object> getStatistics();
+}
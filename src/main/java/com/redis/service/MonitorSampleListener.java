@@ -0,0 +1,29 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+
+/**
+ * 监控样本监听器
+ *
+ * 采集线程每产生一个样本都会同步回调，实现类应保持轻量，不要在回调中做阻塞IO。
+ */
+public interface MonitorSampleListener {
+
+    /**
+     * 收到一个新样本
+     */
+    void onSample(RedisConnection connection, RedisMonitorRecord record);
+
+    /**
+     * 一次采样失败
+     */
+    default void onSampleFailed(RedisConnection connection, Exception error) {
+    }
+
+    /**
+     * 连接已删除或停止采集，丢弃该连接的全部内存状态
+     */
+    default void onConnectionRemoved(Long connectionId) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+
+/**
+ * 附加采集器
+ *
+ * 在 {@link RedisMonitorCollector} 的单连接采集任务中、主采样成功之后按自身间隔执行，
+ * 与主采样共享截止时间和线程池，不单独占用线程。
+ */
+public interface MonitorSideCollector {
+
+    /**
+     * 采集器名称，用于日志和统计
+     */
+    String getName();
+
+    /**
+     * 两次采集之间的最小间隔(毫秒)，小于等于0表示停用
+     */
+    long getIntervalMillis();
+
+    /**
+     * 未到间隔时是否因本次样本立即采集，如检测到异常时补抓现场
+     */
+    default boolean isTriggeredBy(RedisConnection connection, RedisMonitorRecord record) {
+        return false;
+    }
+
+    /**
+     * 采集一个连接，异常由调用方记录，不影响其他采集器
+     *
+     * record为本次主采样的记录，附加数据可用其时间戳与监控记录关联
+     */
+    void collect(RedisConnection connection, RedisMonitorRecord record);
+
+    /**
+     * 连接已删除或停止采集，丢弃该连接的全部内存状态
+     */
+    default void onConnectionRemoved(Long connectionId) {
+    }
+}
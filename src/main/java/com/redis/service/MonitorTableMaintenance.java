@@ -0,0 +1,97 @@
+package com.redis.service;
+
+import com.redis.entity.RedisMonitorRollup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 监控明细表的ID序列和过期数据维护
+ *
+ * 明细表使用预取的序列ID，ID随写入时间递增。清理时按ID区间分块删除，每块是一次主键范围扫描和一个短事务，
+ * 遇到没有过期行的块即停止，不会对整表做一次长时间的全表删除。
+ * 依赖JPA初始化，保证调整序列时表结构和序列已由Hibernate创建。
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class MonitorTableMaintenance {
+
+    /** 表名和对应的ID序列，均由原先的自增主键改为序列 */
+    private static final String[][] SEQUENCE_TABLES = {
+            {"redis_monitor_rollups", "redis_monitor_rollup_seq"},
+            {"redis_command_stats", "redis_command_stat_seq"},
+            {"redis_slowlog_entries", "redis_slowlog_entry_seq"},
+            {"redis_latency_events", "redis_latency_event_seq"},
+            {"redis_client_snapshots", "redis_client_snapshot_seq"},
+            {"redis_keyspace_stats", "redis_keyspace_stat_seq"},
+            {"redis_memory_stats", "redis_memory_stat_seq"},
+            {"redis_replication_lag", "redis_replication_lag_seq"}
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.redis.monitoring.retention.delete-chunk-size:5000}")
+    private int deleteChunkSize;
+
+    /**
+     * 把各序列调到表中已有最大ID之后，避免与自增主键时期写入的行冲突
+     */
+    @PostConstruct
+    public void alignSequences() {
+        for (String[] entry : SEQUENCE_TABLES) {
+            alignSequence(entry[0], entry[1]);
+        }
+    }
+
+    private void alignSequence(String table, String sequence) {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (maxId == null) {
+                return;
+            }
+            Long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+            long floor = maxId + RedisMonitorRollup.ID_ALLOCATION_SIZE + 1;
+            if (next != null && next < floor) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + floor);
+                log.info("{} 的ID序列已调整到 {}", table, floor);
+            }
+        } catch (DataAccessException e) {
+            log.warn("调整 {} 的ID序列失败: {}", table, e.getMessage());
+        }
+    }
+
+    /**
+     * 分块删除timeColumn早于cutoff的行，返回删除的行数
+     */
+    public int deleteBefore(String table, String timeColumn, LocalDateTime cutoff) {
+        Long minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM " + table, Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+        String delete = "DELETE FROM " + table + " WHERE id >= ? AND id < ? AND " + timeColumn + " < ?";
+        String count = "SELECT COUNT(*) FROM " + table + " WHERE id >= ? AND id < ?";
+        Timestamp before = Timestamp.valueOf(cutoff);
+        int chunk = Math.max(1, deleteChunkSize);
+        int total = 0;
+        for (long from = minId; from <= maxId; from += chunk) {
+            int deleted = jdbcTemplate.update(delete, from, from + chunk, before);
+            total += deleted;
+            // 块内有行但都未过期，说明已越过截止时间；整块为空(ID空洞)时继续向后
+            if (deleted == 0 && jdbcTemplate.queryForObject(count, Long.class, from, from + chunk) > 0) {
+                break;
+            }
+        }
+        return total;
+    }
+}
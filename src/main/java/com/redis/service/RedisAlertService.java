@@ -0,0 +1,528 @@
+package com.redis.service;
+
+import com.redis.entity.RedisAlertEvent;
+import com.redis.entity.RedisAlertRule;
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.AlertEvaluator;
+import com.redis.monitor.AlertOperator;
+import com.redis.monitor.AlertState;
+import com.redis.monitor.AlertType;
+import com.redis.monitor.MonitorMetric;
+import com.redis.repository.RedisAlertEventRepository;
+import com.redis.repository.RedisAlertRuleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 告警引擎
+ *
+ * 每个样本到达时在采集线程中评估该连接适用的全部规则，每条规则在每个连接上只保存固定大小的状态。
+ * 规则变更时整体重新编译并替换，评估路径不加锁；状态变化产生的事件交给单独的通知线程
+ * 写库和发送，通知渠道再慢也不会拖住采集。
+ */
+@Slf4j
+@Service
+public class RedisAlertService implements MonitorSampleListener {
+
+    private static final String EVICTION_RULE_NAME = "发生键驱逐";
+
+    @Autowired
+    private RedisAlertRuleRepository alertRuleRepository;
+
+    @Autowired
+    private RedisAlertEventRepository alertEventRepository;
+
+    @Autowired(required = false)
+    private List<AlertNotifier> notifiers = new ArrayList<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.redis.monitoring.alert.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.redis.monitoring.alert.default-rules:true}")
+    private boolean createDefaultRules;
+
+    @Value("${app.redis.monitoring.alert.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.redis.monitoring.alert.retention-days:90}")
+    private long retentionDays;
+
+    private volatile CompiledRules compiled = CompiledRules.EMPTY;
+
+    /** 连接ID -> 规则ID -> 评估状态 */
+    private final Map<Long, Map<Long, AlertState>> states = new ConcurrentHashMap<>();
+
+    /** 各连接最近一次评估时的名称，连接删除后生成恢复事件时使用 */
+    private final Map<Long, String> connectionNames = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor notifyExecutor;
+
+    private Timer evaluateTimer;
+
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong firedAlerts = new AtomicLong();
+    private final AtomicLong resolvedAlerts = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong notifyFailures = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        notifyExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "redis-alert-notify-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        evaluateTimer = Timer.builder("redis.gui.alert.evaluate")
+                .description("单个样本的告警规则评估耗时")
+                .register(meterRegistry);
+        if (createDefaultRules) {
+            createMissingDefaultRules();
+        }
+        reloadRules();
+    }
+
+    /**
+     * 按名称补建缺少的默认规则，升级后新增的默认规则也会创建
+     *
+     * 不需要的默认规则应停用而不是删除，删除后下次启动会重新创建
+     */
+    private void createMissingDefaultRules() {
+        Set<String> existing = new HashSet<>();
+        for (RedisAlertRule rule : alertRuleRepository.findAll()) {
+            if (rule.getConnectionId() == null) {
+                existing.add(rule.getName());
+                upgradeEvictionRule(rule);
+            }
+        }
+        List<RedisAlertRule> missing = new ArrayList<>();
+        for (RedisAlertRule rule : defaultRules()) {
+            if (!existing.contains(rule.getName())) {
+                missing.add(rule);
+            }
+        }
+        if (!missing.isEmpty()) {
+            alertRuleRepository.saveAll(missing);
+            log.info("创建默认告警规则 {} 条", missing.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notifyExecutor.shutdown();
+    }
+
+    /**
+     * 旧版默认的键驱逐规则在驱逐速率大于0时即触发，持续淘汰的缓存会一直告警；
+     * 未被修改过的旧规则改为按驱逐速率阈值触发
+     */
+    private void upgradeEvictionRule(RedisAlertRule rule) {
+        if (EVICTION_RULE_NAME.equals(rule.getName())
+                && MonitorMetric.EVICTED_KEYS_PER_SEC.getField().equals(rule.getMetric())
+                && rule.getThreshold() != null && rule.getThreshold() == 0.0
+                && (rule.getClearThreshold() == null || rule.getClearThreshold() == 0.0)) {
+            rule.setThreshold(100.0);
+            rule.setClearThreshold(10.0);
+            rule.setForSamples(3);
+            alertRuleRepository.save(rule);
+            log.info("默认键驱逐告警规则已改为按驱逐速率阈值触发");
+        }
+    }
+
+    /**
+     * 默认规则: 碎片率、键驱逐速率、拒绝连接、内存增长速度、内存和命令数的异常偏离以及复制延迟和主从断开
+     */
+    private List<RedisAlertRule> defaultRules() {
+        List<RedisAlertRule> rules = new ArrayList<>();
+        rules.add(rule("内存碎片率过高", MonitorMetric.MEM_FRAGMENTATION_RATIO, AlertType.THRESHOLD,
+                1.5, 1.3, 3, "WARNING"));
+        rules.add(rule(EVICTION_RULE_NAME, MonitorMetric.EVICTED_KEYS_PER_SEC, AlertType.THRESHOLD,
+                100.0, 10.0, 3, "WARNING"));
+        rules.add(rule("出现拒绝连接", MonitorMetric.REJECTED_CONNECTIONS, AlertType.RATE_OF_CHANGE,
+                0.0, 0.0, 1, "CRITICAL"));
+        rules.add(rule("内存快速增长", MonitorMetric.USED_MEMORY, AlertType.RATE_OF_CHANGE,
+                10.0 * 1024 * 1024, 1024.0 * 1024, 3, "WARNING"));
+        rules.add(rule("内存使用异常偏离", MonitorMetric.USED_MEMORY, AlertType.ZSCORE,
+                4.0, 2.0, 2, "INFO"));
+        rules.add(rule("命令数异常偏离", MonitorMetric.COMMANDS_PER_SEC, AlertType.ZSCORE,
+                4.0, 2.0, 3, "INFO"));
+        rules.add(rule("从节点复制延迟过大", MonitorMetric.REPLICA_OFFSET_LAG, AlertType.THRESHOLD,
+                10.0 * 1024 * 1024, 1024.0 * 1024, 3, "WARNING"));
+        rules.add(rule("主从连接断开", MonitorMetric.MASTER_LINK_DOWN_SECONDS, AlertType.THRESHOLD,
+                0.0, 0.0, 2, "CRITICAL"));
+        return rules;
+    }
+
+    private static RedisAlertRule rule(String name, MonitorMetric metric, AlertType type,
+                                       double threshold, double clearThreshold, int forSamples, String severity) {
+        return RedisAlertRule.builder()
+                .name(name)
+                .metric(metric.getField())
+                .type(type)
+                .operator(AlertOperator.ABOVE)
+                .threshold(threshold)
+                .clearThreshold(clearThreshold)
+                .forSamples(forSamples)
+                .alpha(0.05)
+                .warmupSamples(30)
+                .severity(severity)
+                .enabled(true)
+                .build();
+    }
+
+    @Override
+    public void onSample(RedisConnection connection, RedisMonitorRecord record) {
+        if (!enabled) {
+            return;
+        }
+        CompiledRules rules = compiled;
+        AlertEvaluator[] specific = rules.byConnection.get(connection.getId());
+        if (rules.global.length == 0 && specific == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<Long, AlertState> connectionStates = states.get(connection.getId());
+        if (connectionStates == null) {
+            connectionStates = states.computeIfAbsent(connection.getId(), id -> new ConcurrentHashMap<>());
+        }
+        connectionNames.put(connection.getId(), connection.getName());
+        long timestamp = RedisMetricStore.toEpochMillis(record.getRecordTime());
+        evaluate(rules, rules.global, connection, record, timestamp, connectionStates);
+        if (specific != null) {
+            evaluate(rules, specific, connection, record, timestamp, connectionStates);
+        }
+        evaluateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void evaluate(CompiledRules rules, AlertEvaluator[] evaluators, RedisConnection connection,
+                          RedisMonitorRecord record, long timestamp, Map<Long, AlertState> connectionStates) {
+        for (AlertEvaluator evaluator : evaluators) {
+            AlertState state = connectionStates.get(evaluator.getRuleId());
+            if (state == null) {
+                state = new AlertState();
+                connectionStates.put(evaluator.getRuleId(), state);
+            }
+            // 缺失的指标(如首个样本的派生速率、主节点上的主从断开时长)为NaN，不参与评估
+            double value = evaluator.getMetric().readOrNaN(record);
+            AlertEvaluator.Transition transition = evaluator.evaluate(state, value, timestamp);
+            if (transition != AlertEvaluator.Transition.NONE) {
+                publish(rules.rules.get(evaluator.getRuleId()), connection, record, transition, state, value);
+            }
+        }
+        evaluations.addAndGet(evaluators.length);
+    }
+
+    private void publish(RedisAlertRule rule, RedisConnection connection, RedisMonitorRecord record,
+                         AlertEvaluator.Transition transition, AlertState state, double value) {
+        boolean fired = transition == AlertEvaluator.Transition.FIRED;
+        (fired ? firedAlerts : resolvedAlerts).incrementAndGet();
+        String message = String.format("连接 %s %s %s: %s 当前 %.4g (阈值 %s %.4g)",
+                connection.getName(), rule.getName(), fired ? "触发" : "恢复", rule.getMetric(),
+                state.getLastSignal(), rule.getOperator() == AlertOperator.ABOVE ? ">" : "<",
+                fired ? rule.getThreshold() : clearThreshold(rule));
+        RedisAlertEvent event = RedisAlertEvent.builder()
+                .ruleId(rule.getId())
+                .ruleName(rule.getName())
+                .connectionId(connection.getId())
+                .connectionName(connection.getName())
+                .eventTime(record.getRecordTime())
+                .status(fired ? RedisAlertEvent.FIRED : RedisAlertEvent.RESOLVED)
+                .severity(rule.getSeverity())
+                .metric(rule.getMetric())
+                .signalValue(state.getLastSignal())
+                .metricValue(value)
+                .message(message.length() > 512 ? message.substring(0, 512) : message)
+                .build();
+        submit(event);
+    }
+
+    private void submit(RedisAlertEvent event) {
+        try {
+            notifyExecutor.execute(() -> deliver(event));
+        } catch (RejectedExecutionException e) {
+            droppedEvents.incrementAndGet();
+            log.warn("告警通知队列已满，丢弃事件: {}", event.getMessage());
+        }
+    }
+
+    /**
+     * 在通知线程中保存事件并发送到各渠道
+     */
+    private void deliver(RedisAlertEvent event) {
+        try {
+            alertEventRepository.save(event);
+        } catch (Exception e) {
+            log.error("保存告警事件失败: {}", e.getMessage());
+        }
+        for (AlertNotifier notifier : notifiers) {
+            if (!notifier.isEnabled()) {
+                continue;
+            }
+            try {
+                notifier.notify(event);
+            } catch (Exception e) {
+                notifyFailures.incrementAndGet();
+                log.warn("告警通知渠道 {} 发送失败: {}", notifier.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 重新加载并编译启用的规则，已删除或已修改规则的状态随之清除
+     */
+    public synchronized void reloadRules() {
+        Map<Long, RedisAlertRule> rules = new HashMap<>();
+        List<AlertEvaluator> global = new ArrayList<>();
+        Map<Long, List<AlertEvaluator>> byConnection = new HashMap<>();
+        for (RedisAlertRule rule : alertRuleRepository.findByEnabledTrue()) {
+            MonitorMetric metric = MonitorMetric.fromField(rule.getMetric());
+            if (metric == null) {
+                log.warn("告警规则 {} 的指标 {} 不存在，已跳过", rule.getName(), rule.getMetric());
+                continue;
+            }
+            AlertEvaluator evaluator = new AlertEvaluator(rule.getId(), metric, rule.getType(), rule.getOperator(),
+                    rule.getThreshold(), clearThreshold(rule),
+                    rule.getForSamples() != null ? rule.getForSamples() : 1,
+                    rule.getAlpha() != null ? rule.getAlpha() : 0.05,
+                    rule.getWarmupSamples() != null ? rule.getWarmupSamples() : 30);
+            rules.put(rule.getId(), rule);
+            if (rule.getConnectionId() == null) {
+                global.add(evaluator);
+            } else {
+                byConnection.computeIfAbsent(rule.getConnectionId(), id -> new ArrayList<>()).add(evaluator);
+            }
+        }
+        Map<Long, AlertEvaluator[]> compiledByConnection = new HashMap<>();
+        for (Map.Entry<Long, List<AlertEvaluator>> entry : byConnection.entrySet()) {
+            compiledByConnection.put(entry.getKey(), entry.getValue().toArray(new AlertEvaluator[0]));
+        }
+        compiled = new CompiledRules(global.toArray(new AlertEvaluator[0]), compiledByConnection, rules);
+        for (Map<Long, AlertState> connectionStates : states.values()) {
+            connectionStates.keySet().retainAll(rules.keySet());
+        }
+        log.info("已加载 {} 条告警规则", rules.size());
+    }
+
+    private static double clearThreshold(RedisAlertRule rule) {
+        return rule.getClearThreshold() != null ? rule.getClearThreshold() : rule.getThreshold();
+    }
+
+    /**
+     * 获取全部规则
+     */
+    public List<RedisAlertRule> getRules() {
+        return alertRuleRepository.findAll();
+    }
+
+    /**
+     * 新建或修改规则，修改后该规则在所有连接上的状态重新开始
+     */
+    public RedisAlertRule saveRule(RedisAlertRule rule) {
+        if (rule.getName() == null || rule.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("规则名称不能为空");
+        }
+        if (MonitorMetric.fromField(rule.getMetric()) == null) {
+            throw new IllegalArgumentException("未知指标: " + rule.getMetric());
+        }
+        if (rule.getType() == null || rule.getOperator() == null || rule.getThreshold() == null) {
+            throw new IllegalArgumentException("规则类型、比较方向和阈值不能为空");
+        }
+        if (rule.getEnabled() == null) {
+            rule.setEnabled(true);
+        }
+        if (rule.getSeverity() == null) {
+            rule.setSeverity("WARNING");
+        }
+        RedisAlertRule saved = alertRuleRepository.save(rule);
+        for (Map<Long, AlertState> connectionStates : states.values()) {
+            connectionStates.remove(saved.getId());
+        }
+        reloadRules();
+        return saved;
+    }
+
+    /**
+     * 删除规则
+     */
+    public void deleteRule(Long ruleId) {
+        alertRuleRepository.deleteById(ruleId);
+        reloadRules();
+    }
+
+    /**
+     * 当前处于告警状态的规则和连接
+     */
+    public List<Map<String, Object>> getActiveAlerts() {
+        CompiledRules rules = compiled;
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<Long, Map<Long, AlertState>> connectionEntry : states.entrySet()) {
+            for (Map.Entry<Long, AlertState> entry : connectionEntry.getValue().entrySet()) {
+                AlertState state = entry.getValue();
+                RedisAlertRule rule = rules.rules.get(entry.getKey());
+                if (!state.isFiring() || rule == null) {
+                    continue;
+                }
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("connectionId", connectionEntry.getKey());
+                item.put("ruleId", rule.getId());
+                item.put("ruleName", rule.getName());
+                item.put("severity", rule.getSeverity());
+                item.put("metric", rule.getMetric());
+                item.put("signal", state.getLastSignal());
+                item.put("firedAt", RedisMetricStore.toLocalDateTime(state.getFiredAt()));
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 连接当前是否有规则处于告警状态
+     */
+    public boolean isAlerting(Long connectionId) {
+        Map<Long, AlertState> connectionStates = states.get(connectionId);
+        if (connectionStates == null) {
+            return false;
+        }
+        for (AlertState state : connectionStates.values()) {
+            if (state.isFiring()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按时间范围查询告警事件
+     */
+    public List<RedisAlertEvent> getEvents(Long connectionId, LocalDateTime startTime, LocalDateTime endTime, int limit) {
+        return alertEventRepository.findByTimeRange(connectionId, startTime, endTime, PageRequest.of(0, limit));
+    }
+
+    /**
+     * 移除连接的评估状态，仍在告警的规则生成恢复事件，不再留在当前告警列表中
+     */
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        Map<Long, AlertState> connectionStates = states.remove(connectionId);
+        String connectionName = connectionNames.remove(connectionId);
+        if (connectionStates == null) {
+            return;
+        }
+        CompiledRules rules = compiled;
+        for (Map.Entry<Long, AlertState> entry : connectionStates.entrySet()) {
+            RedisAlertRule rule = rules.rules.get(entry.getKey());
+            AlertState state = entry.getValue();
+            if (rule == null || !state.isFiring()) {
+                continue;
+            }
+            resolvedAlerts.incrementAndGet();
+            String message = String.format("连接 %s %s 恢复: 连接已删除或停止采集", connectionName, rule.getName());
+            submit(RedisAlertEvent.builder()
+                    .ruleId(rule.getId())
+                    .ruleName(rule.getName())
+                    .connectionId(connectionId)
+                    .connectionName(connectionName)
+                    .eventTime(LocalDateTime.now())
+                    .status(RedisAlertEvent.RESOLVED)
+                    .severity(rule.getSeverity())
+                    .metric(rule.getMetric())
+                    .signalValue(state.getLastSignal())
+                    .message(message.length() > 512 ? message.substring(0, 512) : message)
+                    .build());
+        }
+    }
+
+    /**
+     * 清理过期告警事件 (每天凌晨3点10分执行)
+     */
+    @Scheduled(cron = "0 10 3 * * ?")
+    public void cleanExpired() {
+        try {
+            int deleted = alertEventRepository.deleteBefore(LocalDateTime.now().minusDays(retentionDays));
+            log.info("清理过期告警事件 {} 条", deleted);
+        } catch (Exception e) {
+            log.error("清理告警事件失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取告警引擎统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        CompiledRules rules = compiled;
+        int connectionRules = 0;
+        for (AlertEvaluator[] evaluators : rules.byConnection.values()) {
+            connectionRules += evaluators.length;
+        }
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("globalRules", rules.global.length);
+        statistics.put("connectionRules", connectionRules);
+        statistics.put("evaluations", evaluations.get());
+        statistics.put("firedAlerts", firedAlerts.get());
+        statistics.put("resolvedAlerts", resolvedAlerts.get());
+        statistics.put("droppedEvents", droppedEvents.get());
+        statistics.put("notifyFailures", notifyFailures.get());
+        statistics.put("pendingEvents", notifyExecutor.getQueue().size());
+        statistics.put("meanEvaluateMicros", evaluateTimer.mean(TimeUnit.MICROSECONDS));
+        statistics.put("maxEvaluateMicros", evaluateTimer.max(TimeUnit.MICROSECONDS));
+        List<String> notifierNames = new ArrayList<>();
+        for (AlertNotifier notifier : notifiers) {
+            if (notifier.isEnabled()) {
+                notifierNames.add(notifier.getName());
+            }
+        }
+        statistics.put("notifiers", notifierNames);
+        return statistics;
+    }
+
+    /**
+     * 编译后的规则集合，整体替换，不修改
+     */
+    private static class CompiledRules {
+        private static final CompiledRules EMPTY = new CompiledRules(new AlertEvaluator[0],
+                Collections.emptyMap(), Collections.emptyMap());
+
+        private final AlertEvaluator[] global;
+        private final Map<Long, AlertEvaluator[]> byConnection;
+        private final Map<Long, RedisAlertRule> rules;
+
+        private CompiledRules(AlertEvaluator[] global, Map<Long, AlertEvaluator[]> byConnection,
+                              Map<Long, RedisAlertRule> rules) {
+            this.global = global;
+            this.byConnection = byConnection;
+            this.rules = rules;
+        }
+    }
+}
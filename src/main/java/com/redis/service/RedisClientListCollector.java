@@ -0,0 +1,240 @@
+package com.redis.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redis.entity.RedisClientSnapshot;
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.ClientListAnalyzer;
+import com.redis.repository.RedisClientSnapshotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 客户端连接分析
+ *
+ * 定期执行 CLIENT LIST 并流式聚合为一条快照，只保存计数、缓冲区总量、空闲分布和前N名，
+ * 快照时间与同一次监控样本一致。rejected_connections 增长时不等间隔立即补抓一次。
+ */
+@Slf4j
+@Service
+public class RedisClientListCollector implements MonitorSideCollector {
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private RedisClientSnapshotRepository clientSnapshotRepository;
+
+    @Autowired
+    private MonitorTableMaintenance tableMaintenance;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.redis.monitoring.clients.interval:30000}")
+    private long intervalMillis;
+
+    @Value("${app.redis.monitoring.clients.top-n:10}")
+    private int topN;
+
+    @Value("${app.redis.monitoring.clients.trigger-cooldown:10000}")
+    private long triggerCooldownMillis;
+
+    @Value("${app.redis.monitoring.clients.retention-days:7}")
+    private long retentionDays;
+
+    /** 每个连接上一次看到的rejected_connections和上一次快照时间 */
+    private final Map<Long, long[]> connectionStates = new ConcurrentHashMap<>();
+
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong triggeredSnapshots = new AtomicLong();
+    private final AtomicLong analyzedClients = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "clients";
+    }
+
+    @Override
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public boolean isTriggeredBy(RedisConnection connection, RedisMonitorRecord record) {
+        long[] state = connectionState(connection.getId());
+        long rejected = record.getRejectedConnections() != null ? record.getRejectedConnections() : 0L;
+        boolean increased = state[0] >= 0 && rejected > state[0];
+        state[0] = rejected;
+        if (increased && System.currentTimeMillis() - state[1] >= triggerCooldownMillis) {
+            triggeredSnapshots.incrementAndGet();
+            log.info("连接 {} 出现拒绝连接，立即采集客户端快照", connection.getName());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void collect(RedisConnection connection, RedisMonitorRecord record) {
+        long[] state = connectionState(connection.getId());
+        state[0] = record.getRejectedConnections() != null ? record.getRejectedConnections() : 0L;
+        state[1] = System.currentTimeMillis();
+
+        ClientListAnalyzer analyzer = new ClientListAnalyzer(topN).analyze(redisService.getRawClientList(connection));
+        long[] idle = analyzer.getIdleBuckets();
+        StringBuilder idleDistribution = new StringBuilder();
+        for (long count : idle) {
+            if (idleDistribution.length() > 0) {
+                idleDistribution.append(',');
+            }
+            idleDistribution.append(count);
+        }
+        RedisClientSnapshot snapshot = RedisClientSnapshot.builder()
+                .connectionId(connection.getId())
+                .recordTime(record.getRecordTime())
+                .totalClients(analyzer.getClients())
+                .totalOmem(analyzer.getTotalOmem())
+                .totalQbuf(analyzer.getTotalQbuf())
+                .totalMemory(analyzer.getTotalMemory())
+                .maxIdle(analyzer.getMaxIdle())
+                .pubsubClients(analyzer.getPubsubClients())
+                .blockedClients(analyzer.getBlockedClients())
+                .replicaClients(analyzer.getReplicaClients())
+                .monitorClients(analyzer.getMonitorClients())
+                .rejectedConnections(record.getRejectedConnections())
+                .idleDistribution(idleDistribution.toString())
+                .topHosts(toJson(analyzer.getTopHosts()))
+                .topNames(toJson(analyzer.getTopNames()))
+                .topCommands(toJson(analyzer.getTopCommands()))
+                .topFlags(toJson(analyzer.getTopFlags()))
+                .topOffenders(toJson(analyzer.getTopOffenders()))
+                .build();
+        clientSnapshotRepository.save(snapshot);
+        snapshots.incrementAndGet();
+        analyzedClients.addAndGet(analyzer.getClients());
+    }
+
+    private long[] connectionState(Long connectionId) {
+        // 初始值-1表示尚未看到过计数
+        return connectionStates.computeIfAbsent(connectionId, id -> new long[]{-1L, 0L});
+    }
+
+    /**
+     * 按时间范围查询快照
+     */
+    public List<Map<String, Object>> getSnapshots(Long connectionId, LocalDateTime startTime,
+                                                  LocalDateTime endTime, int limit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (RedisClientSnapshot snapshot : clientSnapshotRepository.findByConnectionIdAndTimeRange(
+                connectionId, startTime, endTime, PageRequest.of(0, limit))) {
+            result.add(toView(snapshot));
+        }
+        return result;
+    }
+
+    /**
+     * 指定时刻(通常是某条监控记录的时间)之前最近的一次快照，没有时返回null
+     */
+    public Map<String, Object> getSnapshotAt(Long connectionId, LocalDateTime time) {
+        List<RedisClientSnapshot> snapshots = clientSnapshotRepository.findLatestAtOrBefore(
+                connectionId, time, PageRequest.of(0, 1));
+        return snapshots.isEmpty() ? null : toView(snapshots.get(0));
+    }
+
+    private Map<String, Object> toView(RedisClientSnapshot snapshot) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("recordTime", snapshot.getRecordTime());
+        view.put("totalClients", snapshot.getTotalClients());
+        view.put("totalOmem", snapshot.getTotalOmem());
+        view.put("totalQbuf", snapshot.getTotalQbuf());
+        view.put("totalMemory", snapshot.getTotalMemory());
+        view.put("maxIdle", snapshot.getMaxIdle());
+        view.put("pubsubClients", snapshot.getPubsubClients());
+        view.put("blockedClients", snapshot.getBlockedClients());
+        view.put("replicaClients", snapshot.getReplicaClients());
+        view.put("monitorClients", snapshot.getMonitorClients());
+        view.put("rejectedConnections", snapshot.getRejectedConnections());
+        Map<String, Long> idle = new LinkedHashMap<>();
+        String[] counts = snapshot.getIdleDistribution() != null ? snapshot.getIdleDistribution().split(",") : new String[0];
+        for (int i = 0; i < counts.length; i++) {
+            String label = i < ClientListAnalyzer.IDLE_BUCKET_SECONDS.length
+                    ? "<" + ClientListAnalyzer.IDLE_BUCKET_SECONDS[i] + "s"
+                    : ">=" + ClientListAnalyzer.IDLE_BUCKET_SECONDS[ClientListAnalyzer.IDLE_BUCKET_SECONDS.length - 1] + "s";
+            idle.put(label, Long.parseLong(counts[i]));
+        }
+        view.put("idleDistribution", idle);
+        view.put("topHosts", fromJson(snapshot.getTopHosts()));
+        view.put("topNames", fromJson(snapshot.getTopNames()));
+        view.put("topCommands", fromJson(snapshot.getTopCommands()));
+        view.put("topFlags", fromJson(snapshot.getTopFlags()));
+        view.put("topOffenders", fromJson(snapshot.getTopOffenders()));
+        return view;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("序列化客户端快照失败", e);
+        }
+    }
+
+    private Object fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            log.warn("解析客户端快照失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 清理过期客户端快照 (每天凌晨3点执行)
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void cleanExpired() {
+        try {
+            int deleted = tableMaintenance.deleteBefore("redis_client_snapshots", "record_time",
+                    LocalDateTime.now().minusDays(retentionDays));
+            log.info("清理过期客户端快照 {} 条", deleted);
+        } catch (Exception e) {
+            log.error("清理客户端快照失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        connectionStates.remove(connectionId);
+    }
+
+    /**
+     * 获取客户端分析统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("intervalMillis", intervalMillis);
+        statistics.put("topN", topN);
+        statistics.put("snapshots", snapshots.get());
+        statistics.put("triggeredSnapshots", triggeredSnapshots.get());
+        statistics.put("analyzedClients", analyzedClients.get());
+        return statistics;
+    }
+}
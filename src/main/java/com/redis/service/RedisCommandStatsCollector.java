@@ -0,0 +1,169 @@
+package com.redis.service;
+
+import com.redis.entity.RedisCommandStat;
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.CommandStatsTracker;
+import com.redis.repository.RedisCommandStatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 命令统计采集
+ *
+ * 定期读取 INFO commandstats，只保存区间内有调用的命令的增量，
+ * 可按任意时间窗口汇总出耗时最多的命令。
+ */
+@Slf4j
+@Service
+public class RedisCommandStatsCollector implements MonitorSideCollector {
+
+    @Autowired
+    private RedisInfoService redisInfoService;
+
+    @Autowired
+    private RedisCommandStatRepository commandStatRepository;
+
+    @Autowired
+    private MonitorTableMaintenance tableMaintenance;
+
+    @Value("${app.redis.monitoring.commandstats.interval:10000}")
+    private long intervalMillis;
+
+    @Value("${app.redis.monitoring.commandstats.retention-days:30}")
+    private long retentionDays;
+
+    private final Map<Long, CommandStatsTracker> trackers = new ConcurrentHashMap<>();
+
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong savedRows = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "commandstats";
+    }
+
+    @Override
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public void collect(RedisConnection connection, RedisMonitorRecord record) {
+        byte[] raw = redisInfoService.getRawInfo(connection, "commandstats");
+        CommandStatsTracker tracker = trackers.computeIfAbsent(connection.getId(), id -> new CommandStatsTracker());
+        long resetsBefore = tracker.getResets();
+        List<CommandStatsTracker.Delta> deltas = tracker.update(raw);
+        samples.incrementAndGet();
+        if (tracker.getResets() != resetsBefore) {
+            log.info("检测到连接 {} 的命令统计重置", connection.getName());
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime recordTime = record.getRecordTime();
+        List<RedisCommandStat> rows = new ArrayList<>(deltas.size());
+        for (CommandStatsTracker.Delta delta : deltas) {
+            rows.add(RedisCommandStat.builder()
+                    .connectionId(connection.getId())
+                    .recordTime(recordTime)
+                    .command(delta.getCommand())
+                    .calls(delta.getCalls())
+                    .usec(delta.getUsec())
+                    .rejectedCalls(delta.getRejectedCalls())
+                    .failedCalls(delta.getFailedCalls())
+                    .build());
+        }
+        commandStatRepository.saveAll(rows);
+        savedRows.addAndGet(rows.size());
+    }
+
+    /**
+     * 时间窗口内按CPU耗时排序的命令，cpuShare为该命令占窗口内全部命令耗时的比例
+     */
+    public List<Map<String, Object>> getTopCommands(Long connectionId, LocalDateTime startTime,
+                                                    LocalDateTime endTime, int limit) {
+        List<Object[]> rows = commandStatRepository.summarizeByCommand(connectionId, startTime, endTime);
+        long totalUsec = 0;
+        for (Object[] row : rows) {
+            totalUsec += toLong(row[2]);
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            Object[] row = rows.get(i);
+            long calls = toLong(row[1]);
+            long usec = toLong(row[2]);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("command", row[0]);
+            item.put("calls", calls);
+            item.put("usec", usec);
+            item.put("usecPerCall", calls > 0 ? (double) usec / calls : null);
+            item.put("rejectedCalls", toLong(row[3]));
+            item.put("failedCalls", toLong(row[4]));
+            item.put("cpuShare", totalUsec > 0 ? (double) usec / totalUsec : 0.0);
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * 单个命令的增量序列
+     */
+    public List<RedisCommandStat> getCommandSeries(Long connectionId, String command,
+                                                   LocalDateTime startTime, LocalDateTime endTime) {
+        return commandStatRepository.findByCommandAndTimeRange(connectionId, command.toLowerCase(), startTime, endTime);
+    }
+
+    /**
+     * 清理过期命令统计 (每天凌晨2点50分执行)
+     */
+    @Scheduled(cron = "0 50 2 * * ?")
+    public void cleanExpired() {
+        try {
+            int deleted = tableMaintenance.deleteBefore("redis_command_stats", "record_time",
+                    LocalDateTime.now().minusDays(retentionDays));
+            log.info("清理过期命令统计 {} 条", deleted);
+        } catch (Exception e) {
+            log.error("清理命令统计失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        trackers.remove(connectionId);
+    }
+
+    /**
+     * 获取命令统计采集信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("intervalMillis", intervalMillis);
+        statistics.put("samples", samples.get());
+        statistics.put("savedRows", savedRows.get());
+        long resets = 0;
+        for (CommandStatsTracker tracker : trackers.values()) {
+            resets += tracker.getResets();
+        }
+        statistics.put("resets", resets);
+        statistics.put("trackedConnections", trackers.size());
+        return statistics;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
@@ -7,14 +7,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Redis连接管理服务
+ *
+ * 有效连接的定义保存在内存中的不可变快照里，查询连接不访问数据库。
+ * 新增、修改、删除和设置默认连接后从数据库重建快照并整体替换，版本号加一，
+ * 地址、密码等配置变化或已删除的连接同时清除 {@link RedisService} 中缓存的客户端。
+ * 快照中的连接对象由所有调用方共享，只读，需要修改时从数据库重新加载。
  */
 @Slf4j
 @Service
@@ -23,6 +36,48 @@ public class RedisConnectionService {
     @Autowired
     private RedisConnectionRepository redisConnectionRepository;
 
+    @Autowired
+    private RedisService redisService;
+
+    private volatile Snapshot snapshot = new Snapshot(0L, Collections.emptyList());
+
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong invalidatedTemplates = new AtomicLong();
+
+    /**
+     * 某一版本的全部有效连接，创建后不再修改
+     */
+    private static final class Snapshot {
+
+        final long version;
+
+        final List<RedisConnection> connections;
+
+        final Map<Long, RedisConnection> byId;
+
+        final Map<String, RedisConnection> byName;
+
+        final RedisConnection defaultConnection;
+
+        Snapshot(long version, List<RedisConnection> connections) {
+            Map<Long, RedisConnection> ids = new LinkedHashMap<>();
+            Map<String, RedisConnection> names = new HashMap<>();
+            RedisConnection defaultCandidate = null;
+            for (RedisConnection connection : connections) {
+                ids.put(connection.getId(), connection);
+                names.put(connection.getName(), connection);
+                if (Boolean.TRUE.equals(connection.getIsDefault())) {
+                    defaultCandidate = connection;
+                }
+            }
+            this.version = version;
+            this.connections = Collections.unmodifiableList(new ArrayList<>(connections));
+            this.byId = Collections.unmodifiableMap(ids);
+            this.byName = Collections.unmodifiableMap(names);
+            this.defaultConnection = defaultCandidate;
+        }
+    }
+
     /**
      * 初始化默认连接
      */
@@ -44,36 +99,120 @@ public class RedisConnectionService {
             redisConnectionRepository.save(defaultConnection);
             log.info("创建默认Redis连接: {}", defaultConnection.getName());
         }
+        reload();
+    }
+
+    /**
+     * 从数据库重建连接快照并替换，清除配置已变化或已删除连接的客户端缓存
+     *
+     * 除本服务的修改外，定期执行一次以同步通过H2控制台等途径直接修改的数据
+     */
+    @Scheduled(fixedDelayString = "${app.redis.connection-cache.reload-interval:60000}",
+            initialDelayString = "${app.redis.connection-cache.reload-interval:60000}")
+    public synchronized void reload() {
+        List<RedisConnection> connections = new ArrayList<>();
+        for (RedisConnection connection : redisConnectionRepository.findByIsActiveTrue()) {
+            connections.add(copyOf(connection));
+        }
+        Snapshot previous = snapshot;
+        Snapshot next = new Snapshot(previous.version + 1, connections);
+        for (RedisConnection old : previous.connections) {
+            RedisConnection current = next.byId.get(old.getId());
+            if (current == null || !sameEndpoint(old, current)) {
+                redisService.clearConnectionCache(old.getId());
+                invalidatedTemplates.incrementAndGet();
+            }
+        }
+        if (!sameDefinitions(previous, next)) {
+            snapshot = next;
+            reloads.incrementAndGet();
+            log.debug("连接快照已更新到版本 {}，有效连接 {} 个", next.version, next.connections.size());
+        }
+    }
+
+    private static boolean sameDefinitions(Snapshot previous, Snapshot next) {
+        if (previous.connections.size() != next.connections.size()) {
+            return false;
+        }
+        for (RedisConnection connection : next.connections) {
+            if (!connection.equals(previous.byId.get(connection.getId()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否连接到同一实例，不同时需要重建客户端
+     */
+    private static boolean sameEndpoint(RedisConnection a, RedisConnection b) {
+        return Objects.equals(a.getHost(), b.getHost())
+                && Objects.equals(a.getPort(), b.getPort())
+                && Objects.equals(a.getPassword(), b.getPassword())
+                && Objects.equals(a.getDatabase(), b.getDatabase())
+                && Objects.equals(a.getTimeout(), b.getTimeout());
+    }
+
+    /**
+     * 脱离持久化上下文的副本，放入快照后不受实体后续修改影响
+     */
+    private static RedisConnection copyOf(RedisConnection connection) {
+        return RedisConnection.builder()
+                .id(connection.getId())
+                .name(connection.getName())
+                .host(connection.getHost())
+                .port(connection.getPort())
+                .password(connection.getPassword())
+                .database(connection.getDatabase())
+                .timeout(connection.getTimeout())
+                .description(connection.getDescription())
+                .isDefault(connection.getIsDefault())
+                .isActive(connection.getIsActive())
+                .createdTime(connection.getCreatedTime())
+                .updatedTime(connection.getUpdatedTime())
+                .build();
+    }
+
+    /**
+     * 当前快照版本，连接定义每变化一次加一
+     */
+    public long getVersion() {
+        return snapshot.version;
     }
 
     /**
      * 获取所有连接
      */
     public List<RedisConnection> getAllConnections() {
-        return redisConnectionRepository.findByIsActiveTrue();
+        return snapshot.connections;
     }
 
     /**
-     * 根据ID获取连接
+     * 根据ID获取有效连接，已删除的连接返回null
      */
     public RedisConnection getConnectionById(Long id) {
-        Optional<RedisConnection> connection = redisConnectionRepository.findById(id);
-        return connection.orElse(null);
+        return id != null ? snapshot.byId.get(id) : null;
     }
 
     /**
-     * 根据名称获取连接
+     * 根据名称获取有效连接
      */
     public RedisConnection getConnectionByName(String name) {
-        Optional<RedisConnection> connection = redisConnectionRepository.findByName(name);
-        return connection.orElse(null);
+        return snapshot.byName.get(name);
     }
 
     /**
      * 获取默认连接
      */
     public RedisConnection getDefaultConnection() {
-        Optional<RedisConnection> connection = redisConnectionRepository.findByIsDefaultTrue();
+        return snapshot.defaultConnection;
+    }
+
+    /**
+     * 从数据库加载连接用于修改，不使用快照中的共享对象
+     */
+    private RedisConnection loadConnection(Long id) {
+        Optional<RedisConnection> connection = redisConnectionRepository.findById(id);
         return connection.orElse(null);
     }
 
@@ -97,6 +236,7 @@ public class RedisConnectionService {
         }
 
         RedisConnection savedConnection = redisConnectionRepository.save(connection);
+        reload();
         log.info("创建Redis连接: {}", savedConnection.getName());
         return savedConnection;
     }
@@ -105,7 +245,7 @@ public class RedisConnectionService {
      * 更新连接
      */
     public RedisConnection updateConnection(Long id, RedisConnection connection) {
-        RedisConnection existingConnection = getConnectionById(id);
+        RedisConnection existingConnection = loadConnection(id);
         if (existingConnection == null) {
             throw new RuntimeException("连接不存在: " + id);
         }
@@ -130,7 +270,8 @@ public class RedisConnectionService {
         connection.setCreatedTime(existingConnection.getCreatedTime());
         
         RedisConnection updatedConnection = redisConnectionRepository.save(connection);
-        
+        reload();
+
         log.info("更新Redis连接: {}", updatedConnection.getName());
         return updatedConnection;
     }
@@ -139,7 +280,7 @@ public class RedisConnectionService {
      * 删除连接
      */
     public void deleteConnection(Long id) {
-        RedisConnection connection = getConnectionById(id);
+        RedisConnection connection = loadConnection(id);
         if (connection == null) {
             throw new RuntimeException("连接不存在: " + id);
         }
@@ -151,7 +292,8 @@ public class RedisConnectionService {
 
         connection.setIsActive(false);
         redisConnectionRepository.save(connection);
-        
+        reload();
+
         log.info("删除Redis连接: {}", connection.getName());
     }
 
@@ -159,7 +301,7 @@ public class RedisConnectionService {
      * 设置默认连接
      */
     public RedisConnection setDefaultConnection(Long id) {
-        RedisConnection connection = getConnectionById(id);
+        RedisConnection connection = loadConnection(id);
         if (connection == null) {
             throw new RuntimeException("连接不存在: " + id);
         }
@@ -170,7 +312,8 @@ public class RedisConnectionService {
         // 设置新的默认连接
         connection.setIsDefault(true);
         RedisConnection updatedConnection = redisConnectionRepository.save(connection);
-        
+        reload();
+
         log.info("设置默认Redis连接: {}", updatedConnection.getName());
         return updatedConnection;
     }
@@ -232,6 +375,20 @@ public class RedisConnectionService {
      * 获取活跃连接数
      */
     public long getActiveConnectionCount() {
-        return redisConnectionRepository.findByIsActiveTrue().size();
+        return snapshot.connections.size();
+    }
+
+    /**
+     * 获取连接快照统计信息
+     */
+    public Map<String, Object> getCacheStatistics() {
+        Snapshot current = snapshot;
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("version", current.version);
+        statistics.put("activeConnections", current.connections.size());
+        statistics.put("defaultConnectionId", current.defaultConnection != null ? current.defaultConnection.getId() : null);
+        statistics.put("reloads", reloads.get());
+        statistics.put("invalidatedTemplates", invalidatedTemplates.get());
+        return statistics;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,284 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 集群快照登记表
+ *
+ * 在内存中保存每个连接的最新样本、健康状态和记录数，由采集线程在每次采样后更新。
+ * 每个连接对应一个不可变的 {@link Entry}，更新时整体替换，首页和仪表盘读取时无锁且不访问数据库。
+ * 启动时从原始记录存储恢复最新记录和记录数，原始数据清理后重新统计记录数。
+ */
+@Slf4j
+@Service
+public class RedisFleetRegistry implements MonitorSampleListener {
+
+    /** 健康状态 */
+    public static final String UP = "UP";
+    public static final String STALE = "STALE";
+    public static final String DOWN = "DOWN";
+    public static final String UNKNOWN = "UNKNOWN";
+
+    @Autowired
+    private MonitorRecordStore recordStore;
+
+    @Value("${app.redis.monitoring.fleet.down-after-failures:3}")
+    private int downAfterFailures;
+
+    @Value("${app.redis.monitoring.fleet.stale-after:180000}")
+    private long staleAfterMillis;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 单个连接的快照，不可变
+     */
+    public static final class Entry {
+
+        private final Long connectionId;
+
+        private final String connectionName;
+
+        private final RedisMonitorRecord latest;
+
+        private final long lastSampleMillis;
+
+        private final long lastFailureMillis;
+
+        private final String lastError;
+
+        private final int consecutiveFailures;
+
+        private final long recordCount;
+
+        private Entry(Long connectionId, String connectionName, RedisMonitorRecord latest, long lastSampleMillis,
+                      long lastFailureMillis, String lastError, int consecutiveFailures, long recordCount) {
+            this.connectionId = connectionId;
+            this.connectionName = connectionName;
+            this.latest = latest;
+            this.lastSampleMillis = lastSampleMillis;
+            this.lastFailureMillis = lastFailureMillis;
+            this.lastError = lastError;
+            this.consecutiveFailures = consecutiveFailures;
+            this.recordCount = recordCount;
+        }
+
+        private static Entry empty(Long connectionId, String connectionName) {
+            return new Entry(connectionId, connectionName, null, 0L, 0L, null, 0, 0L);
+        }
+
+        private Entry withName(String name) {
+            return new Entry(connectionId, name, latest, lastSampleMillis, lastFailureMillis, lastError,
+                    consecutiveFailures, recordCount);
+        }
+
+        private Entry withSample(RedisMonitorRecord record, long now) {
+            return new Entry(connectionId, connectionName, record, now, lastFailureMillis, lastError, 0, recordCount + 1);
+        }
+
+        private Entry withFailure(String error, long now) {
+            return new Entry(connectionId, connectionName, latest, lastSampleMillis, now, error,
+                    consecutiveFailures + 1, recordCount);
+        }
+
+        private Entry withRecordCount(long count) {
+            return new Entry(connectionId, connectionName, latest, lastSampleMillis, lastFailureMillis, lastError,
+                    consecutiveFailures, count);
+        }
+
+        public Long getConnectionId() {
+            return connectionId;
+        }
+
+        public String getConnectionName() {
+            return connectionName;
+        }
+
+        public RedisMonitorRecord getLatest() {
+            return latest;
+        }
+
+        public long getLastSampleMillis() {
+            return lastSampleMillis;
+        }
+
+        public long getLastFailureMillis() {
+            return lastFailureMillis;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+
+        public int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        public long getRecordCount() {
+            return recordCount;
+        }
+    }
+
+    /**
+     * 从原始记录存储恢复各连接的最新记录和记录数
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            for (RedisMonitorRecord record : recordStore.findLatestPerConnection()) {
+                long sampleMillis = RedisMetricStore.toEpochMillis(record.getRecordTime());
+                entries.merge(record.getConnectionId(),
+                        Entry.empty(record.getConnectionId(), record.getConnectionName()).withSample(record, sampleMillis),
+                        (existing, loaded) -> existing.lastSampleMillis >= sampleMillis ? existing : loaded);
+            }
+            resyncRecordCounts();
+            log.info("集群快照登记表已恢复 {} 个连接", entries.size());
+        } catch (Exception e) {
+            log.error("恢复集群快照失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onSample(RedisConnection connection, RedisMonitorRecord record) {
+        long now = RedisMetricStore.toEpochMillis(record.getRecordTime());
+        entries.compute(connection.getId(), (id, entry) ->
+                (entry != null ? entry : Entry.empty(id, connection.getName())).withSample(record, now));
+    }
+
+    @Override
+    public void onSampleFailed(RedisConnection connection, Exception error) {
+        long now = System.currentTimeMillis();
+        entries.compute(connection.getId(), (id, entry) ->
+                (entry != null ? entry : Entry.empty(id, connection.getName())).withFailure(error.getMessage(), now));
+    }
+
+    /**
+     * 登记采集目标，连接改名后同步名称
+     */
+    public void register(RedisConnection connection) {
+        entries.compute(connection.getId(), (id, entry) -> {
+            if (entry == null) {
+                return Entry.empty(id, connection.getName());
+            }
+            return connection.getName().equals(entry.connectionName) ? entry : entry.withName(connection.getName());
+        });
+    }
+
+    /**
+     * 只保留仍然存在的连接
+     */
+    public void retain(Set<Long> connectionIds) {
+        entries.keySet().retainAll(connectionIds);
+    }
+
+    /**
+     * 按原始记录存储重新统计各连接的记录数，原始数据清理后调用
+     */
+    public void resyncRecordCounts() {
+        Map<Long, Long> counts = recordStore.countByConnection();
+        for (Long connectionId : entries.keySet()) {
+            long count = counts.getOrDefault(connectionId, 0L);
+            entries.computeIfPresent(connectionId, (id, entry) -> entry.withRecordCount(count));
+        }
+    }
+
+    public Entry get(Long connectionId) {
+        return entries.get(connectionId);
+    }
+
+    /**
+     * 所有连接的最新记录
+     */
+    public List<RedisMonitorRecord> getLatestRecords() {
+        List<RedisMonitorRecord> records = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            if (entry.latest != null) {
+                records.add(entry.latest);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * 计算连接的健康状态
+     */
+    public String getHealth(Entry entry, long now) {
+        if (entry.consecutiveFailures >= downAfterFailures) {
+            return DOWN;
+        }
+        if (entry.latest == null) {
+            return UNKNOWN;
+        }
+        return now - entry.lastSampleMillis > staleAfterMillis ? STALE : UP;
+    }
+
+    /**
+     * 连接ID -> 健康状态
+     */
+    public Map<Long, String> getHealthByConnection() {
+        long now = System.currentTimeMillis();
+        Map<Long, String> health = new HashMap<>();
+        for (Entry entry : entries.values()) {
+            health.put(entry.connectionId, getHealth(entry, now));
+        }
+        return health;
+    }
+
+    /**
+     * 汇总统计: 连接数、记录数和各健康状态的连接数
+     */
+    public Map<String, Object> getSummary() {
+        long now = System.currentTimeMillis();
+        long totalRecords = 0;
+        Map<String, Integer> health = new LinkedHashMap<>();
+        health.put(UP, 0);
+        health.put(STALE, 0);
+        health.put(DOWN, 0);
+        health.put(UNKNOWN, 0);
+        for (Entry entry : entries.values()) {
+            totalRecords += entry.recordCount;
+            health.merge(getHealth(entry, now), 1, Integer::sum);
+        }
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("totalConnections", entries.size());
+        summary.put("totalRecords", totalRecords);
+        summary.put("health", health);
+        return summary;
+    }
+
+    /**
+     * 每个连接的快照视图
+     */
+    public List<Map<String, Object>> getEntries() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("connectionId", entry.connectionId);
+            view.put("connectionName", entry.connectionName);
+            view.put("health", getHealth(entry, now));
+            view.put("lastSampleTime", entry.lastSampleMillis > 0 ? RedisMetricStore.toLocalDateTime(entry.lastSampleMillis) : null);
+            view.put("lastFailureTime", entry.lastFailureMillis > 0 ? RedisMetricStore.toLocalDateTime(entry.lastFailureMillis) : null);
+            view.put("lastError", entry.lastError);
+            view.put("consecutiveFailures", entry.consecutiveFailures);
+            view.put("recordCount", entry.recordCount);
+            view.put("latest", entry.latest);
+            result.add(view);
+        }
+        return result;
+    }
+}
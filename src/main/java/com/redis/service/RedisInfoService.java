@@ -0,0 +1,237 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.monitor.InfoParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis INFO快照服务
+ *
+ * 同一连接同一部分的并发请求合并为一次INFO调用(single-flight)，
+ * 结果在配置的时长内直接从内存返回。只需要部分内容的调用方可以按section获取，
+ * 新鲜的全量快照也可以直接满足section请求。
+ */
+@Slf4j
+@Service
+public class RedisInfoService {
+
+    /** 默认INFO的缓存键 */
+    private static final String ALL_SECTIONS = "default";
+
+    /** 不包含在默认INFO中的section，不能用全量快照代替 */
+    private static final Set<String> NON_DEFAULT_SECTIONS = new HashSet<>(
+            Arrays.asList("commandstats", "latencystats", "all", "everything"));
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.redis.monitoring.info-cache.max-age:1000}")
+    private long defaultMaxAgeMillis;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<Snapshot>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> infoTimers = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong coalescedCalls = new AtomicLong();
+    private final AtomicLong issuedCalls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+
+    /**
+     * 获取默认INFO内容，使用默认缓存时长
+     */
+    public Map<String, Object> getInfo(RedisConnection connection) {
+        return getInfo(connection, null, defaultMaxAgeMillis);
+    }
+
+    /**
+     * 获取INFO的指定部分，使用默认缓存时长
+     */
+    public Map<String, Object> getInfo(RedisConnection connection, String section) {
+        return getInfo(connection, section, defaultMaxAgeMillis);
+    }
+
+    /**
+     * 获取INFO内容，不早于maxAgeMillis之前获取的快照可直接返回
+     *
+     * section为空表示默认INFO；返回的Map不可修改
+     */
+    public Map<String, Object> getInfo(RedisConnection connection, String section, long maxAgeMillis) {
+        return getSnapshot(connection, section, maxAgeMillis).getMap();
+    }
+
+    /**
+     * 获取INFO回复的原始字节，使用默认缓存时长，调用方不得修改返回的数组
+     */
+    public byte[] getRawInfo(RedisConnection connection, String section) {
+        return getSnapshot(connection, section, defaultMaxAgeMillis).raw;
+    }
+
+    /**
+     * 获取INFO回复的原始字节，不早于maxAgeMillis之前获取的快照可直接返回
+     */
+    public byte[] getRawInfo(RedisConnection connection, String section, long maxAgeMillis) {
+        return getSnapshot(connection, section, maxAgeMillis).raw;
+    }
+
+    /**
+     * 获取INFO快照及其获取时刻
+     *
+     * maxAgeMillis为0时不复用已完成的快照，只与正在进行的同一调用合并，适合按样本时间计算速率的采集
+     */
+    public Snapshot getSnapshot(RedisConnection connection, String section, long maxAgeMillis) {
+        requests.incrementAndGet();
+        String sectionKey = section != null ? section.toLowerCase() : ALL_SECTIONS;
+        String key = connection.getId() + ":" + sectionKey;
+        long now = System.currentTimeMillis();
+
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot == null && section != null && !NON_DEFAULT_SECTIONS.contains(sectionKey)) {
+            // 默认INFO包含大部分section，新鲜的全量快照可以直接使用
+            snapshot = snapshots.get(connection.getId() + ":" + ALL_SECTIONS);
+        }
+        if (snapshot != null && maxAgeMillis > 0 && now - snapshot.fetchedAt <= maxAgeMillis) {
+            cacheHits.incrementAndGet();
+            return snapshot;
+        }
+
+        CompletableFuture<Snapshot> future = new CompletableFuture<>();
+        CompletableFuture<Snapshot> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedCalls.incrementAndGet();
+            return await(existing, connection);
+        }
+
+        try {
+            issuedCalls.incrementAndGet();
+            // 以发起INFO的时刻作为快照时间
+            long fetchedAt = System.currentTimeMillis();
+            long start = System.nanoTime();
+            byte[] raw = redisService.getRawRedisInfo(connection, section);
+            infoTimer(sectionKey).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Snapshot fetched = new Snapshot(raw, fetchedAt);
+            snapshots.put(key, fetched);
+            future.complete(fetched);
+            return fetched;
+        } catch (Throwable t) {
+            // 任何失败都要完成future，否则等待中的调用方会一直阻塞
+            failedCalls.incrementAndGet();
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private Timer infoTimer(String sectionKey) {
+        Timer timer = infoTimers.get(sectionKey);
+        if (timer == null) {
+            timer = infoTimers.computeIfAbsent(sectionKey, key -> Timer.builder("redis.gui.info")
+                    .description("实际发往Redis的INFO调用耗时")
+                    .tag("section", key)
+                    .register(meterRegistry));
+        }
+        return timer;
+    }
+
+    /**
+     * 等待正在进行的同一调用，最长等待连接的命令超时时间
+     */
+    private Snapshot await(CompletableFuture<Snapshot> future, RedisConnection connection) {
+        long timeoutMillis = connection.getTimeout() != null ? connection.getTimeout() : 5000;
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待Redis信息被中断", e);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("等待Redis信息超时", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("获取Redis信息失败", cause);
+        }
+    }
+
+    /**
+     * 移除连接的全部快照 (连接配置变更或删除后调用)
+     */
+    public void evict(Long connectionId) {
+        String prefix = connectionId + ":";
+        snapshots.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * 获取INFO调用统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("maxAgeMillis", defaultMaxAgeMillis);
+        statistics.put("requests", requests.get());
+        statistics.put("cacheHits", cacheHits.get());
+        statistics.put("coalescedCalls", coalescedCalls.get());
+        statistics.put("issuedCalls", issuedCalls.get());
+        statistics.put("failedCalls", failedCalls.get());
+        statistics.put("snapshots", snapshots.size());
+        return statistics;
+    }
+
+    /**
+     * 某一时刻的INFO回复，Map形式在首次需要时才解析
+     */
+    public static class Snapshot {
+        private final byte[] raw;
+        private final long fetchedAt;
+        private volatile Map<String, Object> map;
+
+        private Snapshot(byte[] raw, long fetchedAt) {
+            this.raw = raw;
+            this.fetchedAt = fetchedAt;
+        }
+
+        /** 原始回复，调用方不得修改 */
+        public byte[] getRaw() {
+            return raw;
+        }
+
+        /** 发起INFO的时刻(毫秒) */
+        public long getFetchedAt() {
+            return fetchedAt;
+        }
+
+        private Map<String, Object> getMap() {
+            Map<String, Object> result = map;
+            if (result == null) {
+                result = Collections.unmodifiableMap(InfoParser.toMap(raw));
+                map = result;
+            }
+            return result;
+        }
+    }
+}
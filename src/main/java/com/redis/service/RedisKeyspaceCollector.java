@@ -0,0 +1,262 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisKeyspaceStat;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.KeyspaceTrend;
+import com.redis.repository.RedisKeyspaceStatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 键空间统计采集
+ *
+ * 定期读取 INFO keyspace，每个库只在 keys/expires/avg_ttl 变化或超过最长间隔时写入一行。
+ * 同时在内存中维护每个连接的增长趋势，按已用内存的增长速度预测何时达到maxmemory，
+ * 首页的集群概览直接读取该缓存，不再逐台查询Redis。
+ */
+@Slf4j
+@Service
+public class RedisKeyspaceCollector implements MonitorSideCollector {
+
+    /** 趋势环形数组容量，1秒采样时约覆盖1小时 */
+    private static final int TREND_CAPACITY = 4096;
+
+    @Autowired
+    private RedisInfoService redisInfoService;
+
+    @Autowired
+    private RedisKeyspaceStatRepository keyspaceStatRepository;
+
+    @Autowired
+    private MonitorTableMaintenance tableMaintenance;
+
+    @Value("${app.redis.monitoring.keyspace.interval:5000}")
+    private long intervalMillis;
+
+    @Value("${app.redis.monitoring.keyspace.max-gap:600000}")
+    private long maxGapMillis;
+
+    @Value("${app.redis.monitoring.keyspace.trend-window:3600000}")
+    private long trendWindowMillis;
+
+    @Value("${app.redis.monitoring.keyspace.retention-days:30}")
+    private long retentionDays;
+
+    private final Map<Long, KeyspaceState> states = new ConcurrentHashMap<>();
+
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong savedRows = new AtomicLong();
+    private final AtomicLong skippedRows = new AtomicLong();
+
+    /**
+     * 单个连接的写入状态和趋势
+     */
+    private class KeyspaceState {
+
+        /** 每个库最近一次写入的值和写入时间 */
+        final Map<Integer, long[]> lastWritten = new HashMap<>();
+
+        final Map<Integer, Long> lastWrittenAt = new HashMap<>();
+
+        final KeyspaceTrend trend = new KeyspaceTrend(TREND_CAPACITY, trendWindowMillis);
+
+        volatile Map<String, Object> summary;
+    }
+
+    @Override
+    public String getName() {
+        return "keyspace";
+    }
+
+    @Override
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public void collect(RedisConnection connection, RedisMonitorRecord record) {
+        Map<Integer, long[]> databases = KeyspaceTrend.parse(redisInfoService.getRawInfo(connection, "keyspace"));
+        KeyspaceState state = states.computeIfAbsent(connection.getId(), id -> new KeyspaceState());
+        LocalDateTime recordTime = record.getRecordTime();
+        long now = RedisMetricStore.toEpochMillis(recordTime);
+        samples.incrementAndGet();
+
+        long totalKeys = 0;
+        long totalExpires = 0;
+        List<RedisKeyspaceStat> rows = new ArrayList<>();
+        for (Map.Entry<Integer, long[]> entry : databases.entrySet()) {
+            long[] values = entry.getValue();
+            totalKeys += values[KeyspaceTrend.KEYS];
+            totalExpires += values[KeyspaceTrend.EXPIRES];
+            if (shouldWrite(state, entry.getKey(), values, now)) {
+                rows.add(toRow(connection.getId(), recordTime, entry.getKey(), values));
+            } else {
+                skippedRows.incrementAndGet();
+            }
+        }
+        // 被清空的库写一行0，序列才能正确回落
+        for (Integer db : new ArrayList<>(state.lastWritten.keySet())) {
+            if (!databases.containsKey(db)) {
+                rows.add(toRow(connection.getId(), recordTime, db, new long[3]));
+                state.lastWritten.remove(db);
+                state.lastWrittenAt.remove(db);
+            }
+        }
+        if (!rows.isEmpty()) {
+            keyspaceStatRepository.saveAll(rows);
+            savedRows.addAndGet(rows.size());
+        }
+
+        long usedMemory = record.getUsedMemory() != null ? record.getUsedMemory() : 0L;
+        state.trend.add(now, totalKeys, usedMemory);
+        state.summary = buildSummary(connection, record, databases.size(), totalKeys, totalExpires, state.trend);
+    }
+
+    private boolean shouldWrite(KeyspaceState state, Integer db, long[] values, long now) {
+        long[] previous = state.lastWritten.get(db);
+        Long writtenAt = state.lastWrittenAt.get(db);
+        if (previous != null && writtenAt != null && Arrays.equals(previous, values) && now - writtenAt < maxGapMillis) {
+            return false;
+        }
+        state.lastWritten.put(db, values);
+        state.lastWrittenAt.put(db, now);
+        return true;
+    }
+
+    private RedisKeyspaceStat toRow(Long connectionId, LocalDateTime recordTime, Integer db, long[] values) {
+        return RedisKeyspaceStat.builder()
+                .connectionId(connectionId)
+                .recordTime(recordTime)
+                .db(db)
+                .keys(values[KeyspaceTrend.KEYS])
+                .expires(values[KeyspaceTrend.EXPIRES])
+                .avgTtl(values[KeyspaceTrend.AVG_TTL])
+                .build();
+    }
+
+    private Map<String, Object> buildSummary(RedisConnection connection, RedisMonitorRecord record, int databases,
+                                             long totalKeys, long totalExpires, KeyspaceTrend trend) {
+        long usedMemory = record.getUsedMemory() != null ? record.getUsedMemory() : 0L;
+        long maxmemory = record.getMaxmemory() != null ? record.getMaxmemory() : 0L;
+        double keysPerHour = trend.keysPerSecond() * 3600;
+        double memoryPerHour = trend.memoryPerSecond() * 3600;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("connectionId", connection.getId());
+        summary.put("connectionName", connection.getName());
+        summary.put("recordTime", record.getRecordTime());
+        summary.put("databases", databases);
+        summary.put("totalKeys", totalKeys);
+        summary.put("totalExpires", totalExpires);
+        summary.put("keysPerHour", keysPerHour);
+        summary.put("memoryPerHour", memoryPerHour);
+        summary.put("usedMemory", usedMemory);
+        summary.put("maxmemory", maxmemory);
+        summary.put("bytesPerKey", totalKeys > 0 ? (double) usedMemory / totalKeys : null);
+        // 未设置maxmemory或内存未增长时无法预测
+        Double hoursToMaxmemory = null;
+        if (maxmemory > 0 && memoryPerHour > 0) {
+            hoursToMaxmemory = Math.max(0.0, (maxmemory - usedMemory) / memoryPerHour);
+        }
+        summary.put("hoursToMaxmemory", hoursToMaxmemory);
+        summary.put("projectedExhaustion", hoursToMaxmemory != null && hoursToMaxmemory < 24 * 365
+                ? record.getRecordTime().plusSeconds((long) (hoursToMaxmemory * 3600)) : null);
+        return summary;
+    }
+
+    /**
+     * 按时间范围查询键空间序列
+     */
+    public List<RedisKeyspaceStat> getSeries(Long connectionId, LocalDateTime startTime, LocalDateTime endTime) {
+        return keyspaceStatRepository.findByConnectionIdAndTimeRange(connectionId, startTime, endTime);
+    }
+
+    /**
+     * 单个连接最近一次的键空间概览，尚未采集过时返回null
+     */
+    public Map<String, Object> getSummary(Long connectionId) {
+        KeyspaceState state = states.get(connectionId);
+        return state != null ? state.summary : null;
+    }
+
+    /**
+     * 所有连接的键空间概览，按预计耗尽时间从近到远排列，只读内存缓存
+     */
+    public Map<String, Object> getFleetSummary() {
+        List<Map<String, Object>> connections = new ArrayList<>();
+        long totalKeys = 0;
+        double keysPerHour = 0;
+        for (KeyspaceState state : states.values()) {
+            Map<String, Object> summary = state.summary;
+            if (summary == null) {
+                continue;
+            }
+            connections.add(summary);
+            totalKeys += (Long) summary.get("totalKeys");
+            keysPerHour += (Double) summary.get("keysPerHour");
+        }
+        connections.sort((a, b) -> {
+            Double left = (Double) a.get("hoursToMaxmemory");
+            Double right = (Double) b.get("hoursToMaxmemory");
+            if (left == null || right == null) {
+                return left == null ? (right == null ? 0 : 1) : -1;
+            }
+            return Double.compare(left, right);
+        });
+        Map<String, Object> fleet = new LinkedHashMap<>();
+        fleet.put("totalKeys", totalKeys);
+        fleet.put("keysPerHour", keysPerHour);
+        fleet.put("connections", connections);
+        return fleet;
+    }
+
+    /**
+     * 连接删除后丢弃其趋势和写入状态
+     */
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        states.remove(connectionId);
+    }
+
+    /**
+     * 清理过期键空间统计 (每天凌晨3点20分执行)
+     */
+    @Scheduled(cron = "0 20 3 * * ?")
+    public void cleanExpired() {
+        try {
+            int deleted = tableMaintenance.deleteBefore("redis_keyspace_stats", "record_time",
+                    LocalDateTime.now().minusDays(retentionDays));
+            log.info("清理过期键空间统计 {} 条", deleted);
+        } catch (Exception e) {
+            log.error("清理键空间统计失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取键空间采集统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("intervalMillis", intervalMillis);
+        statistics.put("maxGapMillis", maxGapMillis);
+        statistics.put("samples", samples.get());
+        statistics.put("savedRows", savedRows.get());
+        statistics.put("skippedRows", skippedRows.get());
+        statistics.put("trackedConnections", states.size());
+        return statistics;
+    }
+}
@@ -0,0 +1,248 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMemoryStat;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.MemoryStatsParser;
+import com.redis.repository.RedisMemoryStatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内存明细采集
+ *
+ * 按较慢的间隔执行 MEMORY STATS，保存开销构成、数据集和分配器碎片等字段，
+ * 并附带同一次样本的RSS与碎片整理计数；更慢的间隔内附带一次 MEMORY DOCTOR 报告。
+ * MEMORY 命令不可用(低版本或被禁用)的连接暂停一段时间后再试。
+ */
+@Slf4j
+@Service
+public class RedisMemoryStatsCollector implements MonitorSideCollector {
+
+    /** MEMORY不可用时的重试间隔 */
+    private static final long UNAVAILABLE_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private RedisMemoryStatRepository memoryStatRepository;
+
+    @Autowired
+    private MonitorTableMaintenance tableMaintenance;
+
+    @Value("${app.redis.monitoring.memory.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.redis.monitoring.memory.interval:60000}")
+    private long intervalMillis;
+
+    @Value("${app.redis.monitoring.memory.doctor-interval:3600000}")
+    private long doctorIntervalMillis;
+
+    @Value("${app.redis.monitoring.memory.retention-days:30}")
+    private long retentionDays;
+
+    /** 每个连接下一次允许执行 MEMORY STATS 和 MEMORY DOCTOR 的时间 */
+    private final Map<Long, long[]> connectionStates = new ConcurrentHashMap<>();
+
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong doctorReports = new AtomicLong();
+    private final AtomicLong unavailable = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public long getIntervalMillis() {
+        return enabled ? intervalMillis : 0L;
+    }
+
+    @Override
+    public void collect(RedisConnection connection, RedisMonitorRecord record) {
+        long[] state = connectionStates.computeIfAbsent(connection.getId(), id -> new long[2]);
+        long now = System.currentTimeMillis();
+        if (now < state[0]) {
+            return;
+        }
+        Map<String, Double> stats;
+        try {
+            stats = MemoryStatsParser.parse(redisService.executeNested(connection, "MEMORY", "STATS"));
+        } catch (RuntimeException e) {
+            state[0] = now + UNAVAILABLE_RETRY_MILLIS;
+            unavailable.incrementAndGet();
+            log.debug("连接 {} 的MEMORY STATS不可用: {}", connection.getName(), e.getMessage());
+            return;
+        }
+
+        String doctorReport = null;
+        if (doctorIntervalMillis > 0 && now >= state[1]) {
+            state[1] = now + doctorIntervalMillis;
+            doctorReport = readDoctorReport(connection);
+        }
+
+        RedisMemoryStat stat = RedisMemoryStat.builder()
+                .connectionId(connection.getId())
+                .recordTime(record.getRecordTime())
+                .peakAllocated(toLong(stats.get("peak.allocated")))
+                .totalAllocated(toLong(stats.get("total.allocated")))
+                .startupAllocated(toLong(stats.get("startup.allocated")))
+                .replicationBacklog(toLong(stats.get("replication.backlog")))
+                .clientsReplicas(toLong(stats.get("clients.slaves")))
+                .clientsNormal(toLong(stats.get("clients.normal")))
+                .aofBuffer(toLong(stats.get("aof.buffer")))
+                .dbOverhead(MemoryStatsParser.sumDbOverhead(stats))
+                .overheadTotal(toLong(stats.get("overhead.total")))
+                .keysCount(toLong(stats.get("keys.count")))
+                .datasetBytes(toLong(stats.get("dataset.bytes")))
+                .datasetPercentage(stats.get("dataset.percentage"))
+                .allocatorAllocated(toLong(stats.get("allocator.allocated")))
+                .allocatorActive(toLong(stats.get("allocator.active")))
+                .allocatorResident(toLong(stats.get("allocator.resident")))
+                .allocatorFragRatio(stats.get("allocator-fragmentation.ratio"))
+                .allocatorFragBytes(toLong(stats.get("allocator-fragmentation.bytes")))
+                .allocatorRssRatio(stats.get("allocator.rss-ratio"))
+                .allocatorRssBytes(toLong(stats.get("allocator.rss-bytes")))
+                .rssOverheadRatio(stats.get("rss-overhead.ratio"))
+                .rssOverheadBytes(toLong(stats.get("rss-overhead.bytes")))
+                .fragmentation(stats.get("fragmentation"))
+                .fragmentationBytes(toLong(stats.get("fragmentation.bytes")))
+                .usedMemoryRss(record.getUsedMemoryRss())
+                .activeDefragRunning(record.getActiveDefragRunning())
+                .activeDefragHits(record.getActiveDefragHits())
+                .activeDefragMisses(record.getActiveDefragMisses())
+                .activeDefragKeyHits(record.getActiveDefragKeyHits())
+                .activeDefragKeyMisses(record.getActiveDefragKeyMisses())
+                .doctorReport(doctorReport)
+                .build();
+        memoryStatRepository.save(stat);
+        samples.incrementAndGet();
+    }
+
+    private String readDoctorReport(RedisConnection connection) {
+        try {
+            // 单行回复被收集为只有一个元素的列表
+            List<Object> reply = redisService.executeNested(connection, "MEMORY", "DOCTOR");
+            if (!reply.isEmpty() && reply.get(0) instanceof byte[]) {
+                doctorReports.incrementAndGet();
+                return new String((byte[]) reply.get(0), StandardCharsets.UTF_8);
+            }
+        } catch (RuntimeException e) {
+            log.debug("连接 {} 的MEMORY DOCTOR失败: {}", connection.getName(), e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 按时间范围查询内存明细
+     *
+     * 每行附带与上一行相比的碎片整理命中数和RSS变化，用于观察碎片整理是否真正降低了RSS
+     */
+    public List<Map<String, Object>> getMemorySeries(Long connectionId, LocalDateTime startTime, LocalDateTime endTime) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        RedisMemoryStat previous = null;
+        for (RedisMemoryStat stat : memoryStatRepository.findByConnectionIdAndTimeRange(connectionId, startTime, endTime)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("recordTime", stat.getRecordTime());
+            item.put("usedMemoryRss", stat.getUsedMemoryRss());
+            item.put("totalAllocated", stat.getTotalAllocated());
+            item.put("overheadTotal", stat.getOverheadTotal());
+            item.put("datasetBytes", stat.getDatasetBytes());
+            item.put("replicationBacklog", stat.getReplicationBacklog());
+            item.put("clientsNormal", stat.getClientsNormal());
+            item.put("clientsReplicas", stat.getClientsReplicas());
+            item.put("dbOverhead", stat.getDbOverhead());
+            item.put("fragmentation", stat.getFragmentation());
+            item.put("fragmentationBytes", stat.getFragmentationBytes());
+            item.put("allocatorFragRatio", stat.getAllocatorFragRatio());
+            item.put("allocatorRssRatio", stat.getAllocatorRssRatio());
+            item.put("rssOverheadRatio", stat.getRssOverheadRatio());
+            item.put("activeDefragRunning", stat.getActiveDefragRunning());
+            item.put("defragHitsDelta", previous != null ? delta(stat.getActiveDefragHits(), previous.getActiveDefragHits()) : null);
+            item.put("rssDelta", previous != null && stat.getUsedMemoryRss() != null && previous.getUsedMemoryRss() != null
+                    ? stat.getUsedMemoryRss() - previous.getUsedMemoryRss() : null);
+            item.put("hasDoctorReport", stat.getDoctorReport() != null);
+            result.add(item);
+            previous = stat;
+        }
+        return result;
+    }
+
+    /**
+     * 最近一次 MEMORY DOCTOR 报告，没有时返回null
+     */
+    public Map<String, Object> getLatestDoctorReport(Long connectionId) {
+        List<RedisMemoryStat> stats = memoryStatRepository.findLatestWithDoctorReport(connectionId, PageRequest.of(0, 1));
+        if (stats.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("recordTime", stats.get(0).getRecordTime());
+        report.put("report", stats.get(0).getDoctorReport());
+        return report;
+    }
+
+    /**
+     * 计数器差值，重启后计数器回落时返回null
+     */
+    private static Long delta(Long current, Long previous) {
+        if (current == null || previous == null || current < previous) {
+            return null;
+        }
+        return current - previous;
+    }
+
+    private static Long toLong(Double value) {
+        return value != null ? value.longValue() : null;
+    }
+
+    /**
+     * 清理过期内存明细 (每天凌晨3点30分执行)
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void cleanExpired() {
+        try {
+            int deleted = tableMaintenance.deleteBefore("redis_memory_stats", "record_time",
+                    LocalDateTime.now().minusDays(retentionDays));
+            log.info("清理过期内存明细 {} 条", deleted);
+        } catch (Exception e) {
+            log.error("清理内存明细失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        connectionStates.remove(connectionId);
+    }
+
+    /**
+     * 获取内存明细采集统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("intervalMillis", intervalMillis);
+        statistics.put("doctorIntervalMillis", doctorIntervalMillis);
+        statistics.put("samples", samples.get());
+        statistics.put("doctorReports", doctorReports.get());
+        statistics.put("unavailable", unavailable.get());
+        return statistics;
+    }
+}
@@ -0,0 +1,293 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.CompressedChunk;
+import com.redis.monitor.MetricFormat;
+import com.redis.monitor.MetricSeries;
+import com.redis.monitor.MonitorMetric;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监控指标内存热存储
+ *
+ * 每个连接一组列式压缩块，所有数值指标共享时间戳列，
+ * 用于替代对数据库宽表的近期范围查询。
+ */
+@Slf4j
+@Service
+public class RedisMetricStore implements MonitorSampleListener {
+
+    @Value("${app.redis.monitoring.hot-tier.retention-hours:168}")
+    private long retentionHours;
+
+    @Value("${app.redis.monitoring.hot-tier.chunk-size:720}")
+    private int chunkSize;
+
+    private final Map<Long, ConnectionSeries> seriesByConnection = new ConcurrentHashMap<>();
+
+    private final AtomicLong appendedSamples = new AtomicLong();
+    private final AtomicLong rejectedSamples = new AtomicLong();
+    private final AtomicLong scannedSamples = new AtomicLong();
+    private final AtomicLong scanNanos = new AtomicLong();
+
+    @Override
+    public void onSample(RedisConnection connection, RedisMonitorRecord record) {
+        append(record);
+    }
+
+    /**
+     * 追加一条监控记录
+     */
+    public void append(RedisMonitorRecord record) {
+        if (record.getConnectionId() == null || record.getRecordTime() == null) {
+            return;
+        }
+        ConnectionSeries series = seriesByConnection.computeIfAbsent(record.getConnectionId(),
+                id -> new ConnectionSeries(chunkSize));
+        if (series.append(record)) {
+            appendedSamples.incrementAndGet();
+        } else {
+            rejectedSamples.incrementAndGet();
+        }
+    }
+
+    /**
+     * 查询时间范围内的指标序列
+     */
+    public MetricSeries query(Long connectionId, long from, long to, MonitorMetric[] metrics) {
+        ConnectionSeries series = seriesByConnection.get(connectionId);
+        if (series == null) {
+            return new MetricSeries(metrics, 0);
+        }
+        int[] columns = new int[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            columns[i] = metrics[i].ordinal();
+        }
+        long start = System.nanoTime();
+        MetricSeries result = series.scan(from, to, metrics, columns);
+        scanNanos.addAndGet(System.nanoTime() - start);
+        scannedSamples.addAndGet(result.size());
+        return result;
+    }
+
+    /**
+     * 热存储是否完整覆盖从指定时间开始的数据
+     */
+    public boolean covers(Long connectionId, long from) {
+        ConnectionSeries series = seriesByConnection.get(connectionId);
+        return series != null && series.getFirstTimestamp() <= from;
+    }
+
+    /**
+     * 以监控记录形式返回时间范围内的样本，按时间倒序
+     */
+    public List<RedisMonitorRecord> findRecords(Long connectionId, LocalDateTime startTime, LocalDateTime endTime) {
+        ConnectionSeries series = seriesByConnection.get(connectionId);
+        if (series == null) {
+            return new ArrayList<>();
+        }
+        MonitorMetric[] metrics = MonitorMetric.values();
+        MetricSeries result = query(connectionId, toEpochMillis(startTime), toEpochMillis(endTime), metrics);
+        List<RedisMonitorRecord> records = new ArrayList<>(result.size());
+        for (int n = 0; n < result.size(); n++) {
+            RedisMonitorRecord record = new RedisMonitorRecord();
+            record.setConnectionId(connectionId);
+            record.setConnectionName(series.connectionName);
+            record.setRecordTime(toLocalDateTime(result.getTimestamp(n)));
+            for (int i = 0; i < metrics.length; i++) {
+                double value = result.getValue(i, n);
+                // NaN为采集时缺失的指标，保持为空，与原始记录存储一致
+                if (!Double.isNaN(value)) {
+                    metrics[i].write(record, value);
+                }
+            }
+            fillDerivedStrings(record, series);
+            records.add(record);
+        }
+        Collections.reverse(records);
+        return records;
+    }
+
+    /**
+     * 字符串字段由数值推导或取最近一次的值，不单独存储
+     */
+    private void fillDerivedStrings(RedisMonitorRecord record, ConnectionSeries series) {
+        MetricFormat.fillHumanStrings(record);
+        record.setMaxmemoryPolicy(series.maxmemoryPolicy);
+        record.setMemAllocator(series.memAllocator);
+    }
+
+    /**
+     * 清理超出保留时间的数据块
+     */
+    @Scheduled(fixedDelay = 600000)
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours);
+        int evicted = 0;
+        for (ConnectionSeries series : seriesByConnection.values()) {
+            evicted += series.evictBefore(cutoff);
+        }
+        if (evicted > 0) {
+            log.debug("清理内存热存储过期数据块 {} 个", evicted);
+        }
+    }
+
+    /**
+     * 移除连接的全部数据
+     */
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        seriesByConnection.remove(connectionId);
+    }
+
+    /**
+     * 获取热存储统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        long samples = 0;
+        long bytes = 0;
+        int chunks = 0;
+        for (ConnectionSeries series : seriesByConnection.values()) {
+            synchronized (series) {
+                for (CompressedChunk chunk : series.chunks) {
+                    samples += chunk.getCount();
+                    bytes += chunk.getSizeInBytes();
+                    chunks++;
+                }
+            }
+        }
+        long scanned = scannedSamples.get();
+        long nanos = scanNanos.get();
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("connections", seriesByConnection.size());
+        statistics.put("chunks", chunks);
+        statistics.put("samples", samples);
+        statistics.put("metricsPerSample", MonitorMetric.count());
+        statistics.put("compressedBytes", bytes);
+        statistics.put("bytesPerSample", samples > 0 ? (double) bytes / samples : 0.0);
+        statistics.put("bytesPerValue", samples > 0 ? (double) bytes / samples / MonitorMetric.count() : 0.0);
+        statistics.put("appendedSamples", appendedSamples.get());
+        statistics.put("rejectedSamples", rejectedSamples.get());
+        statistics.put("scannedSamples", scanned);
+        statistics.put("scanSamplesPerSecond", nanos > 0 ? scanned * 1_000_000_000.0 / nanos : 0.0);
+        statistics.put("retentionHours", retentionHours);
+        return statistics;
+    }
+
+    public static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 单个连接的压缩序列，按时间顺序排列的数据块，最后一块可写
+     */
+    private static class ConnectionSeries {
+
+        private final int chunkSize;
+
+        private final ArrayDeque<CompressedChunk> chunks = new ArrayDeque<>();
+
+        private final double[] scratch = new double[MonitorMetric.count()];
+
+        private volatile String connectionName;
+
+        private volatile String maxmemoryPolicy;
+
+        private volatile String memAllocator;
+
+        private volatile long firstTimestamp = Long.MAX_VALUE;
+
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        private ConnectionSeries(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        private synchronized boolean append(RedisMonitorRecord record) {
+            long timestamp = toEpochMillis(record.getRecordTime());
+            if (timestamp < lastTimestamp) {
+                // 乱序样本(如超时后迟到的采样)直接丢弃
+                return false;
+            }
+            CompressedChunk current = chunks.peekLast();
+            if (current == null || current.isFull()) {
+                if (current != null) {
+                    current.seal();
+                }
+                current = new CompressedChunk(MonitorMetric.count(), chunkSize);
+                chunks.addLast(current);
+            }
+            for (int i = 0; i < scratch.length; i++) {
+                scratch[i] = MonitorMetric.of(i).readOrNaN(record);
+            }
+            current.append(timestamp, scratch);
+            lastTimestamp = timestamp;
+            if (firstTimestamp == Long.MAX_VALUE) {
+                firstTimestamp = timestamp;
+            }
+            connectionName = record.getConnectionName();
+            maxmemoryPolicy = record.getMaxmemoryPolicy();
+            memAllocator = record.getMemAllocator();
+            return true;
+        }
+
+        private synchronized MetricSeries scan(long from, long to, MonitorMetric[] metrics, int[] columns) {
+            int estimate = 0;
+            for (CompressedChunk chunk : chunks) {
+                if (chunk.getLastTimestamp() >= from && chunk.getFirstTimestamp() <= to) {
+                    estimate += chunk.getCount();
+                }
+            }
+            MetricSeries result = new MetricSeries(metrics, estimate);
+            for (CompressedChunk chunk : chunks) {
+                chunk.scan(from, to, columns, result::add);
+            }
+            return result;
+        }
+
+        private synchronized int evictBefore(long cutoff) {
+            int evicted = 0;
+            Iterator<CompressedChunk> iterator = chunks.iterator();
+            while (iterator.hasNext()) {
+                CompressedChunk chunk = iterator.next();
+                if (chunk.getLastTimestamp() >= cutoff || chunk == chunks.peekLast()) {
+                    break;
+                }
+                iterator.remove();
+                evicted++;
+            }
+            CompressedChunk first = chunks.peekFirst();
+            if (evicted > 0 && first != null) {
+                firstTimestamp = first.getFirstTimestamp();
+            }
+            return evicted;
+        }
+
+        private long getFirstTimestamp() {
+            return firstTimestamp;
+        }
+    }
+}
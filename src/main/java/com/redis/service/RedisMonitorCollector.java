@@ -0,0 +1,515 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.AdaptiveInterval;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis监控采集引擎
+ *
+ * 每个连接拥有独立的调度链，采集任务在有界线程池中执行，
+ * 单个连接超过截止时间会被中断，慢实例不会拖慢其他实例的采样节奏。
+ * 开启自适应采样时，每个连接的间隔随指标变化和告警状态在最小与最大间隔之间调整，
+ * 全部连接的采样速率之和超过上限时统一按比例放慢。
+ */
+@Slf4j
+@Service
+public class RedisMonitorCollector {
+
+    @Autowired
+    private RedisConnectionService redisConnectionService;
+
+    @Autowired
+    private RedisMonitorService redisMonitorService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RedisAlertService redisAlertService;
+
+    @Autowired
+    private RedisFleetRegistry fleetRegistry;
+
+    @Autowired(required = false)
+    private List<MonitorSideCollector> sideCollectors = new ArrayList<>();
+
+    @Value("${app.redis.monitoring.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.redis.monitoring.interval:5000}")
+    private long intervalMillis;
+
+    @Value("${app.redis.monitoring.collector.pool-size:8}")
+    private int poolSize;
+
+    @Value("${app.redis.monitoring.collector.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${app.redis.monitoring.collector.deadline:4000}")
+    private long deadlineMillis;
+
+    @Value("${app.redis.monitoring.collector.jitter:200}")
+    private long jitterMillis;
+
+    @Value("${app.redis.monitoring.collector.adaptive.enabled:true}")
+    private boolean adaptiveEnabled;
+
+    @Value("${app.redis.monitoring.collector.adaptive.min-interval:1000}")
+    private long minIntervalMillis;
+
+    @Value("${app.redis.monitoring.collector.adaptive.max-interval:60000}")
+    private long maxIntervalMillis;
+
+    @Value("${app.redis.monitoring.collector.adaptive.fast-change:0.1}")
+    private double fastChange;
+
+    @Value("${app.redis.monitoring.collector.adaptive.idle-ops:1}")
+    private double idleOps;
+
+    @Value("${app.redis.monitoring.collector.adaptive.eviction-rate:100}")
+    private double evictionRate;
+
+    @Value("${app.redis.monitoring.collector.adaptive.max-samples-per-second:100}")
+    private double maxSamplesPerSecond;
+
+    /** 全部连接的采样速率超过上限时的放慢倍数，不小于1 */
+    private volatile double budgetFactor = 1.0;
+
+    private ScheduledExecutorService timer;
+
+    private ThreadPoolExecutor workers;
+
+    private final Map<Long, CollectionTarget> targets = new ConcurrentHashMap<>();
+
+    private final AtomicLong completedSamples = new AtomicLong();
+    private final AtomicLong failedSamples = new AtomicLong();
+    private final AtomicLong timedOutSamples = new AtomicLong();
+    private final AtomicLong skippedSamples = new AtomicLong();
+    private final AtomicLong rejectedSamples = new AtomicLong();
+    private final AtomicLong missedSlots = new AtomicLong();
+    private final AtomicLong sideCollectorFailures = new AtomicLong();
+
+    private Timer sampleTimer;
+
+    /**
+     * 初始化调度线程和采集线程池
+     */
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory timerFactory = new CustomizableThreadFactory("redis-monitor-timer-");
+        timerFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, timerFactory);
+        scheduler.setRemoveOnCancelPolicy(true);
+        timer = scheduler;
+
+        CustomizableThreadFactory workerFactory = new CustomizableThreadFactory("redis-monitor-worker-");
+        workerFactory.setDaemon(true);
+        workers = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), workerFactory, new ThreadPoolExecutor.AbortPolicy());
+        workers.allowCoreThreadTimeOut(true);
+
+        registerMeters();
+    }
+
+    private void registerMeters() {
+        sampleTimer = Timer.builder("redis.gui.collector.sample")
+                .description("单个连接一次采样的耗时")
+                .register(meterRegistry);
+        registerCounter("redis.gui.collector.completed", completedSamples);
+        registerCounter("redis.gui.collector.failed", failedSamples);
+        registerCounter("redis.gui.collector.timed.out", timedOutSamples);
+        registerCounter("redis.gui.collector.skipped", skippedSamples);
+        registerCounter("redis.gui.collector.rejected", rejectedSamples);
+        registerCounter("redis.gui.collector.missed.slots", missedSlots);
+        Gauge.builder("redis.gui.collector.targets", targets, Map::size).register(meterRegistry);
+    }
+
+    private void registerCounter(String name, AtomicLong counter) {
+        FunctionCounter.builder(name, counter, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * 关闭线程池
+     */
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * 同步采集目标 (连接增删改后生效)
+     */
+    @Scheduled(fixedDelayString = "${app.redis.monitoring.collector.refresh-interval:10000}")
+    public void refreshTargets() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<RedisConnection> connections = redisConnectionService.getAllConnections();
+            Set<Long> activeIds = new HashSet<>();
+            for (RedisConnection connection : connections) {
+                activeIds.add(connection.getId());
+                fleetRegistry.register(connection);
+                CollectionTarget target = targets.get(connection.getId());
+                if (target == null) {
+                    target = new CollectionTarget(connection, sideCollectors.size(), new AdaptiveInterval(
+                            intervalMillis, minIntervalMillis, maxIntervalMillis, fastChange, idleOps, evictionRate));
+                    targets.put(connection.getId(), target);
+                    startTarget(target);
+                } else {
+                    target.connection = connection;
+                }
+            }
+            for (CollectionTarget target : new ArrayList<>(targets.values())) {
+                if (!activeIds.contains(target.connectionId)) {
+                    stopTarget(target);
+                }
+            }
+            fleetRegistry.retain(activeIds);
+            updateBudget();
+        } catch (Exception e) {
+            log.error("同步监控采集目标失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按当前各连接的间隔估算总采样速率，超过上限时计算统一的放慢倍数
+     */
+    private void updateBudget() {
+        if (!adaptiveEnabled || maxSamplesPerSecond <= 0) {
+            budgetFactor = 1.0;
+            return;
+        }
+        double samplesPerSecond = 0.0;
+        for (CollectionTarget target : targets.values()) {
+            samplesPerSecond += 1000.0 / target.adaptive.getIntervalMillis();
+        }
+        double factor = Math.max(1.0, samplesPerSecond / maxSamplesPerSecond);
+        if (Math.abs(factor - budgetFactor) > 0.01) {
+            log.info("监控采样速率 {}/s，放慢倍数调整为 {}", String.format("%.1f", samplesPerSecond),
+                    String.format("%.2f", factor));
+        }
+        budgetFactor = factor;
+    }
+
+    /**
+     * 启动目标的调度链，首次采样在一个采集周期内随机分散，避免所有实例同时发起INFO
+     */
+    private void startTarget(CollectionTarget target) {
+        long phase = ThreadLocalRandom.current().nextLong(Math.max(1L, intervalMillis));
+        target.nextDueMillis = System.currentTimeMillis() + phase;
+        scheduleNext(target);
+        log.info("开始采集连接 {} 的监控数据", target.connection.getName());
+    }
+
+    /**
+     * 停止目标的调度链
+     */
+    private void stopTarget(CollectionTarget target) {
+        targets.remove(target.connectionId);
+        target.stopped = true;
+        ScheduledFuture<?> next = target.nextRun;
+        if (next != null) {
+            next.cancel(false);
+        }
+        releaseTarget(target);
+        log.info("停止采集连接 {} 的监控数据", target.connection.getName());
+    }
+
+    /**
+     * 通知各服务和附加采集器丢弃连接的内存状态，可重复调用
+     */
+    private void releaseTarget(CollectionTarget target) {
+        redisMonitorService.removeConnection(target.connectionId);
+        for (MonitorSideCollector sideCollector : sideCollectors) {
+            try {
+                sideCollector.onConnectionRemoved(target.connectionId);
+            } catch (Exception e) {
+                log.warn("附加采集器 {} 释放连接 {} 失败: {}", sideCollector.getName(),
+                        target.connection.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 安排下一次采样
+     */
+    private void scheduleNext(CollectionTarget target) {
+        if (target.stopped || timer.isShutdown()) {
+            return;
+        }
+        long jitter = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis) : 0L;
+        long plannedTime = target.nextDueMillis + jitter;
+        long delay = Math.max(0L, plannedTime - System.currentTimeMillis());
+        target.nextRun = timer.schedule(() -> dispatch(target, plannedTime), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 派发采样任务到线程池，并推进到下一个采样槽
+     */
+    private void dispatch(CollectionTarget target, long plannedTime) {
+        long now = System.currentTimeMillis();
+        try {
+            if (!target.busy.compareAndSet(false, true)) {
+                // 上一次采样仍在进行，跳过本次
+                skippedSamples.incrementAndGet();
+                target.skipped.incrementAndGet();
+            } else {
+                submit(target, plannedTime, now);
+            }
+        } finally {
+            advance(target, now);
+            scheduleNext(target);
+        }
+    }
+
+    /**
+     * 提交采样任务，并在截止时间到达后中断仍未完成的任务
+     */
+    private void submit(CollectionTarget target, long plannedTime, long dispatchTime) {
+        final long deadline = dispatchTime + deadlineMillis;
+        // 任务体开始执行或在执行前被取消，二者只有一方负责清除busy
+        AtomicBoolean claimed = new AtomicBoolean();
+        FutureTask<Void> task = new FutureTask<Void>(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                runSample(target, plannedTime, deadline);
+            } finally {
+                // 在任务体内清除: 超时取消只发出中断，工作线程可能仍阻塞在Redis调用上，
+                // 此时不能让下一次采样并发进入
+                target.busy.set(false);
+            }
+            return null;
+        }) {
+            @Override
+            protected void done() {
+                if (isCancelled() && claimed.compareAndSet(false, true)) {
+                    // 排队期间被取消，任务体不会执行
+                    target.busy.set(false);
+                }
+            }
+        };
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            target.busy.set(false);
+            rejectedSamples.incrementAndGet();
+            log.warn("监控采集队列已满，跳过连接 {} 的本次采样", target.connection.getName());
+            return;
+        }
+        timer.schedule(() -> {
+            if (!task.isDone() && task.cancel(true)) {
+                timedOutSamples.incrementAndGet();
+                target.timedOut.incrementAndGet();
+                log.warn("采集连接 {} 的监控数据超时 ({}ms)", target.connection.getName(), deadlineMillis);
+            }
+        }, deadlineMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 执行一次采样并记录调度延迟
+     */
+    private void runSample(CollectionTarget target, long plannedTime, long deadline) {
+        long start = System.currentTimeMillis();
+        if (start > deadline) {
+            // 排队时间已超过截止时间，样本已失去意义
+            timedOutSamples.incrementAndGet();
+            target.timedOut.incrementAndGet();
+            return;
+        }
+        target.lastStartLagMillis = start - plannedTime;
+        RedisMonitorRecord record = redisMonitorService.collectConnectionMonitorData(target.connection);
+        target.lastDurationMillis = System.currentTimeMillis() - start;
+        sampleTimer.record(target.lastDurationMillis, TimeUnit.MILLISECONDS);
+        target.lastSampleMillis = start;
+        if (target.stopped) {
+            // 采样期间目标已停止，本次样本可能重新写入了状态，再释放一次
+            releaseTarget(target);
+            return;
+        }
+        if (record != null) {
+            completedSamples.incrementAndGet();
+            target.completed.incrementAndGet();
+            if (adaptiveEnabled) {
+                target.adaptive.onSample(record, redisAlertService.isAlerting(target.connectionId));
+            }
+            runSideCollectors(target, record, deadline);
+        } else {
+            failedSamples.incrementAndGet();
+            target.failed.incrementAndGet();
+            if (adaptiveEnabled) {
+                target.adaptive.onFailure();
+            }
+        }
+    }
+
+    /**
+     * 执行到期的附加采集器，超过截止时间或被中断时留到下一次
+     */
+    private void runSideCollectors(CollectionTarget target, RedisMonitorRecord record, long deadline) {
+        for (int i = 0; i < sideCollectors.size(); i++) {
+            MonitorSideCollector sideCollector = sideCollectors.get(i);
+            long interval = sideCollector.getIntervalMillis();
+            long now = System.currentTimeMillis();
+            if (interval <= 0) {
+                continue;
+            }
+            if (now < target.sideDueMillis[i] && !sideCollector.isTriggeredBy(target.connection, record)) {
+                continue;
+            }
+            if (now >= deadline || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            target.sideDueMillis[i] = now + interval;
+            try {
+                sideCollector.collect(target.connection, record);
+            } catch (Exception e) {
+                sideCollectorFailures.incrementAndGet();
+                log.warn("附加采集器 {} 采集连接 {} 失败: {}", sideCollector.getName(),
+                        target.connection.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 推进到下一个采样槽，错过的槽位直接丢弃而不是补采
+     */
+    private void advance(CollectionTarget target, long now) {
+        long interval = currentInterval(target);
+        target.nextDueMillis += interval;
+        if (target.nextDueMillis <= now) {
+            long missed = (now - target.nextDueMillis) / interval + 1;
+            target.nextDueMillis += missed * interval;
+            missedSlots.addAndGet(missed);
+        }
+    }
+
+    /**
+     * 目标当前的采样间隔，新间隔在下一个采样槽生效
+     */
+    private long currentInterval(CollectionTarget target) {
+        if (!adaptiveEnabled) {
+            return intervalMillis;
+        }
+        return Math.max(1L, (long) (target.adaptive.getIntervalMillis() * budgetFactor));
+    }
+
+    /**
+     * 获取采集引擎统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("targets", targets.size());
+        statistics.put("intervalMillis", intervalMillis);
+        statistics.put("adaptiveEnabled", adaptiveEnabled);
+        statistics.put("budgetFactor", budgetFactor);
+        statistics.put("deadlineMillis", deadlineMillis);
+        statistics.put("poolSize", poolSize);
+        statistics.put("activeWorkers", workers.getActiveCount());
+        statistics.put("queuedTasks", workers.getQueue().size());
+        statistics.put("completedSamples", completedSamples.get());
+        statistics.put("failedSamples", failedSamples.get());
+        statistics.put("timedOutSamples", timedOutSamples.get());
+        statistics.put("skippedSamples", skippedSamples.get());
+        statistics.put("rejectedSamples", rejectedSamples.get());
+        statistics.put("missedSlots", missedSlots.get());
+        statistics.put("sideCollectorFailures", sideCollectorFailures.get());
+        List<String> sideCollectorNames = new ArrayList<>();
+        for (MonitorSideCollector sideCollector : sideCollectors) {
+            sideCollectorNames.add(sideCollector.getName());
+        }
+        statistics.put("sideCollectors", sideCollectorNames);
+
+        long maxLag = 0;
+        long totalLag = 0;
+        List<Map<String, Object>> targetStats = new ArrayList<>();
+        for (CollectionTarget target : targets.values()) {
+            maxLag = Math.max(maxLag, target.lastStartLagMillis);
+            totalLag += target.lastStartLagMillis;
+
+            Map<String, Object> item = new HashMap<>();
+            item.put("connectionId", target.connectionId);
+            item.put("connectionName", target.connection.getName());
+            item.put("currentIntervalMillis", currentInterval(target));
+            item.put("intervalReason", target.adaptive.getReason());
+            item.put("lastStartLagMillis", target.lastStartLagMillis);
+            item.put("lastDurationMillis", target.lastDurationMillis);
+            item.put("lastSampleMillis", target.lastSampleMillis);
+            item.put("completed", target.completed.get());
+            item.put("failed", target.failed.get());
+            item.put("timedOut", target.timedOut.get());
+            item.put("skipped", target.skipped.get());
+            targetStats.add(item);
+        }
+        statistics.put("maxStartLagMillis", maxLag);
+        statistics.put("avgStartLagMillis", targets.isEmpty() ? 0 : totalLag / targets.size());
+        statistics.put("targetStats", targetStats);
+        return statistics;
+    }
+
+    /**
+     * 单个连接的采集目标
+     */
+    private static class CollectionTarget {
+        private final Long connectionId;
+        private volatile RedisConnection connection;
+        private final AtomicBoolean busy = new AtomicBoolean(false);
+        private volatile boolean stopped;
+        private volatile ScheduledFuture<?> nextRun;
+        // 仅在调度线程中读写
+        private long nextDueMillis;
+
+        private volatile long lastStartLagMillis;
+        private volatile long lastDurationMillis;
+        private volatile long lastSampleMillis;
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        // 各附加采集器下一次可执行的时间，仅在该目标的采集任务中读写
+        private final long[] sideDueMillis;
+        private final AdaptiveInterval adaptive;
+
+        private CollectionTarget(RedisConnection connection, int sideCollectorCount, AdaptiveInterval adaptive) {
+            this.connectionId = connection.getId();
+            this.connection = connection;
+            this.sideDueMillis = new long[sideCollectorCount];
+            this.adaptive = adaptive;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.redis.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.MonitorMetric;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监控历史导出服务
+ *
+ * 通过只读游标逐行读取并直接写入输出流，内存占用与导出行数无关。
+ */
+@Slf4j
+@Service
+public class RedisMonitorExportService {
+
+    /**
+     * 导出格式
+     */
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    @Autowired
+    private MonitorRecordStore recordStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong exportedRows = new AtomicLong();
+    private volatile double lastRowsPerSecond;
+
+    /**
+     * 导出时间范围内的监控记录，返回导出行数
+     */
+    public long export(Long connectionId, LocalDateTime startTime, LocalDateTime endTime,
+                       Format format, OutputStream outputStream) throws IOException {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator generator = format == Format.NDJSON ? objectMapper.getFactory().createGenerator(writer) : null;
+        if (generator != null) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            // 行之间不输出默认的空格分隔符，换行由writeRaw写入
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        }
+        if (format == Format.CSV) {
+            writeCsvHeader(writer);
+        }
+        long[] counter = new long[1];
+        try {
+            recordStore.scan(connectionId, startTime, endTime, record -> {
+                if (generator != null) {
+                    writeJsonLine(generator, record);
+                } else {
+                    writeCsvLine(writer, record);
+                }
+                counter[0]++;
+            });
+        } finally {
+            if (generator != null) {
+                generator.flush();
+            }
+            writer.flush();
+        }
+        long rows = counter[0];
+
+        long elapsedNanos = Math.max(1L, System.nanoTime() - start);
+        lastRowsPerSecond = rows * 1_000_000_000.0 / elapsedNanos;
+        exportedRows.addAndGet(rows);
+        log.info("导出连接 {} 的监控记录 {} 行，耗时 {}ms，{} 行/秒",
+                connectionId, rows, elapsedNanos / 1_000_000, String.format("%.0f", lastRowsPerSecond));
+        return rows;
+    }
+
+    private void writeCsvHeader(Writer writer) throws IOException {
+        writer.write("recordTime,connectionId,connectionName");
+        for (MonitorMetric metric : MonitorMetric.values()) {
+            writer.write(',');
+            writer.write(metric.getField());
+        }
+        writer.write(",maxmemoryPolicy,memAllocator\n");
+    }
+
+    private void writeCsvLine(Writer writer, RedisMonitorRecord record) throws IOException {
+        writer.write(record.getRecordTime() != null ? TIME_FORMATTER.format(record.getRecordTime()) : "");
+        writer.write(',');
+        writer.write(String.valueOf(record.getConnectionId()));
+        writer.write(',');
+        writeCsvText(writer, record.getConnectionName());
+        for (MonitorMetric metric : MonitorMetric.values()) {
+            writer.write(',');
+            // 缺失的指标输出为空单元格
+            writeNumber(writer, metric.readOrNaN(record));
+        }
+        writer.write(',');
+        writeCsvText(writer, record.getMaxmemoryPolicy());
+        writer.write(',');
+        writeCsvText(writer, record.getMemAllocator());
+        writer.write('\n');
+    }
+
+    private void writeJsonLine(JsonGenerator generator, RedisMonitorRecord record) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("recordTime",
+                record.getRecordTime() != null ? TIME_FORMATTER.format(record.getRecordTime()) : null);
+        generator.writeNumberField("connectionId", record.getConnectionId());
+        generator.writeStringField("connectionName", record.getConnectionName());
+        for (MonitorMetric metric : MonitorMetric.values()) {
+            double value = metric.readOrNaN(record);
+            if (Double.isNaN(value)) {
+                generator.writeNullField(metric.getField());
+            } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                generator.writeNumberField(metric.getField(), (long) value);
+            } else {
+                generator.writeNumberField(metric.getField(), value);
+            }
+        }
+        generator.writeStringField("maxmemoryPolicy", record.getMaxmemoryPolicy());
+        generator.writeStringField("memAllocator", record.getMemAllocator());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeNumber(Writer writer, double value) throws IOException {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            writer.write(Long.toString((long) value));
+        } else {
+            writer.write(Double.toString(value));
+        }
+    }
+
+    private void writeCsvText(Writer writer, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+
+    /**
+     * 获取导出统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("exportedRows", exportedRows.get());
+        statistics.put("lastRowsPerSecond", lastRowsPerSecond);
+        return statistics;
+    }
+}
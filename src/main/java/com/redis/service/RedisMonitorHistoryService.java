@@ -0,0 +1,176 @@
+package com.redis.service;
+
+import com.redis.monitor.DownsampledSeries;
+import com.redis.monitor.MetricSeries;
+import com.redis.monitor.MonitorMetric;
+import com.redis.monitor.RollupBucket;
+import com.redis.monitor.RollupTier;
+import com.redis.monitor.SeriesDownsampler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 监控历史查询服务
+ *
+ * 按期望点数在服务端降采样，数据来源按代价从低到高依次为:
+ * 汇总层级、内存热存储、原始记录存储流式读取。返回点数与保留时长无关。
+ */
+@Slf4j
+@Service
+public class RedisMonitorHistoryService {
+
+    /**
+     * 降采样方式
+     */
+    public enum Mode {
+        /** 保留视觉形状 */
+        LTTB,
+        /** 保留每个时间桶的极值 */
+        MINMAX
+    }
+
+    @Autowired
+    private RedisMetricStore metricStore;
+
+    @Autowired
+    private RedisRollupService rollupService;
+
+    @Autowired
+    private MonitorRecordStore recordStore;
+
+    @Value("${app.redis.monitoring.history.max-points:2000}")
+    private int maxPoints;
+
+    /**
+     * 查询降采样后的历史序列
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getHistory(Long connectionId, long from, long to, int points,
+                                          MonitorMetric[] metrics, Mode mode) {
+        int targetPoints = Math.max(3, Math.min(points, maxPoints));
+        long step = Math.max(1L, (to - from) / targetPoints);
+
+        Map<String, DownsampledSeries> series;
+        String source;
+        RollupTier tier = rollupService.selectTier(from, step);
+        if (tier != null) {
+            series = fromRollups(connectionId, tier, from, to, targetPoints, metrics, mode);
+            source = tier.name();
+        } else if (metricStore.covers(connectionId, from)) {
+            series = fromMetricStore(connectionId, from, to, targetPoints, metrics, mode);
+            source = "MEMORY";
+        } else {
+            series = fromRecordStore(connectionId, from, to, targetPoints, metrics);
+            source = recordStore.getName().toUpperCase();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("connectionId", connectionId);
+        result.put("from", from);
+        result.put("to", to);
+        result.put("source", source);
+        result.put("series", series);
+        return result;
+    }
+
+    /**
+     * 汇总层级: 瞬时值取桶内平均值，累计值取桶内最后值
+     */
+    private Map<String, DownsampledSeries> fromRollups(Long connectionId, RollupTier tier, long from, long to,
+                                                      int points, MonitorMetric[] metrics, Mode mode) {
+        List<RollupBucket> buckets = rollupService.queryBuckets(connectionId, tier, from, to);
+        long[] timestamps = new long[buckets.size()];
+        for (int n = 0; n < buckets.size(); n++) {
+            timestamps[n] = buckets.get(n).getStartMillis();
+        }
+        Map<String, DownsampledSeries> series = new HashMap<>();
+        for (MonitorMetric metric : metrics) {
+            double[] values = new double[buckets.size()];
+            for (int n = 0; n < buckets.size(); n++) {
+                RollupBucket bucket = buckets.get(n);
+                values[n] = metric.getKind() == MonitorMetric.Kind.COUNTER
+                        ? bucket.getLast(metric.ordinal()) : bucket.getAvg(metric.ordinal());
+            }
+            series.put(metric.getField(), downsample(timestamps, values, timestamps.length, from, to, points, mode));
+        }
+        return series;
+    }
+
+    /**
+     * 内存热存储: 只解码请求的指标列
+     */
+    private Map<String, DownsampledSeries> fromMetricStore(Long connectionId, long from, long to, int points,
+                                                          MonitorMetric[] metrics, Mode mode) {
+        MetricSeries raw = metricStore.query(connectionId, from, to, metrics);
+        long[] timestamps = raw.getTimestamps();
+        Map<String, DownsampledSeries> series = new HashMap<>();
+        for (int i = 0; i < metrics.length; i++) {
+            series.put(metrics[i].getField(),
+                    downsample(timestamps, raw.getValues(i), raw.size(), from, to, points, mode));
+        }
+        return series;
+    }
+
+    /**
+     * 原始记录存储: 流式读取并边读边分桶，内存占用只与点数有关；段日志直接从映射缓冲区取值
+     */
+    private Map<String, DownsampledSeries> fromRecordStore(Long connectionId, long from, long to, int points,
+                                                          MonitorMetric[] metrics) {
+        SeriesDownsampler.MinMaxBucketer[] bucketers = new SeriesDownsampler.MinMaxBucketer[metrics.length];
+        for (int i = 0; i < metrics.length; i++) {
+            bucketers[i] = new SeriesDownsampler.MinMaxBucketer(from, to, points);
+        }
+        try {
+            recordStore.scanSamples(connectionId, from, to, (timestamp, values) -> {
+                for (int i = 0; i < metrics.length; i++) {
+                    int column = metrics[i].ordinal();
+                    if (values.has(column)) {
+                        bucketers[i].add(timestamp, values.get(column));
+                    }
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<String, DownsampledSeries> series = new HashMap<>();
+        for (int i = 0; i < metrics.length; i++) {
+            series.put(metrics[i].getField(), bucketers[i].result());
+        }
+        return series;
+    }
+
+    /**
+     * NaN表示该点缺失，降采样前跳过，与原始记录存储路径的 has() 判断一致
+     */
+    private DownsampledSeries downsample(long[] timestamps, double[] values, int size, long from, long to,
+                                         int points, Mode mode) {
+        if (mode == Mode.MINMAX) {
+            SeriesDownsampler.MinMaxBucketer bucketer = new SeriesDownsampler.MinMaxBucketer(from, to, points);
+            for (int n = 0; n < size; n++) {
+                if (!Double.isNaN(values[n])) {
+                    bucketer.add(timestamps[n], values[n]);
+                }
+            }
+            return bucketer.result();
+        }
+        long[] presentTimestamps = new long[size];
+        double[] presentValues = new double[size];
+        int present = 0;
+        for (int n = 0; n < size; n++) {
+            if (!Double.isNaN(values[n])) {
+                presentTimestamps[present] = timestamps[n];
+                presentValues[present++] = values[n];
+            }
+        }
+        return SeriesDownsampler.lttb(presentTimestamps, presentValues, present, points);
+    }
+}
@@ -0,0 +1,151 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.MonitorMetric;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 将采集到的Redis指标发布到Micrometer
+ *
+ * 每个连接首次出现时为所有指标注册一次Gauge/FunctionCounter，
+ * 之后每个样本只把数值写入该连接的数组，采集路径上不再分配对象，
+ * 抓取时由Micrometer从数组中读取最新值。连接停止采集时注销其指标，
+ * 连接改名后按新的name标签重新注册。
+ */
+@Slf4j
+@Service
+public class RedisMonitorMetricsPublisher implements MonitorSampleListener {
+
+    private static final String PREFIX = "redis.monitor.";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, ConnectionMeters> metersByConnection = new ConcurrentHashMap<>();
+
+    @Override
+    public void onSample(RedisConnection connection, RedisMonitorRecord record) {
+        ConnectionMeters meters = metersByConnection.get(connection.getId());
+        if (meters == null) {
+            meters = metersByConnection.computeIfAbsent(connection.getId(), id -> register(connection, null));
+        } else if (!meters.name.equals(tagName(connection))) {
+            // name标签已过期，注销旧指标后沿用当前数值重新注册
+            ConnectionMeters stale = meters;
+            meters = metersByConnection.compute(connection.getId(), (id, current) -> {
+                if (current != null) {
+                    unregister(current);
+                }
+                return register(connection, stale.values);
+            });
+        }
+        AtomicLongArray values = meters.values;
+        for (int i = 0; i < values.length(); i++) {
+            MonitorMetric metric = MonitorMetric.of(i);
+            double value = metric.readOrNaN(record);
+            // 缺失的瞬时值导出为NaN；计数器保留上次的值，避免单调序列中出现空洞被当作重置
+            if (Double.isNaN(value) && metric.getKind() == MonitorMetric.Kind.COUNTER) {
+                continue;
+            }
+            values.set(i, Double.doubleToRawLongBits(value));
+        }
+    }
+
+    /**
+     * 为连接注册全部指标，计数器类指标注册为FunctionCounter，其余为Gauge
+     */
+    private ConnectionMeters register(RedisConnection connection, AtomicLongArray previous) {
+        AtomicLongArray values = previous;
+        if (values == null) {
+            values = new AtomicLongArray(MonitorMetric.count());
+            for (int i = 0; i < values.length(); i++) {
+                values.set(i, Double.doubleToRawLongBits(Double.NaN));
+            }
+        }
+        String tagName = tagName(connection);
+        Tags tags = Tags.of("connection", String.valueOf(connection.getId()), "name", tagName);
+        List<Meter> meters = new ArrayList<>();
+        for (MonitorMetric metric : MonitorMetric.values()) {
+            final int index = metric.ordinal();
+            String name = PREFIX + metricName(metric);
+            if (metric.getKind() == MonitorMetric.Kind.COUNTER) {
+                meters.add(FunctionCounter.builder(name, values, v -> Double.longBitsToDouble(v.get(index)))
+                        .tags(tags)
+                        .register(meterRegistry));
+            } else {
+                meters.add(Gauge.builder(name, values, v -> Double.longBitsToDouble(v.get(index)))
+                        .tags(tags)
+                        .register(meterRegistry));
+            }
+        }
+        log.info("已为连接 {} 注册 {} 个监控指标", connection.getName(), meters.size());
+        return new ConnectionMeters(tagName, values, meters);
+    }
+
+    private static String tagName(RedisConnection connection) {
+        return connection.getName() != null ? connection.getName() : "";
+    }
+
+    private void unregister(ConnectionMeters meters) {
+        for (Meter meter : meters.meters) {
+            meterRegistry.remove(meter);
+        }
+    }
+
+    /**
+     * 连接停止采集后注销其全部指标，Prometheus不再导出已删除实例的旧值
+     */
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        ConnectionMeters meters = metersByConnection.remove(connectionId);
+        if (meters != null) {
+            unregister(meters);
+        }
+    }
+
+    /**
+     * INFO字段名即指标名，派生指标由属性名转为下划线形式
+     */
+    private static String metricName(MonitorMetric metric) {
+        if (!metric.isDerived()) {
+            return metric.getInfoKey();
+        }
+        StringBuilder name = new StringBuilder();
+        for (char c : metric.getField().toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                name.append('_').append(Character.toLowerCase(c));
+            } else {
+                name.append(c);
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * 单个连接已注册的指标及其数值
+     */
+    private static class ConnectionMeters {
+        private final String name;
+        private final AtomicLongArray values;
+        private final List<Meter> meters;
+
+        private ConnectionMeters(String name, AtomicLongArray values, List<Meter> meters) {
+            this.name = name;
+            this.values = values;
+            this.meters = meters;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.redis.service;
+
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.MetricFormat;
+import com.redis.monitor.MonitorMetric;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按天分区的监控记录存储
+ *
+ * 每天一张表 redis_monitor_p_yyyyMMdd，每个数值指标一列。过期数据按整张表DROP，
+ * 不再执行大范围DELETE；范围查询只访问与时间窗口重叠的分区。
+ * 新增指标时在打开分区时补列，旧分区中的新列为空。
+ */
+@Slf4j
+@Service
+public class RedisMonitorPartitionStore implements MonitorRecordStore {
+
+    private static final String TABLE_PREFIX = "redis_monitor_p_";
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final MonitorMetric[] METRICS = MonitorMetric.values();
+
+    /** 固定列之后依次为各指标列 */
+    private static final String FIXED_COLUMNS = "connection_id, record_time, connection_name, maxmemory_policy, mem_allocator";
+
+    private static final int FIXED_COLUMN_COUNT = 5;
+
+    private static final String[] METRIC_COLUMNS = new String[METRICS.length];
+
+    private static final String SELECT_COLUMNS;
+
+    private static final String INSERT_VALUES;
+
+    static {
+        StringBuilder select = new StringBuilder(FIXED_COLUMNS);
+        StringBuilder values = new StringBuilder("?, ?, ?, ?, ?");
+        for (int i = 0; i < METRICS.length; i++) {
+            METRIC_COLUMNS[i] = columnName(METRICS[i]);
+            select.append(", ").append(METRIC_COLUMNS[i]);
+            values.append(", ?");
+        }
+        SELECT_COLUMNS = select.toString();
+        INSERT_VALUES = values.toString();
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.redis.monitoring.partition.fetch-size:500}")
+    private int fetchSize;
+
+    /** 已存在的分区，按日期排序 */
+    private final NavigableMap<LocalDate, String> partitions = new ConcurrentSkipListMap<>();
+
+    private JdbcTemplate streamingTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicLong insertedRows = new AtomicLong();
+    private final AtomicLong droppedPartitions = new AtomicLong();
+    private final AtomicLong scannedPartitions = new AtomicLong();
+    private final AtomicLong prunedPartitions = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "partition";
+    }
+
+    @PostConstruct
+    public void init() {
+        streamingTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate.setFetchSize(fetchSize);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        discoverPartitions();
+    }
+
+    /**
+     * 查找已有的分区表并补齐新增指标的列
+     */
+    private void discoverPartitions() {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) LIKE ?",
+                String.class, TABLE_PREFIX.toUpperCase() + "%");
+        for (String table : tables) {
+            try {
+                LocalDate day = LocalDate.parse(table.substring(TABLE_PREFIX.length()), DAY_FORMAT);
+                addMissingColumns(tableName(day));
+                partitions.put(day, tableName(day));
+            } catch (DateTimeParseException e) {
+                log.warn("忽略无法识别的分区表 {}", table);
+            }
+        }
+        log.info("监控记录分区 {} 个", partitions.size());
+    }
+
+    /**
+     * 批量写入，按记录时间分到各天的分区，在一个事务中完成
+     */
+    @Override
+    public void append(List<RedisMonitorRecord> records) {
+        Map<LocalDate, List<RedisMonitorRecord>> byDay = new LinkedHashMap<>();
+        for (RedisMonitorRecord record : records) {
+            byDay.computeIfAbsent(record.getRecordTime().toLocalDate(), day -> new ArrayList<>()).add(record);
+        }
+        for (LocalDate day : byDay.keySet()) {
+            ensurePartition(day);
+        }
+        transactionTemplate.execute(status -> {
+            for (Map.Entry<LocalDate, List<RedisMonitorRecord>> entry : byDay.entrySet()) {
+                List<RedisMonitorRecord> rows = entry.getValue();
+                jdbcTemplate.batchUpdate("INSERT INTO " + partitions.get(entry.getKey())
+                                + " (" + SELECT_COLUMNS + ") VALUES (" + INSERT_VALUES + ")",
+                        rows, rows.size(), this::bindRecord);
+            }
+            return null;
+        });
+        insertedRows.addAndGet(records.size());
+    }
+
+    private void bindRecord(PreparedStatement statement, RedisMonitorRecord record) throws SQLException {
+        statement.setLong(1, record.getConnectionId());
+        statement.setTimestamp(2, Timestamp.valueOf(record.getRecordTime()));
+        statement.setString(3, record.getConnectionName());
+        statement.setString(4, record.getMaxmemoryPolicy());
+        statement.setString(5, record.getMemAllocator());
+        for (int i = 0; i < METRICS.length; i++) {
+            double value = METRICS[i].readOrNaN(record);
+            if (Double.isNaN(value)) {
+                statement.setNull(FIXED_COLUMN_COUNT + 1 + i, Types.DOUBLE);
+            } else {
+                statement.setDouble(FIXED_COLUMN_COUNT + 1 + i, value);
+            }
+        }
+    }
+
+    private void ensurePartition(LocalDate day) {
+        partitions.computeIfAbsent(day, key -> {
+            String table = tableName(key);
+            StringBuilder ddl = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(table)
+                    .append(" (connection_id BIGINT NOT NULL, record_time TIMESTAMP NOT NULL,")
+                    .append(" connection_name VARCHAR(100), maxmemory_policy VARCHAR(32), mem_allocator VARCHAR(32)");
+            for (String column : METRIC_COLUMNS) {
+                ddl.append(", ").append(column).append(" DOUBLE");
+            }
+            ddl.append(')');
+            jdbcTemplate.execute(ddl.toString());
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + " ON " + table + " (connection_id, record_time)");
+            log.info("创建监控记录分区 {}", table);
+            return table;
+        });
+    }
+
+    private void addMissingColumns(String table) {
+        for (String column : METRIC_COLUMNS) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS " + column + " DOUBLE");
+        }
+    }
+
+    /**
+     * 时间范围内的记录，按时间倒序，最多limit条
+     */
+    @Override
+    public List<RedisMonitorRecord> findRange(Long connectionId, LocalDateTime startTime, LocalDateTime endTime, int limit) {
+        List<RedisMonitorRecord> result = new ArrayList<>();
+        for (String table : overlapping(startTime, endTime).descendingMap().values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.addAll(jdbcTemplate.query("SELECT " + SELECT_COLUMNS + " FROM " + table
+                            + " WHERE connection_id = ? AND record_time BETWEEN ? AND ? ORDER BY record_time DESC LIMIT ?",
+                    (rs, rowNum) -> mapRecord(rs), connectionId, Timestamp.valueOf(startTime),
+                    Timestamp.valueOf(endTime), limit - result.size()));
+        }
+        return result;
+    }
+
+    /**
+     * 最近的记录，按时间倒序，最多limit条
+     */
+    @Override
+    public List<RedisMonitorRecord> findRecent(Long connectionId, int limit) {
+        List<RedisMonitorRecord> result = new ArrayList<>();
+        for (String table : partitions.descendingMap().values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.addAll(jdbcTemplate.query("SELECT " + SELECT_COLUMNS + " FROM " + table
+                            + " WHERE connection_id = ? ORDER BY record_time DESC LIMIT ?",
+                    (rs, rowNum) -> mapRecord(rs), connectionId, limit - result.size()));
+        }
+        return result;
+    }
+
+    /**
+     * 按时间升序逐行读取时间范围内的记录，游标读取，内存占用与行数无关
+     */
+    @Override
+    public void scan(Long connectionId, LocalDateTime startTime, LocalDateTime endTime, RecordHandler handler)
+            throws IOException {
+        try {
+            for (String table : overlapping(startTime, endTime).values()) {
+                streamingTemplate.query("SELECT " + SELECT_COLUMNS + " FROM " + table
+                                + " WHERE connection_id = ? AND record_time BETWEEN ? AND ? ORDER BY record_time ASC",
+                        rs -> {
+                            try {
+                                handler.handle(mapRecord(rs));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }, connectionId, Timestamp.valueOf(startTime), Timestamp.valueOf(endTime));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 与时间窗口重叠的分区，其余分区直接跳过
+     */
+    private NavigableMap<LocalDate, String> overlapping(LocalDateTime startTime, LocalDateTime endTime) {
+        NavigableMap<LocalDate, String> selected = partitions.subMap(startTime.toLocalDate(), true, endTime.toLocalDate(), true);
+        scannedPartitions.addAndGet(selected.size());
+        prunedPartitions.addAndGet(partitions.size() - selected.size());
+        return selected;
+    }
+
+    /**
+     * 每个连接的最新记录
+     */
+    @Override
+    public List<RedisMonitorRecord> findLatestPerConnection() {
+        Map<Long, RedisMonitorRecord> latest = new LinkedHashMap<>();
+        for (String table : partitions.descendingMap().values()) {
+            List<RedisMonitorRecord> records = jdbcTemplate.query("SELECT " + SELECT_COLUMNS + " FROM " + table
+                            + " p WHERE record_time = (SELECT MAX(record_time) FROM " + table
+                            + " WHERE connection_id = p.connection_id)",
+                    (rs, rowNum) -> mapRecord(rs));
+            for (RedisMonitorRecord record : records) {
+                latest.putIfAbsent(record.getConnectionId(), record);
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    /**
+     * 各连接的记录数
+     */
+    @Override
+    public Map<Long, Long> countByConnection() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (String table : partitions.values()) {
+            jdbcTemplate.query("SELECT connection_id, COUNT(*) FROM " + table + " GROUP BY connection_id",
+                    rs -> {
+                        counts.merge(rs.getLong(1), rs.getLong(2), Long::sum);
+                    });
+        }
+        return counts;
+    }
+
+    /**
+     * 删除cutoff所在日期之前的整个分区，返回删除的分区数
+     *
+     * cutoff当天的分区整体保留，实际保留时间向上取整到天
+     */
+    @Override
+    public int dropBefore(LocalDateTime cutoff) {
+        int dropped = 0;
+        for (Map.Entry<LocalDate, String> entry : new ArrayList<>(partitions.headMap(cutoff.toLocalDate(), false).entrySet())) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + entry.getValue());
+            partitions.remove(entry.getKey());
+            dropped++;
+            log.info("删除监控记录分区 {}", entry.getValue());
+        }
+        droppedPartitions.addAndGet(dropped);
+        return dropped;
+    }
+
+    private RedisMonitorRecord mapRecord(ResultSet rs) throws SQLException {
+        RedisMonitorRecord record = new RedisMonitorRecord();
+        record.setConnectionId(rs.getLong(1));
+        record.setRecordTime(rs.getTimestamp(2).toLocalDateTime());
+        record.setConnectionName(rs.getString(3));
+        record.setMaxmemoryPolicy(rs.getString(4));
+        record.setMemAllocator(rs.getString(5));
+        for (int i = 0; i < METRICS.length; i++) {
+            double value = rs.getDouble(FIXED_COLUMN_COUNT + 1 + i);
+            if (!rs.wasNull()) {
+                METRICS[i].write(record, value);
+            }
+        }
+        MetricFormat.fillHumanStrings(record);
+        return record;
+    }
+
+    private static String tableName(LocalDate day) {
+        return TABLE_PREFIX + DAY_FORMAT.format(day);
+    }
+
+    /**
+     * INFO字段名即列名，派生指标由属性名转为下划线形式
+     */
+    private static String columnName(MonitorMetric metric) {
+        if (!metric.isDerived()) {
+            return metric.getInfoKey();
+        }
+        StringBuilder name = new StringBuilder();
+        for (char c : metric.getField().toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                name.append('_').append(Character.toLowerCase(c));
+            } else {
+                name.append(c);
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * 获取分区存储统计信息
+     */
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("storage", getName());
+        statistics.put("partitions", partitions.size());
+        statistics.put("firstPartition", partitions.isEmpty() ? null : partitions.firstKey().toString());
+        statistics.put("lastPartition", partitions.isEmpty() ? null : partitions.lastKey().toString());
+        statistics.put("insertedRows", insertedRows.get());
+        statistics.put("droppedPartitions", droppedPartitions.get());
+        statistics.put("scannedPartitions", scannedPartitions.get());
+        statistics.put("prunedPartitions", prunedPartitions.get());
+        return statistics;
+    }
+}
@@ -0,0 +1,444 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.MetricFormat;
+import com.redis.monitor.MonitorMetric;
+import com.redis.monitor.SampleView;
+import com.redis.monitor.SegmentLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 段日志监控记录存储
+ *
+ * 每个连接一个目录，样本以定宽二进制记录追加到内存映射的段文件 ({@link SegmentLog})，
+ * 写入不经过ORM和SQL，范围查询按稀疏索引定位后直接从映射缓冲区读取。
+ * 连接名、淘汰策略等文本字段不进入定宽记录，按连接保存最近一次的值，读取时填回。
+ * 连接删除后整个目录随之删除；过期清理后已无任何段的连接目录也一并删除。
+ */
+@Slf4j
+@Service
+public class RedisMonitorSegmentStore implements MonitorRecordStore, MonitorSampleListener {
+
+    private static final String META_FILE = "meta.properties";
+
+    private static final MonitorMetric[] METRICS = MonitorMetric.values();
+
+    /** 段内各列以指标属性名标识，指标枚举增删或调整顺序后旧段仍按名称读取 */
+    private static final String[] COLUMNS = columnNames();
+
+    @Value("${app.redis.monitoring.segment.directory:./data/monitor-segments}")
+    private String directory;
+
+    @Value("${app.redis.monitoring.segment.records-per-segment:8192}")
+    private int recordsPerSegment;
+
+    @Value("${app.redis.monitoring.segment.force-on-append:true}")
+    private boolean forceOnAppend;
+
+    @Value("${app.redis.monitoring.retention.raw-hours:48}")
+    private long rawRetentionHours;
+
+    private Path root;
+
+    private final Map<Long, SegmentLog> logs = new ConcurrentHashMap<>();
+
+    /** 连接ID -> [连接名, 淘汰策略, 内存分配器] */
+    private final Map<Long, String[]> metadata = new ConcurrentHashMap<>();
+
+    private final AtomicLong appendedRecords = new AtomicLong();
+    private final AtomicLong rejectedRecords = new AtomicLong();
+    private final AtomicLong scannedRecords = new AtomicLong();
+    private final AtomicLong droppedSegments = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "segment";
+    }
+
+    /**
+     * 打开已有连接目录，逐段校验并截掉崩溃时未写完的尾部
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(directory);
+        Files.createDirectories(root);
+        long recovered = 0;
+        long truncated = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root)) {
+            for (Path path : stream) {
+                Long connectionId = parseConnectionId(path);
+                if (connectionId == null) {
+                    continue;
+                }
+                try {
+                    SegmentLog segmentLog = new SegmentLog(path, COLUMNS, recordsPerSegment);
+                    logs.put(connectionId, segmentLog);
+                    metadata.put(connectionId, readMetadata(path));
+                    recovered += segmentLog.getRecoveredRecords();
+                    truncated += segmentLog.getTruncatedRecords();
+                    if (segmentLog.getCorruptSegments() > 0) {
+                        log.warn("连接 {} 有 {} 个段文件头损坏，已改名保留", connectionId, segmentLog.getCorruptSegments());
+                    }
+                } catch (IOException e) {
+                    log.error("打开连接 {} 的段日志失败: {}", connectionId, e.getMessage());
+                }
+            }
+        }
+        log.info("段日志存储已打开 {} 个连接，恢复记录 {} 条，截断未完成记录 {} 条", logs.size(), recovered, truncated);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (SegmentLog segmentLog : logs.values()) {
+            segmentLog.force();
+        }
+    }
+
+    /**
+     * 段日志为空时从其他存储导入保留期内的记录，用于从分区存储切换过来
+     */
+    public void importFrom(MonitorRecordStore source) {
+        if (!logs.isEmpty()) {
+            return;
+        }
+        try {
+            LocalDateTime endTime = LocalDateTime.now();
+            LocalDateTime startTime = endTime.minusHours(rawRetentionHours);
+            long imported = 0;
+            for (Long connectionId : source.countByConnection().keySet()) {
+                List<RedisMonitorRecord> batch = new ArrayList<>();
+                source.scan(connectionId, startTime, endTime, record -> {
+                    batch.add(record);
+                    if (batch.size() >= 1000) {
+                        append(batch);
+                        batch.clear();
+                    }
+                });
+                append(batch);
+                imported += count(connectionId);
+            }
+            if (imported > 0) {
+                log.info("已从{}存储导入 {} 条监控记录到段日志", source.getName(), imported);
+            }
+        } catch (Exception e) {
+            log.warn("从{}存储导入监控记录失败: {}", source.getName(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void append(List<RedisMonitorRecord> records) {
+        Map<Long, SegmentLog> touched = new LinkedHashMap<>();
+        double[] values = new double[METRICS.length];
+        try {
+            for (RedisMonitorRecord record : records) {
+                SegmentLog segmentLog = open(record.getConnectionId());
+                for (int i = 0; i < METRICS.length; i++) {
+                    // 缺失的指标写入NaN，读取时不还原为0
+                    values[i] = METRICS[i].readOrNaN(record);
+                }
+                if (segmentLog.append(RedisMetricStore.toEpochMillis(record.getRecordTime()), values)) {
+                    updateMetadata(record);
+                    touched.put(record.getConnectionId(), segmentLog);
+                    appendedRecords.incrementAndGet();
+                } else {
+                    rejectedRecords.incrementAndGet();
+                }
+            }
+            if (forceOnAppend) {
+                for (SegmentLog segmentLog : touched.values()) {
+                    segmentLog.force();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SegmentLog open(Long connectionId) throws IOException {
+        SegmentLog segmentLog = logs.get(connectionId);
+        if (segmentLog != null) {
+            return segmentLog;
+        }
+        try {
+            return logs.computeIfAbsent(connectionId, id -> {
+                try {
+                    return new SegmentLog(root.resolve(String.valueOf(id)), COLUMNS, recordsPerSegment);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 文本字段变化时才写元数据文件
+     */
+    private void updateMetadata(RedisMonitorRecord record) throws IOException {
+        String[] current = metadata.get(record.getConnectionId());
+        String[] latest = {record.getConnectionName(), record.getMaxmemoryPolicy(), record.getMemAllocator()};
+        if (current != null && Objects.equals(current[0], latest[0]) && Objects.equals(current[1], latest[1])
+                && Objects.equals(current[2], latest[2])) {
+            return;
+        }
+        metadata.put(record.getConnectionId(), latest);
+        Properties properties = new Properties();
+        setProperty(properties, "connectionName", latest[0]);
+        setProperty(properties, "maxmemoryPolicy", latest[1]);
+        setProperty(properties, "memAllocator", latest[2]);
+        Path path = logs.get(record.getConnectionId()).getDirectory().resolve(META_FILE);
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            properties.store(outputStream, null);
+        }
+    }
+
+    private static void setProperty(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static String[] readMetadata(Path directory) {
+        Path path = directory.resolve(META_FILE);
+        Properties properties = new Properties();
+        if (Files.exists(path)) {
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                properties.load(inputStream);
+            } catch (IOException e) {
+                log.warn("读取段日志元数据 {} 失败: {}", path, e.getMessage());
+            }
+        }
+        return new String[]{properties.getProperty("connectionName"), properties.getProperty("maxmemoryPolicy"),
+                properties.getProperty("memAllocator")};
+    }
+
+    @Override
+    public List<RedisMonitorRecord> findRange(Long connectionId, LocalDateTime startTime, LocalDateTime endTime, int limit) {
+        return collectBackward(connectionId, RedisMetricStore.toEpochMillis(startTime),
+                RedisMetricStore.toEpochMillis(endTime), limit);
+    }
+
+    @Override
+    public List<RedisMonitorRecord> findRecent(Long connectionId, int limit) {
+        return collectBackward(connectionId, Long.MIN_VALUE, Long.MAX_VALUE, limit);
+    }
+
+    private List<RedisMonitorRecord> collectBackward(Long connectionId, long from, long to, int limit) {
+        List<RedisMonitorRecord> result = new ArrayList<>();
+        SegmentLog segmentLog = logs.get(connectionId);
+        if (segmentLog == null || limit <= 0) {
+            return result;
+        }
+        String[] meta = metadata.get(connectionId);
+        scannedRecords.addAndGet(segmentLog.scanBackward(from, to, (timestamp, values) -> {
+            result.add(toRecord(connectionId, meta, timestamp, values));
+            return result.size() < limit;
+        }));
+        return result;
+    }
+
+    @Override
+    public void scan(Long connectionId, LocalDateTime startTime, LocalDateTime endTime, RecordHandler handler)
+            throws IOException {
+        SegmentLog segmentLog = logs.get(connectionId);
+        if (segmentLog == null) {
+            return;
+        }
+        String[] meta = metadata.get(connectionId);
+        try {
+            scannedRecords.addAndGet(segmentLog.scan(RedisMetricStore.toEpochMillis(startTime),
+                    RedisMetricStore.toEpochMillis(endTime), (timestamp, values) -> {
+                        try {
+                            handler.handle(toRecord(connectionId, meta, timestamp, values));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return true;
+                    }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 直接把映射缓冲区中的记录交给回调，不组装监控记录
+     */
+    @Override
+    public void scanSamples(Long connectionId, long from, long to, SampleHandler handler) {
+        SegmentLog segmentLog = logs.get(connectionId);
+        if (segmentLog == null) {
+            return;
+        }
+        scannedRecords.addAndGet(segmentLog.scan(from, to, (timestamp, values) -> {
+            handler.handle(timestamp, values);
+            return true;
+        }));
+    }
+
+    private static RedisMonitorRecord toRecord(Long connectionId, String[] meta, long timestamp, SampleView values) {
+        RedisMonitorRecord record = new RedisMonitorRecord();
+        record.setConnectionId(connectionId);
+        record.setRecordTime(RedisMetricStore.toLocalDateTime(timestamp));
+        if (meta != null) {
+            record.setConnectionName(meta[0]);
+            record.setMaxmemoryPolicy(meta[1]);
+            record.setMemAllocator(meta[2]);
+        }
+        for (int i = 0; i < METRICS.length; i++) {
+            if (values.has(i)) {
+                METRICS[i].write(record, values.get(i));
+            }
+        }
+        MetricFormat.fillHumanStrings(record);
+        return record;
+    }
+
+    @Override
+    public List<RedisMonitorRecord> findLatestPerConnection() {
+        List<RedisMonitorRecord> latest = new ArrayList<>();
+        for (Long connectionId : logs.keySet()) {
+            latest.addAll(findRecent(connectionId, 1));
+        }
+        return latest;
+    }
+
+    @Override
+    public Map<Long, Long> countByConnection() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Map.Entry<Long, SegmentLog> entry : logs.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().count());
+        }
+        return counts;
+    }
+
+    /**
+     * 样本由写入缓冲批量写入，这里不重复处理
+     */
+    @Override
+    public void onSample(RedisConnection connection, RedisMonitorRecord record) {
+    }
+
+    /**
+     * 连接已删除，删除该连接的全部段和元数据文件
+     */
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        SegmentLog segmentLog = logs.remove(connectionId);
+        metadata.remove(connectionId);
+        if (segmentLog == null) {
+            return;
+        }
+        try {
+            segmentLog.delete();
+            log.info("已删除连接 {} 的段日志", connectionId);
+        } catch (IOException e) {
+            log.error("删除连接 {} 的段日志失败: {}", connectionId, e.getMessage());
+        }
+    }
+
+    private long count(Long connectionId) {
+        SegmentLog segmentLog = logs.get(connectionId);
+        return segmentLog != null ? segmentLog.count() : 0L;
+    }
+
+    /**
+     * 删除最后一条记录早于cutoff的整段，返回删除的段数
+     */
+    @Override
+    public int dropBefore(LocalDateTime cutoff) {
+        long cutoffMillis = RedisMetricStore.toEpochMillis(cutoff);
+        int dropped = 0;
+        for (Map.Entry<Long, SegmentLog> entry : logs.entrySet()) {
+            try {
+                SegmentLog segmentLog = entry.getValue();
+                dropped += segmentLog.dropBefore(cutoffMillis);
+                if (segmentLog.segmentCount() == 0 && segmentLog.getCorruptSegments() == 0
+                        && logs.remove(entry.getKey(), segmentLog)) {
+                    // 保留期内没有任何记录，多为已删除连接在删除后迟到的样本；留有损坏段时保留目录供排查
+                    metadata.remove(entry.getKey());
+                    segmentLog.delete();
+                }
+            } catch (IOException e) {
+                log.error("删除连接 {} 的过期段失败: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        droppedSegments.addAndGet(dropped);
+        return dropped;
+    }
+
+    private static String[] columnNames() {
+        String[] names = new String[METRICS.length];
+        for (int i = 0; i < METRICS.length; i++) {
+            names[i] = METRICS[i].getField();
+        }
+        return names;
+    }
+
+    private static Long parseConnectionId(Path path) {
+        if (!Files.isDirectory(path)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(path.getFileName().toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取段日志存储统计信息
+     */
+    @Override
+    public Map<String, Object> getStatistics() {
+        long records = 0;
+        long segments = 0;
+        long bytes = 0;
+        long truncated = 0;
+        for (SegmentLog segmentLog : logs.values()) {
+            records += segmentLog.count();
+            segments += segmentLog.segmentCount();
+            bytes += segmentLog.sizeBytes();
+            truncated += segmentLog.getTruncatedRecords();
+        }
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("storage", getName());
+        statistics.put("directory", root != null ? root.toAbsolutePath().toString() : directory);
+        statistics.put("connections", logs.size());
+        statistics.put("segments", segments);
+        statistics.put("records", records);
+        statistics.put("mappedBytes", bytes);
+        statistics.put("recordsPerSegment", recordsPerSegment);
+        statistics.put("forceOnAppend", forceOnAppend);
+        statistics.put("appendedRecords", appendedRecords.get());
+        statistics.put("rejectedRecords", rejectedRecords.get());
+        statistics.put("truncatedRecords", truncated);
+        statistics.put("scannedRecords", scannedRecords.get());
+        statistics.put("droppedSegments", droppedSegments.get());
+        return statistics;
+    }
+}
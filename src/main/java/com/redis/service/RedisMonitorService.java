@@ -2,15 +2,20 @@ package com.redis.service;
 
 import com.redis.entity.RedisConnection;
 import com.redis.entity.RedisMonitorRecord;
-import com.redis.repository.RedisMonitorRecordRepository;
+import com.redis.monitor.DerivedMetrics;
+import com.redis.monitor.InfoParser;
+import com.redis.monitor.InfoSample;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Redis监控服务
@@ -20,195 +25,191 @@ import java.util.Map;
 public class RedisMonitorService {
 
     @Autowired
-    private RedisConnectionService redisConnectionService;
+    private RedisInfoService redisInfoService;
 
     @Autowired
-    private RedisService redisService;
+    private MonitorRecordStore recordStore;
 
     @Autowired
-    private RedisMonitorRecordRepository monitorRecordRepository;
+    private RedisMonitorPartitionStore partitionStore;
 
-    /**
-     * 定时收集监控数据 (每5秒)
-     */
-    @Scheduled(fixedRate = 5000)
-    public void collectMonitorData() {
-        try {
-            List<RedisConnection> connections = redisConnectionService.getAllConnections();
-            for (RedisConnection connection : connections) {
-                collectConnectionMonitorData(connection);
-            }
-        } catch (Exception e) {
-            log.error("收集监控数据失败: {}", e.getMessage());
-        }
-    }
+    @Autowired
+    private RedisMonitorSegmentStore segmentStore;
+
+    @Autowired
+    private RedisMonitorWriteBuffer monitorWriteBuffer;
+
+    @Autowired
+    private RedisMetricStore metricStore;
+
+    @Autowired
+    private RedisReplicationService replicationService;
+
+    @Autowired
+    private RedisFleetRegistry fleetRegistry;
+
+    @Autowired(required = false)
+    private List<MonitorSampleListener> sampleListeners = new ArrayList<>();
+
+    /** 每个采集线程复用一个解析结果对象 */
+    private static final ThreadLocal<InfoSample> INFO_SAMPLES = ThreadLocal.withInitial(InfoSample::new);
+
+    /** 每个连接的派生指标计算状态 */
+    private final Map<Long, DerivedMetrics> derivedMetrics = new ConcurrentHashMap<>();
+
+    @Value("${app.redis.monitoring.retention.raw-hours:48}")
+    private long rawRetentionHours;
+
+    @Value("${app.redis.monitoring.history.page-max-records:500}")
+    private int pageMaxRecords;
 
     /**
      * 收集单个连接的监控数据
+     *
+     * 由 {@link RedisMonitorCollector} 按连接独立调度，返回本次采样的记录，失败时返回null
      */
-    public void collectConnectionMonitorData(RedisConnection connection) {
+    public RedisMonitorRecord collectConnectionMonitorData(RedisConnection connection) {
         try {
-            Map<String, Object> info = redisService.getRedisInfo(connection);
-            
+            // 采集的指标位于memory、stats和replication三部分，默认INFO一次往返全部取回。
+            // 不复用已完成的快照，只与正在进行的同一调用合并，样本时间取快照实际发起INFO的时刻，
+            // 保证相邻样本的时间差与计数器增量对应
+            RedisInfoService.Snapshot snapshot = redisInfoService.getSnapshot(connection, null, 0L);
+            LocalDateTime sampleTime = RedisMetricStore.toLocalDateTime(snapshot.getFetchedAt());
+            byte[] info = snapshot.getRaw();
+            InfoSample sample = INFO_SAMPLES.get();
+            sample.reset();
+            InfoParser.parse(info, sample);
+            byte[] replication = replicationService.isEnabled() ? info : null;
+
             RedisMonitorRecord record = RedisMonitorRecord.builder()
                     .connectionId(connection.getId())
                     .connectionName(connection.getName())
-                    .totalConnectionsReceived(getLongValue(info, "total_connections_received"))
-                    .totalCommandsProcessed(getLongValue(info, "total_commands_processed"))
-                    .instantaneousOpsPerSec(getLongValue(info, "instantaneous_ops_per_sec"))
-                    .totalNetInputBytes(getLongValue(info, "total_net_input_bytes"))
-                    .totalNetOutputBytes(getLongValue(info, "total_net_output_bytes"))
-                    .instantaneousInputKbps(getDoubleValue(info, "instantaneous_input_kbps"))
-                    .instantaneousOutputKbps(getDoubleValue(info, "instantaneous_output_kbps"))
-                    .rejectedConnections(getLongValue(info, "rejected_connections"))
-                    .syncFull(getLongValue(info, "sync_full"))
-                    .syncPartialOk(getLongValue(info, "sync_partial_ok"))
-                    .syncPartialErr(getLongValue(info, "sync_partial_err"))
-                    .expiredKeys(getLongValue(info, "expired_keys"))
-                    .evictedKeys(getLongValue(info, "evicted_keys"))
-                    .keyspaceHits(getLongValue(info, "keyspace_hits"))
-                    .keyspaceMisses(getLongValue(info, "keyspace_misses"))
-                    .pubsubChannels(getLongValue(info, "pubsub_channels"))
-                    .pubsubPatterns(getLongValue(info, "pubsub_patterns"))
-                    .latestForkUsec(getLongValue(info, "latest_fork_usec"))
-                    .migrateCachedSockets(getLongValue(info, "migrate_cached_sockets"))
-                    .slaveExpiresTrackedKeys(getLongValue(info, "slave_expires_tracked_keys"))
-                    .activeDefragHits(getLongValue(info, "active_defrag_hits"))
-                    .activeDefragMisses(getLongValue(info, "active_defrag_misses"))
-                    .activeDefragKeyHits(getLongValue(info, "active_defrag_key_hits"))
-                    .activeDefragKeyMisses(getLongValue(info, "active_defrag_key_misses"))
-                    .usedMemory(getLongValue(info, "used_memory"))
-                    .usedMemoryHuman(getStringValue(info, "used_memory_human"))
-                    .usedMemoryRss(getLongValue(info, "used_memory_rss"))
-                    .usedMemoryRssHuman(getStringValue(info, "used_memory_rss_human"))
-                    .usedMemoryPeak(getLongValue(info, "used_memory_peak"))
-                    .usedMemoryPeakHuman(getStringValue(info, "used_memory_peak_human"))
-                    .usedMemoryPeakPerc(getStringValue(info, "used_memory_peak_perc"))
-                    .usedMemoryOverhead(getLongValue(info, "used_memory_overhead"))
-                    .usedMemoryStartup(getLongValue(info, "used_memory_startup"))
-                    .usedMemoryDataset(getLongValue(info, "used_memory_dataset"))
-                    .usedMemoryDatasetPerc(getStringValue(info, "used_memory_dataset_perc"))
-                    .totalSystemMemory(getLongValue(info, "total_system_memory"))
-                    .totalSystemMemoryHuman(getStringValue(info, "total_system_memory_human"))
-                    .usedMemoryLua(getLongValue(info, "used_memory_lua"))
-                    .usedMemoryLuaHuman(getStringValue(info, "used_memory_lua_human"))
-                    .maxmemory(getLongValue(info, "maxmemory"))
-                    .maxmemoryHuman(getStringValue(info, "maxmemory_human"))
-                    .maxmemoryPolicy(getStringValue(info, "maxmemory_policy"))
-                    .memFragmentationRatio(getDoubleValue(info, "mem_fragmentation_ratio"))
-                    .memAllocator(getStringValue(info, "mem_allocator"))
-                    .activeDefragRunning(getLongValue(info, "active_defrag_running"))
-                    .lazyfreePendingObjects(getLongValue(info, "lazyfree_pending_objects"))
-                    .lazyfreedObjects(getLongValue(info, "lazyfreed_objects"))
+                    .recordTime(sampleTime)
                     .build();
+            sample.applyTo(record);
+            if (replication != null) {
+                replicationService.apply(connection, record, replication);
+            }
+
+            DerivedMetrics derived = derivedMetrics.computeIfAbsent(connection.getId(), id -> new DerivedMetrics());
+            if (derived.apply(RedisMetricStore.toEpochMillis(sampleTime), record)) {
+                log.info("检测到连接 {} 的计数器重置(实例重启或统计重置)", connection.getName());
+            }
 
-            monitorRecordRepository.save(record);
+            monitorWriteBuffer.enqueue(record);
+            notifyListeners(connection, record);
+            return record;
             
         } catch (Exception e) {
             log.error("收集连接 {} 的监控数据失败: {}", connection.getName(), e.getMessage());
+            notifyFailure(connection, e);
+            return null;
         }
     }
 
     /**
-     * 获取监控记录
+     * 连接已删除或停止采集，丢弃派生指标、复制拓扑及各监听器中该连接的状态
      */
-    public List<RedisMonitorRecord> getMonitorRecords(Long connectionId, LocalDateTime startTime, LocalDateTime endTime) {
-        if (startTime != null && endTime != null) {
-            return monitorRecordRepository.findByConnectionIdAndTimeRange(connectionId, startTime, endTime);
-        } else {
-            return monitorRecordRepository.findByConnectionIdOrderByRecordTimeDesc(connectionId);
+    public void removeConnection(Long connectionId) {
+        derivedMetrics.remove(connectionId);
+        replicationService.removeConnection(connectionId);
+        for (MonitorSampleListener listener : sampleListeners) {
+            try {
+                listener.onConnectionRemoved(connectionId);
+            } catch (Exception e) {
+                log.error("监控样本监听器 {} 处理失败: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
         }
     }
 
     /**
-     * 获取最新监控记录
+     * 通知样本监听器，单个监听器异常不影响其他监听器
      */
-    public RedisMonitorRecord getLatestMonitorRecord(Long connectionId) {
-        List<RedisMonitorRecord> records = monitorRecordRepository.findTop1ByConnectionIdOrderByRecordTimeDesc(connectionId);
-        return records.isEmpty() ? null : records.get(0);
+    private void notifyListeners(RedisConnection connection, RedisMonitorRecord record) {
+        for (MonitorSampleListener listener : sampleListeners) {
+            try {
+                listener.onSample(connection, record);
+            } catch (Exception e) {
+                log.error("监控样本监听器 {} 处理失败: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
     }
 
-    /**
-     * 获取所有连接的最新监控记录
-     */
-    public List<RedisMonitorRecord> getAllLatestMonitorRecords() {
-        List<RedisConnection> connections = redisConnectionService.getAllConnections();
-        return connections.stream()
-                .map(connection -> {
-                    List<RedisMonitorRecord> records = monitorRecordRepository.findTop1ByConnectionIdOrderByRecordTimeDesc(connection.getId());
-                    return records.isEmpty() ? null : records.get(0);
-                })
-                .filter(record -> record != null)
-                .collect(java.util.stream.Collectors.toList());
+    private void notifyFailure(RedisConnection connection, Exception error) {
+        for (MonitorSampleListener listener : sampleListeners) {
+            try {
+                listener.onSampleFailed(connection, error);
+            } catch (Exception e) {
+                log.error("监控样本监听器 {} 处理失败: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
     }
 
     /**
-     * 清理历史监控数据 (保留7天)
+     * 获取监控记录 (最多返回最近的 page-max-records 条)
      */
-    @Scheduled(cron = "0 0 2 * * ?") // 每天凌晨2点执行
-    public void cleanHistoricalData() {
-        try {
-            LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-            monitorRecordRepository.deleteRecordsBefore(sevenDaysAgo);
-            log.info("清理7天前的监控数据完成");
-        } catch (Exception e) {
-            log.error("清理历史监控数据失败: {}", e.getMessage());
+    public List<RedisMonitorRecord> getMonitorRecords(Long connectionId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime != null && endTime != null) {
+            // 热存储覆盖的时间范围直接从内存解压，不访问数据库
+            if (metricStore.covers(connectionId, RedisMetricStore.toEpochMillis(startTime))) {
+                List<RedisMonitorRecord> records = metricStore.findRecords(connectionId, startTime, endTime);
+                return records.size() > pageMaxRecords ? new ArrayList<>(records.subList(0, pageMaxRecords)) : records;
+            }
+            return recordStore.findRange(connectionId, startTime, endTime, pageMaxRecords);
+        } else {
+            return recordStore.findRecent(connectionId, pageMaxRecords);
         }
     }
 
     /**
-     * 获取监控统计信息
+     * 获取最新监控记录，优先读取集群快照登记表
      */
-    public Map<String, Object> getMonitorStatistics() {
-        Map<String, Object> statistics = new java.util.HashMap<>();
-        
-        List<RedisConnection> connections = redisConnectionService.getAllConnections();
-        statistics.put("totalConnections", connections.size());
-        
-        long totalRecords = 0;
-        for (RedisConnection connection : connections) {
-            totalRecords += monitorRecordRepository.countByConnectionId(connection.getId());
+    public RedisMonitorRecord getLatestMonitorRecord(Long connectionId) {
+        RedisFleetRegistry.Entry entry = fleetRegistry.get(connectionId);
+        if (entry != null && entry.getLatest() != null) {
+            return entry.getLatest();
         }
-        statistics.put("totalRecords", totalRecords);
-        
-        return statistics;
+        List<RedisMonitorRecord> records = recordStore.findRecent(connectionId, 1);
+        return records.isEmpty() ? null : records.get(0);
     }
 
     /**
-     * 获取Long值
+     * 获取所有连接的最新监控记录，直接读取集群快照登记表
      */
-    private Long getLongValue(Map<String, Object> info, String key) {
-        Object value = info.get(key);
-        if (value == null) {
-            return 0L;
-        }
-        try {
-            return Long.parseLong(value.toString());
-        } catch (NumberFormatException e) {
-            return 0L;
-        }
+    public List<RedisMonitorRecord> getAllLatestMonitorRecords() {
+        return fleetRegistry.getLatestRecords();
     }
 
     /**
-     * 获取Double值
+     * 清理历史原始监控数据，长期趋势由汇总层级保留
+     *
+     * 按存储的整块删除(分区存储为整天，段日志为整段)，实际保留时间略长于配置。
+     * 未使用的另一种存储中可能留有切换前的数据，同样按保留期删除
      */
-    private Double getDoubleValue(Map<String, Object> info, String key) {
-        Object value = info.get(key);
-        if (value == null) {
-            return 0.0;
+    @Scheduled(cron = "0 0 2 * * ?") // 每天凌晨2点执行
+    public void cleanHistoricalData() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(rawRetentionHours);
+        for (MonitorRecordStore store : new MonitorRecordStore[]{partitionStore, segmentStore}) {
+            try {
+                int dropped = store.dropBefore(cutoff);
+                if (store == recordStore || dropped > 0) {
+                    log.info("清理{}小时前的原始监控数据完成，{}存储删除 {} 块", rawRetentionHours, store.getName(), dropped);
+                }
+            } catch (Exception e) {
+                log.error("清理{}存储的历史监控数据失败: {}", store.getName(), e.getMessage());
+            }
         }
         try {
-            return Double.parseDouble(value.toString());
-        } catch (NumberFormatException e) {
-            return 0.0;
+            fleetRegistry.resyncRecordCounts();
+        } catch (Exception e) {
+            log.error("同步监控记录数失败: {}", e.getMessage());
         }
     }
 
     /**
-     * 获取String值
+     * 获取监控统计信息，来自集群快照登记表，不访问数据库
      */
-    private String getStringValue(Map<String, Object> info, String key) {
-        Object value = info.get(key);
-        return value != null ? value.toString() : "";
+    public Map<String, Object> getMonitorStatistics() {
+        return fleetRegistry.getSummary();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,264 @@
+package com.redis.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.MonitorMetric;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监控实时推送服务 (Server-Sent Events)
+ *
+ * 数据来自采集引擎的样本，每个样本只序列化一次后分发给该连接的所有订阅者，
+ * 对Redis的访问次数与观看人数无关。每个订阅者有独立的有界缓冲，
+ * 缓冲满说明客户端跟不上推送速度，直接断开该客户端，不影响其他订阅者。
+ */
+@Slf4j
+@Service
+public class RedisMonitorStreamService implements MonitorSampleListener {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.redis.monitoring.stream.client-buffer:16}")
+    private int clientBuffer;
+
+    @Value("${app.redis.monitoring.stream.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${app.redis.monitoring.stream.timeout:1800000}")
+    private long emitterTimeout;
+
+    private ExecutorService senders;
+
+    private final Map<Long, Set<Subscriber>> subscribersByConnection = new ConcurrentHashMap<>();
+
+    private final Map<Long, String> lastEvents = new ConcurrentHashMap<>();
+
+    private final AtomicLong publishedEvents = new AtomicLong();
+    private final AtomicLong sentEvents = new AtomicLong();
+    private final AtomicLong droppedClients = new AtomicLong();
+
+    /**
+     * 初始化推送线程池
+     */
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("redis-monitor-sse-");
+        threadFactory.setDaemon(true);
+        senders = new ThreadPoolExecutor(sendThreads, sendThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    /**
+     * 关闭所有订阅
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (Set<Subscriber> subscribers : subscribersByConnection.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+        senders.shutdownNow();
+    }
+
+    /**
+     * 订阅连接的实时监控数据，订阅后立即收到最近一次样本
+     */
+    public SseEmitter subscribe(Long connectionId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Subscriber subscriber = new Subscriber(connectionId, emitter, clientBuffer);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscribersByConnection.computeIfAbsent(connectionId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        String last = lastEvents.get(connectionId);
+        if (last != null) {
+            offer(subscriber, SseEmitter.event().name("sample").data(last));
+        }
+        return emitter;
+    }
+
+    @Override
+    public void onSample(RedisConnection connection, RedisMonitorRecord record) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(toPayload(record));
+        } catch (JsonProcessingException e) {
+            log.error("序列化实时监控数据失败: {}", e.getMessage());
+            return;
+        }
+        lastEvents.put(connection.getId(), payload);
+        Set<Subscriber> subscribers = subscribersByConnection.get(connection.getId());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        publishedEvents.incrementAndGet();
+        for (Subscriber subscriber : subscribers) {
+            offer(subscriber, SseEmitter.event().name("sample").data(payload));
+        }
+    }
+
+    /**
+     * 定期发送心跳注释，及时发现已断开的客户端
+     */
+    @Scheduled(fixedDelayString = "${app.redis.monitoring.stream.heartbeat-interval:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> subscribers : subscribersByConnection.values()) {
+            for (Subscriber subscriber : subscribers) {
+                offer(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    /**
+     * 移除连接的最近样本和全部订阅
+     */
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        lastEvents.remove(connectionId);
+        Set<Subscriber> subscribers = subscribersByConnection.remove(connectionId);
+        if (subscribers != null) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * 放入订阅者缓冲，缓冲满则断开该订阅者
+     */
+    private void offer(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.queue.offer(event)) {
+            droppedClients.incrementAndGet();
+            log.warn("连接 {} 的实时监控订阅者处理过慢，已断开", subscriber.connectionId);
+            remove(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * 依次发送订阅者缓冲中的事件，同一订阅者同时只有一个发送任务
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.closed.get() && (event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(event);
+                sentEvents.incrementAndGet();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开
+            remove(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // 释放标记后可能有新事件进入缓冲
+        if (!subscriber.closed.get() && !subscriber.queue.isEmpty()
+                && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriber.queue.clear();
+        Set<Subscriber> subscribers = subscribersByConnection.get(subscriber.connectionId);
+        if (subscribers != null) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private Map<String, Object> toPayload(RedisMonitorRecord record) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("connectionId", record.getConnectionId());
+        payload.put("timestamp", RedisMetricStore.toEpochMillis(record.getRecordTime()));
+        for (MonitorMetric metric : MonitorMetric.values()) {
+            // 缺失的指标推送为null，不显示为0
+            double value = metric.readOrNaN(record);
+            payload.put(metric.getField(), Double.isNaN(value) ? null : value);
+        }
+        payload.put("usedMemoryHuman", record.getUsedMemoryHuman());
+        payload.put("maxmemoryPolicy", record.getMaxmemoryPolicy());
+        return payload;
+    }
+
+    /**
+     * 获取实时推送统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        int subscribers = 0;
+        for (Set<Subscriber> set : subscribersByConnection.values()) {
+            subscribers += set.size();
+        }
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("connections", subscribersByConnection.size());
+        statistics.put("subscribers", subscribers);
+        statistics.put("clientBuffer", clientBuffer);
+        statistics.put("publishedEvents", publishedEvents.get());
+        statistics.put("sentEvents", sentEvents.get());
+        statistics.put("droppedClients", droppedClients.get());
+        return statistics;
+    }
+
+    /**
+     * 单个订阅者
+     */
+    private static class Subscriber {
+        private final Long connectionId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private Subscriber(Long connectionId, SseEmitter emitter, int capacity) {
+            this.connectionId = connectionId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.redis.service;
+
+import com.redis.entity.RedisMonitorRecord;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监控记录异步批量写入缓冲
+ *
+ * 采集线程只负责入队，后台写线程按批量大小或时间间隔将样本批量写入原始记录存储。
+ * 队列有界，满时按配置的策略丢弃或阻塞。
+ */
+@Slf4j
+@Service
+public class RedisMonitorWriteBuffer {
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /** 丢弃新样本 */
+        DROP_NEWEST,
+        /** 丢弃最旧的样本 */
+        DROP_OLDEST,
+        /** 阻塞采集线程直到超时 */
+        BLOCK
+    }
+
+    @Autowired
+    private MonitorRecordStore recordStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.redis.monitoring.write-buffer.capacity:10000}")
+    private int capacity;
+
+    @Value("${app.redis.monitoring.write-buffer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.redis.monitoring.write-buffer.flush-interval:2000}")
+    private long flushIntervalMillis;
+
+    @Value("${app.redis.monitoring.write-buffer.overflow-policy:DROP_OLDEST}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${app.redis.monitoring.write-buffer.block-timeout:1000}")
+    private long blockTimeoutMillis;
+
+    private BlockingQueue<RedisMonitorRecord> queue;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    private final AtomicLong enqueuedRecords = new AtomicLong();
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private final AtomicLong flushedRecords = new AtomicLong();
+    private final AtomicLong failedRecords = new AtomicLong();
+    private final AtomicLong flushBatches = new AtomicLong();
+    private volatile long lastFlushSize;
+    private volatile long lastFlushMillis;
+    private volatile long maxFlushMillis;
+    private volatile double lastRecordsPerSecond;
+
+    private Timer flushTimer;
+
+    /**
+     * 启动写线程
+     */
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        registerMeters();
+        running = true;
+        writerThread = new Thread(this::writeLoop, "redis-monitor-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private void registerMeters() {
+        flushTimer = Timer.builder("redis.gui.monitor.flush")
+                .description("监控记录批量写库耗时")
+                .register(meterRegistry);
+        Gauge.builder("redis.gui.monitor.queue", queue, BlockingQueue::size)
+                .description("等待写库的监控记录数")
+                .register(meterRegistry);
+        FunctionCounter.builder("redis.gui.monitor.dropped", droppedRecords, AtomicLong::get)
+                .description("因队列满被丢弃的监控记录数")
+                .register(meterRegistry);
+        FunctionCounter.builder("redis.gui.monitor.failed", failedRecords, AtomicLong::get)
+                .description("写库失败的监控记录数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 停止写线程并写入剩余样本
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join(flushIntervalMillis * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<RedisMonitorRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(remaining.size(), from + batchSize)));
+        }
+    }
+
+    /**
+     * 提交一条监控记录，返回是否被接收
+     */
+    public boolean enqueue(RedisMonitorRecord record) {
+        boolean accepted;
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    accepted = queue.offer(record, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    accepted = false;
+                }
+                break;
+            case DROP_OLDEST:
+                accepted = queue.offer(record);
+                while (!accepted) {
+                    if (queue.poll() != null) {
+                        droppedRecords.incrementAndGet();
+                    }
+                    accepted = queue.offer(record);
+                }
+                break;
+            case DROP_NEWEST:
+            default:
+                accepted = queue.offer(record);
+                break;
+        }
+        if (accepted) {
+            enqueuedRecords.incrementAndGet();
+        } else {
+            droppedRecords.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    /**
+     * 写线程主循环: 攒满一批或到达刷新间隔即写入
+     */
+    private void writeLoop() {
+        List<RedisMonitorRecord> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                while (batch.size() < batchSize) {
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        break;
+                    }
+                    RedisMonitorRecord record = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (record == null) {
+                        break;
+                    }
+                    batch.add(record);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 在单个事务中批量写入
+     */
+    private void flush(List<RedisMonitorRecord> batch) {
+        long start = System.nanoTime();
+        try {
+            recordStore.append(batch);
+            long elapsedNanos = Math.max(1L, System.nanoTime() - start);
+            flushTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            flushedRecords.addAndGet(batch.size());
+            flushBatches.incrementAndGet();
+            lastFlushSize = batch.size();
+            lastFlushMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            maxFlushMillis = Math.max(maxFlushMillis, lastFlushMillis);
+            lastRecordsPerSecond = batch.size() * 1_000_000_000.0 / elapsedNanos;
+        } catch (Exception e) {
+            failedRecords.addAndGet(batch.size());
+            log.error("批量写入 {} 条监控记录失败: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 获取写入缓冲统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("capacity", capacity);
+        statistics.put("queued", queue.size());
+        statistics.put("batchSize", batchSize);
+        statistics.put("overflowPolicy", overflowPolicy.name());
+        statistics.put("enqueuedRecords", enqueuedRecords.get());
+        statistics.put("droppedRecords", droppedRecords.get());
+        statistics.put("flushedRecords", flushedRecords.get());
+        statistics.put("failedRecords", failedRecords.get());
+        statistics.put("flushBatches", flushBatches.get());
+        statistics.put("lastFlushSize", lastFlushSize);
+        statistics.put("lastFlushMillis", lastFlushMillis);
+        statistics.put("maxFlushMillis", maxFlushMillis);
+        statistics.put("lastRecordsPerSecond", lastRecordsPerSecond);
+        return statistics;
+    }
+}
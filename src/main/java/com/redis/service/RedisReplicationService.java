@@ -0,0 +1,308 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.entity.RedisReplicationLag;
+import com.redis.monitor.ReplicationInfo;
+import com.redis.repository.RedisReplicationLagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 复制拓扑与延迟
+ *
+ * 每次主采样时解析 INFO replication，把复制延迟汇总写入监控记录供告警规则使用，
+ * 并按 地址 或 replid+端口 把已登记的连接关联成主从拓扑。
+ * 主节点的一次 INFO 已包含全部从节点的偏移量，从节点再多也不需要逐个查询。
+ */
+@Slf4j
+@Service
+public class RedisReplicationService {
+
+    /** 复制流速度的平滑系数 */
+    private static final double RATE_ALPHA = 0.3;
+
+    @Autowired
+    private RedisReplicationLagRepository replicationLagRepository;
+
+    @Autowired
+    private MonitorTableMaintenance tableMaintenance;
+
+    @Value("${app.redis.monitoring.replication.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.redis.monitoring.replication.max-gap:300000}")
+    private long maxGapMillis;
+
+    @Value("${app.redis.monitoring.replication.retention-days:7}")
+    private long retentionDays;
+
+    private final Map<Long, NodeState> nodes = new ConcurrentHashMap<>();
+
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong savedRows = new AtomicLong();
+    private final AtomicLong skippedRows = new AtomicLong();
+
+    /**
+     * 单个连接最近一次的复制状态
+     */
+    private static class NodeState {
+
+        final Long connectionId;
+
+        final String name;
+
+        final String address;
+
+        volatile ReplicationInfo info;
+
+        volatile long updatedAt;
+
+        /** 主节点复制流速度(字节/秒) */
+        volatile double offsetRate;
+
+        long lastOffset = -1;
+
+        long lastOffsetAt;
+
+        /** 从节点地址 -> [上次写入时间, 上次是否无延迟] */
+        final Map<String, long[]> written = new HashMap<>();
+
+        volatile List<Map<String, Object>> replicaViews = new ArrayList<>();
+
+        NodeState(RedisConnection connection) {
+            this.connectionId = connection.getId();
+            this.name = connection.getName();
+            this.address = connection.getHost() + ":" + connection.getPort();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 处理一次INFO回复中的replication部分，把延迟汇总写入监控记录并记录各从节点的延迟
+     */
+    public void apply(RedisConnection connection, RedisMonitorRecord record, byte[] raw) {
+        ReplicationInfo info = ReplicationInfo.parse(raw);
+        NodeState node = nodes.computeIfAbsent(connection.getId(), id -> new NodeState(connection));
+        long now = RedisMetricStore.toEpochMillis(record.getRecordTime());
+        samples.incrementAndGet();
+
+        if (info.isMaster()) {
+            updateOffsetRate(node, info.getMasterReplOffset(), now);
+            record.setReplicaOffsetLag(info.getMaxOffsetLag());
+            record.setMasterLinkDownSeconds(0L);
+        } else {
+            // 主节点也已登记时用其最近的偏移量计算本节点落后的字节数
+            NodeState master = findMaster(info);
+            long offsetLag = master != null && master.info != null
+                    ? Math.max(0L, master.info.getMasterReplOffset() - info.getSlaveReplOffset()) : 0L;
+            record.setReplicaOffsetLag(offsetLag);
+            record.setMasterLinkDownSeconds(info.isMasterLinkUp() ? 0L : Math.max(1L, info.getMasterLinkDownSinceSeconds()));
+        }
+        record.setReplicaLagSeconds(info.getMaxLagSeconds());
+        node.info = info;
+        node.updatedAt = now;
+
+        if (info.isMaster() && !info.getReplicas().isEmpty()) {
+            recordReplicas(node, info, record.getRecordTime(), now);
+        } else if (!node.replicaViews.isEmpty()) {
+            node.replicaViews = new ArrayList<>();
+        }
+    }
+
+    private void updateOffsetRate(NodeState node, long offset, long now) {
+        if (node.lastOffset >= 0 && offset >= node.lastOffset && now > node.lastOffsetAt) {
+            double rate = (offset - node.lastOffset) * 1000.0 / (now - node.lastOffsetAt);
+            node.offsetRate = node.offsetRate == 0 ? rate : node.offsetRate + RATE_ALPHA * (rate - node.offsetRate);
+        }
+        node.lastOffset = offset;
+        node.lastOffsetAt = now;
+    }
+
+    private void recordReplicas(NodeState node, ReplicationInfo info, LocalDateTime recordTime, long now) {
+        Map<String, Long> index = addressIndex(info.getReplid());
+        List<RedisReplicationLag> rows = new ArrayList<>();
+        List<Map<String, Object>> views = new ArrayList<>(info.getReplicas().size());
+        for (ReplicationInfo.Replica replica : info.getReplicas()) {
+            long offsetLag = Math.max(0L, info.getMasterReplOffset() - replica.getOffset());
+            long timeLagMillis = offsetLag > 0 && node.offsetRate > 0 ? (long) (offsetLag * 1000.0 / node.offsetRate) : 0L;
+            Long replicaConnectionId = resolveReplica(index, replica);
+
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("address", replica.getAddress());
+            view.put("connectionId", replicaConnectionId);
+            view.put("state", replica.getState());
+            view.put("offsetLag", offsetLag);
+            view.put("lagSeconds", replica.getLagSeconds());
+            view.put("timeLagMillis", timeLagMillis);
+            views.add(view);
+
+            boolean idle = offsetLag == 0 && replica.getLagSeconds() <= 1 && "online".equals(replica.getState());
+            long[] last = node.written.get(replica.getAddress());
+            if (last != null && idle && last[1] == 1 && now - last[0] < maxGapMillis) {
+                skippedRows.incrementAndGet();
+                continue;
+            }
+            node.written.put(replica.getAddress(), new long[]{now, idle ? 1 : 0});
+            rows.add(RedisReplicationLag.builder()
+                    .connectionId(node.connectionId)
+                    .replicaAddress(replica.getAddress())
+                    .replicaConnectionId(replicaConnectionId)
+                    .recordTime(recordTime)
+                    .state(replica.getState())
+                    .offsetLag(offsetLag)
+                    .lagSeconds(replica.getLagSeconds())
+                    .timeLagMillis(timeLagMillis)
+                    .build());
+        }
+        node.replicaViews = views;
+        if (!rows.isEmpty()) {
+            replicationLagRepository.saveAll(rows);
+            savedRows.addAndGet(rows.size());
+        }
+    }
+
+    /**
+     * 已登记连接的 地址 -> 连接ID，同一replid下的从节点额外以 "*:端口" 登记，
+     * 用于连接登记的是主机名而主节点上报的是IP的情况
+     */
+    private Map<String, Long> addressIndex(String replid) {
+        Map<String, Long> index = new HashMap<>();
+        for (NodeState candidate : nodes.values()) {
+            index.put(candidate.address, candidate.connectionId);
+            ReplicationInfo candidateInfo = candidate.info;
+            if (replid != null && candidateInfo != null && !candidateInfo.isMaster()
+                    && replid.equals(candidateInfo.getReplid())) {
+                String portKey = "*:" + candidate.address.substring(candidate.address.lastIndexOf(':') + 1);
+                // 同一端口有多个候选时无法区分，不做关联
+                index.put(portKey, index.containsKey(portKey) ? null : candidate.connectionId);
+            }
+        }
+        return index;
+    }
+
+    private static Long resolveReplica(Map<String, Long> index, ReplicationInfo.Replica replica) {
+        Long connectionId = index.get(replica.getAddress());
+        return connectionId != null ? connectionId : index.get("*:" + replica.getPort());
+    }
+
+    private NodeState findMaster(ReplicationInfo info) {
+        String masterAddress = info.getMasterHost() + ":" + info.getMasterPort();
+        NodeState byReplid = null;
+        for (NodeState candidate : nodes.values()) {
+            ReplicationInfo candidateInfo = candidate.info;
+            if (candidateInfo == null || !candidateInfo.isMaster()) {
+                continue;
+            }
+            if (candidate.address.equals(masterAddress)) {
+                return candidate;
+            }
+            if (info.getReplid() != null && info.getReplid().equals(candidateInfo.getReplid())) {
+                byReplid = candidate;
+            }
+        }
+        return byReplid;
+    }
+
+    /**
+     * 复制拓扑: 节点为已登记的连接，边为主节点到从节点，未登记的一端以地址表示
+     */
+    public Map<String, Object> getTopology() {
+        List<Map<String, Object>> nodeViews = new ArrayList<>();
+        List<Map<String, Object>> edges = new ArrayList<>();
+        for (NodeState node : nodes.values()) {
+            ReplicationInfo info = node.info;
+            if (info == null) {
+                continue;
+            }
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("connectionId", node.connectionId);
+            view.put("name", node.name);
+            view.put("address", node.address);
+            view.put("role", info.getRole());
+            view.put("replid", info.getReplid());
+            view.put("offset", info.isMaster() ? info.getMasterReplOffset() : info.getSlaveReplOffset());
+            view.put("updatedAt", RedisMetricStore.toLocalDateTime(node.updatedAt));
+            nodeViews.add(view);
+
+            if (info.isMaster()) {
+                view.put("offsetRate", node.offsetRate);
+                for (Map<String, Object> replica : node.replicaViews) {
+                    Map<String, Object> edge = new LinkedHashMap<>(replica);
+                    edge.put("masterConnectionId", node.connectionId);
+                    edges.add(edge);
+                }
+            } else {
+                view.put("masterAddress", info.getMasterHost() + ":" + info.getMasterPort());
+                view.put("masterLinkUp", info.isMasterLinkUp());
+                view.put("masterSyncInProgress", info.isMasterSyncInProgress());
+                NodeState master = findMaster(info);
+                view.put("masterConnectionId", master != null ? master.connectionId : null);
+            }
+        }
+        Map<String, Object> topology = new LinkedHashMap<>();
+        topology.put("nodes", nodeViews);
+        topology.put("edges", edges);
+        return topology;
+    }
+
+    /**
+     * 按时间范围查询复制延迟序列，replicaAddress为空时返回主节点下所有从节点
+     */
+    public List<RedisReplicationLag> getLagSeries(Long connectionId, String replicaAddress,
+                                                  LocalDateTime startTime, LocalDateTime endTime) {
+        if (replicaAddress != null && !replicaAddress.isEmpty()) {
+            return replicationLagRepository.findByReplicaAndTimeRange(connectionId, replicaAddress, startTime, endTime);
+        }
+        return replicationLagRepository.findByConnectionIdAndTimeRange(connectionId, startTime, endTime);
+    }
+
+    /**
+     * 连接删除后移出拓扑
+     */
+    public void removeConnection(Long connectionId) {
+        nodes.remove(connectionId);
+    }
+
+    /**
+     * 清理过期复制延迟 (每天凌晨3点40分执行)
+     */
+    @Scheduled(cron = "0 40 3 * * ?")
+    public void cleanExpired() {
+        try {
+            int deleted = tableMaintenance.deleteBefore("redis_replication_lag", "record_time",
+                    LocalDateTime.now().minusDays(retentionDays));
+            log.info("清理过期复制延迟 {} 条", deleted);
+        } catch (Exception e) {
+            log.error("清理复制延迟失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取复制采集统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("samples", samples.get());
+        statistics.put("savedRows", savedRows.get());
+        statistics.put("skippedRows", skippedRows.get());
+        statistics.put("trackedConnections", nodes.size());
+        return statistics;
+    }
+}
@@ -0,0 +1,347 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.entity.RedisMonitorRollup;
+import com.redis.monitor.MonitorMetric;
+import com.redis.monitor.RollupBucket;
+import com.redis.monitor.RollupTier;
+import com.redis.repository.RedisMonitorRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监控数据汇总服务
+ *
+ * 样本到达时增量计算1分钟汇总，1分钟桶封存后逐级合并到10分钟、1小时层级。
+ * 每个层级有独立的保留期，查询时自动选择满足分辨率的最粗层级。
+ */
+@Slf4j
+@Service
+public class RedisRollupService implements MonitorSampleListener {
+
+    private static final RollupTier[] TIERS = RollupTier.values();
+
+    @Autowired
+    private RedisMonitorRollupRepository rollupRepository;
+
+    @Value("${app.redis.monitoring.retention.raw-hours:48}")
+    private long rawRetentionHours;
+
+    @Value("${app.redis.monitoring.retention.minute-days:30}")
+    private long minuteRetentionDays;
+
+    @Value("${app.redis.monitoring.retention.ten-minute-days:180}")
+    private long tenMinuteRetentionDays;
+
+    @Value("${app.redis.monitoring.retention.hour-days:365}")
+    private long hourRetentionDays;
+
+    private final Map<Long, RollupState> states = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<RedisMonitorRollup> pendingRollups = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void onSample(RedisConnection connection, RedisMonitorRecord record) {
+        add(connection.getId(), record);
+    }
+
+    /**
+     * 把一条样本计入连接的汇总，迁移旧记录时也通过这里生成汇总
+     */
+    public void add(Long connectionId, RedisMonitorRecord record) {
+        if (connectionId == null || record.getRecordTime() == null) {
+            return;
+        }
+        RollupState state = states.computeIfAbsent(connectionId, RollupState::new);
+        state.add(RedisMetricStore.toEpochMillis(record.getRecordTime()), record);
+    }
+
+    /**
+     * 连接停止采集时封存所有未封存的桶，由下一次定期写入落库
+     */
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        RollupState state = states.remove(connectionId);
+        if (state != null) {
+            state.sealAll();
+        }
+    }
+
+    /**
+     * 定期写入已封存的汇总桶
+     */
+    @Scheduled(fixedDelayString = "${app.redis.monitoring.retention.flush-interval:10000}")
+    public void flushPending() {
+        List<RedisMonitorRollup> batch = new ArrayList<>();
+        RedisMonitorRollup rollup;
+        while ((rollup = pendingRollups.poll()) != null) {
+            batch.add(rollup);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            rollupRepository.saveAll(batch);
+        } catch (Exception e) {
+            log.error("写入 {} 条监控汇总记录失败: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭前封存所有未封存的桶并写入
+     *
+     * 重启后同一时间桶会再次写入，查询时合并
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (RollupState state : states.values()) {
+            state.sealAll();
+        }
+        flushPending();
+    }
+
+    /**
+     * 按层级清理过期汇总数据 (每天凌晨2点30分执行)
+     */
+    @Scheduled(cron = "0 30 2 * * ?")
+    public void cleanExpiredRollups() {
+        for (RollupTier tier : TIERS) {
+            try {
+                LocalDateTime cutoff = LocalDateTime.now().minus(getRetentionMillis(tier), ChronoUnit.MILLIS);
+                int deleted = rollupRepository.deleteByTierBefore(tier, cutoff);
+                log.info("清理 {} 层级过期汇总数据 {} 条", tier, deleted);
+            } catch (Exception e) {
+                log.error("清理 {} 层级汇总数据失败: {}", tier, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 原始样本的保留时长(毫秒)
+     */
+    public long getRawRetentionMillis() {
+        return TimeUnit.HOURS.toMillis(rawRetentionHours);
+    }
+
+    /**
+     * 层级的保留时长(毫秒)
+     */
+    public long getRetentionMillis(RollupTier tier) {
+        switch (tier) {
+            case MINUTE_1:
+                return TimeUnit.DAYS.toMillis(minuteRetentionDays);
+            case MINUTE_10:
+                return TimeUnit.DAYS.toMillis(tenMinuteRetentionDays);
+            case HOUR_1:
+            default:
+                return TimeUnit.DAYS.toMillis(hourRetentionDays);
+        }
+    }
+
+    /**
+     * 选择满足分辨率的最粗层级
+     *
+     * 返回null表示应使用原始样本；所有层级都无法满足分辨率时，返回仍覆盖起始时间的最细层级
+     */
+    public RollupTier selectTier(long from, long stepMillis) {
+        long now = System.currentTimeMillis();
+        if (stepMillis < TIERS[0].getBucketMillis() && now - getRawRetentionMillis() <= from) {
+            return null;
+        }
+        RollupTier chosen = null;
+        for (RollupTier tier : TIERS) {
+            if (tier.getBucketMillis() <= stepMillis && now - getRetentionMillis(tier) <= from) {
+                chosen = tier;
+            }
+        }
+        if (chosen != null) {
+            return chosen;
+        }
+        for (RollupTier tier : TIERS) {
+            if (now - getRetentionMillis(tier) <= from) {
+                return tier;
+            }
+        }
+        return TIERS[TIERS.length - 1];
+    }
+
+    /**
+     * 查询层级内的汇总桶，包括尚未封存的当前桶，按时间升序
+     */
+    public List<RollupBucket> queryBuckets(Long connectionId, RollupTier tier, long from, long to) {
+        TreeMap<Long, RollupBucket> buckets = new TreeMap<>();
+        List<RedisMonitorRollup> rows = rollupRepository.findByConnectionIdAndTierAndTimeRange(connectionId, tier,
+                RedisMetricStore.toLocalDateTime(tier.bucketStart(from)), RedisMetricStore.toLocalDateTime(to));
+        for (RedisMonitorRollup row : rows) {
+            RollupBucket bucket = RollupBucket.decode(RedisMetricStore.toEpochMillis(row.getBucketTime()),
+                    row.getSampleCount(), row.getStats(), MonitorMetric.count());
+            putOrMerge(buckets, bucket);
+        }
+        for (RedisMonitorRollup row : pendingRollups) {
+            if (row.getConnectionId().equals(connectionId) && row.getTier() == tier) {
+                long start = RedisMetricStore.toEpochMillis(row.getBucketTime());
+                if (start >= tier.bucketStart(from) && start <= to) {
+                    putOrMerge(buckets, RollupBucket.decode(start, row.getSampleCount(), row.getStats(), MonitorMetric.count()));
+                }
+            }
+        }
+        RollupState state = states.get(connectionId);
+        if (state != null) {
+            RollupBucket open = state.snapshotOpen(tier);
+            if (open != null && open.getStartMillis() >= tier.bucketStart(from) && open.getStartMillis() <= to) {
+                putOrMerge(buckets, open);
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    /**
+     * 同一时间桶可能因重启被写入多次，查询时合并
+     */
+    private void putOrMerge(TreeMap<Long, RollupBucket> buckets, RollupBucket bucket) {
+        RollupBucket existing = buckets.get(bucket.getStartMillis());
+        if (existing == null) {
+            buckets.put(bucket.getStartMillis(), bucket);
+        } else {
+            existing.merge(bucket);
+        }
+    }
+
+    /**
+     * 单个连接的增量汇总状态
+     */
+    private class RollupState {
+
+        private final Long connectionId;
+
+        private final int metricCount = MonitorMetric.count();
+
+        private final double[] values = new double[metricCount];
+
+        private final double[] deltas = new double[metricCount];
+
+        /** 各指标上一个有效值，尚无有效值时为NaN */
+        private final double[] previous = new double[metricCount];
+
+        private final RollupBucket[] open = new RollupBucket[TIERS.length];
+
+        private RollupState(Long connectionId) {
+            this.connectionId = connectionId;
+            Arrays.fill(previous, Double.NaN);
+        }
+
+        private synchronized void add(long timestamp, RedisMonitorRecord record) {
+            for (int i = 0; i < metricCount; i++) {
+                MonitorMetric metric = MonitorMetric.of(i);
+                // 缺失的指标为NaN，由RollupBucket跳过，不按0计入最小值和平均值
+                values[i] = metric.readOrNaN(record);
+                if (Double.isNaN(values[i])) {
+                    deltas[i] = 0;
+                    continue;
+                }
+                if (metric.getKind() == MonitorMetric.Kind.COUNTER && !Double.isNaN(previous[i])) {
+                    // 计数器变小说明实例重启，当前值即为重启后的增量
+                    deltas[i] = values[i] >= previous[i] ? values[i] - previous[i] : values[i];
+                } else {
+                    deltas[i] = 0;
+                }
+                previous[i] = values[i];
+            }
+
+            long start = TIERS[0].bucketStart(timestamp);
+            RollupBucket bucket = open[0];
+            if (bucket != null && bucket.getStartMillis() != start) {
+                if (start < bucket.getStartMillis()) {
+                    // 乱序样本，已封存的桶不再修改
+                    return;
+                }
+                seal(0, bucket);
+                bucket = null;
+            }
+            if (bucket == null) {
+                bucket = new RollupBucket(start, metricCount);
+                open[0] = bucket;
+            }
+            bucket.add(values, deltas);
+        }
+
+        /**
+         * 封存桶并合并到上一层级
+         */
+        private void seal(int level, RollupBucket bucket) {
+            pendingRollups.add(RedisMonitorRollup.builder()
+                    .connectionId(connectionId)
+                    .tier(TIERS[level])
+                    .bucketTime(RedisMetricStore.toLocalDateTime(bucket.getStartMillis()))
+                    .sampleCount(bucket.getCount())
+                    .stats(bucket.encode())
+                    .build());
+            open[level] = null;
+
+            int next = level + 1;
+            if (next >= TIERS.length) {
+                return;
+            }
+            long start = TIERS[next].bucketStart(bucket.getStartMillis());
+            RollupBucket parent = open[next];
+            if (parent != null && parent.getStartMillis() != start) {
+                seal(next, parent);
+                parent = null;
+            }
+            if (parent == null) {
+                parent = new RollupBucket(start, metricCount);
+                open[next] = parent;
+            }
+            parent.merge(bucket);
+        }
+
+        /**
+         * 从最细层级开始逐级封存所有未封存的桶，每一级先合并到上一级再封存上一级
+         */
+        private synchronized void sealAll() {
+            for (int level = 0; level < TIERS.length; level++) {
+                if (open[level] != null) {
+                    seal(level, open[level]);
+                }
+            }
+        }
+
+        /**
+         * 当前桶的快照，合并尚未向上汇总的更细层级的未封存桶
+         */
+        private synchronized RollupBucket snapshotOpen(RollupTier tier) {
+            int level = tier.ordinal();
+            long start;
+            if (open[0] != null) {
+                start = tier.bucketStart(open[0].getStartMillis());
+            } else if (open[level] != null) {
+                start = open[level].getStartMillis();
+            } else {
+                return null;
+            }
+            RollupBucket snapshot = new RollupBucket(start, metricCount);
+            for (int l = level; l >= 0; l--) {
+                if (open[l] != null && tier.bucketStart(open[l].getStartMillis()) == start) {
+                    snapshot.merge(open[l]);
+                }
+            }
+            return snapshot.getCount() > 0 ? snapshot : null;
+        }
+    }
+}
@@ -2,19 +2,46 @@ package com.redis.service;
 
 import com.redis.entity.RedisConnection;
 import com.redis.entity.RedisMonitorRecord;
-import com.redis.repository.RedisMonitorRecordRepository;
+import com.redis.monitor.InfoParser;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.NestedMultiOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import io.lettuce.core.resource.ClientResources;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.DefaultTuple;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -24,12 +51,50 @@ import java.util.stream.Collectors;
 @Service
 public class RedisService {
 
+    /**
+     * Spring Boot提供的共享客户端资源，已配置Micrometer命令耗时记录
+     */
     @Autowired
-    private RedisMonitorRecordRepository monitorRecordRepository;
+    private ObjectProvider<ClientResources> clientResources;
+
+    /** 集合类型写入时每条命令携带的元素数 */
+    @Value("${app.redis.write.chunk-size:1000}")
+    private int writeChunkSize;
+
+    /** 批量删除时每条UNLINK携带的键数 */
+    @Value("${app.redis.delete.chunk-size:500}")
+    private int deleteChunkSize;
+
+    /** 批量删除的并行线程数，每个线程使用一条独立连接 */
+    @Value("${app.redis.delete.parallelism:4}")
+    private int deleteParallelism;
+
+    /** 批量删除的总超时(毫秒)，超时未完成的块中的键按失败返回 */
+    @Value("${app.redis.delete.timeout:60000}")
+    private long deleteTimeoutMillis;
+
+    private ExecutorService deleteExecutor;
 
     // 缓存RedisTemplate实例
     private final Map<Long, RedisTemplate<String, Object>> redisTemplateCache = new ConcurrentHashMap<>();
 
+    /**
+     * 初始化批量删除线程池
+     */
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("redis-batch-delete-");
+        threadFactory.setDaemon(true);
+        int threads = Math.max(1, deleteParallelism);
+        deleteExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deleteExecutor.shutdownNow();
+    }
+
     /**
      * 获取RedisTemplate实例
      */
@@ -53,7 +118,17 @@ public class RedisService {
             config.setPassword(connection.getPassword());
         }
 
-        LettuceConnectionFactory factory = new LettuceConnectionFactory(config);
+        // 命令超时使用连接配置，避免单个无响应实例长时间占用采集线程
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder clientBuilder = LettuceClientConfiguration.builder()
+                .commandTimeout(Duration.ofMillis(connection.getTimeout() != null ? connection.getTimeout() : 5000));
+        // 所有连接共享事件循环，命令耗时按命令类型发布到lettuce.command.*指标
+        ClientResources resources = clientResources.getIfAvailable();
+        if (resources != null) {
+            clientBuilder.clientResources(resources);
+        }
+        LettuceClientConfiguration clientConfig = clientBuilder.build();
+
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(config, clientConfig);
         factory.afterPropertiesSet();
 
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -94,22 +169,90 @@ public class RedisService {
      * 获取Redis信息
      */
     public Map<String, Object> getRedisInfo(RedisConnection connection) {
+        return getRedisInfo(connection, null);
+    }
+
+    /**
+     * 获取Redis信息的指定部分，section为空时获取默认全部内容
+     *
+     * 直接向Redis发起INFO，一般应通过 {@link RedisInfoService} 调用以合并并发请求
+     */
+    public Map<String, Object> getRedisInfo(RedisConnection connection, String section) {
+        return InfoParser.toMap(getRawRedisInfo(connection, section));
+    }
+
+    /**
+     * 获取INFO回复的原始字节
+     */
+    public byte[] getRawRedisInfo(RedisConnection connection, String section) {
         try {
             RedisTemplate<String, Object> template = getRedisTemplate(connection);
-            Properties info = template.getConnectionFactory().getConnection().info();
-            
-            Map<String, Object> result = new HashMap<>();
-            for (String key : info.stringPropertyNames()) {
-                result.put(key, info.getProperty(key));
+            Object reply = template.execute((RedisCallback<Object>) redisConnection ->
+                    section == null ? redisConnection.execute("INFO")
+                            : redisConnection.execute("INFO", section.getBytes(StandardCharsets.UTF_8)));
+            if (reply instanceof byte[]) {
+                return (byte[]) reply;
             }
-            
-            return result;
+            return reply != null ? reply.toString().getBytes(StandardCharsets.UTF_8) : new byte[0];
         } catch (Exception e) {
             log.error("获取Redis信息失败: {}", e.getMessage());
             throw new RuntimeException("获取Redis信息失败", e);
         }
     }
 
+    /**
+     * 获取 CLIENT LIST 回复的原始字节，每行一个客户端
+     */
+    public byte[] getRawClientList(RedisConnection connection) {
+        try {
+            RedisTemplate<String, Object> template = getRedisTemplate(connection);
+            Object reply = template.execute((RedisCallback<Object>) redisConnection ->
+                    redisConnection.execute("CLIENT", "LIST".getBytes(StandardCharsets.UTF_8)));
+            if (reply instanceof byte[]) {
+                return (byte[]) reply;
+            }
+            return reply != null ? reply.toString().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        } catch (Exception e) {
+            log.error("获取客户端列表失败: {}", e.getMessage());
+            throw new RuntimeException("获取客户端列表失败", e);
+        }
+    }
+
+    /**
+     * 执行返回嵌套数组回复的命令，如 SLOWLOG GET、LATENCY LATEST
+     *
+     * 回复元素为Long、byte[]或嵌套的List，Spring Data Redis没有对应的类型化API
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> executeNested(RedisConnection connection, String command, String... args) {
+        long timeoutMillis = connection.getTimeout() != null ? connection.getTimeout() : 5000;
+        try {
+            RedisTemplate<String, Object> template = getRedisTemplate(connection);
+            List<Object> reply = template.execute((RedisCallback<List<Object>>) redisConnection -> {
+                RedisClusterAsyncCommands<byte[], byte[]> commands =
+                        (RedisClusterAsyncCommands<byte[], byte[]>) redisConnection.getNativeConnection();
+                CommandArgs<byte[], byte[]> commandArgs = new CommandArgs<>(ByteArrayCodec.INSTANCE);
+                for (String arg : args) {
+                    commandArgs.add(arg);
+                }
+                RedisFuture<List<Object>> future = commands.dispatch(new RawCommand(command),
+                        new NestedMultiOutput<>(ByteArrayCodec.INSTANCE), commandArgs);
+                try {
+                    return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("执行" + command + "被中断", e);
+                } catch (ExecutionException | TimeoutException e) {
+                    throw new RuntimeException("执行" + command + "失败: " + e.getMessage(), e);
+                }
+            });
+            return reply != null ? reply : new ArrayList<>();
+        } catch (Exception e) {
+            log.error("执行{}失败: {}", command, e.getMessage());
+            throw new RuntimeException("执行" + command + "失败", e);
+        }
+    }
+
     /**
      * 获取键列表
      */
@@ -175,6 +318,124 @@ public class RedisService {
         }
     }
 
+    /**
+     * 按类型写入键
+     *
+     * 集合类型的元素按 chunk-size 分块，每块一条多参数命令(HMSET/RPUSH/SADD/ZADD)，STREAM每条消息一条XADD，
+     * 全部命令在一次流水线中发送。replace为true时先删除原有内容，atomic为true时包在MULTI/EXEC中，
+     * 其他客户端看不到写了一半的状态；EXEC中单条命令失败(如类型不符)不会回滚已执行的命令。
+     * ttl只在atomic或replace为true时设置，向已有键追加元素时保留原有TTL。
+     */
+    public Map<String, Object> writeKey(RedisConnection connection, String key, KeyWriteBatch batch, Long ttl,
+                                        boolean replace, boolean atomic) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("type", batch.getType().name());
+        result.put("elements", batch.size());
+        if (batch.getType() == KeyWriteBatch.Type.STRING) {
+            setValue(connection, key, batch.getStringValue(), ttl);
+            result.put("commands", 1);
+            return result;
+        }
+        long start = System.nanoTime();
+        int chunkSize = Math.max(1, writeChunkSize);
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        int[] commands = new int[1];
+        RedisTemplate<String, Object> template = getRedisTemplate(connection);
+        template.executePipelined((RedisCallback<Object>) redisConnection -> {
+            if (atomic) {
+                redisConnection.multi();
+            }
+            if (replace) {
+                redisConnection.keyCommands().del(rawKey);
+                commands[0]++;
+            }
+            switch (batch.getType()) {
+                case HASH:
+                    Map<byte[], byte[]> chunk = new LinkedHashMap<>();
+                    for (Map.Entry<String, String> field : batch.getFields().entrySet()) {
+                        chunk.put(bytes(field.getKey()), bytes(field.getValue()));
+                        if (chunk.size() == chunkSize) {
+                            redisConnection.hashCommands().hMSet(rawKey, chunk);
+                            commands[0]++;
+                            chunk = new LinkedHashMap<>();
+                        }
+                    }
+                    if (!chunk.isEmpty()) {
+                        redisConnection.hashCommands().hMSet(rawKey, chunk);
+                        commands[0]++;
+                    }
+                    break;
+                case LIST:
+                case SET:
+                    List<String> members = batch.getMembers();
+                    for (int from = 0; from < members.size(); from += chunkSize) {
+                        List<String> part = members.subList(from, Math.min(members.size(), from + chunkSize));
+                        byte[][] values = new byte[part.size()][];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = bytes(part.get(i));
+                        }
+                        if (batch.getType() == KeyWriteBatch.Type.LIST) {
+                            redisConnection.listCommands().rPush(rawKey, values);
+                        } else {
+                            redisConnection.setCommands().sAdd(rawKey, values);
+                        }
+                        commands[0]++;
+                    }
+                    break;
+                case ZSET:
+                    Set<RedisZSetCommands.Tuple> tuples = new LinkedHashSet<>();
+                    for (Map.Entry<String, Double> member : batch.getScores().entrySet()) {
+                        tuples.add(new DefaultTuple(bytes(member.getKey()), member.getValue()));
+                        if (tuples.size() == chunkSize) {
+                            redisConnection.zSetCommands().zAdd(rawKey, tuples);
+                            commands[0]++;
+                            tuples = new LinkedHashSet<>();
+                        }
+                    }
+                    if (!tuples.isEmpty()) {
+                        redisConnection.zSetCommands().zAdd(rawKey, tuples);
+                        commands[0]++;
+                    }
+                    break;
+                case STREAM:
+                    for (Map<String, String> entry : batch.getEntries()) {
+                        Map<byte[], byte[]> entryFields = new LinkedHashMap<>();
+                        for (Map.Entry<String, String> field : entry.entrySet()) {
+                            entryFields.put(bytes(field.getKey()), bytes(field.getValue()));
+                        }
+                        redisConnection.streamCommands().xAdd(MapRecord.create(rawKey, entryFields));
+                        commands[0]++;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            // 非原子且不替换时，某条命令因类型不符失败不会阻止后续命令执行，
+            // 此时发送EXPIRE会改掉原有键的TTL，因此只在能保证写入整体生效的情况下设置
+            if (ttl != null && ttl > 0 && (atomic || replace)) {
+                redisConnection.keyCommands().expire(rawKey, ttl);
+                commands[0]++;
+            }
+            if (atomic) {
+                redisConnection.exec();
+            }
+            return null;
+        });
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        result.put("commands", commands[0]);
+        result.put("chunkSize", chunkSize);
+        result.put("atomic", atomic);
+        result.put("replace", replace);
+        result.put("elapsedMillis", elapsedMillis);
+        log.info("写入{}键 {}: {} 个元素，{} 条命令，耗时 {}ms",
+                batch.getType(), key, batch.size(), commands[0], elapsedMillis);
+        return result;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
     /**
      * 删除键
      */
@@ -201,25 +462,215 @@ public class RedisService {
 
     /**
      * 批量删除键
+     *
+     * 键按哈希槽排序后切成不超过 chunk-size 的块，每块在一次流水线中发送逐键EXISTS和每个哈希槽一条多键UNLINK，
+     * 由EXISTS结果得到每个键的结果; UNLINK不跨槽，可直接发往集群或按槽路由的代理，并在后台线程释放内存。
+     * 各块分给 parallelism 个线程，每个线程使用一条独立连接依次处理; 某块失败只影响该块的键，
+     * 超过 timeout 仍未完成的块中的键也按失败返回。
+     * 返回 deletedCount、notFound(不存在的键)、failed(键 -> 错误) 等，其余键均已删除。
      */
-    public int batchDeleteKeys(RedisConnection connection, List<String> keys) {
+    public Map<String, Object> batchDeleteKeys(RedisConnection connection, List<String> keys) {
         log.info("=== RedisService.batchDeleteKeys开始 ===");
         log.info("连接: {}", connection.getName());
         log.info("键数量: {}", keys.size());
-        
+
+        long start = System.nanoTime();
+        List<List<String>> chunks = deleteChunks(new ArrayList<>(new LinkedHashSet<>(keys)));
+        int workers = Math.min(Math.max(1, deleteParallelism), chunks.size());
+        List<Callable<DeleteOutcome>> tasks = new ArrayList<>();
+        List<List<List<String>>> assignments = new ArrayList<>();
+        List<DeleteOutcome> outcomes = new ArrayList<>();
+        for (int worker = 0; worker < workers; worker++) {
+            List<List<String>> assigned = new ArrayList<>();
+            for (int i = worker; i < chunks.size(); i += workers) {
+                assigned.add(chunks.get(i));
+            }
+            DeleteOutcome outcome = new DeleteOutcome();
+            assignments.add(assigned);
+            outcomes.add(outcome);
+            tasks.add(() -> unlinkChunks(connection, assigned, outcome));
+        }
+
+        DeleteOutcome total = new DeleteOutcome();
+        int timedOutChunks = 0;
         try {
-            RedisTemplate<String, Object> template = getRedisTemplate(connection);
-            log.info("获取到RedisTemplate");
-            
-            Long deletedCount = template.delete(keys);
-            log.info("批量删除结果: {}", deletedCount);
-            
-            log.info("=== RedisService.batchDeleteKeys完成 ===");
-            return deletedCount != null ? deletedCount.intValue() : 0;
-            
-        } catch (Exception e) {
-            log.error("RedisService.batchDeleteKeys失败", e);
-            throw e;
+            List<Future<DeleteOutcome>> futures = deleteExecutor.invokeAll(tasks,
+                    Math.max(1L, deleteTimeoutMillis), TimeUnit.MILLISECONDS);
+            for (int worker = 0; worker < futures.size(); worker++) {
+                Future<DeleteOutcome> future = futures.get(worker);
+                if (future.isCancelled()) {
+                    timedOutChunks += abandon(outcomes.get(worker), assignments.get(worker), total);
+                } else {
+                    total.merge(future.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("批量删除被中断", e);
+        } catch (ExecutionException e) {
+            log.error("RedisService.batchDeleteKeys失败", e.getCause());
+            throw new RuntimeException("批量删除失败: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requestedCount", keys.size());
+        result.put("deletedCount", total.deleted);
+        result.put("notFoundCount", total.notFound.size());
+        result.put("failedCount", total.failed.size());
+        result.put("notFound", total.notFound);
+        result.put("failed", total.failed);
+        result.put("chunks", chunks.size());
+        result.put("timedOutChunks", timedOutChunks);
+        result.put("parallelism", workers);
+        result.put("elapsedMillis", elapsedMillis);
+        log.info("批量删除结果: 删除 {}，不存在 {}，失败 {}，{} 块(超时 {} 块)，耗时 {}ms",
+                total.deleted, total.notFound.size(), total.failed.size(), chunks.size(), timedOutChunks,
+                elapsedMillis);
+        log.info("=== RedisService.batchDeleteKeys完成 ===");
+        return result;
+    }
+
+    /**
+     * 超时被取消的线程: 收下已完成块的结果，其余块中的键按失败返回，返回未完成的块数
+     */
+    private int abandon(DeleteOutcome outcome, List<List<String>> assigned, DeleteOutcome total) {
+        synchronized (outcome) {
+            // 被取消的线程可能仍阻塞在流水线上，之后完成的块不再计入
+            outcome.abandoned = true;
+            total.merge(outcome);
+            for (int i = outcome.completedChunks; i < assigned.size(); i++) {
+                for (String key : assigned.get(i)) {
+                    total.failed.put(key, "删除超时，未确认是否已删除");
+                }
+            }
+            return assigned.size() - outcome.completedChunks;
+        }
+    }
+
+    /**
+     * 按哈希槽排序后切块，同一槽的键相邻，删除时每个槽一条UNLINK
+     */
+    private List<List<String>> deleteChunks(List<String> keys) {
+        int chunkSize = Math.max(1, deleteChunkSize);
+        Map<Integer, List<String>> bySlot = new TreeMap<>();
+        for (String key : keys) {
+            bySlot.computeIfAbsent(SlotHash.getSlot(key), slot -> new ArrayList<>()).add(key);
+        }
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        for (List<String> slotKeys : bySlot.values()) {
+            for (String key : slotKeys) {
+                chunk.add(key);
+                if (chunk.size() == chunkSize) {
+                    chunks.add(chunk);
+                    chunk = new ArrayList<>();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * 在同一条连接上依次删除分配到的块，每块一次流水线，块内每个哈希槽一条UNLINK
+     *
+     * 每块完成后在outcome上同步记录结果，超时被取消时调用方据此区分已完成和未完成的块
+     */
+    private DeleteOutcome unlinkChunks(RedisConnection connection, List<List<String>> chunks, DeleteOutcome outcome) {
+        RedisTemplate<String, Object> template = getRedisTemplate(connection);
+        template.execute((RedisCallback<Object>) redisConnection -> {
+            for (List<String> chunk : chunks) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                byte[][] rawKeys = new byte[chunk.size()][];
+                int[] slots = new int[chunk.size()];
+                for (int i = 0; i < rawKeys.length; i++) {
+                    rawKeys[i] = bytes(chunk.get(i));
+                    slots[i] = SlotHash.getSlot(rawKeys[i]);
+                }
+                DeleteOutcome chunkOutcome = new DeleteOutcome();
+                List<Object> replies = null;
+                try {
+                    redisConnection.openPipeline();
+                    for (byte[] rawKey : rawKeys) {
+                        redisConnection.keyCommands().exists(rawKey);
+                    }
+                    // 键已按槽排序，同槽的键相邻
+                    for (int from = 0; from < rawKeys.length; ) {
+                        int to = from + 1;
+                        while (to < rawKeys.length && slots[to] == slots[from]) {
+                            to++;
+                        }
+                        redisConnection.keyCommands().unlink(Arrays.copyOfRange(rawKeys, from, to));
+                        from = to;
+                    }
+                    replies = redisConnection.closePipeline();
+                } catch (Exception e) {
+                    log.warn("删除 {} 个键失败: {}", chunk.size(), e.getMessage());
+                    for (String key : chunk) {
+                        chunkOutcome.failed.put(key, e.getMessage());
+                    }
+                }
+                if (replies != null) {
+                    long existed = 0;
+                    for (int i = 0; i < chunk.size(); i++) {
+                        if (Boolean.TRUE.equals(replies.get(i))) {
+                            existed++;
+                        } else {
+                            chunkOutcome.notFound.add(chunk.get(i));
+                        }
+                    }
+                    long removed = 0;
+                    boolean counted = true;
+                    for (int i = chunk.size(); i < replies.size(); i++) {
+                        Object unlinked = replies.get(i);
+                        if (unlinked instanceof Number) {
+                            removed += ((Number) unlinked).longValue();
+                        } else {
+                            counted = false;
+                        }
+                    }
+                    if (!counted) {
+                        removed = existed;
+                    } else if (removed != existed) {
+                        // EXISTS与UNLINK之间有其他客户端修改了这些键，按UNLINK的实际删除数计数
+                        log.debug("删除块内有并发修改: EXISTS {}，UNLINK {}", existed, removed);
+                    }
+                    chunkOutcome.deleted = removed;
+                }
+                synchronized (outcome) {
+                    if (outcome.abandoned) {
+                        break;
+                    }
+                    outcome.merge(chunkOutcome);
+                    outcome.completedChunks++;
+                }
+            }
+            return null;
+        });
+        return outcome;
+    }
+
+    /**
+     * 一个删除线程的结果
+     */
+    private static class DeleteOutcome {
+        private long deleted;
+        private final List<String> notFound = new ArrayList<>();
+        private final Map<String, String> failed = new LinkedHashMap<>();
+        /** 已完成的块数 */
+        private int completedChunks;
+        /** 已超时被放弃，之后完成的块不再记录 */
+        private boolean abandoned;
+
+        private void merge(DeleteOutcome other) {
+            deleted += other.deleted;
+            notFound.addAll(other.notFound);
+            failed.putAll(other.failed);
         }
     }
 
@@ -269,6 +720,8 @@ public class RedisService {
                     return template.opsForSet().size(key);
                 case "ZSET":
                     return template.opsForZSet().size(key);
+                case "STREAM":
+                    return template.opsForStream().size(key);
                 default:
                     return 0L;
             }
@@ -350,16 +803,53 @@ public class RedisService {
     }
 
     /**
-     * 清除连接缓存
+     * 清除连接缓存，并关闭该连接的客户端
      */
     public void clearConnectionCache(Long connectionId) {
-        redisTemplateCache.remove(connectionId);
+        destroyTemplate(redisTemplateCache.remove(connectionId));
     }
 
     /**
      * 清除所有连接缓存
      */
     public void clearAllConnectionCache() {
-        redisTemplateCache.clear();
+        for (Long connectionId : new ArrayList<>(redisTemplateCache.keySet())) {
+            clearConnectionCache(connectionId);
+        }
+    }
+
+    private void destroyTemplate(RedisTemplate<String, Object> template) {
+        if (template != null && template.getConnectionFactory() instanceof LettuceConnectionFactory) {
+            try {
+                ((LettuceConnectionFactory) template.getConnectionFactory()).destroy();
+            } catch (Exception e) {
+                log.warn("关闭Redis客户端失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lettuce没有内置的命令名，按原样发送
+     */
+    private static class RawCommand implements ProtocolKeyword {
+
+        private final String name;
+
+        private final byte[] bytes;
+
+        private RawCommand(String name) {
+            this.name = name;
+            this.bytes = name.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
     }
-} 
\ No newline at end of file
+}
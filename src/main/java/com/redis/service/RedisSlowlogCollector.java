@@ -0,0 +1,282 @@
+package com.redis.service;
+
+import com.redis.entity.RedisConnection;
+import com.redis.entity.RedisLatencyEvent;
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.entity.RedisSlowlogEntry;
+import com.redis.repository.RedisLatencyEventRepository;
+import com.redis.repository.RedisSlowlogEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 慢查询日志与延迟事件增量采集
+ *
+ * SLOWLOG只拉取上次之后的新条目: 先用 SLOWLOG GET 1 取最新ID，无新条目时即结束，
+ * 有新条目时最多拉取 batch-size 条，单次开销与慢日志长度无关。
+ * LATENCY LATEST 中最新时间有变化的事件才拉取 LATENCY HISTORY。
+ */
+@Slf4j
+@Service
+public class RedisSlowlogCollector implements MonitorSideCollector {
+
+    /** LATENCY不可用(如被rename-command禁用)时的重试间隔 */
+    private static final long LATENCY_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private RedisSlowlogEntryRepository slowlogEntryRepository;
+
+    @Autowired
+    private RedisLatencyEventRepository latencyEventRepository;
+
+    @Autowired
+    private MonitorTableMaintenance tableMaintenance;
+
+    @Value("${app.redis.monitoring.slowlog.interval:30000}")
+    private long intervalMillis;
+
+    @Value("${app.redis.monitoring.slowlog.batch-size:128}")
+    private int batchSize;
+
+    @Value("${app.redis.monitoring.slowlog.retention-days:30}")
+    private long retentionDays;
+
+    private final Map<Long, SlowlogState> states = new ConcurrentHashMap<>();
+
+    private final AtomicLong ingestedEntries = new AtomicLong();
+    private final AtomicLong missedEntries = new AtomicLong();
+    private final AtomicLong slowlogResets = new AtomicLong();
+    private final AtomicLong ingestedLatencyEvents = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "slowlog";
+    }
+
+    @Override
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public void collect(RedisConnection connection, RedisMonitorRecord record) {
+        SlowlogState state = states.computeIfAbsent(connection.getId(), this::loadState);
+        collectSlowlog(connection, state);
+        if (System.currentTimeMillis() >= state.latencyRetryAt) {
+            try {
+                collectLatency(connection, state);
+            } catch (RuntimeException e) {
+                state.latencyRetryAt = System.currentTimeMillis() + LATENCY_RETRY_MILLIS;
+                log.debug("连接 {} 的LATENCY不可用: {}", connection.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 从数据库恢复上次采集的位置，避免重启后重复写入
+     */
+    private SlowlogState loadState(Long connectionId) {
+        SlowlogState state = new SlowlogState();
+        List<Long> latest = slowlogEntryRepository.findLatestEntryIds(connectionId, PageRequest.of(0, 1));
+        state.lastSeenId = latest.isEmpty() ? null : latest.get(0);
+        for (Object[] row : latencyEventRepository.findLatestPerEvent(connectionId)) {
+            state.lastEventTimes.put((String) row[0], RedisMetricStore.toEpochMillis((LocalDateTime) row[1]) / 1000);
+        }
+        return state;
+    }
+
+    private void collectSlowlog(RedisConnection connection, SlowlogState state) {
+        List<Object> newest = redisService.executeNested(connection, "SLOWLOG", "GET", "1");
+        if (newest.isEmpty()) {
+            return;
+        }
+        long newestId = toLong(((List<?>) newest.get(0)).get(0));
+        if (state.lastSeenId != null && newestId < state.lastSeenId) {
+            // 实例重启后慢日志ID从0开始
+            slowlogResets.incrementAndGet();
+            log.info("检测到连接 {} 的慢日志ID重置", connection.getName());
+            state.lastSeenId = -1L;
+        }
+        if (state.lastSeenId != null && newestId == state.lastSeenId) {
+            return;
+        }
+
+        long wanted = state.lastSeenId == null ? batchSize : Math.min(batchSize, newestId - state.lastSeenId);
+        List<Object> reply = wanted <= 1 ? newest
+                : redisService.executeNested(connection, "SLOWLOG", "GET", String.valueOf(wanted));
+        List<RedisSlowlogEntry> entries = new ArrayList<>(reply.size());
+        long oldestId = Long.MAX_VALUE;
+        for (Object item : reply) {
+            List<?> fields = (List<?>) item;
+            long entryId = toLong(fields.get(0));
+            if (state.lastSeenId != null && entryId <= state.lastSeenId) {
+                continue;
+            }
+            oldestId = Math.min(oldestId, entryId);
+            entries.add(toEntry(connection.getId(), entryId, fields));
+        }
+        if (state.lastSeenId != null && state.lastSeenId >= 0 && oldestId != Long.MAX_VALUE
+                && oldestId > state.lastSeenId + 1) {
+            // 两次采集之间产生的慢日志超过了slowlog-max-len或batch-size
+            missedEntries.addAndGet(oldestId - state.lastSeenId - 1);
+        }
+        if (!entries.isEmpty()) {
+            slowlogEntryRepository.saveAll(entries);
+            ingestedEntries.addAndGet(entries.size());
+        }
+        state.lastSeenId = newestId;
+    }
+
+    private RedisSlowlogEntry toEntry(Long connectionId, long entryId, List<?> fields) {
+        List<?> args = fields.size() > 3 && fields.get(3) instanceof List ? (List<?>) fields.get(3) : new ArrayList<>();
+        StringBuilder arguments = new StringBuilder();
+        for (Object arg : args) {
+            if (arguments.length() > 0) {
+                arguments.append(' ');
+            }
+            arguments.append(toText(arg));
+            if (arguments.length() >= RedisSlowlogEntry.MAX_ARGUMENTS_LENGTH) {
+                break;
+            }
+        }
+        String text = arguments.length() > RedisSlowlogEntry.MAX_ARGUMENTS_LENGTH
+                ? arguments.substring(0, RedisSlowlogEntry.MAX_ARGUMENTS_LENGTH) : arguments.toString();
+        String command = args.isEmpty() ? null : toText(args.get(0)).toUpperCase();
+        return RedisSlowlogEntry.builder()
+                .connectionId(connectionId)
+                .entryId(entryId)
+                .executedAt(RedisMetricStore.toLocalDateTime(toLong(fields.get(1)) * 1000))
+                .durationMicros(toLong(fields.get(2)))
+                .command(command != null && command.length() > 64 ? command.substring(0, 64) : command)
+                .arguments(text)
+                .clientAddress(fields.size() > 4 ? toText(fields.get(4)) : null)
+                .clientName(fields.size() > 5 ? toText(fields.get(5)) : null)
+                .build();
+    }
+
+    private void collectLatency(RedisConnection connection, SlowlogState state) {
+        List<Object> latest = redisService.executeNested(connection, "LATENCY", "LATEST");
+        List<RedisLatencyEvent> events = new ArrayList<>();
+        for (Object item : latest) {
+            List<?> fields = (List<?>) item;
+            String eventName = toText(fields.get(0));
+            long latestTime = toLong(fields.get(1));
+            Long lastSeen = state.lastEventTimes.get(eventName);
+            if (lastSeen != null && latestTime <= lastSeen) {
+                continue;
+            }
+            // LATENCY HISTORY 每个事件最多保留160个点
+            for (Object point : redisService.executeNested(connection, "LATENCY", "HISTORY", eventName)) {
+                List<?> pair = (List<?>) point;
+                long time = toLong(pair.get(0));
+                if (lastSeen != null && time <= lastSeen) {
+                    continue;
+                }
+                events.add(RedisLatencyEvent.builder()
+                        .connectionId(connection.getId())
+                        .eventName(eventName)
+                        .occurredAt(RedisMetricStore.toLocalDateTime(time * 1000))
+                        .latencyMillis(toLong(pair.get(1)))
+                        .build());
+            }
+            state.lastEventTimes.put(eventName, latestTime);
+        }
+        if (!events.isEmpty()) {
+            latencyEventRepository.saveAll(events);
+            ingestedLatencyEvents.addAndGet(events.size());
+        }
+    }
+
+    /**
+     * 按时间范围查询慢查询，command和minDurationMicros为空时不过滤
+     */
+    public List<RedisSlowlogEntry> findSlowlog(Long connectionId, LocalDateTime startTime, LocalDateTime endTime,
+                                               String command, Long minDurationMicros, int limit) {
+        return slowlogEntryRepository.findByConnectionIdAndTimeRange(connectionId, startTime, endTime,
+                command != null && !command.isEmpty() ? command.toUpperCase() : null,
+                minDurationMicros, PageRequest.of(0, limit));
+    }
+
+    /**
+     * 按时间范围查询延迟事件，eventName为空时返回全部事件
+     */
+    public List<RedisLatencyEvent> findLatencyEvents(Long connectionId, LocalDateTime startTime, LocalDateTime endTime,
+                                                     String eventName) {
+        return latencyEventRepository.findByConnectionIdAndTimeRange(connectionId, startTime, endTime,
+                eventName != null && !eventName.isEmpty() ? eventName : null);
+    }
+
+    /**
+     * 清理过期慢查询和延迟事件 (每天凌晨2点40分执行)
+     */
+    @Scheduled(cron = "0 40 2 * * ?")
+    public void cleanExpired() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            int slowlogDeleted = tableMaintenance.deleteBefore("redis_slowlog_entries", "executed_at", cutoff);
+            int latencyDeleted = tableMaintenance.deleteBefore("redis_latency_events", "occurred_at", cutoff);
+            log.info("清理过期慢查询 {} 条，延迟事件 {} 条", slowlogDeleted, latencyDeleted);
+        } catch (Exception e) {
+            log.error("清理慢查询数据失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onConnectionRemoved(Long connectionId) {
+        states.remove(connectionId);
+    }
+
+    /**
+     * 获取慢查询采集统计信息
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("intervalMillis", intervalMillis);
+        statistics.put("batchSize", batchSize);
+        statistics.put("ingestedEntries", ingestedEntries.get());
+        statistics.put("missedEntries", missedEntries.get());
+        statistics.put("slowlogResets", slowlogResets.get());
+        statistics.put("ingestedLatencyEvents", ingestedLatencyEvents.get());
+        return statistics;
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return Long.parseLong(toText(value));
+    }
+
+    private static String toText(Object value) {
+        if (value instanceof byte[]) {
+            return new String((byte[]) value, StandardCharsets.UTF_8);
+        }
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * 单个连接的采集位置，只在该连接的采集任务中访问
+     */
+    private static class SlowlogState {
+        private volatile Long lastSeenId;
+        private volatile long latencyRetryAt;
+        private final Map<String, Long> lastEventTimes = new ConcurrentHashMap<>();
+    }
+}
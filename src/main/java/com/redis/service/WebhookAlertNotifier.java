@@ -0,0 +1,63 @@
+package com.redis.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redis.entity.RedisAlertEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * 以JSON POST方式把告警事件发送到webhook地址，未配置地址时不启用
+ */
+@Slf4j
+@Service
+public class WebhookAlertNotifier implements AlertNotifier {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.redis.monitoring.alert.webhook.url:}")
+    private String url;
+
+    @Value("${app.redis.monitoring.alert.webhook.timeout:3000}")
+    private int timeoutMillis;
+
+    @Override
+    public String getName() {
+        return "webhook";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return url != null && !url.trim().isEmpty();
+    }
+
+    @Override
+    public void notify(RedisAlertEvent event) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(event);
+        HttpURLConnection connection = (HttpURLConnection) new URL(url.trim()).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body);
+            }
+            int status = connection.getResponseCode();
+            if (status >= 300) {
+                throw new IOException("webhook返回状态码 " + status);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
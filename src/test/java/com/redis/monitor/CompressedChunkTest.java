@@ -0,0 +1,266 @@
+package com.redis.monitor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 位流和Gorilla压缩块的编解码往返测试
+ *
+ * compressionAndScanBenchmark 报告监控样本的压缩后字节数和扫描吞吐，默认跳过，运行方式:
+ * mvn test -Dtest=CompressedChunkTest -Dstorage.benchmark=true
+ * 样本数可用 -Dstorage.benchmark.chunk-samples 调整。
+ */
+@Slf4j
+class CompressedChunkTest {
+
+    /** 与热存储默认的 chunk-size 一致 */
+    private static final int CHUNK_SIZE = 720;
+
+    @Test
+    void bitStreamRoundTripsMixedWidths() {
+        Random random = new Random(1);
+        int count = 5000;
+        int[] widths = new int[count];
+        long[] values = new long[count];
+        BitStream stream = new BitStream(1);
+        for (int i = 0; i < count; i++) {
+            widths[i] = random.nextInt(65);
+            values[i] = random.nextLong();
+            stream.write(values[i], widths[i]);
+        }
+        long expectedBits = 0;
+        for (int width : widths) {
+            expectedBits += width;
+        }
+        assertEquals(expectedBits, stream.getBitLength());
+
+        stream.trim();
+        BitStream.Reader reader = stream.reader();
+        for (int i = 0; i < count; i++) {
+            long expected = widths[i] == 64 ? values[i] : values[i] & ((1L << widths[i]) - 1);
+            assertEquals(expected, reader.read(widths[i]), "第 " + i + " 个值，位宽 " + widths[i]);
+        }
+    }
+
+    @Test
+    void bitStreamKeepsSingleBitsAcrossWordBoundaries() {
+        BitStream stream = new BitStream(1);
+        stream.write(0x7FFFFFFFFFFFFFFFL, 63);
+        stream.writeBit(true);
+        stream.writeBit(false);
+        stream.write(-1L, 64);
+        stream.writeBit(true);
+
+        BitStream.Reader reader = stream.reader();
+        assertEquals(0x7FFFFFFFFFFFFFFFL, reader.read(63));
+        assertTrue(reader.readBit());
+        assertFalse(reader.readBit());
+        assertEquals(-1L, reader.read(64));
+        assertTrue(reader.readBit());
+    }
+
+    @Test
+    void chunkRoundTripsTimestampsAndValues() {
+        int columns = 4;
+        List<Long> timestamps = new ArrayList<>();
+        List<double[]> rows = new ArrayList<>();
+        Random random = new Random(2);
+        long timestamp = 1_700_000_000_000L;
+        // 覆盖二阶差分的每种编码长度：不变、7位、9位、12位和64位
+        long[] steps = {1000, 1000, 1000, 1030, 1000, 800, 1200, 3000, 1000, 1_000_000, 1000, 0, 0, 1};
+        CompressedChunk chunk = new CompressedChunk(columns, 1000);
+        for (int n = 0; n < 1000; n++) {
+            timestamp += n < steps.length ? steps[n] : 1000 + random.nextInt(50);
+            double[] values = {
+                    n,                                       // 单调递增
+                    n % 7 == 0 ? 12.5 : 12.5 + n * 0.001,    // 大部分时间几乎不变
+                    special(n, random),                      // NaN、无穷、-0.0和随机值
+                    1024.0 * 1024 * 1024 * (n % 3)           // 重复出现的大整数
+            };
+            chunk.append(timestamp, values);
+            timestamps.add(timestamp);
+            rows.add(values.clone());
+        }
+        chunk.seal();
+        assertEquals(1000, chunk.getCount());
+        assertTrue(chunk.isFull());
+        assertEquals((long) timestamps.get(0), chunk.getFirstTimestamp());
+        assertEquals(timestamp, chunk.getLastTimestamp());
+
+        int[] all = {0, 1, 2, 3};
+        List<Long> seenTimestamps = new ArrayList<>();
+        List<double[]> seenRows = new ArrayList<>();
+        chunk.scan(Long.MIN_VALUE, Long.MAX_VALUE, all, (ts, values) -> {
+            seenTimestamps.add(ts);
+            seenRows.add(values.clone());
+        });
+        assertEquals(1000, seenTimestamps.size());
+        for (int n = 0; n < 1000; n++) {
+            assertEquals(timestamps.get(n), seenTimestamps.get(n), "第 " + n + " 个时间戳");
+            assertBitsEqual(rows.get(n), seenRows.get(n), n);
+        }
+    }
+
+    @Test
+    void chunkScanFiltersRangeAndSelectedColumns() {
+        CompressedChunk chunk = new CompressedChunk(3, 100);
+        for (int n = 0; n < 100; n++) {
+            chunk.append(1000L + n * 10, new double[]{n, -n, n * 0.5});
+        }
+        List<Long> seen = new ArrayList<>();
+        List<double[]> values = new ArrayList<>();
+        chunk.scan(1105L, 1200L, new int[]{2, 0}, (ts, row) -> {
+            seen.add(ts);
+            values.add(row.clone());
+        });
+        // 1105不在时间戳上，从1110开始，1200包含在内
+        assertEquals(10, seen.size());
+        assertEquals(1110L, (long) seen.get(0));
+        assertEquals(1200L, (long) seen.get(seen.size() - 1));
+        assertArrayEquals(new double[]{5.5, 11.0}, values.get(0));
+        assertArrayEquals(new double[]{10.0, 20.0}, values.get(values.size() - 1));
+
+        List<Long> outside = new ArrayList<>();
+        chunk.scan(5000L, 6000L, new int[]{0}, (ts, row) -> outside.add(ts));
+        assertTrue(outside.isEmpty());
+    }
+
+    @Test
+    void compressesMonitorSamplesWellBelowRawSize() {
+        List<CompressedChunk> chunks = fill(CHUNK_SIZE * 4);
+        long bytes = 0;
+        for (CompressedChunk chunk : chunks) {
+            bytes += chunk.getSizeInBytes();
+        }
+        double bytesPerSample = (double) bytes / (CHUNK_SIZE * 4);
+        // 未压缩时每个样本为一个时间戳加每列一个double；派生速率基本不可压缩，整体至少压缩一半
+        double rawBytesPerSample = 8.0 * (MonitorMetric.count() + 1);
+        assertTrue(bytesPerSample < rawBytesPerSample / 2,
+                "每样本 " + bytesPerSample + " 字节，未压缩 " + rawBytesPerSample + " 字节");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "storage.benchmark", matches = "true")
+    void compressionAndScanBenchmark() {
+        int samples = Integer.getInteger("storage.benchmark.chunk-samples", CHUNK_SIZE * 200);
+        int columns = MonitorMetric.count();
+        long start = System.nanoTime();
+        List<CompressedChunk> chunks = fill(samples);
+        long appendNanos = Math.max(1L, System.nanoTime() - start);
+
+        long bytes = 0;
+        for (CompressedChunk chunk : chunks) {
+            bytes += chunk.getSizeInBytes();
+        }
+        int[] all = new int[columns];
+        for (int i = 0; i < columns; i++) {
+            all[i] = i;
+        }
+        int[] single = {MonitorMetric.USED_MEMORY.ordinal()};
+        // 第一轮为预热
+        long allNanos = 0;
+        long singleNanos = 0;
+        double[] checksum = new double[1];
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (CompressedChunk chunk : chunks) {
+                chunk.scan(Long.MIN_VALUE, Long.MAX_VALUE, all, (ts, values) -> checksum[0] += values[0]);
+            }
+            allNanos = Math.max(1L, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (CompressedChunk chunk : chunks) {
+                chunk.scan(Long.MIN_VALUE, Long.MAX_VALUE, single, (ts, values) -> checksum[0] += values[0]);
+            }
+            singleNanos = Math.max(1L, System.nanoTime() - start);
+        }
+
+        log.info("压缩块基准测试: {} 个样本，{} 列，每块 {} 个样本", samples, columns, CHUNK_SIZE);
+        log.info("压缩后 {} 字节/样本，{} 字节/值，未压缩 {} 字节/样本，压缩比 {}",
+                round((double) bytes / samples), round((double) bytes / samples / columns),
+                8 * (columns + 1), round(8.0 * (columns + 1) * samples / bytes));
+        log.info("写入 {} 样本/秒，全部列扫描 {} 样本/秒，单列扫描 {} 样本/秒 (checksum {})",
+                Math.round(samples * 1e9 / appendNanos), Math.round(samples * 1e9 / allNanos),
+                Math.round(samples * 1e9 / singleNanos), checksum[0]);
+    }
+
+    /**
+     * 按监控指标的类型生成样本: 计数器单调递增，瞬时值小幅波动，大部分不常用的指标保持不变，
+     * 派生速率保留两位小数，采样间隔约1秒并带少量抖动
+     */
+    private static List<CompressedChunk> fill(int samples) {
+        int columns = MonitorMetric.count();
+        Random random = new Random(5);
+        double[] values = new double[columns];
+        for (int i = 0; i < columns; i++) {
+            values[i] = random.nextInt(1_000_000);
+        }
+        List<CompressedChunk> chunks = new ArrayList<>();
+        CompressedChunk current = null;
+        long timestamp = 1_700_000_000_000L;
+        for (int n = 0; n < samples; n++) {
+            timestamp += 1000 + (random.nextInt(10) == 0 ? random.nextInt(20) : 0);
+            for (int i = 0; i < columns; i++) {
+                MonitorMetric metric = MonitorMetric.of(i);
+                if (i % 3 == 0 && !metric.isDerived()) {
+                    continue;
+                }
+                if (metric.isDerived()) {
+                    values[i] = Math.round(random.nextDouble() * 100_000) / 100.0;
+                } else if (metric.getKind() == MonitorMetric.Kind.COUNTER) {
+                    values[i] += random.nextInt(1000);
+                } else if (random.nextInt(4) == 0) {
+                    values[i] = Math.max(0, values[i] + random.nextInt(2001) - 1000);
+                }
+            }
+            if (current == null || current.isFull()) {
+                if (current != null) {
+                    current.seal();
+                }
+                current = new CompressedChunk(columns, CHUNK_SIZE);
+                chunks.add(current);
+            }
+            current.append(timestamp, values);
+        }
+        current.seal();
+        return chunks;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static double special(int n, Random random) {
+        switch (n % 11) {
+            case 0:
+                return Double.NaN;
+            case 1:
+                return Double.POSITIVE_INFINITY;
+            case 2:
+                return -0.0;
+            case 3:
+                return Double.MIN_VALUE;
+            case 4:
+                return -Double.MAX_VALUE;
+            default:
+                return random.nextGaussian() * 1e6;
+        }
+    }
+
+    private static void assertBitsEqual(double[] expected, double[] actual, int row) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]),
+                    "第 " + row + " 行第 " + i + " 列");
+        }
+    }
+}
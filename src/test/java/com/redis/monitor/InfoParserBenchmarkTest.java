@@ -0,0 +1,262 @@
+package com.redis.monitor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * INFO解析基准测试
+ *
+ * 用同一组合成的 memory+stats 回复比较 {@link InfoParser} 与原先的解析路径
+ * (回复解码为字符串 → Properties → HashMap → 逐个字段 toString 后 parseLong/parseDouble)，
+ * 报告每个样本的耗时和当前线程分配的字节数。默认跳过，运行方式:
+ * mvn test -Dtest=InfoParserBenchmarkTest -Dinfo.benchmark=true
+ * 样本数可用 -Dinfo.benchmark.samples 调整。
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "info.benchmark", matches = "true")
+class InfoParserBenchmarkTest {
+
+    /** 轮流解析的不同回复数，数值各不相同，避免只测到文本复用的情况 */
+    private static final int REPLIES = 64;
+
+    /** 原先按Double解析的字段，其余按Long解析 */
+    private static final Set<String> DOUBLE_KEYS = new HashSet<>(Arrays.asList(
+            "instantaneous_input_kbps", "instantaneous_output_kbps", "mem_fragmentation_ratio"));
+
+    private static final MonitorMetric[] METRICS = MonitorMetric.values();
+
+    @Test
+    void compareWithPropertiesPath() throws IOException {
+        int samples = Integer.getInteger("info.benchmark.samples", 200000);
+        byte[][] replies = generate();
+
+        // 两条路径的结果一致
+        InfoSample sample = new InfoSample();
+        double[] legacy = new double[METRICS.length];
+        for (byte[] reply : replies) {
+            sample.reset();
+            InfoParser.parse(reply, sample);
+            parseLegacy(reply, legacy);
+            for (MonitorMetric metric : METRICS) {
+                if (!metric.isDerived()) {
+                    assertEquals(legacy[metric.ordinal()], sample.getValue(metric), metric.getInfoKey());
+                }
+            }
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "JVM不支持线程分配字节统计");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        double checksum = 0;
+        for (int round = 0; round < 2; round++) {
+            // 第一轮为预热，只报告第二轮
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (int n = 0; n < samples; n++) {
+                parseLegacy(replies[n % REPLIES], legacy);
+                checksum += legacy[MonitorMetric.USED_MEMORY.ordinal()];
+            }
+            long legacyNanos = System.nanoTime() - start;
+            long legacyBytes = threads.getThreadAllocatedBytes(thread) - allocated;
+
+            allocated = threads.getThreadAllocatedBytes(thread);
+            start = System.nanoTime();
+            for (int n = 0; n < samples; n++) {
+                sample.reset();
+                InfoParser.parse(replies[n % REPLIES], sample);
+                checksum += sample.getValue(MonitorMetric.USED_MEMORY);
+            }
+            long parserNanos = System.nanoTime() - start;
+            long parserBytes = threads.getThreadAllocatedBytes(thread) - allocated;
+
+            if (round == 1) {
+                log.info("INFO解析基准测试: {} 个样本，回复平均 {} 字节", samples, averageLength(replies));
+                log.info("原解析路径: {} ns/样本，{} 字节/样本", legacyNanos / samples, legacyBytes / samples);
+                log.info("InfoParser: {} ns/样本，{} 字节/样本", parserNanos / samples, parserBytes / samples);
+                log.info("InfoParser相对原路径: 耗时 {} 倍，分配 {} 倍 (checksum {})",
+                        ratio(parserNanos, legacyNanos), ratio(parserBytes, legacyBytes), checksum);
+            }
+        }
+    }
+
+    /**
+     * 原先的解析方式: Lettuce把回复解码为字符串，spring-data-redis转为Properties，再复制到HashMap逐个取值
+     */
+    private static void parseLegacy(byte[] reply, double[] values) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(new String(reply, StandardCharsets.UTF_8)));
+        Map<String, Object> info = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            info.put(key, properties.getProperty(key));
+        }
+        for (MonitorMetric metric : METRICS) {
+            if (metric.isDerived()) {
+                continue;
+            }
+            Object value = info.get(metric.getInfoKey());
+            double parsed = 0;
+            if (value != null) {
+                try {
+                    parsed = DOUBLE_KEYS.contains(metric.getInfoKey())
+                            ? Double.parseDouble(value.toString()) : Long.parseLong(value.toString());
+                } catch (NumberFormatException e) {
+                    parsed = 0;
+                }
+            }
+            values[metric.ordinal()] = parsed;
+        }
+    }
+
+    /**
+     * 与Redis 7 的 INFO memory 和 INFO stats 字段相同的合成回复
+     */
+    private static byte[][] generate() {
+        Random random = new Random(3);
+        byte[][] replies = new byte[REPLIES][];
+        for (int r = 0; r < REPLIES; r++) {
+            long usedMemory = 1_000_000L + random.nextInt(1 << 30);
+            StringBuilder text = new StringBuilder(4096);
+            text.append("# Memory\r\n");
+            line(text, "used_memory", usedMemory);
+            line(text, "used_memory_human", String.format(Locale.ROOT, "%.2fM", usedMemory / 1048576.0));
+            line(text, "used_memory_rss", usedMemory + random.nextInt(1 << 20));
+            line(text, "used_memory_rss_human", String.format(Locale.ROOT, "%.2fM", usedMemory / 1048576.0 + 1));
+            line(text, "used_memory_peak", usedMemory * 2);
+            line(text, "used_memory_peak_human", String.format(Locale.ROOT, "%.2fM", usedMemory / 524288.0));
+            line(text, "used_memory_peak_perc", "50.00%");
+            line(text, "used_memory_overhead", 900_000 + random.nextInt(100_000));
+            line(text, "used_memory_startup", 865_000);
+            line(text, "used_memory_dataset", usedMemory - 900_000);
+            line(text, "used_memory_dataset_perc", String.format(Locale.ROOT, "%.2f%%", random.nextDouble() * 100));
+            line(text, "allocator_allocated", usedMemory + 1024);
+            line(text, "allocator_active", usedMemory + 4096);
+            line(text, "allocator_resident", usedMemory + 8192);
+            line(text, "total_system_memory", 16_624_541_696L);
+            line(text, "total_system_memory_human", "15.48G");
+            line(text, "used_memory_lua", 31_744);
+            line(text, "used_memory_vm_eval", 31_744);
+            line(text, "used_memory_lua_human", "31.00K");
+            line(text, "used_memory_scripts_eval", 0);
+            line(text, "number_of_cached_scripts", 0);
+            line(text, "used_memory_vm_functions", 32_768);
+            line(text, "used_memory_vm_total", 64_512);
+            line(text, "used_memory_functions", 184);
+            line(text, "used_memory_scripts", 184);
+            line(text, "maxmemory", 0);
+            line(text, "maxmemory_human", "0B");
+            line(text, "maxmemory_policy", "noeviction");
+            line(text, "allocator_frag_ratio", String.format(Locale.ROOT, "%.2f", 1 + random.nextDouble()));
+            line(text, "allocator_frag_bytes", random.nextInt(1 << 20));
+            line(text, "allocator_rss_ratio", "1.02");
+            line(text, "allocator_rss_bytes", random.nextInt(1 << 20));
+            line(text, "rss_overhead_ratio", "1.10");
+            line(text, "rss_overhead_bytes", random.nextInt(1 << 20));
+            line(text, "mem_fragmentation_ratio", String.format(Locale.ROOT, "%.2f", 1 + random.nextDouble()));
+            line(text, "mem_fragmentation_bytes", random.nextInt(1 << 20));
+            line(text, "mem_not_counted_for_evict", 0);
+            line(text, "mem_replication_backlog", 0);
+            line(text, "mem_total_replication_buffers", 0);
+            line(text, "mem_clients_slaves", 0);
+            line(text, "mem_clients_normal", 22_400);
+            line(text, "mem_cluster_links", 0);
+            line(text, "mem_aof_buffer", 0);
+            line(text, "mem_allocator", "jemalloc-5.3.0");
+            line(text, "active_defrag_running", 0);
+            line(text, "lazyfree_pending_objects", 0);
+            line(text, "lazyfreed_objects", random.nextInt(1000));
+            text.append("\r\n# Stats\r\n");
+            long commands = (long) r * 1_000_000 + random.nextInt(1_000_000);
+            line(text, "total_connections_received", 10_000 + r);
+            line(text, "total_commands_processed", commands);
+            line(text, "instantaneous_ops_per_sec", random.nextInt(100_000));
+            line(text, "total_net_input_bytes", commands * 48);
+            line(text, "total_net_output_bytes", commands * 96);
+            line(text, "total_net_repl_input_bytes", 0);
+            line(text, "total_net_repl_output_bytes", 0);
+            line(text, "instantaneous_input_kbps", String.format(Locale.ROOT, "%.2f", random.nextDouble() * 10_000));
+            line(text, "instantaneous_output_kbps", String.format(Locale.ROOT, "%.2f", random.nextDouble() * 20_000));
+            line(text, "instantaneous_input_repl_kbps", "0.00");
+            line(text, "instantaneous_output_repl_kbps", "0.00");
+            line(text, "rejected_connections", 0);
+            line(text, "sync_full", 1);
+            line(text, "sync_partial_ok", 0);
+            line(text, "sync_partial_err", 0);
+            line(text, "expired_keys", random.nextInt(1_000_000));
+            line(text, "expired_stale_perc", "0.00");
+            line(text, "expired_time_cap_reached_count", 0);
+            line(text, "expire_cycle_cpu_milliseconds", random.nextInt(100_000));
+            line(text, "evicted_keys", 0);
+            line(text, "evicted_clients", 0);
+            line(text, "total_eviction_exceeded_time", 0);
+            line(text, "current_eviction_exceeded_time", 0);
+            line(text, "keyspace_hits", commands / 2);
+            line(text, "keyspace_misses", commands / 10);
+            line(text, "pubsub_channels", random.nextInt(10));
+            line(text, "pubsub_patterns", 0);
+            line(text, "pubsubshard_channels", 0);
+            line(text, "latest_fork_usec", random.nextInt(10_000));
+            line(text, "total_forks", 12);
+            line(text, "migrate_cached_sockets", 0);
+            line(text, "slave_expires_tracked_keys", 0);
+            line(text, "active_defrag_hits", 0);
+            line(text, "active_defrag_misses", 0);
+            line(text, "active_defrag_key_hits", 0);
+            line(text, "active_defrag_key_misses", 0);
+            line(text, "total_active_defrag_time", 0);
+            line(text, "current_active_defrag_time", 0);
+            line(text, "tracking_total_keys", 0);
+            line(text, "tracking_total_items", 0);
+            line(text, "tracking_total_prefixes", 0);
+            line(text, "unexpected_error_replies", 0);
+            line(text, "total_error_replies", random.nextInt(100));
+            line(text, "dump_payload_sanitizations", 0);
+            line(text, "total_reads_processed", commands + r);
+            line(text, "total_writes_processed", commands + r);
+            line(text, "io_threaded_reads_processed", 0);
+            line(text, "io_threaded_writes_processed", 0);
+            line(text, "reply_buffer_shrinks", random.nextInt(1000));
+            line(text, "reply_buffer_expands", random.nextInt(1000));
+            line(text, "acl_access_denied_auth", 0);
+            line(text, "acl_access_denied_cmd", 0);
+            line(text, "acl_access_denied_key", 0);
+            line(text, "acl_access_denied_channel", 0);
+            replies[r] = text.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        return replies;
+    }
+
+    private static void line(StringBuilder text, String key, Object value) {
+        text.append(key).append(':').append(value).append("\r\n");
+    }
+
+    private static long averageLength(byte[][] replies) {
+        long total = 0;
+        for (byte[] reply : replies) {
+            total += reply.length;
+        }
+        return total / replies.length;
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator > 0 ? Math.round(numerator * 1000.0 / denominator) / 1000.0 : 0.0;
+    }
+}
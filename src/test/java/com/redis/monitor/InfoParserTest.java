@@ -0,0 +1,104 @@
+package com.redis.monitor;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * INFO回复解析: 数值格式边界、行格式和文本复用
+ */
+class InfoParserTest {
+
+    @Test
+    void parsesPlainIntegersAndDecimals() {
+        assertEquals(0.0, parse("0"));
+        assertEquals(1048576.0, parse("1048576"));
+        assertEquals(-42.0, parse("-42"));
+        assertEquals(7.0, parse("+7"));
+        assertEquals(1.23, parse("1.23"));
+        assertEquals(-0.5, parse("-0.5"));
+        assertEquals(3.0, parse("3."));
+        assertEquals(0.25, parse(".25"));
+        // 18位有效数字以内，结果与Double.parseDouble一致
+        assertEquals(Double.parseDouble("999999999999999999"), parse("999999999999999999"));
+        assertEquals(Double.parseDouble("0.000000000000000001"), parse("0.000000000000000001"));
+        assertEquals(Double.parseDouble("123456789.123456789"), parse("123456789.123456789"));
+    }
+
+    @Test
+    void fallsBackForLongNumbersAndExponents() {
+        // 超过18位有效数字会使long溢出，回退到Double.parseDouble
+        assertEquals(Double.parseDouble("18446744073709551615"), parse("18446744073709551615"));
+        assertEquals(Double.parseDouble("-9223372036854775808"), parse("-9223372036854775808"));
+        assertEquals(Double.parseDouble("1.2345678901234567890"), parse("1.2345678901234567890"));
+        assertEquals(1500.0, parse("1.5e3"));
+        assertEquals(2.5E-4, parse("2.5E-4"));
+        assertEquals(-1.0E20, parse("-1e20"));
+        // 有效数字超过2^53的小数，相除会产生二次舍入
+        assertEquals(Double.parseDouble("96958333.96597399"), parse("96958333.96597399"));
+        assertEquals(Double.parseDouble("107619038315445.038"), parse("107619038315445.038"));
+    }
+
+    @Test
+    void returnsZeroForUnparsableValues() {
+        assertEquals(0.0, parse(""));
+        assertEquals(0.0, parse("-"));
+        assertEquals(0.0, parse("+"));
+        assertEquals(0.0, parse("."));
+        assertEquals(0.0, parse("-."));
+        assertEquals(0.0, parse("12ab"));
+        assertEquals(0.0, parse("1.2.3"));
+        assertEquals(0.0, parse("1,024"));
+    }
+
+    @Test
+    void fillsSampleFromReply() {
+        String reply = "# Memory\r\n"
+                + "used_memory:1048576\r\n"
+                + "used_memory_human:1.00M\r\n"
+                + "mem_fragmentation_ratio:1.25\r\n"
+                + "unknown_field:5\r\n"
+                + "no_colon_line\r\n"
+                + "\r\n"
+                + "# Stats\n"
+                + "total_commands_processed:123456789012\n"
+                + "maxmemory_policy:allkeys-lru";
+        InfoSample sample = new InfoSample();
+        sample.reset();
+        InfoParser.parse(reply.getBytes(StandardCharsets.US_ASCII), sample);
+
+        assertEquals(1048576.0, sample.getValue(MonitorMetric.USED_MEMORY));
+        assertEquals(1.25, sample.getValue(MonitorMetric.MEM_FRAGMENTATION_RATIO));
+        assertEquals(123456789012.0, sample.getValue(MonitorMetric.TOTAL_COMMANDS_PROCESSED));
+        assertEquals(0.0, sample.getValue(MonitorMetric.EVICTED_KEYS));
+        assertEquals("1.00M", sample.getText(InfoSample.Text.USED_MEMORY_HUMAN));
+        assertEquals("allkeys-lru", sample.getText(InfoSample.Text.MAXMEMORY_POLICY));
+        assertEquals("", sample.getText(InfoSample.Text.MEM_ALLOCATOR));
+        assertEquals(5, sample.getParsedFields());
+
+        // 文本内容不变时复用上一次的字符串
+        String policy = sample.getText(InfoSample.Text.MAXMEMORY_POLICY);
+        sample.reset();
+        InfoParser.parse(reply.getBytes(StandardCharsets.US_ASCII), sample);
+        assertSame(policy, sample.getText(InfoSample.Text.MAXMEMORY_POLICY));
+    }
+
+    @Test
+    void convertsReplyToMap() {
+        Map<String, Object> map = InfoParser.toMap(
+                "# Server\r\nredis_version:7.2.4\r\nexecutable:/usr/bin/redis-server\r\nbad line\r\n"
+                        .getBytes(StandardCharsets.UTF_8));
+        assertEquals(2, map.size());
+        assertEquals("7.2.4", map.get("redis_version"));
+        assertEquals("/usr/bin/redis-server", map.get("executable"));
+    }
+
+    private static double parse(String text) {
+        byte[] bytes = ("x" + text + "y").getBytes(StandardCharsets.US_ASCII);
+        return InfoParser.parseNumber(bytes, 1, bytes.length - 1);
+    }
+}
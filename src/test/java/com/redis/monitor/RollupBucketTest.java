@@ -0,0 +1,109 @@
+package com.redis.monitor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 汇总桶对缺失指标的处理和编码兼容性
+ */
+class RollupBucketTest {
+
+    private static final int GAUGE = MonitorMetric.USED_MEMORY.ordinal();
+
+    private static final int COUNTER = MonitorMetric.TOTAL_COMMANDS_PROCESSED.ordinal();
+
+    @Test
+    void skipsMissingValuesPerMetric() {
+        RollupBucket bucket = new RollupBucket(1000L, MonitorMetric.count());
+        bucket.add(sample(Double.NaN, 100), deltas(0));
+        bucket.add(sample(10, 110), deltas(10));
+        bucket.add(sample(20, Double.NaN), deltas(0));
+
+        assertEquals(3, bucket.getCount());
+        assertEquals(2, bucket.getCount(GAUGE));
+        assertEquals(10.0, bucket.getMin(GAUGE));
+        assertEquals(20.0, bucket.getMax(GAUGE));
+        assertEquals(15.0, bucket.getAvg(GAUGE));
+        assertEquals(20.0, bucket.getLast(GAUGE));
+        assertEquals(2, bucket.getCount(COUNTER));
+        assertEquals(110.0, bucket.getLast(COUNTER));
+        assertEquals(10.0, bucket.getDelta(COUNTER));
+
+        // 没有任何样本的指标各汇总值均为NaN
+        int absent = MonitorMetric.EVICTED_KEYS.ordinal();
+        assertEquals(0, bucket.getCount(absent));
+        assertTrue(Double.isNaN(bucket.getAvg(absent)));
+        assertTrue(Double.isNaN(bucket.getLast(absent)));
+    }
+
+    @Test
+    void roundTripsPerMetricCounts() {
+        RollupBucket bucket = new RollupBucket(1000L, MonitorMetric.count());
+        bucket.add(sample(Double.NaN, 100), deltas(0));
+        bucket.add(sample(30, 120), deltas(20));
+
+        RollupBucket decoded = RollupBucket.decode(1000L, bucket.getCount(), bucket.encode(), MonitorMetric.count());
+        assertEquals(1, decoded.getCount(GAUGE));
+        assertEquals(30.0, decoded.getAvg(GAUGE));
+        assertEquals(30.0, decoded.getMin(GAUGE));
+        assertEquals(120.0, decoded.getLast(COUNTER));
+        assertEquals(20.0, decoded.getDelta(COUNTER));
+        assertTrue(Double.isNaN(decoded.getAvg(MonitorMetric.EVICTED_KEYS.ordinal())));
+
+        // 合并时只累加有样本的指标
+        RollupBucket merged = new RollupBucket(0L, MonitorMetric.count());
+        merged.merge(decoded);
+        merged.merge(new RollupBucket(2000L, MonitorMetric.count()));
+        assertEquals(30.0, merged.getLast(GAUGE));
+        assertEquals(1, merged.getCount(GAUGE));
+    }
+
+    @Test
+    void decodesLegacyFormatWithBucketCount() throws IOException {
+        int metrics = GAUGE + 1;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeShort(metrics);
+            for (int i = 0; i < metrics; i++) {
+                if (MonitorMetric.of(i).getKind() == MonitorMetric.Kind.COUNTER) {
+                    out.writeDouble(i);
+                    out.writeDouble(1);
+                } else {
+                    out.writeDouble(i);
+                    out.writeDouble(i + 2);
+                    out.writeDouble(4.0 * (i + 1));
+                    out.writeDouble(i + 1);
+                }
+            }
+        }
+        RollupBucket decoded = RollupBucket.decode(1000L, 4, bytes.toByteArray(), MonitorMetric.count());
+        assertEquals(4, decoded.getCount(GAUGE));
+        assertEquals(GAUGE + 1.0, decoded.getAvg(GAUGE));
+        assertEquals(GAUGE + 2.0, decoded.getMax(GAUGE));
+        // 旧数据中不存在的指标视为没有样本
+        assertEquals(0, decoded.getCount(MonitorMetric.count() - 1));
+        assertTrue(Double.isNaN(decoded.getLast(MonitorMetric.count() - 1)));
+    }
+
+    private static double[] sample(double usedMemory, double totalCommands) {
+        double[] values = new double[MonitorMetric.count()];
+        Arrays.fill(values, Double.NaN);
+        values[GAUGE] = usedMemory;
+        values[COUNTER] = totalCommands;
+        return values;
+    }
+
+    private static double[] deltas(double commands) {
+        double[] deltas = new double[MonitorMetric.count()];
+        deltas[COUNTER] = commands;
+        return deltas;
+    }
+}
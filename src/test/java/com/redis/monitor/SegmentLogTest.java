@@ -0,0 +1,300 @@
+package com.redis.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 段日志的尾部恢复、范围查找边界和时间顺序校验
+ */
+class SegmentLogTest {
+
+    private static final String[] COLUMNS = {"usedMemory", "commandsPerSec"};
+
+    private static final int RECORD_SIZE = 16 + 8 * COLUMNS.length;
+
+    private static final int CAPACITY = 200;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rejectsOutOfOrderTimestamps() throws IOException {
+        SegmentLog log = new SegmentLog(directory, COLUMNS, CAPACITY);
+        assertTrue(log.append(1000L, values(1)));
+        assertTrue(log.append(2000L, values(2)));
+        // 与最后一条相同的时间戳允许写入
+        assertTrue(log.append(2000L, values(3)));
+        assertFalse(log.append(1999L, values(4)));
+        assertFalse(log.append(0L, values(5)));
+        assertFalse(log.append(-1L, values(6)));
+        assertEquals(3, log.count());
+        assertEquals(3, log.getRejectedRecords());
+        assertEquals(2000L, log.lastTimestamp());
+
+        // 重新打开后仍以已写入的最后时间为准
+        log.force();
+        SegmentLog reopened = new SegmentLog(directory, COLUMNS, CAPACITY);
+        assertFalse(reopened.append(1500L, values(7)));
+        assertTrue(reopened.append(2500L, values(8)));
+        assertEquals(4, reopened.count());
+    }
+
+    @Test
+    void scanEdgesAcrossIndexAndSegmentBoundaries() throws IOException {
+        SegmentLog log = new SegmentLog(directory, COLUMNS, CAPACITY);
+        // 3个段，每段跨多个索引间隔，时间戳为 10, 20, ..., 5000
+        int count = 500;
+        for (int n = 1; n <= count; n++) {
+            assertTrue(log.append(n * 10L, values(n)));
+        }
+        assertEquals(3, log.segmentCount());
+
+        assertEquals(range(1, count), forward(log, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(range(1, count), forward(log, 10L, 5000L));
+        // 边界恰好落在索引项(第64、65条)和段首尾(第200、201条)上
+        assertEquals(range(64, 65), forward(log, 640L, 650L));
+        assertEquals(range(200, 201), forward(log, 2000L, 2010L));
+        // 边界落在两条记录之间
+        assertEquals(range(65, 200), forward(log, 641L, 2009L));
+        assertEquals(range(1, 1), forward(log, 0L, 15L));
+        assertEquals(range(count, count), forward(log, 4995L, 9999L));
+        // 范围内没有记录
+        assertTrue(forward(log, 641L, 649L).isEmpty());
+        assertTrue(forward(log, 0L, 9L).isEmpty());
+        assertTrue(forward(log, 5001L, 6000L).isEmpty());
+
+        assertEquals(reverse(range(1, count)), backward(log, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(reverse(range(64, 65)), backward(log, 640L, 650L));
+        assertEquals(reverse(range(200, 201)), backward(log, 2000L, 2010L));
+        assertEquals(reverse(range(65, 200)), backward(log, 641L, 2009L));
+        assertEquals(reverse(range(count, count)), backward(log, 4995L, 9999L));
+        assertTrue(backward(log, 641L, 649L).isEmpty());
+        assertTrue(backward(log, 5001L, 6000L).isEmpty());
+
+        // 回调返回false时停止
+        List<Long> firstTwo = new ArrayList<>();
+        log.scanBackward(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, view) -> {
+            firstTwo.add(timestamp);
+            return firstTwo.size() < 2;
+        });
+        assertEquals(2, firstTwo.size());
+        assertEquals(5000L, (long) firstTwo.get(0));
+    }
+
+    @Test
+    void scanReturnsAllDuplicatesAcrossIndexBoundary() throws IOException {
+        SegmentLog log = new SegmentLog(directory, COLUMNS, CAPACITY);
+        // 第60~70条时间戳相同，跨过第64条的索引项
+        for (int n = 0; n < 130; n++) {
+            long timestamp = n < 60 ? 1000L + n : n <= 70 ? 2000L : 3000L + n;
+            assertTrue(log.append(timestamp, values(n)));
+        }
+        List<Double> forward = new ArrayList<>();
+        log.scan(2000L, 2000L, (timestamp, view) -> forward.add(view.get(0)));
+        List<Double> backward = new ArrayList<>();
+        log.scanBackward(2000L, 2000L, (timestamp, view) -> backward.add(view.get(0)));
+        assertEquals(11, forward.size());
+        assertEquals(60.0, (double) forward.get(0));
+        assertEquals(70.0, (double) forward.get(10));
+        assertEquals(11, backward.size());
+        assertEquals(70.0, (double) backward.get(0));
+        assertEquals(60.0, (double) backward.get(10));
+    }
+
+    @Test
+    void reportsNaNAndUnknownColumnsAsAbsent() throws IOException {
+        SegmentLog log = new SegmentLog(directory, COLUMNS, CAPACITY);
+        log.append(1000L, new double[]{Double.NaN, 5.0});
+        log.force();
+
+        // 新增一列后重新打开，旧段没有该列
+        SegmentLog reopened = new SegmentLog(directory, new String[]{"commandsPerSec", "usedMemory", "evictedKeys"},
+                CAPACITY);
+        List<String> seen = new ArrayList<>();
+        reopened.scan(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, view) -> seen.add(
+                view.has(0) + "/" + view.get(0) + " " + view.has(1) + "/" + view.get(1) + " "
+                        + view.has(2) + "/" + view.get(2)));
+        assertEquals(Collections.singletonList("true/5.0 false/0.0 false/0.0"), seen);
+    }
+
+    @Test
+    void recoversFromCorruptTailRecord() throws IOException {
+        SegmentLog log = new SegmentLog(directory, COLUMNS, CAPACITY);
+        for (int n = 1; n <= 10; n++) {
+            log.append(n * 1000L, values(n));
+        }
+        log.force();
+        Path segment = onlySegment();
+
+        // 改掉最后一条记录的一个值，校验和不再匹配
+        long headerSize = Files.size(segment) - (long) CAPACITY * RECORD_SIZE;
+        writeLong(segment, headerSize + 9L * RECORD_SIZE + 8, Double.doubleToRawLongBits(-1.0));
+
+        SegmentLog reopened = new SegmentLog(directory, COLUMNS, CAPACITY);
+        assertEquals(9, reopened.count());
+        assertEquals(9, reopened.getRecoveredRecords());
+        assertEquals(1, reopened.getTruncatedRecords());
+        assertEquals(9000L, reopened.lastTimestamp());
+
+        // 丢弃的位置可以重新写入，再次打开后数据完整
+        assertTrue(reopened.append(9500L, values(95)));
+        reopened.force();
+        SegmentLog again = new SegmentLog(directory, COLUMNS, CAPACITY);
+        assertEquals(10, again.count());
+        assertEquals(0, again.getTruncatedRecords());
+        List<Double> last = new ArrayList<>();
+        again.scanBackward(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, view) -> {
+            last.add(view.get(0));
+            return false;
+        });
+        assertEquals(95.0, (double) last.get(0));
+    }
+
+    @Test
+    void recoversFromTruncatedFile() throws IOException {
+        SegmentLog log = new SegmentLog(directory, COLUMNS, CAPACITY);
+        for (int n = 1; n <= 10; n++) {
+            log.append(n * 1000L, values(n));
+        }
+        log.force();
+        Path segment = onlySegment();
+
+        // 截断到第10条记录中间，模拟写到一半时断电
+        long headerSize = Files.size(segment) - (long) CAPACITY * RECORD_SIZE;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(headerSize + 9L * RECORD_SIZE + RECORD_SIZE / 2);
+        }
+
+        SegmentLog reopened = new SegmentLog(directory, COLUMNS, CAPACITY);
+        assertEquals(9, reopened.count());
+        assertEquals(9000L, reopened.lastTimestamp());
+        assertEquals(range(1, 9), forward(reopened, Long.MIN_VALUE, Long.MAX_VALUE));
+
+        // 截断后的段已满，新记录写入新段
+        assertTrue(reopened.append(10_000L, values(10)));
+        assertEquals(2, reopened.segmentCount());
+        assertEquals(range(1, 10), forward(reopened, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void setsAsideSegmentWithCorruptHeader() throws IOException {
+        SegmentLog log = new SegmentLog(directory, COLUMNS, CAPACITY);
+        log.append(1000L, values(1));
+        log.force();
+        Path segment = onlySegment();
+        writeLong(segment, 0L, 0L);
+
+        SegmentLog reopened = new SegmentLog(directory, COLUMNS, CAPACITY);
+        assertEquals(0, reopened.count());
+        assertEquals(1, reopened.getCorruptSegments());
+        assertTrue(Files.exists(segment.resolveSibling(segment.getFileName() + ".corrupt")));
+        assertTrue(reopened.append(500L, values(2)));
+    }
+
+    @Test
+    void deleteRemovesDirectoryAndRejectsLaterAppends() throws IOException {
+        Path connection = directory.resolve("7");
+        SegmentLog log = new SegmentLog(connection, COLUMNS, CAPACITY);
+        for (int n = 1; n <= 300; n++) {
+            log.append(n * 1000L, values(n));
+        }
+        Files.write(connection.resolve("meta.properties"), new byte[]{'x'});
+        assertEquals(2, log.segmentCount());
+
+        log.delete();
+        assertFalse(Files.exists(connection));
+        assertEquals(0, log.count());
+        // 删除后迟到的写入不会重建目录
+        assertFalse(log.append(400_000L, values(400)));
+        assertFalse(Files.exists(connection));
+    }
+
+    @Test
+    void dropBeforeRemovesWholeSegmentsOnly() throws IOException {
+        SegmentLog log = new SegmentLog(directory, COLUMNS, CAPACITY);
+        for (int n = 1; n <= 500; n++) {
+            log.append(n * 10L, values(n));
+        }
+        // 第一段最后一条为2000，第二段最后一条为4000
+        assertEquals(0, log.dropBefore(2000L));
+        assertEquals(1, log.dropBefore(2001L));
+        assertEquals(range(201, 500), forward(log, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(2, log.dropBefore(Long.MAX_VALUE));
+        assertEquals(0, log.segmentCount());
+        assertTrue(log.append(6000L, values(600)));
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SegmentLog.SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        assertEquals(1, files.size());
+        return files.get(0);
+    }
+
+    private static void writeLong(Path file, long position, long value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            buffer.putLong(0, value);
+            channel.write(buffer, position);
+        }
+    }
+
+    private static double[] values(int n) {
+        return new double[]{n, n * 0.5};
+    }
+
+    /**
+     * 正向遍历得到的第一列值，即写入时的序号
+     */
+    private static List<Integer> forward(SegmentLog log, long from, long to) {
+        List<Integer> seen = new ArrayList<>();
+        log.scan(from, to, (timestamp, view) -> {
+            assertEquals(view.get(0) * 0.5, view.get(1));
+            seen.add((int) view.get(0));
+            return true;
+        });
+        return seen;
+    }
+
+    private static List<Integer> backward(SegmentLog log, long from, long to) {
+        List<Integer> seen = new ArrayList<>();
+        log.scanBackward(from, to, (timestamp, view) -> {
+            seen.add((int) view.get(0));
+            return true;
+        });
+        return seen;
+    }
+
+    private static List<Integer> range(int first, int last) {
+        List<Integer> values = new ArrayList<>();
+        for (int n = first; n <= last; n++) {
+            values.add(n);
+        }
+        return values;
+    }
+
+    private static List<Integer> reverse(List<Integer> values) {
+        List<Integer> reversed = new ArrayList<>(values);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+}
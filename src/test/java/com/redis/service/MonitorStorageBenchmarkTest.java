@@ -0,0 +1,190 @@
+package com.redis.service;
+
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.MonitorMetric;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 原始记录存储基准测试
+ *
+ * 用同一批合成样本分别测量分区存储(JDBC批量写入H2)和段日志的写入、范围查询、全量扫描和最新记录查询耗时。
+ * 数据写入测试专用的内存H2数据库和临时段目录，不接触运行中的数据。默认跳过，运行方式:
+ * mvn test -Dtest=MonitorStorageBenchmarkTest -Dstorage.benchmark=true
+ * 记录数和批大小可用 -Dstorage.benchmark.records、-Dstorage.benchmark.batch-size 调整。
+ */
+@Slf4j
+@DataJpaTest
+@Import({RedisMonitorPartitionStore.class, RedisMonitorSegmentStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "storage.benchmark", matches = "true")
+class MonitorStorageBenchmarkTest {
+
+    private static final Long CONNECTION_ID = 1L;
+
+    /** 合成样本的时间间隔(毫秒) */
+    private static final long SAMPLE_STEP_MILLIS = 100L;
+
+    private static final int RANGE_QUERIES = 100;
+
+    private static final int RANGE_LIMIT = 500;
+
+    private static final int LATEST_QUERIES = 1000;
+
+    private static final MonitorMetric[] METRICS = MonitorMetric.values();
+
+    private static final Path SEGMENT_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"),
+            "monitor-segments-benchmark-" + System.nanoTime());
+
+    @Autowired
+    private RedisMonitorPartitionStore partitionStore;
+
+    @Autowired
+    private RedisMonitorSegmentStore segmentStore;
+
+    @DynamicPropertySource
+    static void segmentDirectory(DynamicPropertyRegistry registry) {
+        registry.add("app.redis.monitoring.segment.directory", SEGMENT_DIRECTORY::toString);
+    }
+
+    @AfterAll
+    static void deleteSegmentDirectory() throws IOException {
+        if (!Files.exists(SEGMENT_DIRECTORY)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(SEGMENT_DIRECTORY)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void compareStores() throws IOException {
+        int count = Integer.getInteger("storage.benchmark.records", 50000);
+        int batchSize = Integer.getInteger("storage.benchmark.batch-size", 500);
+        List<RedisMonitorRecord> samples = generate(count);
+
+        Map<String, Object> partition = measure(partitionStore, samples, batchSize);
+        Map<String, Object> segment = measure(segmentStore, samples, batchSize);
+
+        log.info("存储基准测试: {} 条记录，每批 {} 条，{} 个指标", count, batchSize, METRICS.length);
+        log.info("分区存储: {}", partition);
+        log.info("段日志: {}", segment);
+        log.info("段日志相对分区存储: 写入 {} 倍，扫描 {} 倍，范围查询 {} 倍，最新记录 {} 倍",
+                ratio(segment, partition, "appendRecordsPerSecond"),
+                ratio(segment, partition, "scanRecordsPerSecond"),
+                ratio(partition, segment, "rangeQueryAvgMillis"),
+                ratio(partition, segment, "latestQueryAvgMicros"));
+        assertEquals((long) count, partition.get("scannedRecords"));
+        assertEquals((long) count, segment.get("scannedRecords"));
+    }
+
+    private Map<String, Object> measure(MonitorRecordStore store, List<RedisMonitorRecord> samples, int batchSize)
+            throws IOException {
+        long start = System.nanoTime();
+        for (int from = 0; from < samples.size(); from += batchSize) {
+            store.append(samples.subList(from, Math.min(samples.size(), from + batchSize)));
+        }
+        long appendNanos = elapsed(start);
+
+        // 随机取1%长度的时间窗口，按时间倒序最多取 RANGE_LIMIT 条，与监控页面的查询方式一致
+        Random random = new Random(42);
+        long firstMillis = RedisMetricStore.toEpochMillis(samples.get(0).getRecordTime());
+        long windowMillis = Math.max(SAMPLE_STEP_MILLIS, samples.size() * SAMPLE_STEP_MILLIS / 100);
+        long rangeRows = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < RANGE_QUERIES; i++) {
+            long from = firstMillis + (long) (random.nextDouble() * (samples.size() * SAMPLE_STEP_MILLIS - windowMillis));
+            rangeRows += store.findRange(CONNECTION_ID, RedisMetricStore.toLocalDateTime(from),
+                    RedisMetricStore.toLocalDateTime(from + windowMillis), RANGE_LIMIT).size();
+        }
+        long rangeNanos = elapsed(start);
+
+        // 全量扫描只读一个指标，与历史查询降采样时的访问方式一致
+        long[] scanned = new long[1];
+        double[] checksum = new double[1];
+        int column = MonitorMetric.USED_MEMORY.ordinal();
+        long lastMillis = RedisMetricStore.toEpochMillis(samples.get(samples.size() - 1).getRecordTime());
+        start = System.nanoTime();
+        store.scanSamples(CONNECTION_ID, firstMillis, lastMillis, (timestamp, values) -> {
+            checksum[0] += values.get(column);
+            scanned[0]++;
+        });
+        long scanNanos = elapsed(start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < LATEST_QUERIES; i++) {
+            store.findRecent(CONNECTION_ID, 1);
+        }
+        long latestNanos = elapsed(start);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("storage", store.getName());
+        result.put("appendMillis", TimeUnit.NANOSECONDS.toMillis(appendNanos));
+        result.put("appendRecordsPerSecond", Math.round(samples.size() * 1e9 / appendNanos));
+        result.put("rangeRows", rangeRows);
+        result.put("rangeQueryAvgMillis", rangeNanos / 1e6 / RANGE_QUERIES);
+        result.put("scannedRecords", scanned[0]);
+        result.put("scanMillis", TimeUnit.NANOSECONDS.toMillis(scanNanos));
+        result.put("scanRecordsPerSecond", Math.round(scanned[0] * 1e9 / scanNanos));
+        result.put("latestQueryAvgMicros", latestNanos / 1e3 / LATEST_QUERIES);
+        result.put("checksum", checksum[0]);
+        return result;
+    }
+
+    /**
+     * 时间连续、各指标取值不同的合成样本，最后一条为当前时间
+     */
+    private static List<RedisMonitorRecord> generate(int count) {
+        long first = System.currentTimeMillis() - (count - 1) * SAMPLE_STEP_MILLIS;
+        Random random = new Random(7);
+        List<RedisMonitorRecord> samples = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            RedisMonitorRecord record = new RedisMonitorRecord();
+            record.setConnectionId(CONNECTION_ID);
+            record.setConnectionName("benchmark");
+            record.setRecordTime(RedisMetricStore.toLocalDateTime(first + n * SAMPLE_STEP_MILLIS));
+            record.setMaxmemoryPolicy("noeviction");
+            record.setMemAllocator("jemalloc");
+            for (MonitorMetric metric : METRICS) {
+                double value = metric.getKind() == MonitorMetric.Kind.COUNTER
+                        ? n * (metric.ordinal() + 1L) : random.nextInt(1_000_000);
+                metric.write(record, value);
+            }
+            samples.add(record);
+        }
+        return samples;
+    }
+
+    private static double ratio(Map<String, Object> numerator, Map<String, Object> denominator, String key) {
+        double bottom = ((Number) denominator.get(key)).doubleValue();
+        return bottom > 0 ? Math.round(((Number) numerator.get(key)).doubleValue() / bottom * 100) / 100.0 : 0.0;
+    }
+
+    private static long elapsed(long start) {
+        return Math.max(1L, System.nanoTime() - start);
+    }
+}
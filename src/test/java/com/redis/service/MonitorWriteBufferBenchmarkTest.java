@@ -0,0 +1,165 @@
+package com.redis.service;
+
+import com.redis.entity.RedisMonitorRecord;
+import com.redis.monitor.MonitorMetric;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 监控记录写入吞吐基准测试
+ *
+ * 模拟多个采集线程同时采集大量实例，比较两种写入方式的吞吐:
+ * 每个样本单独写入一次(引入写入缓冲之前的方式)，以及经写入缓冲攒批后批量写入。
+ * 数据写入测试专用的内存H2数据库。默认跳过，运行方式:
+ * mvn test -Dtest=MonitorWriteBufferBenchmarkTest -Dstorage.benchmark=true
+ * 实例数、每个实例的样本数和采集线程数可用 -Dstorage.benchmark.instances、
+ * -Dstorage.benchmark.samples-per-instance、-Dstorage.benchmark.collectors 调整。
+ */
+@Slf4j
+@DataJpaTest
+@Import(RedisMonitorPartitionStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "storage.benchmark", matches = "true")
+class MonitorWriteBufferBenchmarkTest {
+
+    private static final MonitorMetric[] METRICS = MonitorMetric.values();
+
+    @Autowired
+    private RedisMonitorPartitionStore partitionStore;
+
+    @Test
+    void compareDirectAndBufferedWrites() throws Exception {
+        int instances = Integer.getInteger("storage.benchmark.instances", 500);
+        int perInstance = Integer.getInteger("storage.benchmark.samples-per-instance", 20);
+        int collectors = Integer.getInteger("storage.benchmark.collectors", 16);
+        long total = (long) instances * perInstance;
+
+        // 两轮使用不同的时间段，互不覆盖
+        long now = System.currentTimeMillis();
+        Map<String, Object> direct = run(collectors, instances, perInstance, now - 2 * 3_600_000L,
+                record -> partitionStore.append(Collections.singletonList(record)));
+
+        RedisMonitorWriteBuffer buffer = newBuffer(total);
+        long start = System.nanoTime();
+        Map<String, Object> buffered = run(collectors, instances, perInstance, now - 3_600_000L, buffer::enqueue);
+        // 等写线程把队列中的记录全部写完
+        while (written(buffer) < total) {
+            Thread.sleep(5);
+        }
+        long bufferedNanos = Math.max(1L, System.nanoTime() - start);
+        buffered.put("drainedMillis", TimeUnit.NANOSECONDS.toMillis(bufferedNanos));
+        buffered.put("drainedRecordsPerSecond", Math.round(total * 1e9 / bufferedNanos));
+        buffered.putAll(buffer.getStatistics());
+        buffer.shutdown();
+
+        log.info("写入吞吐基准测试: {} 个实例，每实例 {} 个样本，{} 个采集线程，共 {} 条",
+                instances, perInstance, collectors, total);
+        log.info("逐条写入: {}", direct);
+        log.info("写入缓冲: {}", buffered);
+        log.info("写入缓冲相对逐条写入: 采集线程提交 {} 倍，全部落库 {} 倍",
+                ratio(buffered.get("recordsPerSecond"), direct.get("recordsPerSecond")),
+                ratio(buffered.get("drainedRecordsPerSecond"), direct.get("recordsPerSecond")));
+        assertEquals(0L, buffered.get("droppedRecords"));
+        assertEquals(0L, buffered.get("failedRecords"));
+        assertEquals(total, buffered.get("flushedRecords"));
+    }
+
+    @FunctionalInterface
+    private interface Sink {
+        void accept(RedisMonitorRecord record) throws Exception;
+    }
+
+    /**
+     * 采集线程按轮次采集各自负责的实例，每轮每个实例产生一个样本，返回采集线程提交全部样本的耗时
+     */
+    private Map<String, Object> run(int collectors, int instances, int perInstance, long firstMillis, Sink sink)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(collectors);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < collectors; c++) {
+            final int collector = c;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(collector);
+                for (int round = 0; round < perInstance; round++) {
+                    for (int instance = collector; instance < instances; instance += collectors) {
+                        sink.accept(sample(instance + 1L, firstMillis + round * 1000L, round, random));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long nanos = Math.max(1L, System.nanoTime() - start);
+        executor.shutdown();
+
+        long total = (long) instances * perInstance;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("submitMillis", TimeUnit.NANOSECONDS.toMillis(nanos));
+        result.put("recordsPerSecond", Math.round(total * 1e9 / nanos));
+        result.put("submitAvgMicros", nanos / 1e3 / total * collectors);
+        return result;
+    }
+
+    private RedisMonitorWriteBuffer newBuffer(long total) {
+        RedisMonitorWriteBuffer buffer = new RedisMonitorWriteBuffer();
+        ReflectionTestUtils.setField(buffer, "recordStore", partitionStore);
+        ReflectionTestUtils.setField(buffer, "meterRegistry", new SimpleMeterRegistry());
+        // 容量足够容纳全部样本，测量的是写入能力而不是丢弃策略
+        ReflectionTestUtils.setField(buffer, "capacity", (int) Math.min(Integer.MAX_VALUE, total));
+        ReflectionTestUtils.setField(buffer, "batchSize", Integer.getInteger("storage.benchmark.batch-size", 500));
+        ReflectionTestUtils.setField(buffer, "flushIntervalMillis", 200L);
+        ReflectionTestUtils.setField(buffer, "overflowPolicy", RedisMonitorWriteBuffer.OverflowPolicy.BLOCK);
+        ReflectionTestUtils.setField(buffer, "blockTimeoutMillis", 60_000L);
+        buffer.init();
+        return buffer;
+    }
+
+    private static long written(RedisMonitorWriteBuffer buffer) {
+        Map<String, Object> statistics = buffer.getStatistics();
+        return (Long) statistics.get("flushedRecords") + (Long) statistics.get("failedRecords");
+    }
+
+    private static RedisMonitorRecord sample(Long connectionId, long millis, int round, Random random) {
+        RedisMonitorRecord record = new RedisMonitorRecord();
+        record.setConnectionId(connectionId);
+        record.setConnectionName("benchmark-" + connectionId);
+        record.setRecordTime(RedisMetricStore.toLocalDateTime(millis));
+        record.setMaxmemoryPolicy("noeviction");
+        record.setMemAllocator("jemalloc");
+        for (MonitorMetric metric : METRICS) {
+            double value = metric.getKind() == MonitorMetric.Kind.COUNTER
+                    ? round * (metric.ordinal() + 1L) : random.nextInt(1_000_000);
+            metric.write(record, value);
+        }
+        return record;
+    }
+
+    private static double ratio(Object numerator, Object denominator) {
+        double bottom = ((Number) denominator).doubleValue();
+        return bottom > 0 ? Math.round(((Number) numerator).doubleValue() / bottom * 100) / 100.0 : 0.0;
+    }
+}
@@ -0,0 +1,205 @@
+package com.redis.service;
+
+import com.redis.entity.RedisMonitorRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 写入缓冲在队列满时的三种处理策略
+ *
+ * 存储的写入被阻塞住，写线程取走第一条记录后停在写入上，之后的记录全部留在队列中，
+ * 队列是否已满由测试确定地控制。
+ */
+class RedisMonitorWriteBufferTest {
+
+    private static final int CAPACITY = 3;
+
+    private static final long BLOCK_TIMEOUT_MILLIS = 200L;
+
+    @Test
+    void dropOldestEvictsHeadOfQueue() throws InterruptedException {
+        BlockingStore store = new BlockingStore();
+        RedisMonitorWriteBuffer buffer = start(store, RedisMonitorWriteBuffer.OverflowPolicy.DROP_OLDEST);
+        fillQueue(buffer, store);
+
+        assertTrue(buffer.enqueue(record(4)));
+        assertTrue(buffer.enqueue(record(5)));
+        assertEquals(2L, buffer.getStatistics().get("droppedRecords"));
+        assertEquals(6L, buffer.getStatistics().get("enqueuedRecords"));
+
+        store.release();
+        buffer.shutdown();
+        // 第1、2条被挤出，保留最新的样本
+        assertEquals(Arrays.asList(0L, 3L, 4L, 5L), store.written());
+    }
+
+    @Test
+    void dropNewestRejectsIncomingRecord() throws InterruptedException {
+        BlockingStore store = new BlockingStore();
+        RedisMonitorWriteBuffer buffer = start(store, RedisMonitorWriteBuffer.OverflowPolicy.DROP_NEWEST);
+        fillQueue(buffer, store);
+
+        assertFalse(buffer.enqueue(record(4)));
+        assertFalse(buffer.enqueue(record(5)));
+        assertEquals(2L, buffer.getStatistics().get("droppedRecords"));
+        assertEquals(4L, buffer.getStatistics().get("enqueuedRecords"));
+
+        store.release();
+        buffer.shutdown();
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L), store.written());
+    }
+
+    @Test
+    void blockWaitsForSpaceUntilTimeout() throws InterruptedException {
+        BlockingStore store = new BlockingStore();
+        RedisMonitorWriteBuffer buffer = start(store, RedisMonitorWriteBuffer.OverflowPolicy.BLOCK);
+        fillQueue(buffer, store);
+
+        // 队列一直满着，等到超时后丢弃
+        long start = System.nanoTime();
+        assertFalse(buffer.enqueue(record(4)));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= BLOCK_TIMEOUT_MILLIS - 10);
+        assertEquals(1L, buffer.getStatistics().get("droppedRecords"));
+
+        // 等待期间写线程腾出空间，采集线程被唤醒并写入
+        AtomicBoolean accepted = new AtomicBoolean();
+        CountDownLatch blocked = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            blocked.countDown();
+            accepted.set(buffer.enqueue(record(5)));
+        });
+        ReflectionTestUtils.setField(buffer, "blockTimeoutMillis", 5000L);
+        producer.start();
+        blocked.await();
+        Thread.sleep(50);
+        store.release();
+        producer.join(5000);
+        assertTrue(accepted.get());
+
+        buffer.shutdown();
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 5L), store.written());
+        assertEquals(1L, buffer.getStatistics().get("droppedRecords"));
+    }
+
+    private static RedisMonitorWriteBuffer start(MonitorRecordStore store, RedisMonitorWriteBuffer.OverflowPolicy policy) {
+        RedisMonitorWriteBuffer buffer = new RedisMonitorWriteBuffer();
+        ReflectionTestUtils.setField(buffer, "recordStore", store);
+        ReflectionTestUtils.setField(buffer, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(buffer, "capacity", CAPACITY);
+        ReflectionTestUtils.setField(buffer, "batchSize", 1);
+        ReflectionTestUtils.setField(buffer, "flushIntervalMillis", 50L);
+        ReflectionTestUtils.setField(buffer, "overflowPolicy", policy);
+        ReflectionTestUtils.setField(buffer, "blockTimeoutMillis", BLOCK_TIMEOUT_MILLIS);
+        buffer.init();
+        return buffer;
+    }
+
+    /**
+     * 第0条被写线程取走并阻塞在写入上，第1~3条填满队列
+     */
+    private static void fillQueue(RedisMonitorWriteBuffer buffer, BlockingStore store) throws InterruptedException {
+        assertTrue(buffer.enqueue(record(0)));
+        assertTrue(store.entered.await(5, TimeUnit.SECONDS));
+        for (long id = 1; id <= CAPACITY; id++) {
+            assertTrue(buffer.enqueue(record(id)));
+        }
+        assertEquals(CAPACITY, buffer.getStatistics().get("queued"));
+    }
+
+    private static RedisMonitorRecord record(long id) {
+        RedisMonitorRecord record = new RedisMonitorRecord();
+        record.setId(id);
+        record.setConnectionId(1L);
+        record.setRecordTime(LocalDateTime.now());
+        return record;
+    }
+
+    /**
+     * 写入在 release() 之前一直阻塞的存储，只记录写入顺序
+     */
+    private static class BlockingStore implements MonitorRecordStore {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private final List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+
+        void release() {
+            released.countDown();
+        }
+
+        List<Long> written() {
+            return new ArrayList<>(ids);
+        }
+
+        @Override
+        public String getName() {
+            return "blocking";
+        }
+
+        @Override
+        public void append(List<RedisMonitorRecord> records) {
+            entered.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (RedisMonitorRecord record : records) {
+                ids.add(record.getId());
+            }
+        }
+
+        @Override
+        public List<RedisMonitorRecord> findRange(Long connectionId, LocalDateTime startTime, LocalDateTime endTime,
+                                                  int limit) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<RedisMonitorRecord> findRecent(Long connectionId, int limit) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void scan(Long connectionId, LocalDateTime startTime, LocalDateTime endTime, RecordHandler handler) {
+        }
+
+        @Override
+        public List<RedisMonitorRecord> findLatestPerConnection() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<Long, Long> countByConnection() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public int dropBefore(LocalDateTime cutoff) {
+            return 0;
+        }
+
+        @Override
+        public Map<String, Object> getStatistics() {
+            return new HashMap<>();
+        }
+    }
+}